@@ -0,0 +1,109 @@
+package com.prueba.cuenta.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.service.admission.AdmissionControlService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Aplica el control de admisión a las escrituras de cuentas y movimientos. Las
+ * solicitudes que no obtienen cupo reciben 429 con {@code Retry-After}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String IMPORT_PATH = "/cuentas/importacion";
+
+    private final AdmissionControlService admissionControlService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!admissionControlService.isEnabled()) {
+            return true;
+        }
+        String method = request.getMethod();
+        if (!"POST".equals(method) && !"PUT".equals(method)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(IMPORT_PATH)) {
+            return true;
+        }
+        return !(path.startsWith("/cuentas") || path.startsWith("/movimientos"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdmissionControlService.Permit permit = admissionControlService.tryAdmit();
+        if (permit == null) {
+            reject(response);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean releasedAsync = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitReleaseListener(permit, started, response));
+                releasedAsync = true;
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.release(System.nanoTime() - started, true);
+            throw e;
+        } finally {
+            if (!releasedAsync) {
+                permit.release(System.nanoTime() - started, response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ApiResponseClient<Object> body = new ApiResponseClient<>(null,
+                new ResponseProcess("429", "Servicio saturado, intente nuevamente", "ERROR"));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionControlService.getShedRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private record PermitReleaseListener(AdmissionControlService.Permit permit, long started,
+                                         HttpServletResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release(System.nanoTime() - started, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release(System.nanoTime() - started, true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release(System.nanoTime() - started, true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
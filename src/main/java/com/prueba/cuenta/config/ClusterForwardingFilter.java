@@ -0,0 +1,287 @@
+package com.prueba.cuenta.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.prueba.cuenta.service.cluster.ClusterMembership;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * En modo clúster, reenvía al nodo dueño las solicitudes de una cuenta que no
+ * pertenece a este nodo y copia su respuesta tal cual. Una solicitud ya
+ * reenviada se atiende siempre localmente, aunque los nodos no coincidan
+ * todavía en la lista de miembros, para no reenviarla en círculo.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ClusterForwardingFilter extends OncePerRequestFilter {
+
+    public static final String FORWARDED_HEADER = "X-Cuenta-Reenviado";
+    public static final String OWNER_HEADER = "X-Cuenta-Nodo";
+
+    private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+    private static final Pattern ACCOUNT_PATH = Pattern.compile("^/cuentas/(\\d+)(/saldo)?$");
+    private static final Pattern MOVEMENTS_PATH = Pattern.compile("^/movimientos/(\\d+)$");
+    private static final String TRANSFERS_PATH = "/movimientos/transferencias";
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "host", "content-length");
+    private static final MediaType SMILE = MediaType.parseMediaType(BinaryContentConfig.APPLICATION_SMILE_VALUE);
+    // Solo se lee el número de cuenta; no hace falta la configuración de la aplicación
+    private static final ObjectMapper CBOR_READER = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper SMILE_READER = new ObjectMapper(new SmileFactory());
+
+    private final ClusterMembership clusterMembership;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cuenta.cluster.timeout-ms:5000}")
+    private long forwardTimeoutMillis;
+
+    public ClusterForwardingFilter(ClusterMembership clusterMembership,
+                                   WebClient.Builder webClientBuilder,
+                                   ObjectMapper objectMapper,
+                                   @Value("${cuenta.cluster.max-respuesta-mb:16}") int maxResponseMegabytes) {
+        this.clusterMembership = clusterMembership;
+        // Los reportes pueden superar el límite por defecto de 256 KB en memoria
+        this.webClient = webClientBuilder
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseMegabytes * 1024 * 1024))
+                .build();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !clusterMembership.isEnabled() || request.getHeader(FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        byte[] body = hasAccountInBody(request, path) ? request.getInputStream().readAllBytes() : null;
+
+        Optional<String> owner = accountOf(request, path, body).flatMap(clusterMembership::remoteOwnerOf);
+        if (owner.isPresent()) {
+            forward(owner.get(), request, body, response);
+            return;
+        }
+        filterChain.doFilter(body == null ? request : new CachedBodyRequest(request, body), response);
+    }
+
+    // Métodos privados auxiliares
+    private boolean hasAccountInBody(HttpServletRequest request, String path) {
+        return "POST".equals(request.getMethod())
+                && ("/cuentas".equals(path) || "/movimientos".equals(path) || TRANSFERS_PATH.equals(path));
+    }
+
+    private Optional<Integer> accountOf(HttpServletRequest request, String path, byte[] body) {
+        Matcher accountPath = ACCOUNT_PATH.matcher(path);
+        if (accountPath.matches()) {
+            return parse(accountPath.group(1));
+        }
+        if ("/movimientos/reporte".equals(path)) {
+            return parse(request.getParameter("cuentaId"));
+        }
+        Matcher movementsPath = MOVEMENTS_PATH.matcher(path);
+        if (movementsPath.matches()) {
+            return parse(movementsPath.group(1));
+        }
+        if (body != null) {
+            try {
+                JsonNode json = bodyReader(request.getContentType()).readTree(body);
+                return parse(json.path(accountField(path)).asText(null));
+            } catch (IOException | InvalidMediaTypeException e) {
+                // Cuerpo inválido: se atiende localmente y lo rechaza la validación
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String accountField(String path) {
+        if ("/cuentas".equals(path)) {
+            return "numeroCuenta";
+        }
+        // La transferencia la atiende el dueño de la cuenta que se debita
+        return TRANSFERS_PATH.equals(path) ? "cuentaOrigen" : "cuentaId";
+    }
+
+    private ObjectMapper bodyReader(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+                return CBOR_READER;
+            }
+            if (SMILE.isCompatibleWith(mediaType)) {
+                return SMILE_READER;
+            }
+        }
+        return objectMapper;
+    }
+
+    private Optional<Integer> parse(String value) {
+        try {
+            return value == null ? Optional.empty() : Optional.of(Integer.valueOf(value.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void forward(String owner, HttpServletRequest request, byte[] body, HttpServletResponse response)
+            throws IOException {
+        String query = request.getQueryString();
+        URI target = URI.create(owner + request.getRequestURI() + (query != null ? "?" + query : ""));
+        log.info("Reenviando {} {} al nodo dueño {}", request.getMethod(), request.getRequestURI(), owner);
+
+        ResponseEntity<byte[]> forwarded;
+        try {
+            WebClient.RequestBodySpec spec = webClient.method(HttpMethod.valueOf(request.getMethod()))
+                    .uri(target)
+                    .headers(headers -> {
+                        copyRequestHeaders(request, headers);
+                        headers.set(FORWARDED_HEADER, clusterMembership.getLocalNode());
+                        String correlationId = MDC.get("uuid");
+                        if (correlationId != null) {
+                            headers.set(CORRELATION_ID_HEADER, correlationId);
+                        }
+                    });
+            forwarded = (body != null ? spec.bodyValue(body) : spec)
+                    .exchangeToMono(clientResponse -> clientResponse.toEntity(byte[].class))
+                    .block(Duration.ofMillis(forwardTimeoutMillis));
+        } catch (RuntimeException e) {
+            log.error("No se pudo reenviar la solicitud al nodo {}: {}", owner, e.getMessage());
+            rejectUnavailable(owner, response);
+            return;
+        }
+
+        response.setStatus(forwarded.getStatusCode().value());
+        forwarded.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.setHeader(OWNER_HEADER, owner);
+        byte[] responseBody = forwarded.getBody();
+        if (responseBody != null) {
+            response.setContentLength(responseBody.length);
+            response.getOutputStream().write(responseBody);
+        }
+    }
+
+    private void copyRequestHeaders(HttpServletRequest request, HttpHeaders headers) {
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+    }
+
+    private void rejectUnavailable(String owner, HttpServletResponse response) throws IOException {
+        ApiResponseClient<Object> body = new ApiResponseClient<>(null,
+                new ResponseProcess("503", "Nodo dueño de la cuenta no disponible", "ERROR"));
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setHeader(OWNER_HEADER, owner);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Solicitud cuyo cuerpo ya se leyó para ubicar la cuenta.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
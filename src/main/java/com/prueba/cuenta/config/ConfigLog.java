@@ -3,12 +3,15 @@ package com.prueba.cuenta.config;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.UUID;
 
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class ConfigLog implements Filter {
 
     private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
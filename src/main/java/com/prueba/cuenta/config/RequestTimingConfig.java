@@ -0,0 +1,42 @@
+package com.prueba.cuenta.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.service.timing.RepositoryTimingInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Puntos de medición de {@link com.prueba.cuenta.service.timing.RequestTiming}:
+ * los repositorios de Spring Data y el conversor JSON de las respuestas.
+ */
+@Configuration
+public class RequestTimingConfig {
+
+    /**
+     * Agrega {@link RepositoryTimingInterceptor} como primer consejo del proxy de
+     * cada repositorio, antes de que se cree.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(0,
+                                    new RepositoryTimingInterceptor(information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Reemplaza al conversor JSON por defecto de Spring Boot
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJsonHttpMessageConverter(objectMapper);
+    }
+}
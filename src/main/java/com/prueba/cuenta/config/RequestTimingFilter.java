@@ -0,0 +1,84 @@
+package com.prueba.cuenta.config;
+
+import com.prueba.cuenta.service.timing.RequestTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Elige las solicitudes a medir (muestreo, o todas si se devuelve
+ * {@code Server-Timing}) y publica su {@link RequestTiming} en cada despacho,
+ * también en el despacho asíncrono que escribe la respuesta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private static final String TIMING_ATTRIBUTE = RequestTiming.class.getName();
+    private static final String MDC_UUID_KEY = "uuid";
+
+    @Value("${cuenta.tiempos.habilitado:true}")
+    private boolean enabled;
+
+    @Value("${cuenta.tiempos.muestreo:0.01}")
+    private double sampleRate;
+
+    @Value("${cuenta.tiempos.server-timing:false}")
+    private boolean serverTiming;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTiming timing = (RequestTiming) request.getAttribute(TIMING_ATTRIBUTE);
+        if (timing == null && !isAsyncDispatch(request)
+                && (serverTiming || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            timing = new RequestTiming(MDC.get(MDC_UUID_KEY), serverTiming);
+            request.setAttribute(TIMING_ATTRIBUTE, timing);
+        }
+        if (timing == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTiming previous = RequestTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTiming.restore(previous);
+            if (!request.isAsyncStarted()) {
+                // Respuestas sin cuerpo JSON (p. ej. 304): el encabezado se agrega aquí
+                if (timing.isServerTiming() && !response.isCommitted()
+                        && !response.containsHeader(RequestTiming.SERVER_TIMING_HEADER)) {
+                    response.setHeader(RequestTiming.SERVER_TIMING_HEADER, timing.serverTimingHeader());
+                }
+                timing.finish(request.getMethod(), route(request), response.getStatus());
+            }
+        }
+    }
+
+    private String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
@@ -0,0 +1,69 @@
+package com.prueba.cuenta.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.service.timing.RequestTiming;
+import com.prueba.cuenta.service.timing.TimingPhase;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Conversor JSON que mide la serialización de las solicitudes muestreadas.
+ * Con {@code Server-Timing} activo, serializa primero a memoria para poder
+ * incluir esa fase en el encabezado antes de escribir el cuerpo.
+ */
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        String operation = object.getClass().getSimpleName();
+        if (!timing.isServerTiming()) {
+            RequestTiming.PhaseTimer timer = timing.start(TimingPhase.SERIALIZACION, operation);
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                timer.stop();
+            }
+            return;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        RequestTiming.PhaseTimer timer = timing.start(TimingPhase.SERIALIZACION, operation);
+        try {
+            super.writeInternal(object, type, new BufferedOutputMessage(outputMessage.getHeaders(), buffer));
+        } finally {
+            timer.stop();
+        }
+        outputMessage.getHeaders().set(RequestTiming.SERVER_TIMING_HEADER, timing.serverTimingHeader());
+        buffer.writeTo(outputMessage.getBody());
+    }
+
+    private record BufferedOutputMessage(HttpHeaders headers, OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.prueba.cuenta.controller;
 
 import com.prueba.cuenta.dto.AccountDTO;
+import com.prueba.cuenta.dto.BalanceDTO;
 import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.service.AccountImportService;
 import com.prueba.cuenta.service.AccountService;
+import com.prueba.cuenta.service.ResourceVersionService;
+import com.prueba.cuenta.service.admission.AdmissionControlService;
+import com.prueba.cuenta.service.snapshot.AccountSnapshotService;
+import com.prueba.cuenta.service.warmup.AccessProfile;
 import com.prueba.cuenta.utils.ApiResponseClient;
 import com.prueba.cuenta.utils.ResponseProcess;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,13 +17,22 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -28,6 +43,21 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private AccessProfile accessProfile;
+
+    @Autowired
+    private AccountSnapshotService accountSnapshotService;
+
     @Operation(summary = "Crear una nueva cuenta", description = "Crea una nueva cuenta con los datos proporcionados")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Cuenta creada exitosamente",
@@ -54,6 +84,19 @@ public class AccountController {
                 });
     }
 
+    @Operation(summary = "Importación masiva de cuentas", description = "Crea cuentas desde un archivo CSV o NDJSON y devuelve el resultado de cada fila en NDJSON")
+    @PostMapping(value = "/importacion", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importAccounts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AccountImportService.ImportFormat format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? AccountImportService.ImportFormat.NDJSON
+                : AccountImportService.ImportFormat.CSV;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        accountImportService.importAccounts(request.getInputStream(), format, response.getOutputStream());
+    }
+
     @Operation(summary = "Obtener todas las cuentas", description = "Obtiene una lista de todas las cuentas registradas")
     @GetMapping
     public Mono<ResponseEntity<ApiResponseClient<List<Account>>>> getAllAccounts() {
@@ -66,16 +109,37 @@ public class AccountController {
                 });
     }
 
+    @Operation(summary = "Descargar la instantánea columnar de cuentas",
+            description = "Devuelve el último archivo columnar con número, tipo, estado, cliente y saldo de todas las cuentas; gzip si se acepta y está habilitado")
+    @GetMapping("/instantanea")
+    public void downloadSnapshot(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AccountSnapshotService.SnapshotFile snapshot = accountSnapshotService
+                .latest(acceptEncoding != null && acceptEncoding.contains("gzip"))
+                .orElseThrow(() -> new EntityNotFoundException("La instantánea de cuentas no está disponible"));
+        // checkNotModified deja el 304 y el ETag en la respuesta; en otro caso el archivo se escribe directo en ella
+        if (!webRequest.checkNotModified(snapshot.eTag())) {
+            accountSnapshotService.send(snapshot, request, response);
+        }
+    }
+
     @Operation(summary = "Obtener una cuenta por ID", description = "Obtiene una cuenta específica por su número de cuenta")
     @GetMapping("/{numeroCuenta}")
-    public Mono<ResponseEntity<ApiResponseClient<Account>>> getAccountById(@PathVariable Integer numeroCuenta) {
+    public Mono<ResponseEntity<ApiResponseClient<Account>>> getAccountById(@PathVariable Integer numeroCuenta,
+                                                                           WebRequest webRequest) {
+        accessProfile.record(numeroCuenta);
+        String eTag = resourceVersionService.accountETag(numeroCuenta).orElse(null);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
         return accountService.getAccountById(numeroCuenta)
                 .map(response -> {
                     if (response.getResponseProcess() != null &&
                             !"0".equals(response.getResponseProcess().getCode())) {
                         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
                     }
-                    return new ResponseEntity<>(response, HttpStatus.OK);
+                    return ResponseEntity.ok().eTag(eTag).body(response);
                 })
                 .onErrorResume(e -> {
                     ResponseProcess responseProcess = new ResponseProcess("1", e.getMessage(), "ERROR");
@@ -84,11 +148,40 @@ public class AccountController {
                 });
     }
 
+    @Operation(summary = "Saldo de una cuenta a una fecha", description = "Obtiene el saldo de una cuenta al cierre de la fecha indicada")
+    @GetMapping("/{numeroCuenta}/saldo")
+    public Mono<ResponseEntity<ApiResponseClient<BalanceDTO>>> getBalanceAt(
+            @PathVariable Integer numeroCuenta,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        accessProfile.record(numeroCuenta);
+        return accountService.getBalanceAt(numeroCuenta, fecha)
+                .map(response -> {
+                    if (response.getResponseProcess() != null &&
+                            !"0".equals(response.getResponseProcess().getCode())) {
+                        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+                    }
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .onErrorResume(e -> {
+                    ResponseProcess responseProcess = new ResponseProcess("1", e.getMessage(), "ERROR");
+                    ApiResponseClient<BalanceDTO> errorResponse = new ApiResponseClient<>(null, responseProcess);
+                    return Mono.just(new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR));
+                });
+    }
+
     @Operation(summary = "Actualizar una cuenta", description = "Actualiza una cuenta existente con los datos proporcionados")
     @PutMapping("/{numeroCuenta}")
     public Mono<ResponseEntity<ApiResponseClient<Account>>> updateAccount(
             @PathVariable Integer numeroCuenta,
             @Valid @RequestBody AccountDTO accountDTO) {
+        long retryAfter = admissionControlService.checkAccountRate(String.valueOf(numeroCuenta));
+        if (retryAfter > 0) {
+            ResponseProcess responseProcess = new ResponseProcess("429", "Límite de solicitudes de la cuenta excedido", "ERROR");
+            ApiResponseClient<Account> errorResponse = new ApiResponseClient<>(null, responseProcess);
+            return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(errorResponse));
+        }
         return accountService.updateAccount(numeroCuenta, accountDTO)
                 .map(response -> {
                     if (response.getResponseProcess() != null &&
@@ -1,9 +1,18 @@
 package com.prueba.cuenta.controller;
 
+import com.prueba.cuenta.config.BinaryContentConfig;
+import com.prueba.cuenta.dto.MovementCommandDTO;
 import com.prueba.cuenta.dto.MovementDTO;
 import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.dto.TopAccountsDTO;
+import com.prueba.cuenta.dto.TransferDTO;
 import com.prueba.cuenta.entity.Movement;
 import com.prueba.cuenta.service.MovementService;
+import com.prueba.cuenta.service.ResourceVersionService;
+import com.prueba.cuenta.service.admission.AdmissionControlService;
+import com.prueba.cuenta.service.analytics.MovementStatisticsService;
+import com.prueba.cuenta.service.transfer.TransferService;
+import com.prueba.cuenta.service.warmup.AccessProfile;
 import com.prueba.cuenta.utils.ApiResponseClient;
 import com.prueba.cuenta.utils.ResponseProcess;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,9 +20,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -28,20 +40,52 @@ public class MovementController {
     @Autowired
     private MovementService movementService;
 
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccessProfile accessProfile;
+
+    @Autowired
+    private MovementStatisticsService movementStatisticsService;
+
     @Operation(summary = "Crea un registro de movimiento de una cuenta", description = "Realiza depositos o retiros de una cuenta existente con los datos proporcionados")
     @PostMapping
     public Mono<ResponseEntity<ApiResponseClient<Movement>>> createMovement(@Valid @RequestBody MovementDTO movementDTO) {
-        return movementService.createMovement(movementDTO)
-                .map(response -> {
-                    if (response.getResponseProcess() != null && !"0".equals(response.getResponseProcess().getCode())) {
-                        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
-                    }
-                    return new ResponseEntity<>(response, HttpStatus.CREATED);
-                })
-                .onErrorResume(e -> {
-                    ApiResponseClient<Movement> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("1", e.getMessage(), "ERROR"));
-                    return Mono.just(new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR));
-                });
+        accessProfile.record(movementDTO.getCuentaId());
+        long retryAfter = admissionControlService.checkAccountRate(movementDTO.getCuentaId());
+        if (retryAfter > 0) {
+            return Mono.just(tooManyRequests(retryAfter));
+        }
+        return toCreatedResponse(movementService.createMovement(movementDTO));
+    }
+
+    @Operation(summary = "Crea un registro de movimiento en formato binario", description = "Igual que el alta en JSON, con cuerpo CBOR o Smile: la fecha como día epoch y la cuenta como entero")
+    @PostMapping(consumes = {MediaType.APPLICATION_CBOR_VALUE, BinaryContentConfig.APPLICATION_SMILE_VALUE})
+    public Mono<ResponseEntity<ApiResponseClient<Movement>>> createMovement(@Valid @RequestBody MovementCommandDTO command) {
+        accessProfile.record(command.getCuentaId());
+        long retryAfter = admissionControlService.checkAccountRate(command.getCuentaId());
+        if (retryAfter > 0) {
+            return Mono.just(tooManyRequests(retryAfter));
+        }
+        return toCreatedResponse(movementService.createMovement(command));
+    }
+
+    @Operation(summary = "Transferencia entre cuentas", description = "Debita la cuenta de origen y acredita la de destino en una sola operación; devuelve el par de movimientos creados")
+    @PostMapping("/transferencias")
+    public Mono<ResponseEntity<ApiResponseClient<List<Movement>>>> transfer(@Valid @RequestBody TransferDTO transfer) {
+        accessProfile.record(transfer.getCuentaOrigen());
+        long retryAfter = admissionControlService.checkAccountRate(transfer.getCuentaOrigen());
+        if (retryAfter > 0) {
+            return Mono.just(tooManyRequests(retryAfter));
+        }
+        return toCreatedResponse(transferService.transfer(transfer));
     }
 
     @Operation(summary = "Reporte de movimientos", description = "Devuelve el reporte de movimientos de una cuenta existente con fecha inicio y fecha fin")
@@ -49,22 +93,76 @@ public class MovementController {
     public Mono<ResponseEntity<ApiResponseClient<List<MovementReportDTO>>>> generateReport(
             @RequestParam Integer cuentaId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
+        accessProfile.record(cuentaId);
+        String eTag = resourceVersionService.reportETag(cuentaId).orElse(null);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
         return movementService.generateReport(cuentaId, startDate, endDate)
-                .map(response -> ResponseEntity.ok(response))
+                .map(response -> {
+                    // Solo los reportes generados llevan validador; los errores no deben quedar en caché
+                    if (response.getResponseProcess() != null && !"200".equals(response.getResponseProcess().getCode())) {
+                        return ResponseEntity.ok(response);
+                    }
+                    return ResponseEntity.ok().eTag(eTag).body(response);
+                })
                 .onErrorResume(e -> {
                     ApiResponseClient<List<MovementReportDTO>> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("500", e.getMessage(), "ERROR"));
                     return Mono.just(new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR));
                 });
     }
 
+    @Operation(summary = "Cuentas más activas", description = "Top aproximado de cuentas por cantidad o volumen de movimientos en los últimos minutos, con cotas de error; las estadísticas son del nodo que responde")
+    @GetMapping("/estadisticas/top")
+    public Mono<ResponseEntity<ApiResponseClient<TopAccountsDTO>>> topAccounts(
+            @RequestParam(defaultValue = "cantidad") String metrica,
+            @RequestParam(defaultValue = "60") int ventanaMinutos,
+            @RequestParam(defaultValue = "10") int limite) {
+        return movementStatisticsService.topAccounts(metrica, ventanaMinutos, limite)
+                .map(response -> {
+                    if (response.getResponseProcess() != null && !"0".equals(response.getResponseProcess().getCode())) {
+                        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+                    }
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .onErrorResume(e -> {
+                    ApiResponseClient<TopAccountsDTO> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("500", e.getMessage(), "ERROR"));
+                    return Mono.just(new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR));
+                });
+    }
+
     @Operation(summary = "Movimientos de una cuenta", description = "Realiza la consulta de todos los movimientos de una cuenta")
     @GetMapping("/{cuentaId}")
     public Flux<ApiResponseClient<Movement>> getMovementsByAccount(@PathVariable Integer cuentaId) {
+        accessProfile.record(cuentaId);
         return movementService.getMovementsByAccount(cuentaId)
                 .onErrorResume(e -> {
                     ApiResponseClient<Movement> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("1", e.getMessage(), "ERROR"));
                     return Flux.just(errorResponse);
                 });
     }
+
+    // Métodos privados auxiliares
+    private <T> ResponseEntity<ApiResponseClient<T>> tooManyRequests(long retryAfter) {
+        ApiResponseClient<T> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("429", "Límite de solicitudes de la cuenta excedido", "ERROR"));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(errorResponse);
+    }
+
+    private <T> Mono<ResponseEntity<ApiResponseClient<T>>> toCreatedResponse(Mono<ApiResponseClient<T>> created) {
+        return created
+                .map(response -> {
+                    if (response.getResponseProcess() != null && !"0".equals(response.getResponseProcess().getCode())) {
+                        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+                    }
+                    return new ResponseEntity<>(response, HttpStatus.CREATED);
+                })
+                .onErrorResume(e -> {
+                    ApiResponseClient<T> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("1", e.getMessage(), "ERROR"));
+                    return Mono.just(new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR));
+                });
+    }
 }
\ No newline at end of file
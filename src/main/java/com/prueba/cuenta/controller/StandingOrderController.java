@@ -0,0 +1,58 @@
+package com.prueba.cuenta.controller;
+
+import com.prueba.cuenta.dto.StandingOrderDTO;
+import com.prueba.cuenta.entity.StandingOrder;
+import com.prueba.cuenta.service.standing.StandingOrderService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/ordenes-permanentes")
+@Tag(name = "Standing Order Controller", description = "API para la gestión de órdenes permanentes")
+public class StandingOrderController {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Operation(summary = "Crear una orden permanente", description = "Programa un movimiento o una transferencia recurrente diaria, semanal o mensual")
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponseClient<StandingOrder>>> createStandingOrder(@Valid @RequestBody StandingOrderDTO standingOrderDTO) {
+        return toResponse(standingOrderService.createStandingOrder(standingOrderDTO), HttpStatus.CREATED, HttpStatus.BAD_REQUEST);
+    }
+
+    @Operation(summary = "Consultar una orden permanente", description = "Devuelve la orden con su próxima ejecución y el último error")
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponseClient<StandingOrder>>> getStandingOrder(@PathVariable Long id) {
+        return toResponse(standingOrderService.getStandingOrder(id), HttpStatus.OK, HttpStatus.NOT_FOUND);
+    }
+
+    @Operation(summary = "Cancelar una orden permanente", description = "Desactiva la orden; no se programan más ejecuciones")
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponseClient<StandingOrder>>> cancelStandingOrder(@PathVariable Long id) {
+        return toResponse(standingOrderService.cancelStandingOrder(id), HttpStatus.OK, HttpStatus.NOT_FOUND);
+    }
+
+    // Métodos privados auxiliares
+    private Mono<ResponseEntity<ApiResponseClient<StandingOrder>>> toResponse(Mono<ApiResponseClient<StandingOrder>> result,
+                                                                              HttpStatus success, HttpStatus failure) {
+        return result
+                .map(response -> {
+                    if (response.getResponseProcess() != null && !"0".equals(response.getResponseProcess().getCode())) {
+                        return new ResponseEntity<>(response, failure);
+                    }
+                    return new ResponseEntity<>(response, success);
+                })
+                .onErrorResume(e -> {
+                    ApiResponseClient<StandingOrder> errorResponse = new ApiResponseClient<>(null, new ResponseProcess("1", e.getMessage(), "ERROR"));
+                    return Mono.just(new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR));
+                });
+    }
+}
@@ -0,0 +1,19 @@
+package com.prueba.cuenta.dto;
+
+import com.prueba.cuenta.entity.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class AccountSnapshotRowDTO {
+    private Integer numeroCuenta;
+    private AccountType tipoCuenta;
+    private BigDecimal saldo;
+    private boolean status;
+    private Long clienteId;
+    private Instant fechaModificacion;
+}
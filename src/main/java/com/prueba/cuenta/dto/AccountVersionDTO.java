@@ -0,0 +1,13 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class AccountVersionDTO {
+    private Integer numeroCuenta;
+    private Instant fechaModificacion;
+}
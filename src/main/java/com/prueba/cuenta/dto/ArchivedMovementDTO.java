@@ -0,0 +1,19 @@
+package com.prueba.cuenta.dto;
+
+import com.prueba.cuenta.entity.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class ArchivedMovementDTO {
+    private String id;
+    private Integer numeroCuenta;
+    private LocalDate fecha;
+    private MovementType tipoMovimiento;
+    private BigDecimal valor;
+    private BigDecimal saldo;
+}
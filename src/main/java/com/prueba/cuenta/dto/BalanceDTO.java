@@ -0,0 +1,15 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class BalanceDTO {
+    private Integer numeroCuenta;
+    private LocalDate fecha;
+    private BigDecimal saldo;
+}
@@ -0,0 +1,17 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class BatchSummaryDTO {
+    private LocalDate fechaProceso;
+    private int particiones;
+    private long cuentas;
+    private long movimientos;
+    private long duracionMs;
+    private double cuentasPorSegundo;
+}
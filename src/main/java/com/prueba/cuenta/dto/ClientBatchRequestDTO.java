@@ -0,0 +1,15 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientBatchRequestDTO {
+    private List<Long> ids;
+    private List<String> identificaciones;
+}
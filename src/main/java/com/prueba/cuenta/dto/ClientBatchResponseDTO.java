@@ -0,0 +1,11 @@
+package com.prueba.cuenta.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ClientBatchResponseDTO {
+    private List<ClientDetailsDTO> details;
+    private ResponseProcessDTO responseProcess;
+}
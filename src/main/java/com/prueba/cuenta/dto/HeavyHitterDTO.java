@@ -0,0 +1,19 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Cuenta del top aproximado: el valor real está garantizado entre
+ * {@code minimo} y {@code estimado}.
+ */
+@Data
+@AllArgsConstructor
+public class HeavyHitterDTO {
+    private Integer numeroCuenta;
+    private BigDecimal estimado;
+    private BigDecimal minimo;
+    private BigDecimal errorMaximo;
+}
@@ -0,0 +1,13 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImportResultDTO {
+    private long fila;
+    private String numeroCuenta;
+    private String code;
+    private String resultMessage;
+}
@@ -0,0 +1,19 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class LedgerDiscrepancyDTO {
+    // CADENA: el saldo anterior del movimiento no es el saldo que dejó el previo; SALDO_FINAL: la cuenta no tiene el saldo del último movimiento
+    private String tipo;
+    private Integer numeroCuenta;
+    private String movimientoId;
+    private LocalDate fecha;
+    private BigDecimal esperado;
+    private BigDecimal encontrado;
+}
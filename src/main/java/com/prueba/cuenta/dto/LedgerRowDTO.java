@@ -0,0 +1,42 @@
+package com.prueba.cuenta.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Fila de {@code movimiento} para la conciliación, con los importes en centavos
+ * y el saldo actual de su cuenta.
+ */
+@Data
+public class LedgerRowDTO {
+    private final Integer numeroCuenta;
+    private final String id;
+    private final LocalDate fecha;
+    private final long valorCentavos;
+    private final long saldoCentavos;
+    private final long saldoCuentaCentavos;
+
+    public LedgerRowDTO(Integer numeroCuenta, String id, LocalDate fecha, BigDecimal valor, BigDecimal saldo,
+                        BigDecimal saldoCuenta) {
+        this.numeroCuenta = numeroCuenta;
+        this.id = id;
+        this.fecha = fecha;
+        this.valorCentavos = toCents(valor);
+        this.saldoCentavos = toCents(saldo);
+        this.saldoCuentaCentavos = toCents(saldoCuenta);
+    }
+
+    /**
+     * Saldo de la cuenta antes de este movimiento.
+     */
+    public long getSaldoAnteriorCentavos() {
+        return saldoCentavos - valorCentavos;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+}
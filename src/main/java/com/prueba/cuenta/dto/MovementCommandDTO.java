@@ -0,0 +1,33 @@
+package com.prueba.cuenta.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Movimiento con campos tipados. Es el cuerpo de {@code POST /movimientos} en
+ * CBOR o Smile, donde la fecha viaja como día epoch y la cuenta como entero, y
+ * la forma en que {@link MovementDTO} llega al servicio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementCommandDTO {
+
+    @NotNull(message = "La fecha es obligatoria")
+    @JsonFormat(shape = JsonFormat.Shape.NUMBER_INT)
+    private LocalDate fecha;
+    @NotNull(message = "El valor no puede ser nulo")
+    @Digits(integer = 15, fraction = 2, message = "El valor debe tener como máximo 15 dígitos enteros y 2 decimales")
+    private BigDecimal valor;
+    @NotNull(message = "El número de cuenta no puede ser nulo")
+    @Positive(message = "El número de cuenta debe ser positivo")
+    private Integer cuentaId;
+}
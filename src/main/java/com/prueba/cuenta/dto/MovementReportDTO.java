@@ -1,11 +1,14 @@
 package com.prueba.cuenta.dto;
 
+import com.prueba.cuenta.entity.AccountType;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
 public class MovementReportDTO {
     private LocalDate fecha;
     private String cliente;
@@ -15,4 +18,18 @@ public class MovementReportDTO {
     private boolean estado;
     private BigDecimal movimiento;
     private BigDecimal saldoDisponible;
-}
\ No newline at end of file
+
+    /**
+     * Fila armada en la consulta de proyección; el cliente se completa después.
+     */
+    public MovementReportDTO(LocalDate fecha, Integer numeroCuenta, AccountType tipo, BigDecimal saldoInicial,
+                             Boolean estado, BigDecimal movimiento, BigDecimal saldoDisponible) {
+        this.fecha = fecha;
+        this.numeroCuenta = numeroCuenta.toString();
+        this.tipo = tipo.toString();
+        this.saldoInicial = saldoInicial;
+        this.estado = estado;
+        this.movimiento = movimiento;
+        this.saldoDisponible = saldoDisponible;
+    }
+}
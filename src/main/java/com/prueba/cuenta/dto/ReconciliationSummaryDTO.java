@@ -0,0 +1,16 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReconciliationSummaryDTO {
+    private int particiones;
+    private long cuentas;
+    private long movimientos;
+    private long discrepancias;
+    private long duracionMs;
+    private double movimientosPorSegundo;
+    private String reporte;
+}
@@ -0,0 +1,37 @@
+package com.prueba.cuenta.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Cuerpo de {@code POST /ordenes-permanentes}. Sin {@code cuentaDestino} cada
+ * ejecución es un movimiento de {@code valor} (positivo depósito, negativo
+ * retiro) sobre {@code numeroCuenta}; con ella, una transferencia de
+ * {@code valor} desde {@code numeroCuenta}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderDTO {
+
+    @NotNull(message = "La cuenta no puede ser nula")
+    @Positive(message = "La cuenta debe ser positiva")
+    private Integer numeroCuenta;
+    @Positive(message = "La cuenta de destino debe ser positiva")
+    private Integer cuentaDestino;
+    @NotNull(message = "El valor no puede ser nulo")
+    @Digits(integer = 15, fraction = 2, message = "El valor debe tener como máximo 15 dígitos enteros y 2 decimales")
+    private BigDecimal valor;
+    @NotNull(message = "La frecuencia es obligatoria")
+    @Pattern(regexp = "DIARIA|SEMANAL|MENSUAL", message = "La frecuencia debe ser DIARIA, SEMANAL o MENSUAL")
+    private String frecuencia;
+    @NotNull(message = "La primera ejecución es obligatoria")
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(:\\d{2})?", message = "Formato de primera ejecución inválido (yyyy-MM-ddTHH:mm)")
+    private String primeraEjecucion;
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Formato de fecha fin inválido (yyyy-MM-dd)")
+    private String fechaFin;
+}
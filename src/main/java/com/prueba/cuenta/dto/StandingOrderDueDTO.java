@@ -0,0 +1,16 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Orden permanente que vence en la ventana de carga, sin el resto de sus campos.
+ */
+@Data
+@AllArgsConstructor
+public class StandingOrderDueDTO {
+    private Long id;
+    private Instant proximaEjecucion;
+}
@@ -0,0 +1,24 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Top aproximado de cuentas en una ventana. {@code maximoNoListadas} acota el
+ * valor de cualquier cuenta que no aparece en {@code cuentas};
+ * {@code errorCountMin} es el sobreconteo máximo de Count-Min con probabilidad
+ * {@code 1 - e^-profundidad} por intervalo.
+ */
+@Data
+@AllArgsConstructor
+public class TopAccountsDTO {
+    private String metrica;
+    private Integer ventanaMinutos;
+    private BigDecimal total;
+    private BigDecimal maximoNoListadas;
+    private BigDecimal errorCountMin;
+    private List<HeavyHitterDTO> cuentas;
+}
@@ -0,0 +1,32 @@
+package com.prueba.cuenta.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Cuerpo de {@code POST /movimientos/transferencias}: debita {@code valor} de la
+ * cuenta de origen y lo acredita en la de destino.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferDTO {
+
+    @NotNull(message = "La fecha es obligatoria")
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "Formato de fecha inválido (yyyy-MM-dd)")
+    private String fecha;
+    @NotNull(message = "El valor no puede ser nulo")
+    @Positive(message = "El valor de la transferencia debe ser positivo")
+    @Digits(integer = 15, fraction = 2, message = "El valor debe tener como máximo 15 dígitos enteros y 2 decimales")
+    private BigDecimal valor;
+    @NotNull(message = "La cuenta de origen no puede ser nula")
+    @Positive(message = "La cuenta de origen debe ser positiva")
+    private Integer cuentaOrigen;
+    @NotNull(message = "La cuenta de destino no puede ser nula")
+    @Positive(message = "La cuenta de destino debe ser positiva")
+    private Integer cuentaDestino;
+}
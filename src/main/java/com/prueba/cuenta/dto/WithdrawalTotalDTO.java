@@ -0,0 +1,16 @@
+package com.prueba.cuenta.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class WithdrawalTotalDTO {
+    private Integer numeroCuenta;
+    private LocalDate fecha;
+    // Suma de los valores de los retiros del día; es negativa
+    private BigDecimal total;
+}
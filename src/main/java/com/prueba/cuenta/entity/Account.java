@@ -1,10 +1,13 @@
 package com.prueba.cuenta.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 
@@ -29,5 +32,11 @@ public class Account {
     @Column(name = "clienteid", nullable = false)
     private Long clienteId;
 
+    // Se renueva en cada inserción o actualización; sirve como validador de caché (ETag)
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "fechamodificacion")
+    private Instant fechaModificacion;
+
 }
 
@@ -0,0 +1,30 @@
+package com.prueba.cuenta.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Saldo de una cuenta al cierre de {@code fecha}, es decir, incluyendo todos
+ * los movimientos con fecha menor o igual.
+ */
+@Data
+@Entity
+@Table(name = "saldo_checkpoint",
+        uniqueConstraints = @UniqueConstraint(name = "uk_saldo_checkpoint_cuenta_fecha", columnNames = {"cuentaid", "fecha"}))
+public class BalanceCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cuentaid", nullable = false)
+    private Integer numeroCuenta;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "saldo", nullable = false)
+    private BigDecimal saldo;
+}
@@ -0,0 +1,45 @@
+package com.prueba.cuenta.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Avance de una partición (rango de números de cuenta) de un proceso por lotes.
+ */
+@Data
+@Entity
+@Table(name = "lote_checkpoint",
+        uniqueConstraints = @UniqueConstraint(name = "uk_lote_checkpoint_particion",
+                columnNames = {"proceso", "fechaproceso", "rangoinicio"}))
+public class BatchCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "proceso", nullable = false)
+    private String proceso;
+
+    @Column(name = "fechaproceso", nullable = false)
+    private LocalDate fechaProceso;
+
+    @Column(name = "rangoinicio", nullable = false)
+    private Integer rangoInicio;
+
+    @Column(name = "rangofin", nullable = false)
+    private Integer rangoFin;
+
+    @Column(name = "ultimacuenta", nullable = false)
+    private Integer ultimaCuenta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private BatchStatus estado;
+
+    @Column(name = "procesadas", nullable = false)
+    private long procesadas;
+
+    @Column(name = "movimientos", nullable = false)
+    private long movimientos;
+}
@@ -0,0 +1,5 @@
+package com.prueba.cuenta.entity;
+
+public enum BatchStatus {
+    EN_PROCESO, COMPLETADO
+}
@@ -0,0 +1,20 @@
+package com.prueba.cuenta.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Posición del diario local hasta la que los movimientos ya están aplicados en
+ * la base. Se actualiza en la misma transacción que los movimientos.
+ */
+@Data
+@Entity
+@Table(name = "diario_checkpoint")
+public class JournalCheckpoint {
+    @Id
+    @Column(name = "nombre", nullable = false)
+    private String nombre;
+
+    @Column(name = "posicion", nullable = false)
+    private long posicion;
+}
@@ -9,7 +9,8 @@ import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "movimiento")
+@Table(name = "movimiento",
+        indexes = @Index(name = "idx_movimiento_cuenta_fecha", columnList = "cuentaid, fecha"))
 public class Movement {
     @Id
     private String id;
@@ -27,6 +28,10 @@ public class Movement {
     @Column(name = "saldo", nullable = false)
     private BigDecimal saldo;
 
+    // Enlaza el débito y el crédito de una transferencia; nulo en los demás movimientos
+    @Column(name = "transferenciaid")
+    private String transferenciaId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cuentaid", nullable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
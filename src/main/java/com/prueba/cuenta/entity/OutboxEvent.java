@@ -0,0 +1,37 @@
+package com.prueba.cuenta.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Evento de cambio pendiente de exportar. Se escribe en la misma transacción
+ * que el cambio y se elimina cuando el relay lo entrega al destino.
+ */
+@Data
+@Entity
+@Table(name = "outbox")
+public class OutboxEvent {
+    // Secuencia con bloques del tamaño del lote JDBC para que los eventos se inserten en lote
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 100)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    private OutboxEventType tipo;
+
+    @Column(name = "numerocuenta", nullable = false)
+    private Integer numeroCuenta;
+
+    @Column(name = "referencia", nullable = false)
+    private String referencia;
+
+    @Column(name = "contenido", nullable = false, length = 4000)
+    private String contenido;
+
+    @Column(name = "fechacreacion", nullable = false)
+    private Instant fechaCreacion;
+}
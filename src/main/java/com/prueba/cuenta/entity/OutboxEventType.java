@@ -0,0 +1,5 @@
+package com.prueba.cuenta.entity;
+
+public enum OutboxEventType {
+    MOVIMIENTO_CREADO, CUENTA_CREADA, CUENTA_ACTUALIZADA
+}
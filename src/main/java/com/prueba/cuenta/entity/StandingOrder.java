@@ -0,0 +1,60 @@
+package com.prueba.cuenta.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Orden permanente: un movimiento recurrente sobre {@code numeroCuenta} o, con
+ * {@code cuentaDestino}, una transferencia recurrente. {@code secuencia} es el
+ * número de ejecuciones ya resueltas (aplicadas u omitidas tras agotar los
+ * reintentos) y {@code proximaEjecucion} el momento de la siguiente.
+ */
+@Data
+@Entity
+@Table(name = "orden_permanente",
+        indexes = @Index(name = "idx_orden_permanente_proxima", columnList = "activa, proximaejecucion, id"))
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orden_permanente_seq")
+    @SequenceGenerator(name = "orden_permanente_seq", sequenceName = "orden_permanente_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "numerocuenta", nullable = false)
+    private Integer numeroCuenta;
+
+    @Column(name = "cuentadestino")
+    private Integer cuentaDestino;
+
+    @Column(name = "valor", nullable = false)
+    private BigDecimal valor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frecuencia", nullable = false)
+    private StandingOrderFrequency frecuencia;
+
+    @Column(name = "primeraejecucion", nullable = false)
+    private LocalDateTime primeraEjecucion;
+
+    @Column(name = "fechafin")
+    private LocalDate fechaFin;
+
+    @Column(name = "proximaejecucion", nullable = false)
+    private Instant proximaEjecucion;
+
+    @Column(name = "secuencia", nullable = false)
+    private long secuencia;
+
+    @Column(name = "fallos", nullable = false)
+    private int fallos;
+
+    @Column(name = "ultimoerror", length = 500)
+    private String ultimoError;
+
+    @Column(name = "activa", nullable = false)
+    private boolean activa;
+}
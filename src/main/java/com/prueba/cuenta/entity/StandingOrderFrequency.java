@@ -0,0 +1,21 @@
+package com.prueba.cuenta.entity;
+
+import java.time.LocalDateTime;
+
+public enum StandingOrderFrequency {
+    DIARIA,
+    SEMANAL,
+    MENSUAL;
+
+    /**
+     * Fecha y hora de la ejecución número {@code secuencia} (desde cero). Se calcula
+     * siempre desde la primera para que los fines de mes no acumulen desfase.
+     */
+    public LocalDateTime occurrence(LocalDateTime primera, long secuencia) {
+        return switch (this) {
+            case DIARIA -> primera.plusDays(secuencia);
+            case SEMANAL -> primera.plusWeeks(secuencia);
+            case MENSUAL -> primera.plusMonths(secuencia);
+        };
+    }
+}
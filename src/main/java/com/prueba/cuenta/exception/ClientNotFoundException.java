@@ -0,0 +1,11 @@
+package com.prueba.cuenta.exception;
+
+/**
+ * El servicio de clientes respondió y el cliente no existe. A diferencia de un
+ * error de comunicación, reintentar la consulta no cambia el resultado.
+ */
+public class ClientNotFoundException extends AccountBusinessException {
+    public ClientNotFoundException(String message) {
+        super(message);
+    }
+}
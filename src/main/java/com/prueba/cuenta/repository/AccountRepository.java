@@ -1,11 +1,21 @@
 package com.prueba.cuenta.repository;
 
+import com.prueba.cuenta.dto.AccountSnapshotRowDTO;
+import com.prueba.cuenta.dto.AccountVersionDTO;
 import com.prueba.cuenta.entity.Account;
 import com.prueba.cuenta.entity.AccountType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Integer> {
@@ -14,4 +24,46 @@ public interface AccountRepository extends JpaRepository<Account, Integer> {
     List<Account> findByTipoCuenta(AccountType tipoCuenta);
 
     List<Account> findByStatus(boolean status);
+
+    @Query("select a.numeroCuenta from Account a where a.numeroCuenta in :numeros")
+    List<Integer> findExistingNumerosCuenta(@Param("numeros") Collection<Integer> numeros);
+
+    @Query("select new com.prueba.cuenta.dto.AccountVersionDTO(a.numeroCuenta, a.fechaModificacion) " +
+            "from Account a where a.numeroCuenta = :numeroCuenta")
+    Optional<AccountVersionDTO> findVersionByNumeroCuenta(@Param("numeroCuenta") Integer numeroCuenta);
+
+    @Query("select min(a.numeroCuenta) from Account a where a.tipoCuenta = :tipo")
+    Integer findMinNumeroCuentaByTipoCuenta(@Param("tipo") AccountType tipo);
+
+    @Query("select max(a.numeroCuenta) from Account a where a.tipoCuenta = :tipo")
+    Integer findMaxNumeroCuentaByTipoCuenta(@Param("tipo") AccountType tipo);
+
+    @Query("select min(a.numeroCuenta) from Account a")
+    Integer findMinNumeroCuenta();
+
+    @Query("select max(a.numeroCuenta) from Account a")
+    Integer findMaxNumeroCuenta();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.tipoCuenta = :tipo and a.status = true " +
+            "and a.numeroCuenta > :desde and a.numeroCuenta <= :hasta order by a.numeroCuenta")
+    List<Account> findChunkForUpdate(@Param("tipo") AccountType tipo,
+                                     @Param("desde") Integer desde,
+                                     @Param("hasta") Integer hasta,
+                                     Limit limit);
+
+    @Query("select new com.prueba.cuenta.dto.AccountSnapshotRowDTO(a.numeroCuenta, a.tipoCuenta, a.saldo, a.status, " +
+            "a.clienteId, a.fechaModificacion) from Account a where a.numeroCuenta > :desde order by a.numeroCuenta")
+    List<AccountSnapshotRowDTO> findSnapshotPage(@Param("desde") Integer desde, Limit limit);
+
+    @Query("select new com.prueba.cuenta.dto.AccountSnapshotRowDTO(a.numeroCuenta, a.tipoCuenta, a.saldo, a.status, " +
+            "a.clienteId, a.fechaModificacion) from Account a " +
+            "where a.numeroCuenta > :desde and a.fechaModificacion >= :modificadaDesde order by a.numeroCuenta")
+    List<AccountSnapshotRowDTO> findSnapshotChanges(@Param("desde") Integer desde,
+                                                    @Param("modificadaDesde") Instant modificadaDesde,
+                                                    Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.numeroCuenta in :numeros order by a.numeroCuenta")
+    List<Account> findAllForUpdate(@Param("numeros") Collection<Integer> numeros);
 }
@@ -0,0 +1,33 @@
+package com.prueba.cuenta.repository;
+
+import com.prueba.cuenta.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findByNumeroCuentaAndFecha(Integer numeroCuenta, LocalDate fecha);
+
+    Optional<BalanceCheckpoint> findFirstByNumeroCuentaAndFechaLessThanEqualOrderByFechaDesc(Integer numeroCuenta, LocalDate fecha);
+
+    Optional<BalanceCheckpoint> findFirstByNumeroCuentaAndFechaLessThanOrderByFechaDesc(Integer numeroCuenta, LocalDate fecha);
+
+    Optional<BalanceCheckpoint> findFirstByNumeroCuentaAndFechaGreaterThanOrderByFechaAsc(Integer numeroCuenta, LocalDate fecha);
+
+    @Transactional
+    @Modifying
+    @Query("update BalanceCheckpoint c set c.saldo = c.saldo + :valor " +
+            "where c.numeroCuenta = :numeroCuenta and c.fecha >= :fecha")
+    int shiftFrom(@Param("numeroCuenta") Integer numeroCuenta,
+                  @Param("fecha") LocalDate fecha,
+                  @Param("valor") BigDecimal valor);
+}
@@ -0,0 +1,17 @@
+package com.prueba.cuenta.repository;
+
+import com.prueba.cuenta.entity.BatchCheckpoint;
+import com.prueba.cuenta.entity.BatchStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, Long> {
+
+    List<BatchCheckpoint> findByProcesoAndFechaProcesoOrderByRangoInicio(String proceso, LocalDate fechaProceso);
+
+    List<BatchCheckpoint> findByProcesoAndEstado(String proceso, BatchStatus estado);
+}
@@ -0,0 +1,9 @@
+package com.prueba.cuenta.repository;
+
+import com.prueba.cuenta.entity.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+}
@@ -1,18 +1,94 @@
 package com.prueba.cuenta.repository;
 
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.dto.LedgerRowDTO;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.dto.WithdrawalTotalDTO;
 import com.prueba.cuenta.entity.Movement;
 import com.prueba.cuenta.entity.MovementType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MovementRepository extends JpaRepository<Movement, String> {
 
-    List<Movement> findByCuenta_NumeroCuenta(Integer numeroCuenta);
+    @Query("select new com.prueba.cuenta.dto.ArchivedMovementDTO(m.id, m.cuenta.numeroCuenta, m.fecha, " +
+            "m.tipoMovimiento, m.valor, m.saldo) from Movement m " +
+            "where m.cuenta.numeroCuenta = :cuenta order by m.fecha, m.id")
+    List<ArchivedMovementDTO> findRowsByCuenta(@Param("cuenta") Integer cuenta);
 
-    List<Movement> findByCuenta_NumeroCuentaAndFechaBetween(Integer cuenta, LocalDate fechaInicio, LocalDate fechaFin);
+    @Query("select m.id from Movement m where m.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    @Query("select count(m) from Movement m where m.cuenta.numeroCuenta = :cuenta")
+    long countByCuenta(@Param("cuenta") Integer cuenta);
+
+    @Query("select new com.prueba.cuenta.dto.MovementReportDTO(m.fecha, c.numeroCuenta, c.tipoCuenta, " +
+            "m.saldo - m.valor, c.status, m.valor, m.saldo) from Movement m join m.cuenta c " +
+            "where c.numeroCuenta = :cuenta and m.fecha between :desde and :hasta order by m.fecha, m.id")
+    List<MovementReportDTO> findReportRows(@Param("cuenta") Integer cuenta,
+                                           @Param("desde") LocalDate desde,
+                                           @Param("hasta") LocalDate hasta);
+
+    @Query("select m.id from Movement m where m.cuenta.numeroCuenta = :cuenta and m.fecha between :desde and :hasta")
+    List<String> findIdsByCuentaAndFechaBetween(@Param("cuenta") Integer cuenta,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta);
+
+    @Query("select coalesce(sum(m.valor), 0) from Movement m " +
+            "where m.cuenta.numeroCuenta = :cuenta and m.fecha > :desde and m.fecha <= :hasta")
+    BigDecimal sumValorAfterUntil(@Param("cuenta") Integer cuenta,
+                                  @Param("desde") LocalDate desde,
+                                  @Param("hasta") LocalDate hasta);
+
+    @Query("select coalesce(sum(m.valor), 0) from Movement m " +
+            "where m.cuenta.numeroCuenta = :cuenta and m.fecha > :desde")
+    BigDecimal sumValorAfter(@Param("cuenta") Integer cuenta, @Param("desde") LocalDate desde);
+
+    @Query("select new com.prueba.cuenta.dto.WithdrawalTotalDTO(m.cuenta.numeroCuenta, m.fecha, sum(m.valor)) " +
+            "from Movement m where m.tipoMovimiento = com.prueba.cuenta.entity.MovementType.RETIRO " +
+            "and m.fecha >= :desde group by m.cuenta.numeroCuenta, m.fecha")
+    List<WithdrawalTotalDTO> sumWithdrawalsByDaySince(@Param("desde") LocalDate desde);
+
+    @Query("select new com.prueba.cuenta.dto.WithdrawalTotalDTO(m.cuenta.numeroCuenta, m.fecha, sum(m.valor)) " +
+            "from Movement m where m.tipoMovimiento = com.prueba.cuenta.entity.MovementType.RETIRO " +
+            "and m.cuenta.numeroCuenta = :cuenta and m.fecha >= :desde group by m.cuenta.numeroCuenta, m.fecha")
+    List<WithdrawalTotalDTO> sumWithdrawalsByDaySince(@Param("cuenta") Integer cuenta, @Param("desde") LocalDate desde);
+
+    @Query("select coalesce(sum(m.valor), 0) from Movement m " +
+            "where m.tipoMovimiento = com.prueba.cuenta.entity.MovementType.RETIRO " +
+            "and m.cuenta.numeroCuenta = :cuenta and m.fecha between :desde and :hasta")
+    BigDecimal sumWithdrawalsBetween(@Param("cuenta") Integer cuenta,
+                                     @Param("desde") LocalDate desde,
+                                     @Param("hasta") LocalDate hasta);
+
+    @Query("select distinct m.cuenta.numeroCuenta from Movement m where m.fecha = :fecha")
+    List<Integer> findAccountNumbersWithMovementsOn(@Param("fecha") LocalDate fecha);
+
+    @Query("select min(m.fecha) from Movement m where m.fecha < :hasta")
+    LocalDate findMinFechaBefore(@Param("hasta") LocalDate hasta);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select new com.prueba.cuenta.dto.ArchivedMovementDTO(m.id, m.cuenta.numeroCuenta, m.fecha, " +
+            "m.tipoMovimiento, m.valor, m.saldo) from Movement m " +
+            "where m.fecha between :desde and :hasta order by m.cuenta.numeroCuenta, m.fecha, m.id")
+    Stream<ArchivedMovementDTO> streamForArchive(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @QueryHints({@QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select new com.prueba.cuenta.dto.LedgerRowDTO(c.numeroCuenta, m.id, m.fecha, m.valor, m.saldo, c.saldo) " +
+            "from Movement m join m.cuenta c where c.numeroCuenta > :desde and c.numeroCuenta <= :hasta " +
+            "order by c.numeroCuenta, m.fecha")
+    Stream<LedgerRowDTO> streamLedger(@Param("desde") Integer desde, @Param("hasta") Integer hasta);
 
 }
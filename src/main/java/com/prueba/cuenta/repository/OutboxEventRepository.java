@@ -0,0 +1,18 @@
+package com.prueba.cuenta.repository;
+
+import com.prueba.cuenta.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e from OutboxEvent e where e.fechaCreacion < :antesDe order by e.id")
+    List<OutboxEvent> findBatch(@Param("antesDe") Instant antesDe, Limit limit);
+}
@@ -0,0 +1,45 @@
+package com.prueba.cuenta.repository;
+
+import com.prueba.cuenta.dto.StandingOrderDueDTO;
+import com.prueba.cuenta.entity.StandingOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    // Paginación por clave (proximaEjecucion, id) a partir de la última fila leída
+    @Query("select new com.prueba.cuenta.dto.StandingOrderDueDTO(o.id, o.proximaEjecucion) from StandingOrder o " +
+            "where o.activa = true and o.proximaEjecucion < :hasta and (o.proximaEjecucion > :desde " +
+            "or (o.proximaEjecucion = :desde and o.id > :desdeId)) order by o.proximaEjecucion, o.id")
+    List<StandingOrderDueDTO> findDue(@Param("desde") Instant desde,
+                                      @Param("desdeId") Long desdeId,
+                                      @Param("hasta") Instant hasta,
+                                      Limit limit);
+
+    // Condicionadas a la secuencia leída: una entrada repetida de la rueda no avanza la orden dos veces
+    @Modifying
+    @Query("update StandingOrder o set o.secuencia = o.secuencia + 1, o.proximaEjecucion = :siguiente, " +
+            "o.activa = :activa, o.fallos = 0, o.ultimoError = :error where o.id = :id and o.secuencia = :secuencia")
+    int advance(@Param("id") Long id,
+                @Param("secuencia") long secuencia,
+                @Param("siguiente") Instant siguiente,
+                @Param("activa") boolean activa,
+                @Param("error") String error);
+
+    @Modifying
+    @Query("update StandingOrder o set o.fallos = o.fallos + 1, o.ultimoError = :error " +
+            "where o.id = :id and o.secuencia = :secuencia")
+    int recordFailure(@Param("id") Long id, @Param("secuencia") long secuencia, @Param("error") String error);
+
+    @Modifying
+    @Query("update StandingOrder o set o.activa = false where o.id = :id and o.activa = true")
+    int cancel(@Param("id") Long id);
+}
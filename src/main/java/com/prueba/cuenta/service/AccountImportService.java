@@ -0,0 +1,340 @@
+package com.prueba.cuenta.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.dto.AccountDTO;
+import com.prueba.cuenta.dto.ImportResultDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.exception.ClientNotFoundException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.client.ClientBatchLoader;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de cuentas desde CSV o NDJSON.
+ *
+ * <p>La entrada se procesa por bloques: cada identificación distinta se resuelve
+ * una sola vez contra el servicio de clientes (en lotes, vía {@link ClientBatchLoader}, con
+ * concurrencia acotada), los
+ * números de cuenta existentes se consultan en una sola query por bloque y las
+ * cuentas válidas se insertan en lote. El resultado de cada fila se escribe en
+ * NDJSON apenas termina su bloque, así que la memoria no depende del tamaño del archivo.
+ */
+@Slf4j
+@Service
+public class AccountImportService {
+
+    private static final String SUCCESS_CODE = "0";
+    private static final String ERROR_CODE = "1";
+    private static final String BAD_REQUEST_CODE = "400";
+    private static final String CSV_HEADER = "numeroCuenta";
+
+    public enum ImportFormat {
+        CSV, NDJSON
+    }
+
+    private final AccountRepository accountRepository;
+    private final ClientBatchLoader clientBatchLoader;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${cuenta.importacion.tamano-bloque:500}")
+    private int chunkSize;
+
+    @Value("${cuenta.importacion.concurrencia-cliente:100}")
+    private int clientConcurrency;
+
+    @Value("${cuenta.importacion.cache-clientes:100000}")
+    private int clientCacheSize;
+
+    public AccountImportService(AccountRepository accountRepository,
+                                ClientBatchLoader clientBatchLoader,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                OutboxService outboxService,
+                                PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.clientBatchLoader = clientBatchLoader;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void importAccounts(InputStream input, ImportFormat format, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        Map<String, ClientResolution> clientCache = lruCache(clientCacheSize);
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long[] totals = new long[2];
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == ImportFormat.CSV && lineNumber == 1 && line.startsWith(CSV_HEADER))) {
+                continue;
+            }
+            chunk.add(parseRow(lineNumber, line, format));
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, clientCache, writer, totals);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, clientCache, writer, totals);
+        }
+        writer.flush();
+        log.info("Importación de cuentas finalizada: {} creadas, {} rechazadas en {} ms",
+                totals[0], totals[1], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void processChunk(List<ImportRow> chunk, Map<String, ClientResolution> clientCache,
+                              Writer writer, long[] totals) throws IOException {
+        validateRows(chunk);
+        rejectExistingAccounts(chunk);
+        resolveClients(chunk, clientCache);
+        insertAccounts(chunk);
+
+        for (ImportRow row : chunk) {
+            ImportResultDTO result = row.error == null
+                    ? new ImportResultDTO(row.lineNumber, row.numeroCuenta(), SUCCESS_CODE, "Cuenta creada correctamente")
+                    : new ImportResultDTO(row.lineNumber, row.numeroCuenta(), row.errorCode, row.error);
+            totals[row.error == null ? 0 : 1]++;
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void validateRows(List<ImportRow> chunk) {
+        Set<Integer> seenInChunk = new HashSet<>();
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            Set<ConstraintViolation<AccountDTO>> violations = validator.validate(row.dto);
+            if (!violations.isEmpty()) {
+                row.reject(BAD_REQUEST_CODE, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            } else if (!isValidAccountType(row.dto.getTipoCuenta())) {
+                row.reject(BAD_REQUEST_CODE, "El tipo de cuenta debe ser AHORROS o CORRIENTE");
+            } else if (!isIntegerAccountNumber(row.dto.getNumeroCuenta())) {
+                row.reject(BAD_REQUEST_CODE, "El número de cuenta excede el rango permitido");
+            } else if (!seenInChunk.add(Integer.valueOf(row.dto.getNumeroCuenta()))) {
+                row.reject(BAD_REQUEST_CODE, "El número de cuenta está repetido en el archivo");
+            }
+        }
+    }
+
+    private void rejectExistingAccounts(List<ImportRow> chunk) {
+        List<Integer> candidates = chunk.stream()
+                .filter(row -> row.error == null)
+                .map(row -> Integer.valueOf(row.dto.getNumeroCuenta()))
+                .toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<Integer> existing = new HashSet<>(accountRepository.findExistingNumerosCuenta(candidates));
+        for (ImportRow row : chunk) {
+            if (row.error == null && existing.contains(Integer.valueOf(row.dto.getNumeroCuenta()))) {
+                row.reject(BAD_REQUEST_CODE, "El número de cuenta ya existe");
+            }
+        }
+    }
+
+    private void resolveClients(List<ImportRow> chunk, Map<String, ClientResolution> clientCache) {
+        // El bloque se resuelve desde un mapa propio: el caché puede ser menor que el bloque
+        Map<String, ClientResolution> resolutions = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                String identification = row.dto.getIdentificacion();
+                ClientResolution cached = clientCache.get(identification);
+                if (cached != null) {
+                    resolutions.put(identification, cached);
+                } else {
+                    missing.add(identification);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Map.Entry<String, ClientResolution>> resolved = Flux.fromIterable(missing)
+                    .flatMap(identification -> clientBatchLoader.loadClientIdByIdentification(identification)
+                            .map(clientId -> Map.entry(identification, new ClientResolution(clientId, null, true)))
+                            .onErrorResume(e -> Mono.just(Map.entry(identification, new ClientResolution(null,
+                                    Objects.requireNonNullElse(e.getMessage(), "Error al consultar el cliente"),
+                                    e instanceof ClientNotFoundException)))),
+                            clientConcurrency)
+                    .collectList()
+                    .block();
+            for (Map.Entry<String, ClientResolution> entry : resolved) {
+                resolutions.put(entry.getKey(), entry.getValue());
+                // Un timeout o un 5xx se vuelve a consultar en el siguiente bloque
+                if (entry.getValue().definitive()) {
+                    clientCache.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            ClientResolution resolution = resolutions.get(row.dto.getIdentificacion());
+            if (resolution.clientId() == null) {
+                row.reject(ERROR_CODE, resolution.error());
+            } else {
+                row.clientId = resolution.clientId();
+            }
+        }
+    }
+
+    private void insertAccounts(List<ImportRow> chunk) {
+        List<ImportRow> valid = chunk.stream().filter(row -> row.error == null).toList();
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                valid.forEach(row -> persistAccount(createAccountEntity(row.dto, row.clientId)));
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            // Si el lote falla (p. ej. una cuenta creada en paralelo) se reintenta fila por fila
+            log.warn("Falló la inserción en lote de {} cuentas, reintentando por fila: {}", valid.size(), e.getMessage());
+            valid.forEach(this::insertSingle);
+        }
+    }
+
+    private void insertSingle(ImportRow row) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                persistAccount(createAccountEntity(row.dto, row.clientId));
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            row.reject(ERROR_CODE, "No se pudo crear la cuenta: " + e.getMessage());
+        }
+    }
+
+    // Métodos privados auxiliares
+    private void persistAccount(Account account) {
+        entityManager.persist(account);
+        outboxService.accountCreated(account);
+    }
+
+    private ImportRow parseRow(long lineNumber, String line, ImportFormat format) {
+        try {
+            AccountDTO dto = format == ImportFormat.NDJSON
+                    ? objectMapper.readValue(line, AccountDTO.class)
+                    : parseCsv(line);
+            return new ImportRow(lineNumber, dto);
+        } catch (IOException | RuntimeException e) {
+            ImportRow row = new ImportRow(lineNumber, null);
+            row.reject(BAD_REQUEST_CODE, "Fila inválida: " + e.getMessage());
+            return row;
+        }
+    }
+
+    private AccountDTO parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("se esperaban 5 columnas y llegaron " + fields.length);
+        }
+        AccountDTO dto = new AccountDTO();
+        dto.setNumeroCuenta(fields[0].trim());
+        dto.setTipoCuenta(fields[1].trim());
+        dto.setSaldoInicial(fields[2].isBlank() ? null : new BigDecimal(fields[2].trim()));
+        dto.setEstado(fields[3].trim());
+        dto.setIdentificacion(fields[4].trim());
+        return dto;
+    }
+
+    private boolean isValidAccountType(String accountType) {
+        return accountType != null &&
+                (accountType.equals(AccountType.AHORROS.toString()) ||
+                        accountType.equals(AccountType.CORRIENTE.toString()));
+    }
+
+    private boolean isIntegerAccountNumber(String accountNumber) {
+        try {
+            Integer.parseInt(accountNumber);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Account createAccountEntity(AccountDTO dto, Long clientId) {
+        Account account = new Account();
+        account.setNumeroCuenta(Integer.valueOf(dto.getNumeroCuenta()));
+        account.setTipoCuenta(AccountType.valueOf(dto.getTipoCuenta()));
+        account.setSaldo(dto.getSaldoInicial());
+        account.setStatus(Boolean.parseBoolean(dto.getEstado()));
+        account.setClienteId(clientId);
+        return account;
+    }
+
+    private static <K, V> Map<K, V> lruCache(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record ClientResolution(Long clientId, String error, boolean definitive) {
+    }
+
+    private static class ImportRow {
+        private final long lineNumber;
+        private final AccountDTO dto;
+        private Long clientId;
+        private String errorCode;
+        private String error;
+
+        ImportRow(long lineNumber, AccountDTO dto) {
+            this.lineNumber = lineNumber;
+            this.dto = dto;
+        }
+
+        void reject(String code, String message) {
+            this.errorCode = code;
+            this.error = message;
+        }
+
+        String numeroCuenta() {
+            return dto == null ? null : dto.getNumeroCuenta();
+        }
+    }
+}
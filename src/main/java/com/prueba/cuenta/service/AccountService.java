@@ -1,11 +1,15 @@
 package com.prueba.cuenta.service;
 
 import com.prueba.cuenta.dto.AccountDTO;
+import com.prueba.cuenta.dto.BalanceDTO;
 import com.prueba.cuenta.entity.Account;
 import com.prueba.cuenta.entity.AccountType;
 import com.prueba.cuenta.exception.AccountBusinessException;
 import com.prueba.cuenta.repository.AccountRepository;
-import com.prueba.cuenta.service.client.ClientService;
+import com.prueba.cuenta.service.client.ClientBatchLoader;
+import com.prueba.cuenta.service.index.HotAccountIndex;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import com.prueba.cuenta.service.report.ReportPeriodCache;
 import com.prueba.cuenta.utils.ApiResponseClient;
 import com.prueba.cuenta.utils.ResponseProcess;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +17,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -29,7 +35,12 @@ public class AccountService {
     private static final String ERROR_STATUS = "ERROR";
 
     private final AccountRepository accountRepository;
-    private final ClientService clientService;
+    private final ClientBatchLoader clientBatchLoader;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final ReportPeriodCache reportPeriodCache;
+    private final HotAccountIndex hotAccountIndex;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public Mono<ApiResponseClient<Account>> createAccount(AccountDTO accountDTO) {
@@ -45,10 +56,13 @@ public class AccountService {
             return createErrorResponse("El tipo de cuenta debe ser AHORROS o CORRIENTE", BAD_REQUEST_CODE);
         }
 
-        return clientService.getClientIdByIdentification(accountDTO.getIdentificacion())
+        return clientBatchLoader.loadClientIdByIdentification(accountDTO.getIdentificacion())
                 .flatMap(clientId -> {
                     Account account = createAccountEntity(accountDTO, clientId);
-                    accountRepository.save(account);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        accountRepository.save(account);
+                        outboxService.accountCreated(account);
+                    });
                     log.info("Cuenta creada: {}", account);
                     return createSuccessResponse(account, "Cuenta creada correctamente");
                 })
@@ -85,7 +99,13 @@ public class AccountService {
         return Mono.fromCallable(() -> {
                     Account account = findAccountByNumber(accountNumber);
                     updateAccountFields(account, accountDTO);
-                    accountRepository.save(account);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        accountRepository.save(account);
+                        outboxService.accountUpdated(account);
+                    });
+                    // El tipo y el estado de la cuenta aparecen en las filas de reportes ya guardadas
+                    reportPeriodCache.invalidateAccount(accountNumber);
+                    hotAccountIndex.accountUpdated(account);
                     log.info("Cuenta actualizada: {}", account);
                     return createSuccessResponseWithData(account, "Cuenta actualizada correctamente");
                 })
@@ -95,6 +115,19 @@ public class AccountService {
                 });
     }
 
+    public Mono<ApiResponseClient<BalanceDTO>> getBalanceAt(Integer accountNumber, LocalDate date) {
+        return Mono.fromCallable(() -> {
+                    Account account = findAccountById(accountNumber);
+                    BalanceDTO balance = new BalanceDTO(accountNumber, date, balanceCheckpointService.balanceAt(account, date));
+                    log.info("Saldo de la cuenta {} al {}: {}", accountNumber, date, balance.getSaldo());
+                    return createSuccessResponseWithData(balance, "Saldo consultado correctamente");
+                })
+                .onErrorResume(e -> {
+                    log.error("Error al consultar el saldo de la cuenta: {}", e.getMessage());
+                    return handleAccountFindError(e);
+                });
+    }
+
     // Métodos privados auxiliares
     private boolean accountExists(Integer accountNumber) {
         return accountRepository.findByNumeroCuenta(accountNumber) != null;
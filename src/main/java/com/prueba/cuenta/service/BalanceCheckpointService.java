@@ -0,0 +1,163 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.BalanceCheckpoint;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.BalanceCheckpointRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.archive.MovementArchive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Mantiene checkpoints de saldo por cuenta y fecha para responder el saldo a una
+ * fecha leyendo el checkpoint más cercano y sumando solo los movimientos entre
+ * ambas fechas. Si no hay uno anterior se parte del siguiente y se restan los
+ * movimientos intermedios; solo sin ningún checkpoint se recorre el historial.
+ *
+ * <p>Se escribe un checkpoint cada {@code cuenta.saldo.checkpoint.intervalo}
+ * movimientos de una cuenta y al cierre de cada día para las cuentas con
+ * movimientos. Un movimiento con fecha anterior o igual a checkpoints existentes
+ * los ajusta por su valor.
+ *
+ * <p>Todo cambio de checkpoints ocurre con la fila de la cuenta bloqueada: los
+ * movimientos los ajustan dentro de su propia transacción y el cierre del día
+ * bloquea la cuenta antes de recalcular. Así cada checkpoint coincide con los
+ * movimientos confirmados y un fallo revierte el movimiento junto con el ajuste.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceCheckpointService {
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final MovementRepository movementRepository;
+    private final AccountRepository accountRepository;
+    private final MovementArchive movementArchive;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, AtomicInteger> pendingMovements = new ConcurrentHashMap<>();
+
+    @Value("${cuenta.saldo.checkpoint.intervalo:100}")
+    private int checkpointInterval;
+
+    /**
+     * Ajusta los checkpoints por un movimiento recién guardado. Se llama en la
+     * transacción que lo guarda, con la cuenta ya bloqueada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void movementSaved(Movement movement) {
+        Integer accountNumber = movement.getCuenta().getNumeroCuenta();
+        checkpointRepository.shiftFrom(accountNumber, movement.getFecha(), movement.getValor());
+
+        AtomicInteger pending = pendingMovements.computeIfAbsent(accountNumber, key -> new AtomicInteger());
+        if (pending.incrementAndGet() >= checkpointInterval) {
+            pendingMovements.remove(accountNumber);
+            writeCheckpoint(movement.getCuenta(), movement.getFecha());
+        }
+    }
+
+    /**
+     * Saldo al cierre de {@code date}. Checkpoints, saldo actual y sumas se leen
+     * de una misma instantánea para no mezclar estados de distintos momentos.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal balanceAt(Account account, LocalDate date) {
+        Integer accountNumber = account.getNumeroCuenta();
+        return balanceFrom(accountNumber, date,
+                checkpointRepository.findFirstByNumeroCuentaAndFechaLessThanEqualOrderByFechaDesc(accountNumber, date),
+                () -> currentBalance(accountNumber));
+    }
+
+    @Scheduled(cron = "${cuenta.saldo.checkpoint.cron:0 5 0 * * *}")
+    public void closePreviousDay() {
+        closeDay(LocalDate.now().minusDays(1));
+    }
+
+    public void closeDay(LocalDate date) {
+        List<Integer> accounts = movementRepository.findAccountNumbersWithMovementsOn(date);
+        log.info("Cierre de saldos del {}: {} cuentas con movimientos", date, accounts.size());
+        for (Integer accountNumber : accounts) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> recomputeCheckpoint(accountNumber, date));
+                pendingMovements.remove(accountNumber);
+            } catch (RuntimeException e) {
+                log.error("Error al cerrar el saldo de la cuenta {} del {}: {}", accountNumber, date, e.getMessage());
+            }
+        }
+    }
+
+    // Métodos privados auxiliares
+    private void writeCheckpoint(Account account, LocalDate date) {
+        Integer accountNumber = account.getNumeroCuenta();
+        Optional<BalanceCheckpoint> existing = checkpointRepository.findByNumeroCuentaAndFecha(accountNumber, date);
+        if (existing.isPresent()) {
+            return;
+        }
+        // La cuenta está bloqueada en esta transacción: su saldo ya incluye el movimiento
+        BigDecimal balance = balanceFrom(accountNumber, date,
+                checkpointRepository.findFirstByNumeroCuentaAndFechaLessThanEqualOrderByFechaDesc(accountNumber, date),
+                account::getSaldo);
+        saveCheckpoint(new BalanceCheckpoint(), accountNumber, date, balance);
+    }
+
+    private void recomputeCheckpoint(Integer accountNumber, LocalDate date) {
+        // Bloquea la cuenta para que ningún movimiento ajuste sus checkpoints mientras se recalcula
+        Account account = accountRepository.findAllForUpdate(List.of(accountNumber)).stream()
+                .findFirst()
+                .orElseThrow(() -> new AccountBusinessException("Cuenta no encontrada: " + accountNumber));
+        BigDecimal balance = balanceFrom(accountNumber, date,
+                checkpointRepository.findFirstByNumeroCuentaAndFechaLessThanOrderByFechaDesc(accountNumber, date),
+                account::getSaldo);
+        BalanceCheckpoint checkpoint = checkpointRepository.findByNumeroCuentaAndFecha(accountNumber, date)
+                .orElseGet(BalanceCheckpoint::new);
+        saveCheckpoint(checkpoint, accountNumber, date, balance);
+    }
+
+    /**
+     * Saldo al cierre de {@code date} a partir de {@code previous}; si no existe, del
+     * siguiente checkpoint posterior a la fecha, y sin ninguno, del saldo actual.
+     */
+    private BigDecimal balanceFrom(Integer accountNumber, LocalDate date, Optional<BalanceCheckpoint> previous,
+                                   Supplier<BigDecimal> currentBalance) {
+        return previous
+                .map(checkpoint -> checkpoint.getSaldo().add(
+                        movementArchive.sumValorAfterUntil(accountNumber, checkpoint.getFecha(), date)))
+                .or(() -> checkpointRepository.findFirstByNumeroCuentaAndFechaGreaterThanOrderByFechaAsc(accountNumber, date)
+                        .map(next -> next.getSaldo().subtract(
+                                movementArchive.sumValorAfterUntil(accountNumber, date, next.getFecha()))))
+                .orElseGet(() -> currentBalance.get().subtract(movementArchive.sumValorAfter(accountNumber, date)));
+    }
+
+    private BigDecimal currentBalance(Integer accountNumber) {
+        return accountRepository.findById(accountNumber)
+                .map(Account::getSaldo)
+                .orElseThrow(() -> new AccountBusinessException("Cuenta no encontrada: " + accountNumber));
+    }
+
+    private void saveCheckpoint(BalanceCheckpoint checkpoint, Integer accountNumber, LocalDate date, BigDecimal balance) {
+        checkpoint.setNumeroCuenta(accountNumber);
+        checkpoint.setFecha(date);
+        checkpoint.setSaldo(balance);
+        checkpointRepository.save(checkpoint);
+        log.info("Checkpoint de saldo cuenta {} al {}: {}", accountNumber, date, balance);
+    }
+}
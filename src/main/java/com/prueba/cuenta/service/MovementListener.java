@@ -0,0 +1,11 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.entity.Movement;
+
+/**
+ * Recibe los movimientos una vez confirmados, a través de {@link MovementListeners}.
+ */
+public interface MovementListener {
+
+    void onMovementCreated(Movement movement);
+}
@@ -0,0 +1,42 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.entity.Movement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Notifica a todos los {@link MovementListener} un movimiento ya confirmado.
+ * La notificación ocurre después del commit: el fallo de un listener se
+ * registra y no impide notificar a los demás ni revierte el movimiento, así que
+ * cada listener debe recuperarse por su cuenta.
+ */
+@Slf4j
+@Component
+public class MovementListeners {
+
+    private final List<MovementListener> listeners;
+
+    public MovementListeners(List<MovementListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    public void movementCreated(Movement movement) {
+        for (MovementListener listener : listeners) {
+            try {
+                listener.onMovementCreated(movement);
+            } catch (RuntimeException e) {
+                log.error("Error al notificar el movimiento {} a {}: {}",
+                        movement.getId(), listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Los mismos listeners sin {@code excluded}, para quien ya aplicó el movimiento por su cuenta.
+     */
+    public MovementListeners without(MovementListener excluded) {
+        return new MovementListeners(listeners.stream().filter(listener -> listener != excluded).toList());
+    }
+}
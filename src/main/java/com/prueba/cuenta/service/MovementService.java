@@ -1,5 +1,6 @@
 package com.prueba.cuenta.service;
 
+import com.prueba.cuenta.dto.MovementCommandDTO;
 import com.prueba.cuenta.dto.MovementDTO;
 import com.prueba.cuenta.dto.MovementReportDTO;
 import com.prueba.cuenta.entity.Account;
@@ -8,20 +9,31 @@ import com.prueba.cuenta.entity.MovementType;
 import com.prueba.cuenta.exception.AccountBusinessException;
 import com.prueba.cuenta.repository.AccountRepository;
 import com.prueba.cuenta.repository.MovementRepository;
-import com.prueba.cuenta.service.client.ClientService;
+import com.prueba.cuenta.service.archive.MovementArchive;
+import com.prueba.cuenta.service.client.ClientBatchLoader;
+import com.prueba.cuenta.service.index.HotAccountIndex;
+import com.prueba.cuenta.service.journal.MovementJournalService;
+import com.prueba.cuenta.service.limit.WithdrawalLimitService;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import com.prueba.cuenta.service.report.ReportPeriodCache;
 import com.prueba.cuenta.utils.ApiResponseClient;
 import com.prueba.cuenta.utils.ResponseProcess;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -39,21 +51,49 @@ public class MovementService {
 
     private final MovementRepository movementRepository;
     private final AccountRepository accountRepository;
-    private final ClientService clientService;
+    private final ClientBatchLoader clientBatchLoader;
+    private final MovementListeners movementListeners;
+    private final ReportPeriodCache reportPeriodCache;
+    private final MovementArchive movementArchive;
+    private final MovementJournalService movementJournalService;
+    private final WithdrawalLimitService withdrawalLimitService;
+    private final HotAccountIndex hotAccountIndex;
+    private final OutboxService outboxService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
     public Mono<ApiResponseClient<Movement>> createMovement(MovementDTO movementDTO) {
-        log.info("Creando movimiento con los datos: {}", movementDTO);
-
-        return Mono.fromCallable(() -> {
-                    Account account = findAccountById(Integer.valueOf(movementDTO.getCuentaId()));
-                    BigDecimal newBalance = calculateNewBalance(account, movementDTO.getValor());
-                    validateSufficientBalance(newBalance, movementDTO.getCuentaId());
+        return Mono.fromCallable(() -> toCommand(movementDTO))
+                .flatMap(this::createMovement)
+                .onErrorResume(e -> {
+                    log.error("Error al crear el movimiento: {}", e.getMessage());
+                    return Mono.just(createErrorResponse(e.getMessage()));
+                });
+    }
 
-                    Movement movement = createMovementEntity(movementDTO, account, newBalance);
-                    updateAccountBalance(account, newBalance);
+    /**
+     * Crea el movimiento a partir de campos ya tipados; los cuerpos CBOR y Smile
+     * llegan directamente aquí sin pasar por texto. La cuenta se lee bloqueada
+     * dentro de la misma transacción que guarda el saldo, igual que en las
+     * transferencias, el proceso de fin de día y el diario.
+     */
+    public Mono<ApiResponseClient<Movement>> createMovement(MovementCommandDTO command) {
+        log.info("Creando movimiento con los datos: {}", command);
+        if (movementJournalService.isEnabled()) {
+            return movementJournalService.accept(command);
+        }
 
-                    Movement savedMovement = movementRepository.save(movement);
+        return Mono.fromCallable(() -> {
+                    String movementId = MDC.get("uuid");
+                    Movement savedMovement;
+                    try {
+                        // El saldo, el movimiento y su evento del outbox se confirman juntos
+                        savedMovement = transactionTemplate.execute(status -> apply(movementId, command));
+                    } catch (RuntimeException e) {
+                        withdrawalLimitService.release(movementId);
+                        throw e;
+                    }
+                    movementListeners.movementCreated(savedMovement);
                     return createSuccessResponse(savedMovement, "Movimiento creado correctamente");
                 })
                 .onErrorResume(e -> {
@@ -72,7 +112,7 @@ public class MovementService {
     }
 
     public Flux<ApiResponseClient<Movement>> getMovementsByAccount(Integer accountId) {
-        return Flux.fromIterable(movementRepository.findByCuenta_NumeroCuenta(accountId))
+        return Flux.fromIterable(movementArchive.findByAccount(accountId))
                 .map(movement -> createSuccessResponse(movement, "Consulta exitosa"))
                 .onErrorResume(e -> {
                     log.error("Error al obtener los movimientos por cuenta: {}", e.getMessage());
@@ -83,13 +123,8 @@ public class MovementService {
     public Mono<ApiResponseClient<List<MovementReportDTO>>> generateReport(
             Integer accountId, LocalDate startDate, LocalDate endDate) {
 
-        return Mono.fromCallable(() -> {
-                    Account account = findAccountById(accountId);
-                    return movementRepository.findByCuenta_NumeroCuentaAndFechaBetween(accountId, startDate, endDate);
-                })
-                .flatMapMany(Flux::fromIterable)
-                .collectList()
-                .flatMap(movements -> buildReportFromMovements(movements))
+        return Mono.fromCallable(() -> findReportAccount(accountId))
+                .flatMap(account -> buildReport(account, startDate, endDate))
                 .map(report -> {
                     ResponseProcess responseProcess = new ResponseProcess(
                             REPORT_SUCCESS_CODE, "Reporte generado exitosamente", SUCCESS_STATUS);
@@ -103,28 +138,61 @@ public class MovementService {
     }
 
     // Métodos privados de ayuda
+    private Movement apply(String movementId, MovementCommandDTO command) {
+        Account account = findAccountForUpdate(command.getCuentaId());
+        BigDecimal newBalance = calculateNewBalance(account, command.getValor());
+        validateSufficientBalance(newBalance, command.getCuentaId());
+
+        Movement movement = createMovementEntity(movementId, command, account, newBalance);
+        withdrawalLimitService.reserve(movementId, account, command.getFecha(), command.getValor());
+        updateAccountBalance(account, newBalance);
+        Movement saved = movementRepository.save(movement);
+        outboxService.movementCreated(saved);
+        balanceCheckpointService.movementSaved(saved);
+        return saved;
+    }
+
+    private Account findAccountForUpdate(Integer accountId) {
+        List<Account> accounts = accountRepository.findAllForUpdate(List.of(accountId));
+        if (accounts.isEmpty()) {
+            throw new AccountBusinessException("Cuenta no encontrada");
+        }
+        return accounts.get(0);
+    }
+
     private Account findAccountById(Integer accountId) {
         return accountRepository.findById(accountId)
                 .orElseThrow(() -> new AccountBusinessException("Cuenta no encontrada"));
     }
 
+    private Account findReportAccount(Integer accountId) {
+        // Una cuenta del índice en memoria se reporta sin ir a la base
+        return hotAccountIndex.account(accountId).orElseGet(() -> findAccountById(accountId));
+    }
+
     private BigDecimal calculateNewBalance(Account account, BigDecimal transactionAmount) {
         return account.getSaldo().add(transactionAmount);
     }
 
-    private void validateSufficientBalance(BigDecimal newBalance, String accountId) {
+    private void validateSufficientBalance(BigDecimal newBalance, Integer accountId) {
         if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
             log.error("Saldo no disponible para la cuenta: {}", accountId);
             throw new AccountBusinessException("Saldo no disponible");
         }
     }
 
-    private Movement createMovementEntity(MovementDTO movementDTO, Account account, BigDecimal newBalance) {
+    private MovementCommandDTO toCommand(MovementDTO movementDTO) {
+        return new MovementCommandDTO(LocalDate.parse(movementDTO.getFecha()), movementDTO.getValor(),
+                Integer.valueOf(movementDTO.getCuentaId()));
+    }
+
+    private Movement createMovementEntity(String movementId, MovementCommandDTO command, Account account,
+                                          BigDecimal newBalance) {
         Movement movement = new Movement();
-        movement.setId(MDC.get("uuid"));
-        movement.setFecha(LocalDate.parse(movementDTO.getFecha()));
-        movement.setTipoMovimiento(determineMovementType(movementDTO.getValor()));
-        movement.setValor(movementDTO.getValor());
+        movement.setId(movementId);
+        movement.setFecha(command.getFecha());
+        movement.setTipoMovimiento(determineMovementType(command.getValor()));
+        movement.setValor(command.getValor());
         movement.setCuenta(account);
         movement.setSaldo(newBalance);
         return movement;
@@ -132,6 +200,8 @@ public class MovementService {
 
     private void updateAccountBalance(Account account, BigDecimal newBalance) {
         account.setSaldo(newBalance);
+        // Un movimiento de valor cero no cambia el saldo, pero sí el reporte: se fuerza el cambio de versión
+        account.setFechaModificacion(Instant.now());
         accountRepository.save(account);
     }
 
@@ -149,27 +219,61 @@ public class MovementService {
         return new ApiResponseClient<>(null, responseProcess);
     }
 
-    private Mono<List<MovementReportDTO>> buildReportFromMovements(List<Movement> movements) {
-        if (movements.isEmpty()) {
-            return Mono.just(List.of());
+    /**
+     * Arma el reporte uniendo los meses cerrados (desde {@link ReportPeriodCache} o
+     * cargados y guardados en ella) con el mes en curso, que siempre se consulta.
+     */
+    private Mono<List<MovementReportDTO>> buildReport(Account account, LocalDate startDate, LocalDate endDate) {
+        Integer accountId = account.getNumeroCuenta();
+        LocalDate openPeriodStart = YearMonth.now().atDay(1);
+        LocalDate closedEnd = endDate.isBefore(openPeriodStart) ? endDate : openPeriodStart.minusDays(1);
+
+        Map<YearMonth, List<MovementReportDTO>> closedPeriods = new TreeMap<>();
+        List<YearMonth> missing = new ArrayList<>();
+        if (!startDate.isAfter(closedEnd)) {
+            for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(closedEnd)); month = month.plusMonths(1)) {
+                List<MovementReportDTO> cached = reportPeriodCache.get(accountId, month);
+                if (cached == null) {
+                    missing.add(month);
+                } else {
+                    closedPeriods.put(month, cached);
+                }
+            }
         }
 
-        return clientService.getClientName(movements.get(0).getCuenta().getClienteId())
-                .map(clientName -> movements.stream()
-                        .map(movement -> mapToReportDTO(movement, clientName))
-                        .collect(Collectors.toList()));
-    }
-
-    private MovementReportDTO mapToReportDTO(Movement movement, String clientName) {
-        MovementReportDTO dto = new MovementReportDTO();
-        dto.setFecha(movement.getFecha());
-        dto.setCliente(clientName);
-        dto.setNumeroCuenta(movement.getCuenta().getNumeroCuenta().toString());
-        dto.setTipo(movement.getCuenta().getTipoCuenta().toString());
-        dto.setSaldoInicial(movement.getSaldo().subtract(movement.getValor()));
-        dto.setEstado(movement.getCuenta().isStatus());
-        dto.setMovimiento(movement.getValor());
-        dto.setSaldoDisponible(movement.getSaldo());
-        return dto;
+        long generation = reportPeriodCache.generation(accountId);
+        List<MovementReportDTO> loaded = missing.isEmpty()
+                ? List.of()
+                : movementArchive.findReportRows(account,
+                        missing.get(0).atDay(1), missing.get(missing.size() - 1).atEndOfMonth());
+        LocalDate liveStart = startDate.isAfter(openPeriodStart) ? startDate : openPeriodStart;
+        List<MovementReportDTO> live = liveStart.isAfter(endDate)
+                ? List.of()
+                : movementArchive.findReportRows(account, liveStart, endDate);
+
+        Mono<String> clientName = loaded.isEmpty() && live.isEmpty()
+                ? Mono.just("")
+                : clientBatchLoader.loadClientName(account.getClienteId());
+
+        return clientName.map(name -> {
+            loaded.forEach(row -> row.setCliente(name));
+            live.forEach(row -> row.setCliente(name));
+            Map<YearMonth, List<MovementReportDTO>> loadedByMonth = loaded.stream()
+                    .collect(Collectors.groupingBy(row -> YearMonth.from(row.getFecha())));
+            for (YearMonth month : missing) {
+                List<MovementReportDTO> rows = loadedByMonth.getOrDefault(month, List.of());
+                reportPeriodCache.put(accountId, month, rows, generation);
+                closedPeriods.put(month, rows);
+            }
+
+            List<MovementReportDTO> report = new ArrayList<>();
+            closedPeriods.values().forEach(rows -> rows.stream()
+                    .filter(row -> !row.getFecha().isBefore(startDate) && !row.getFecha().isAfter(endDate))
+                    .forEach(report::add));
+            live.stream()
+                    .filter(row -> !row.getFecha().isBefore(liveStart) && !row.getFecha().isAfter(endDate))
+                    .forEach(report::add);
+            return report;
+        });
     }
 }
\ No newline at end of file
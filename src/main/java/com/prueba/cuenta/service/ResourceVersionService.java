@@ -0,0 +1,42 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.dto.AccountVersionDTO;
+import com.prueba.cuenta.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Calcula validadores (ETag) para las consultas GET a partir de la versión de
+ * la fila de la cuenta, con una sola lectura por clave primaria.
+ *
+ * <p>Cada movimiento actualiza el saldo de su cuenta, así que la versión de la
+ * cuenta también cambia cuando cambia su reporte. El nombre del cliente viene
+ * del servicio de clientes y no forma parte del validador.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+
+    private final AccountRepository accountRepository;
+
+    public Optional<String> accountETag(Integer numeroCuenta) {
+        return accountRepository.findVersionByNumeroCuenta(numeroCuenta)
+                .map(version -> eTag("cuenta", version));
+    }
+
+    public Optional<String> reportETag(Integer numeroCuenta) {
+        return accountRepository.findVersionByNumeroCuenta(numeroCuenta)
+                .map(version -> eTag("reporte", version));
+    }
+
+    // ETag débil: la misma versión puede serializarse en distintos formatos
+    private String eTag(String resource, AccountVersionDTO version) {
+        Instant modified = version.getFechaModificacion();
+        long stamp = modified == null ? 0 : ChronoUnit.MICROS.between(Instant.EPOCH, modified);
+        return "W/\"" + resource + "-" + version.getNumeroCuenta() + "-" + Long.toString(stamp, 36) + "\"";
+    }
+}
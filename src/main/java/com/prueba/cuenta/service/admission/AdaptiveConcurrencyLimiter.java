@@ -0,0 +1,136 @@
+package com.prueba.cuenta.service.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia adaptativo basado en el gradiente de latencia: compara
+ * la latencia reciente con la latencia sin carga (la mínima observada, que se
+ * relaja lentamente para seguir cambios reales) y reduce el límite cuando la
+ * reciente crece porque la base de datos se está encolando. Los errores y
+ * timeouts reducen el límite de forma multiplicativa.
+ *
+ * <p>Cuando el límite está lleno la solicitud espera un tiempo acotado en una
+ * cola también acotada; si no obtiene cupo se descarta.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        ADMITTED, QUEUED, SHED
+    }
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double DROP_BACKOFF = 0.9;
+    private static final double BASELINE_DRIFT = 0.0001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double shortRtt;
+    private double noLoadRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue, long maxWaitMillis) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    public Outcome acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Outcome.ADMITTED;
+            }
+            if (queued >= maxQueue || maxWaitNanos <= 0) {
+                return Outcome.SHED;
+            }
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return Outcome.SHED;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Outcome.QUEUED;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.SHED;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int concurrency = inFlight;
+            inFlight--;
+            if (dropped) {
+                limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            } else {
+                updateLimit(rttNanos, concurrency);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos, int concurrency) {
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt * 0.9 + rttNanos * 0.1;
+        noLoadRtt = noLoadRtt == 0 || rttNanos < noLoadRtt ? rttNanos : noLoadRtt * (1 + BASELINE_DRIFT);
+        // Sin presión suficiente no se aprende nada sobre el límite
+        if (concurrency < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * noLoadRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
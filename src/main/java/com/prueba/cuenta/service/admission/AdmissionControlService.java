@@ -0,0 +1,144 @@
+package com.prueba.cuenta.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Control de admisión para los endpoints de escritura: un límite de concurrencia
+ * adaptativo compartido y, opcionalmente, una cubeta de tokens por cuenta.
+ */
+@Slf4j
+@Service
+public class AdmissionControlService {
+
+    private final boolean enabled;
+    private final double accountRate;
+    private final double accountBurst;
+    private final long shedRetryAfterSeconds;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<Integer, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+
+    private final Counter admitted;
+    private final Counter queued;
+    private final Counter shed;
+    private final Counter accountShed;
+
+    public AdmissionControlService(MeterRegistry meterRegistry,
+                                   @Value("${cuenta.admision.habilitado:true}") boolean enabled,
+                                   @Value("${cuenta.admision.limite-inicial:50}") int initialLimit,
+                                   @Value("${cuenta.admision.limite-minimo:5}") int minLimit,
+                                   @Value("${cuenta.admision.limite-maximo:500}") int maxLimit,
+                                   @Value("${cuenta.admision.cola-maxima:200}") int maxQueue,
+                                   @Value("${cuenta.admision.espera-maxima-ms:100}") long maxWaitMillis,
+                                   @Value("${cuenta.admision.reintento-segundos:1}") long shedRetryAfterSeconds,
+                                   @Value("${cuenta.admision.cuenta.tasa:0}") double accountRate,
+                                   @Value("${cuenta.admision.cuenta.rafaga:10}") double accountBurst) {
+        this.enabled = enabled;
+        this.accountRate = accountRate;
+        this.accountBurst = accountBurst;
+        this.shedRetryAfterSeconds = shedRetryAfterSeconds;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueue, maxWaitMillis);
+
+        this.admitted = counter(meterRegistry, "admitida");
+        this.queued = counter(meterRegistry, "encolada");
+        this.shed = counter(meterRegistry, "rechazada");
+        this.accountShed = counter(meterRegistry, "rechazada-cuenta");
+        Gauge.builder("admision.limite", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("admision.en.curso", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        Gauge.builder("admision.en.cola", limiter, AdaptiveConcurrencyLimiter::getQueued).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getShedRetryAfterSeconds() {
+        return shedRetryAfterSeconds;
+    }
+
+    /**
+     * Devuelve un permiso que debe liberarse al terminar la solicitud, o null si se descarta.
+     */
+    public Permit tryAdmit() {
+        AdaptiveConcurrencyLimiter.Outcome outcome = limiter.acquire();
+        switch (outcome) {
+            case ADMITTED -> admitted.increment();
+            case QUEUED -> {
+                admitted.increment();
+                queued.increment();
+            }
+            case SHED -> {
+                shed.increment();
+                log.warn("Solicitud descartada por control de admisión, límite actual: {}", limiter.getLimit());
+                return null;
+            }
+        }
+        return new Permit();
+    }
+
+    /**
+     * Aplica la cubeta de tokens de la cuenta. Devuelve 0 si la solicitud puede
+     * continuar o los segundos sugeridos para {@code Retry-After}.
+     */
+    public long checkAccountRate(String accountNumber) {
+        if (!enabled || accountRate <= 0) {
+            return 0;
+        }
+        try {
+            return checkAccountRate(Integer.valueOf(accountNumber));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Igual que {@link #checkAccountRate(String)} para cuerpos ya tipados.
+     */
+    public long checkAccountRate(Integer account) {
+        if (!enabled || accountRate <= 0 || account == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long waitNanos = accountBuckets.computeIfAbsent(account, key -> new TokenBucket(accountRate, accountBurst, now))
+                .tryConsume(now);
+        if (waitNanos == 0) {
+            return 0;
+        }
+        accountShed.increment();
+        log.warn("Solicitud descartada por límite de la cuenta {}", account);
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.admision.cuenta.limpieza-ms:60000}")
+    public void evictIdleAccountBuckets() {
+        long now = System.nanoTime();
+        accountBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("admision.solicitudes")
+                .tag("resultado", result)
+                .register(meterRegistry);
+    }
+
+    public class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        public void release(long rttNanos, boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(rttNanos, dropped);
+            }
+        }
+    }
+}
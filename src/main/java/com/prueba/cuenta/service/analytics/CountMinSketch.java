@@ -0,0 +1,60 @@
+package com.prueba.cuenta.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min de {@code depth} filas por {@code width} columnas. La estimación
+ * nunca es menor que el valor real y lo supera en a lo sumo
+ * {@code e / width * total} con probabilidad {@code 1 - e^-depth}.
+ *
+ * <p>No es seguro para hilos, igual que {@link SpaceSaving}.
+ */
+class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL};
+
+    private final int width;
+    private final int depth;
+    private final long[][] rows;
+
+    CountMinSketch(int width, int depth) {
+        if (depth > SEEDS.length) {
+            throw new IllegalArgumentException("Profundidad máxima de Count-Min: " + SEEDS.length);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.rows = new long[depth][width];
+    }
+
+    void add(int key, long weight) {
+        for (int row = 0; row < depth; row++) {
+            rows[row][column(key, row)] += weight;
+        }
+    }
+
+    long estimate(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, rows[row][column(key, row)]);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        for (long[] row : rows) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    // Métodos privados auxiliares
+    private int column(int key, int row) {
+        // Finalizador de SplitMix64 sobre la cuenta mezclada con la semilla de la fila
+        long hash = (key & 0xFFFFFFFFL) * SEEDS[row] + SEEDS[(row + 1) % SEEDS.length];
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return (int) Math.floorMod(hash, (long) width);
+    }
+}
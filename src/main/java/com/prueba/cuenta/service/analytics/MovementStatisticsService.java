@@ -0,0 +1,248 @@
+package com.prueba.cuenta.service.analytics;
+
+import com.prueba.cuenta.dto.HeavyHitterDTO;
+import com.prueba.cuenta.dto.TopAccountsDTO;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.service.MovementListener;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cuentas más activas por cantidad de movimientos y por volumen (valor
+ * absoluto), alimentadas por cada movimiento confirmado.
+ *
+ * <p>La ventana deslizante es un anillo de {@code cuenta.estadisticas.intervalos}
+ * intervalos de {@code cuenta.estadisticas.intervalo-segundos}. Cada intervalo
+ * tiene, por métrica, un Space-Saving de {@code capacidad} contadores y un
+ * Count-Min de {@code profundidad} x {@code ancho}, así que la memoria es fija
+ * sin importar cuántas cuentas se muevan. Una consulta combina los intervalos
+ * de la ventana: el intervalo en curso cuenta completo aunque haya empezado
+ * hace menos de {@code intervalo-segundos}.
+ *
+ * <p>Para cada cuenta del resultado, {@code minimo} es la suma de lo garantizado
+ * por Space-Saving y {@code estimado} la suma del menor entre su cota superior y
+ * la estimación de Count-Min: el valor real siempre está entre ambos. Las
+ * estadísticas son del nodo que atiende la consulta.
+ */
+@Slf4j
+@Component
+public class MovementStatisticsService implements MovementListener {
+
+    private static final String SUCCESS_CODE = "0";
+    private static final String ERROR_CODE = "1";
+    private static final String BAD_REQUEST_CODE = "400";
+    private static final String SUCCESS_STATUS = "OK";
+    private static final String ERROR_STATUS = "ERROR";
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int width;
+    private final long intervalMillis;
+    private final Interval[] intervals;
+
+    private Clock clock = Clock.systemUTC();
+
+    public MovementStatisticsService(@Value("${cuenta.estadisticas.habilitado:false}") boolean enabled,
+                                     @Value("${cuenta.estadisticas.capacidad:1000}") int capacity,
+                                     @Value("${cuenta.estadisticas.ancho:2048}") int width,
+                                     @Value("${cuenta.estadisticas.profundidad:4}") int depth,
+                                     @Value("${cuenta.estadisticas.intervalo-segundos:60}") int intervalSeconds,
+                                     @Value("${cuenta.estadisticas.intervalos:60}") int intervalCount) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.width = width;
+        this.intervalMillis = intervalSeconds * 1000L;
+        this.intervals = new Interval[enabled ? intervalCount : 0];
+        for (int i = 0; i < this.intervals.length; i++) {
+            this.intervals[i] = new Interval(capacity, width, depth);
+        }
+    }
+
+    @Override
+    public void onMovementCreated(Movement movement) {
+        if (!enabled || movement.getCuenta() == null || movement.getValor() == null) {
+            return;
+        }
+        int numeroCuenta = movement.getCuenta().getNumeroCuenta();
+        long cents = movement.getValor().abs().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        long slot = currentSlot();
+        Interval interval = intervals[index(slot)];
+        synchronized (interval) {
+            if (interval.slot != slot) {
+                interval.reset(slot);
+            }
+            interval.add(numeroCuenta, cents);
+        }
+    }
+
+    /**
+     * Top {@code limite} de cuentas por {@code metrica} ({@code cantidad} o
+     * {@code volumen}) en los últimos {@code ventanaMinutos}.
+     */
+    public Mono<ApiResponseClient<TopAccountsDTO>> topAccounts(String metrica, int ventanaMinutos, int limite) {
+        if (!enabled) {
+            return createErrorResponse("Las estadísticas de movimientos no están habilitadas", ERROR_CODE);
+        }
+        Metric metric;
+        try {
+            metric = Metric.valueOf(metrica.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse("Métrica inválida, use cantidad o volumen", BAD_REQUEST_CODE);
+        }
+        long maxMinutes = intervals.length * intervalMillis / 60_000;
+        if (ventanaMinutos < 1 || ventanaMinutos > maxMinutes) {
+            return createErrorResponse("La ventana debe estar entre 1 y " + maxMinutes + " minutos", BAD_REQUEST_CODE);
+        }
+        if (limite < 1 || limite > capacity) {
+            return createErrorResponse("El límite debe estar entre 1 y " + capacity, BAD_REQUEST_CODE);
+        }
+        return Mono.fromCallable(() -> {
+            TopAccountsDTO top = query(metric, ventanaMinutos, limite);
+            log.debug("Top {} de cuentas por {} en {} minutos: total {}", limite, metrica, ventanaMinutos, top.getTotal());
+            return new ApiResponseClient<>(top, new ResponseProcess(SUCCESS_CODE, "Estadísticas consultadas correctamente", SUCCESS_STATUS));
+        });
+    }
+
+    // Métodos privados auxiliares
+    private TopAccountsDTO query(Metric metric, int ventanaMinutos, int limite) {
+        long current = currentSlot();
+        long first = current - Math.min(intervals.length, (ventanaMinutos * 60_000L + intervalMillis - 1) / intervalMillis) + 1;
+
+        // Primera pasada: candidatas (las seguidas en algún intervalo), total y cota de las no seguidas
+        Set<Integer> candidates = new HashSet<>();
+        long total = 0;
+        long untracked = 0;
+        for (long slot = first; slot <= current; slot++) {
+            Interval interval = intervals[index(slot)];
+            synchronized (interval) {
+                if (interval.slot == slot) {
+                    SpaceSaving top = interval.top(metric);
+                    top.keys().forEach(candidates::add);
+                    total += interval.total(metric);
+                    untracked += top.minCount();
+                }
+            }
+        }
+
+        // Segunda pasada: cotas de cada candidata sumadas sobre los intervalos
+        Map<Integer, long[]> bounds = new HashMap<>(candidates.size() * 2);
+        candidates.forEach(numeroCuenta -> bounds.put(numeroCuenta, new long[2]));
+        for (long slot = first; slot <= current; slot++) {
+            Interval interval = intervals[index(slot)];
+            synchronized (interval) {
+                if (interval.slot == slot) {
+                    SpaceSaving top = interval.top(metric);
+                    CountMinSketch sketch = interval.sketch(metric);
+                    bounds.forEach((numeroCuenta, bound) -> {
+                        bound[0] += Math.min(top.count(numeroCuenta), sketch.estimate(numeroCuenta));
+                        bound[1] += top.guaranteed(numeroCuenta);
+                    });
+                }
+            }
+        }
+
+        List<Map.Entry<Integer, long[]>> ranked = new ArrayList<>(bounds.entrySet());
+        ranked.sort(Comparator.<Map.Entry<Integer, long[]>>comparingLong(entry -> entry.getValue()[0]).reversed()
+                .thenComparing(Comparator.<Map.Entry<Integer, long[]>>comparingLong(entry -> entry.getValue()[1]).reversed())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<HeavyHitterDTO> cuentas = ranked.stream()
+                .limit(limite)
+                .map(entry -> new HeavyHitterDTO(entry.getKey(), metric.toValue(entry.getValue()[0]),
+                        metric.toValue(entry.getValue()[1]), metric.toValue(entry.getValue()[0] - entry.getValue()[1])))
+                .toList();
+        long unlisted = ranked.size() > limite ? Math.max(untracked, ranked.get(limite).getValue()[0]) : untracked;
+        long countMinError = (long) Math.ceil(Math.E / width * total);
+        return new TopAccountsDTO(metric.name().toLowerCase(Locale.ROOT), ventanaMinutos, metric.toValue(total),
+                metric.toValue(unlisted), metric.toValue(countMinError), cuentas);
+    }
+
+    private long currentSlot() {
+        return clock.millis() / intervalMillis;
+    }
+
+    private int index(long slot) {
+        return (int) Math.floorMod(slot, (long) intervals.length);
+    }
+
+    private <T> Mono<ApiResponseClient<T>> createErrorResponse(String errorMessage, String errorCode) {
+        return Mono.just(new ApiResponseClient<>(null, new ResponseProcess(errorCode, errorMessage, ERROR_STATUS)));
+    }
+
+    private enum Metric {
+        CANTIDAD,
+        VOLUMEN;
+
+        BigDecimal toValue(long value) {
+            // El volumen se acumula en centavos
+            return this == VOLUMEN ? BigDecimal.valueOf(value, 2) : BigDecimal.valueOf(value);
+        }
+    }
+
+    /**
+     * Intervalo del anillo; se reutiliza en el lugar cuando su turno vuelve a llegar.
+     */
+    private static final class Interval {
+        private final SpaceSaving countTop;
+        private final SpaceSaving volumeTop;
+        private final CountMinSketch countSketch;
+        private final CountMinSketch volumeSketch;
+        private long slot = -1;
+        private long count;
+        private long volume;
+
+        private Interval(int capacity, int width, int depth) {
+            this.countTop = new SpaceSaving(capacity);
+            this.volumeTop = new SpaceSaving(capacity);
+            this.countSketch = new CountMinSketch(width, depth);
+            this.volumeSketch = new CountMinSketch(width, depth);
+        }
+
+        private void add(int numeroCuenta, long cents) {
+            countTop.add(numeroCuenta, 1);
+            countSketch.add(numeroCuenta, 1);
+            count++;
+            volumeTop.add(numeroCuenta, cents);
+            volumeSketch.add(numeroCuenta, cents);
+            volume += cents;
+        }
+
+        private void reset(long newSlot) {
+            countTop.clear();
+            volumeTop.clear();
+            countSketch.clear();
+            volumeSketch.clear();
+            count = 0;
+            volume = 0;
+            slot = newSlot;
+        }
+
+        private SpaceSaving top(Metric metric) {
+            return metric == Metric.VOLUMEN ? volumeTop : countTop;
+        }
+
+        private CountMinSketch sketch(Metric metric) {
+            return metric == Metric.VOLUMEN ? volumeSketch : countSketch;
+        }
+
+        private long total(Metric metric) {
+            return metric == Metric.VOLUMEN ? volume : count;
+        }
+    }
+}
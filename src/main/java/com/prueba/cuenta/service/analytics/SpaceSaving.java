@@ -0,0 +1,91 @@
+package com.prueba.cuenta.service.analytics;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving con pesos sobre {@code capacity} contadores. Para una cuenta
+ * seguida, {@code count - error <= real <= count}; para una no seguida,
+ * {@code real <= minCount()}.
+ *
+ * <p>No es seguro para hilos: {@link MovementStatisticsService} lo usa bajo el
+ * bloqueo de su intervalo.
+ */
+class SpaceSaving {
+
+    private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(counter -> counter.count)
+            .thenComparingInt(counter -> counter.key);
+
+    private final int capacity;
+    private final Map<Integer, Counter> counters;
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void add(int key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += weight;
+            byCount.add(counter);
+            return;
+        }
+        long error = 0;
+        if (counters.size() == capacity) {
+            // Se reemplaza el contador mínimo: la nueva cuenta hereda su valor como error máximo
+            Counter evicted = byCount.pollFirst();
+            counters.remove(evicted.key);
+            error = evicted.count;
+        }
+        counter = new Counter(key, error + weight, error);
+        counters.put(key, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Cota superior del valor de cualquier cuenta no seguida.
+     */
+    long minCount() {
+        return counters.size() < capacity ? 0 : byCount.first().count;
+    }
+
+    boolean contains(int key) {
+        return counters.containsKey(key);
+    }
+
+    long count(int key) {
+        Counter counter = counters.get(key);
+        return counter == null ? minCount() : counter.count;
+    }
+
+    long guaranteed(int key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.count - counter.error;
+    }
+
+    Iterable<Integer> keys() {
+        return counters.keySet();
+    }
+
+    void clear() {
+        counters.clear();
+        byCount.clear();
+    }
+
+    private static final class Counter {
+        private final int key;
+        private final long error;
+        private long count;
+
+        private Counter(int key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
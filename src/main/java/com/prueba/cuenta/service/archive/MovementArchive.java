@@ -0,0 +1,262 @@
+package com.prueba.cuenta.service.archive;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.index.HotAccountIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Capa de lectura de movimientos que une las filas de la base de datos (nivel
+ * caliente) con los segmentos archivados en disco (nivel frío).
+ *
+ * <p>Un segmento recién publicado queda "pendiente" hasta que sus filas se
+ * eliminan de la base de datos; mientras tanto una misma fila puede estar en
+ * ambos niveles y se descarta la copia repetida por id.
+ *
+ * <p>Las cuentas que {@link HotAccountIndex} tiene en memoria leen su nivel
+ * caliente del índice; las demás, de la base.
+ */
+@Slf4j
+@Component
+public class MovementArchive {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String PENDING_SUFFIX = ".pendiente";
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final MovementRepository movementRepository;
+    private final AccountRepository accountRepository;
+    private final HotAccountIndex hotAccountIndex;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Path directory;
+
+    private final List<MovementSegment> segments = new CopyOnWriteArrayList<>();
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    public MovementArchive(MovementRepository movementRepository,
+                           AccountRepository accountRepository,
+                           HotAccountIndex hotAccountIndex,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${cuenta.archivo.directorio:archivo-movimientos}") String directory) {
+        this.movementRepository = movementRepository;
+        this.accountRepository = accountRepository;
+        this.hotAccountIndex = hotAccountIndex;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.directory = Path.of(directory);
+        loadSegments();
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    List<MovementSegment> pendingSegments() {
+        return segments.stream().filter(segment -> pending.contains(segment.getPath())).toList();
+    }
+
+    boolean hasSegment(Path path) {
+        return segments.stream().anyMatch(segment -> segment.getPath().equals(path));
+    }
+
+    MovementSegment publish(Path path) throws IOException {
+        MovementSegment segment = MovementSegment.open(path);
+        pending.add(path);
+        segments.add(segment);
+        log.info("Segmento de movimientos publicado {}: {} filas, {} a {}",
+                path.getFileName(), segment.getRows(), segment.getMinFecha(), segment.getMaxFecha());
+        return segment;
+    }
+
+    void markPurged(MovementSegment segment) throws IOException {
+        Files.deleteIfExists(markerFor(segment.getPath()));
+        pending.remove(segment.getPath());
+    }
+
+    /**
+     * Movimientos de la cuenta como objetos sin administrar: las filas calientes
+     * se leen por proyección y todas comparten una única cuenta.
+     */
+    public List<Movement> findByAccount(Integer numeroCuenta) {
+        Optional<HotAccountIndex.IndexedMovements> indexed = hotAccountIndex.movements(numeroCuenta);
+        if (indexed.isPresent()) {
+            List<ArchivedMovementDTO> cold = readCold(numeroCuenta, null, null);
+            List<ArchivedMovementDTO> hot = indexed.get().rows();
+            return hot.isEmpty() && cold.isEmpty() ? List.of() : merge(indexed.get().account(), cold, hot);
+        }
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<ArchivedMovementDTO> hot = movementRepository.findRowsByCuenta(numeroCuenta);
+            List<ArchivedMovementDTO> cold = readCold(numeroCuenta, null, null);
+            if (hot.isEmpty() && cold.isEmpty()) {
+                return List.of();
+            }
+            Account account = accountRepository.findById(numeroCuenta).orElseGet(() -> accountReference(numeroCuenta));
+            return merge(account, cold, hot);
+        });
+    }
+
+    /**
+     * Filas del reporte de la cuenta entre las fechas, ordenadas por fecha y sin
+     * el nombre del cliente. Las calientes se arman en la consulta.
+     */
+    public List<MovementReportDTO> findReportRows(Account account, LocalDate from, LocalDate to) {
+        Integer numeroCuenta = account.getNumeroCuenta();
+        List<MovementReportDTO> hot = hotAccountIndex.reportRows(numeroCuenta, from, to)
+                .orElseGet(() -> readOnlyTransactionTemplate.execute(
+                        status -> movementRepository.findReportRows(numeroCuenta, from, to)));
+        List<ArchivedMovementDTO> cold = readColdNotInHot(numeroCuenta, from, to);
+        if (cold.isEmpty()) {
+            return hot;
+        }
+        List<MovementReportDTO> rows = new ArrayList<>(cold.size() + hot.size());
+        cold.forEach(archived -> rows.add(new MovementReportDTO(archived.getFecha(), numeroCuenta, account.getTipoCuenta(),
+                archived.getSaldo().subtract(archived.getValor()), account.isStatus(), archived.getValor(), archived.getSaldo())));
+        rows.addAll(hot);
+        rows.sort(Comparator.comparing(MovementReportDTO::getFecha));
+        return rows;
+    }
+
+    public BigDecimal sumValorAfterUntil(Integer numeroCuenta, LocalDate desde, LocalDate hasta) {
+        return movementRepository.sumValorAfterUntil(numeroCuenta, desde, hasta)
+                .add(sumCold(numeroCuenta, desde.plusDays(1), hasta));
+    }
+
+    public BigDecimal sumValorAfter(Integer numeroCuenta, LocalDate desde) {
+        return movementRepository.sumValorAfter(numeroCuenta, desde)
+                .add(sumCold(numeroCuenta, desde.plusDays(1), null));
+    }
+
+    // Métodos privados auxiliares
+    private List<ArchivedMovementDTO> readCold(Integer numeroCuenta, LocalDate from, LocalDate to) {
+        List<ArchivedMovementDTO> cold = new ArrayList<>();
+        for (MovementSegment segment : segments) {
+            if (segment.overlaps(from, to)) {
+                segment.read(numeroCuenta).stream()
+                        .filter(movement -> isWithin(movement.getFecha(), from, to))
+                        .forEach(cold::add);
+            }
+        }
+        return cold;
+    }
+
+    private BigDecimal sumCold(Integer numeroCuenta, LocalDate from, LocalDate to) {
+        return readColdNotInHot(numeroCuenta, from, to).stream()
+                .map(ArchivedMovementDTO::getValor)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private List<ArchivedMovementDTO> readColdNotInHot(Integer numeroCuenta, LocalDate from, LocalDate to) {
+        List<ArchivedMovementDTO> cold = new ArrayList<>();
+        for (MovementSegment segment : segments) {
+            if (!segment.overlaps(from, to)) {
+                continue;
+            }
+            List<ArchivedMovementDTO> rows = segment.read(numeroCuenta).stream()
+                    .filter(movement -> isWithin(movement.getFecha(), from, to))
+                    .toList();
+            if (rows.isEmpty()) {
+                continue;
+            }
+            // Las filas de un segmento pendiente pueden seguir en la base y ya están en la lectura caliente
+            Set<String> hotIds = pending.contains(segment.getPath()) ? hotIds(numeroCuenta, rows) : Set.of();
+            rows.stream().filter(row -> !hotIds.contains(row.getId())).forEach(cold::add);
+        }
+        return cold;
+    }
+
+    private Set<String> hotIds(Integer numeroCuenta, List<ArchivedMovementDTO> rows) {
+        LocalDate min = rows.stream().map(ArchivedMovementDTO::getFecha).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate max = rows.stream().map(ArchivedMovementDTO::getFecha).max(Comparator.naturalOrder()).orElseThrow();
+        return hotAccountIndex.ids(numeroCuenta, min, max)
+                .orElseGet(() -> new HashSet<>(movementRepository.findIdsByCuentaAndFechaBetween(numeroCuenta, min, max)));
+    }
+
+    private List<Movement> merge(Account account, List<ArchivedMovementDTO> cold, List<ArchivedMovementDTO> hot) {
+        Set<String> coldIds = cold.stream().map(ArchivedMovementDTO::getId).collect(Collectors.toSet());
+        List<Movement> merged = new ArrayList<>(cold.size() + hot.size());
+        cold.forEach(movement -> merged.add(toMovement(movement, account)));
+        hot.stream()
+                .filter(movement -> !coldIds.contains(movement.getId()))
+                .forEach(movement -> merged.add(toMovement(movement, account)));
+        merged.sort(Comparator.comparing(Movement::getFecha));
+        return merged;
+    }
+
+    private Movement toMovement(ArchivedMovementDTO archived, Account account) {
+        Movement movement = new Movement();
+        movement.setId(archived.getId());
+        movement.setFecha(archived.getFecha());
+        movement.setTipoMovimiento(archived.getTipoMovimiento());
+        movement.setValor(archived.getValor());
+        movement.setSaldo(archived.getSaldo());
+        movement.setCuenta(account);
+        return movement;
+    }
+
+    private Account accountReference(Integer numeroCuenta) {
+        Account account = new Account();
+        account.setNumeroCuenta(numeroCuenta);
+        return account;
+    }
+
+    private boolean isWithin(LocalDate date, LocalDate from, LocalDate to) {
+        return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    private void loadSegments() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            List<Path> paths = new ArrayList<>();
+            files.forEach(paths::add);
+            Collections.sort(paths);
+            for (Path path : paths) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Segmento que no terminó de escribirse: sus filas siguen en la base
+                    Files.delete(path);
+                } else if (name.endsWith(PENDING_SUFFIX) && !Files.exists(segmentFor(path))) {
+                    Files.delete(path);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(MovementSegment.open(path));
+                    if (Files.exists(markerFor(path))) {
+                        pending.add(path);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de movimientos " + directory, e);
+        }
+        log.info("Archivo de movimientos: {} segmentos cargados, {} pendientes de depurar", segments.size(), pending.size());
+    }
+
+    static Path markerFor(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + PENDING_SUFFIX);
+    }
+
+    private static Path segmentFor(Path marker) {
+        String name = marker.getFileName().toString();
+        return marker.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,227 @@
+package com.prueba.cuenta.service.archive;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.cluster.ClusterMembership;
+import com.prueba.cuenta.service.index.HotAccountIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Mueve los movimientos más antiguos que {@code cuenta.archivo.antiguedad-dias}
+ * a segmentos comprimidos en disco, un mes a la vez.
+ *
+ * <p>Cada segmento se escribe en un archivo temporal, se fuerza a disco y se
+ * renombra de forma atómica junto con una marca de "pendiente". Recién entonces
+ * se eliminan de la base las filas que contiene (por id, en bloques) y se quita
+ * la marca. Si el proceso se interrumpe, al iniciar se descartan los temporales y
+ * se termina de depurar los segmentos pendientes.
+ *
+ * <p>El directorio guarda la única copia de esos movimientos: debe estar en
+ * almacenamiento persistente y respaldado. Por eso el archivo solo funciona con
+ * una única instancia: en modo clúster cada nodo borraría de la base filas que
+ * los demás no tienen en su disco, y el proceso nocturno de todos los nodos
+ * competiría por las mismas filas. Con el clúster activo no se permite iniciar.
+ */
+@Slf4j
+@Service
+public class MovementArchiveService {
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final MovementRepository movementRepository;
+    private final MovementArchive movementArchive;
+    private final HotAccountIndex hotAccountIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final boolean enabled;
+
+    @Value("${cuenta.archivo.antiguedad-dias:365}")
+    private int ageDays;
+
+    @Value("${cuenta.archivo.tamano-maximo-segmento-mb:1024}")
+    private long maxSegmentMegabytes;
+
+    public MovementArchiveService(MovementRepository movementRepository,
+                                  MovementArchive movementArchive,
+                                  HotAccountIndex hotAccountIndex,
+                                  ClusterMembership clusterMembership,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${cuenta.archivo.habilitado:false}") boolean enabled) {
+        if (enabled && clusterMembership.isEnabled()) {
+            throw new IllegalStateException("cuenta.archivo.habilitado no se puede usar con cuenta.cluster.habilitado: "
+                    + "el archivo de movimientos es local a un único nodo");
+        }
+        this.enabled = enabled;
+        this.movementRepository = movementRepository;
+        this.movementArchive = movementArchive;
+        this.hotAccountIndex = hotAccountIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${cuenta.archivo.cron:0 0 2 * * *}")
+    public void archiveNightly() {
+        if (enabled) {
+            archive(LocalDate.now().minusDays(ageDays));
+        }
+    }
+
+    /**
+     * Archiva los meses completos anteriores a {@code cutoff}. Devuelve la cantidad de filas movidas.
+     */
+    public synchronized long archive(LocalDate cutoff) {
+        for (MovementSegment segment : movementArchive.pendingSegments()) {
+            purge(segment);
+        }
+        YearMonth lastMonth = YearMonth.from(cutoff).minusMonths(1);
+        LocalDate oldest = movementRepository.findMinFechaBefore(lastMonth.plusMonths(1).atDay(1));
+        if (oldest == null) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        long archived = 0;
+        for (YearMonth month = YearMonth.from(oldest); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            archived += archiveMonth(month);
+        }
+        log.info("Archivo de movimientos hasta {}: {} filas en {} ms",
+                lastMonth, archived, (System.nanoTime() - started) / 1_000_000);
+        return archived;
+    }
+
+    private long archiveMonth(YearMonth month) {
+        List<Path> written = readOnlyTransactionTemplate.execute(status -> {
+            try (Stream<ArchivedMovementDTO> rows = movementRepository.streamForArchive(month.atDay(1), month.atEndOfMonth())) {
+                return writeSegments(month, rows.iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir el segmento de " + month, e);
+            }
+        });
+
+        long archived = 0;
+        for (Path path : written) {
+            try {
+                MovementSegment segment = movementArchive.publish(path);
+                archived += segment.getRows();
+                purge(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo publicar el segmento " + path, e);
+            }
+        }
+        return archived;
+    }
+
+    private List<Path> writeSegments(YearMonth month, Iterator<ArchivedMovementDTO> rows) throws IOException {
+        List<Path> written = new ArrayList<>();
+        long maxSegmentBytes = maxSegmentMegabytes * 1024 * 1024;
+        MovementSegmentWriter writer = null;
+        Path temp = null;
+        try {
+            while (rows.hasNext()) {
+                ArchivedMovementDTO row = rows.next();
+                if (writer != null && writer.size() >= maxSegmentBytes && writer.isAccountBoundary(row.getNumeroCuenta())) {
+                    written.add(seal(writer, temp, month));
+                    writer = null;
+                }
+                if (writer == null) {
+                    Files.createDirectories(movementArchive.getDirectory());
+                    temp = Files.createTempFile(movementArchive.getDirectory(), "movimientos-" + month + "-", MovementArchive.TEMP_SUFFIX);
+                    writer = new MovementSegmentWriter(temp);
+                }
+                writer.append(row);
+            }
+            if (writer != null) {
+                written.add(seal(writer, temp, month));
+                writer = null;
+            }
+            return written;
+        } finally {
+            if (writer != null) {
+                writer.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private Path seal(MovementSegmentWriter writer, Path temp, YearMonth month) throws IOException {
+        try (writer) {
+            writer.finish();
+        }
+        Path target = nextSegmentPath(month);
+        Files.createFile(MovementArchive.markerFor(target));
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        // El renombre y la marca deben sobrevivir a una caída antes de borrar las filas de la base
+        forceDirectory(movementArchive.getDirectory());
+        return target;
+    }
+
+    private void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private Path nextSegmentPath(YearMonth month) {
+        for (int sequence = 1; ; sequence++) {
+            Path candidate = movementArchive.getDirectory()
+                    .resolve(String.format("movimientos-%s-%03d%s", month, sequence, MovementArchive.SEGMENT_SUFFIX));
+            if (!Files.exists(candidate) && !Files.exists(MovementArchive.markerFor(candidate))) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Elimina de la base y del índice en memoria las filas que ya están en el segmento.
+     */
+    private void purge(MovementSegment segment) {
+        List<String> ids = new ArrayList<>(DELETE_BATCH_SIZE);
+        for (int position = 0; position < segment.getAccountCount(); position++) {
+            Integer numeroCuenta = segment.accountAt(position);
+            List<ArchivedMovementDTO> rows = segment.read(numeroCuenta);
+            for (ArchivedMovementDTO movement : rows) {
+                ids.add(movement.getId());
+                if (ids.size() == DELETE_BATCH_SIZE) {
+                    deleteBatch(ids);
+                    ids.clear();
+                }
+            }
+            hotAccountIndex.discard(numeroCuenta, rows);
+        }
+        if (!ids.isEmpty()) {
+            deleteBatch(ids);
+        }
+        try {
+            movementArchive.markPurged(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar el segmento " + segment.getPath(), e);
+        }
+        log.info("Segmento {} depurado de la base de datos", segment.getPath().getFileName());
+    }
+
+    private void deleteBatch(List<String> ids) {
+        List<String> batch = List.copyOf(ids);
+        transactionTemplate.executeWithoutResult(status -> movementRepository.deleteAllByIdInBatch(batch));
+    }
+}
@@ -0,0 +1,163 @@
+package com.prueba.cuenta.service.archive;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.entity.MovementType;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento inmutable de movimientos archivados, mapeado en memoria.
+ *
+ * <p>La búsqueda de una cuenta es binaria sobre el índice del archivo y solo se
+ * descomprime el bloque de esa cuenta. Ver {@link MovementSegmentWriter} para el formato.
+ */
+class MovementSegment {
+
+    static final int MAGIC = 0x4D534547;
+    static final int FORMAT_VERSION = 1;
+    static final int INDEX_ENTRY_BYTES = 24;
+    private static final int FOOTER_BYTES = 32;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long indexOffset;
+    private final int accountCount;
+    private final LocalDate minFecha;
+    private final LocalDate maxFecha;
+    private final long rows;
+
+    private MovementSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        int footer = buffer.capacity() - FOOTER_BYTES;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(footer + 28) != MAGIC) {
+            throw new IllegalStateException("Segmento de movimientos inválido: " + path);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("Versión de segmento no soportada: " + path);
+        }
+        this.indexOffset = buffer.getLong(footer);
+        this.accountCount = buffer.getInt(footer + 8);
+        this.minFecha = LocalDate.ofEpochDay(buffer.getInt(footer + 12));
+        this.maxFecha = LocalDate.ofEpochDay(buffer.getInt(footer + 16));
+        this.rows = buffer.getLong(footer + 20);
+    }
+
+    static MovementSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Segmento demasiado grande para mapearse: " + path);
+            }
+            return new MovementSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    LocalDate getMinFecha() {
+        return minFecha;
+    }
+
+    LocalDate getMaxFecha() {
+        return maxFecha;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    int getAccountCount() {
+        return accountCount;
+    }
+
+    int accountAt(int position) {
+        return buffer.getInt((int) (indexOffset + (long) position * INDEX_ENTRY_BYTES));
+    }
+
+    /**
+     * Indica si el segmento puede tener filas entre {@code from} y {@code to}
+     * (ambos inclusivos; null significa sin límite).
+     */
+    boolean overlaps(LocalDate from, LocalDate to) {
+        return (from == null || !maxFecha.isBefore(from)) && (to == null || !minFecha.isAfter(to));
+    }
+
+    List<ArchivedMovementDTO> read(Integer numeroCuenta) {
+        int position = find(numeroCuenta);
+        if (position < 0) {
+            return List.of();
+        }
+        int entry = (int) (indexOffset + (long) position * INDEX_ENTRY_BYTES);
+        long offset = buffer.getLong(entry + 4);
+        int compressed = buffer.getInt(entry + 12);
+        int rawLength = buffer.getInt(entry + 16);
+        int count = buffer.getInt(entry + 20);
+
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) offset, compressed));
+            inflater.inflate(raw);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Bloque corrupto de la cuenta " + numeroCuenta + " en " + path, e);
+        } finally {
+            inflater.end();
+        }
+
+        List<ArchivedMovementDTO> movements = new ArrayList<>(count);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            for (int i = 0; i < count; i++) {
+                movements.add(new ArchivedMovementDTO(
+                        in.readUTF(),
+                        numeroCuenta,
+                        LocalDate.ofEpochDay(in.readInt()),
+                        MovementType.valueOf(in.readUTF()),
+                        readDecimal(in),
+                        readDecimal(in)));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Bloque corrupto de la cuenta " + numeroCuenta + " en " + path, e);
+        }
+        return movements;
+    }
+
+    // Métodos privados auxiliares
+    private int find(Integer numeroCuenta) {
+        int low = 0;
+        int high = accountCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int account = accountAt(middle);
+            if (account < numeroCuenta) {
+                low = middle + 1;
+            } else if (account > numeroCuenta) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
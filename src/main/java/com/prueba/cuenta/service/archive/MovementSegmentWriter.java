@@ -0,0 +1,139 @@
+package com.prueba.cuenta.service.archive;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+/**
+ * Escribe un segmento de movimientos archivados. Las filas deben llegar
+ * ordenadas por número de cuenta; cada cuenta se comprime en un bloque propio
+ * para poder leerla sin descomprimir el resto del archivo.
+ *
+ * <p>Formato: cabecera, bloques de datos, índice ordenado por cuenta
+ * ({@link MovementSegment#INDEX_ENTRY_BYTES} bytes por cuenta) y pie con la
+ * posición del índice y el rango de fechas.
+ */
+class MovementSegmentWriter implements Closeable {
+
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexOut = new DataOutputStream(index);
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final byte[] compressBuffer = new byte[64 * 1024];
+
+    private long position;
+    private Integer currentAccount;
+    private int blockRows;
+    private int accounts;
+    private long rows;
+    private int minEpochDay = Integer.MAX_VALUE;
+    private int maxEpochDay = Integer.MIN_VALUE;
+
+    MovementSegmentWriter(Path path) throws IOException {
+        this.file = new FileOutputStream(path.toFile());
+        this.out = new DataOutputStream(new BufferedOutputStream(file, 256 * 1024));
+        out.writeInt(MovementSegment.MAGIC);
+        out.writeInt(MovementSegment.FORMAT_VERSION);
+        position = 8;
+    }
+
+    void append(ArchivedMovementDTO movement) throws IOException {
+        if (!movement.getNumeroCuenta().equals(currentAccount)) {
+            if (currentAccount != null && movement.getNumeroCuenta() < currentAccount) {
+                throw new IllegalStateException("Las filas del segmento deben llegar ordenadas por cuenta");
+            }
+            flushBlock();
+            currentAccount = movement.getNumeroCuenta();
+        }
+        int epochDay = (int) movement.getFecha().toEpochDay();
+        blockOut.writeUTF(movement.getId());
+        blockOut.writeInt(epochDay);
+        blockOut.writeUTF(movement.getTipoMovimiento().name());
+        writeDecimal(movement.getValor());
+        writeDecimal(movement.getSaldo());
+        blockRows++;
+        rows++;
+        minEpochDay = Math.min(minEpochDay, epochDay);
+        maxEpochDay = Math.max(maxEpochDay, epochDay);
+    }
+
+    /**
+     * Bytes escritos hasta ahora, sin contar el bloque de la cuenta en curso.
+     */
+    long size() {
+        return position + index.size();
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    boolean isAccountBoundary(Integer nextAccount) {
+        return !nextAccount.equals(currentAccount);
+    }
+
+    /**
+     * Escribe el índice y el pie y fuerza los datos a disco.
+     */
+    void finish() throws IOException {
+        flushBlock();
+        long indexOffset = position;
+        index.writeTo(out);
+        out.writeLong(indexOffset);
+        out.writeInt(accounts);
+        out.writeInt(minEpochDay);
+        out.writeInt(maxEpochDay);
+        out.writeLong(rows);
+        out.writeInt(MovementSegment.MAGIC);
+        out.flush();
+        file.getChannel().force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        out.close();
+    }
+
+    private void flushBlock() throws IOException {
+        if (currentAccount == null || blockRows == 0) {
+            return;
+        }
+        blockOut.flush();
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        long offset = position;
+        int compressed = 0;
+        while (!deflater.finished()) {
+            int length = deflater.deflate(compressBuffer);
+            out.write(compressBuffer, 0, length);
+            compressed += length;
+        }
+        position += compressed;
+
+        indexOut.writeInt(currentAccount);
+        indexOut.writeLong(offset);
+        indexOut.writeInt(compressed);
+        indexOut.writeInt(raw.length);
+        indexOut.writeInt(blockRows);
+        accounts++;
+
+        block.reset();
+        blockRows = 0;
+    }
+
+    private void writeDecimal(BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        blockOut.writeInt(value.scale());
+        blockOut.writeShort(unscaled.length);
+        blockOut.write(unscaled);
+    }
+}
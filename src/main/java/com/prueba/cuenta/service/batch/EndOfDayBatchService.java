@@ -0,0 +1,274 @@
+package com.prueba.cuenta.service.batch;
+
+import com.prueba.cuenta.dto.BatchSummaryDTO;
+import com.prueba.cuenta.entity.*;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.BatchCheckpointRepository;
+import com.prueba.cuenta.service.BalanceCheckpointService;
+import com.prueba.cuenta.service.MovementListeners;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Proceso de fin de día para cuentas de ahorro: aplica intereses y comisiones y
+ * registra el movimiento correspondiente.
+ *
+ * <p>La tabla de cuentas se divide en rangos de número de cuenta que se procesan
+ * en paralelo. Cada bloque de cuentas se escribe en una sola transacción junto
+ * con el avance de su partición, de modo que una corrida interrumpida se retoma
+ * desde la última cuenta confirmada. Las cuentas del bloque se leen bloqueadas,
+ * igual que en los movimientos, las transferencias y el diario, así que ningún
+ * ajuste se pierde ni se aplica dos veces por escrituras concurrentes.
+ */
+@Slf4j
+@Service
+public class EndOfDayBatchService {
+
+    static final String PROCESS_NAME = "FIN_DE_DIA_AHORROS";
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+
+    private final AccountRepository accountRepository;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final MovementListeners movementListeners;
+    private final OutboxService outboxService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService resumeExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("fin-de-dia-reanudacion").daemon().factory());
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${cuenta.lote.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.lote.reanudar-al-iniciar:true}")
+    private boolean resumeOnStartup;
+
+    @Value("${cuenta.lote.hilos:0}")
+    private int threads;
+
+    @Value("${cuenta.lote.particiones:0}")
+    private int partitions;
+
+    @Value("${cuenta.lote.tamano-bloque:500}")
+    private int chunkSize;
+
+    @Value("${cuenta.lote.interes.tasa-anual:0}")
+    private BigDecimal annualInterestRate;
+
+    @Value("${cuenta.lote.comision.valor:0}")
+    private BigDecimal fee;
+
+    @Value("${cuenta.lote.comision.saldo-minimo:0}")
+    private BigDecimal feeMinimumBalance;
+
+    public EndOfDayBatchService(AccountRepository accountRepository,
+                                BatchCheckpointRepository checkpointRepository,
+                                MovementListeners movementListeners,
+                                OutboxService outboxService,
+                                BalanceCheckpointService balanceCheckpointService,
+                                PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.movementListeners = movementListeners;
+        this.outboxService = outboxService;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${cuenta.lote.cron:0 30 0 * * *}")
+    public void runNightly() {
+        if (enabled) {
+            run(LocalDate.now().minusDays(1));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeIncompleteRuns() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        List<LocalDate> dates = checkpointRepository.findByProcesoAndEstado(PROCESS_NAME, BatchStatus.EN_PROCESO).stream()
+                .map(BatchCheckpoint::getFechaProceso)
+                .distinct()
+                .sorted()
+                .toList();
+        if (dates.isEmpty()) {
+            return;
+        }
+        // Una fecha a la vez en un hilo propio: run() no admite corridas simultáneas
+        resumeExecutor.execute(() -> dates.forEach(date -> {
+            try {
+                log.info("Reanudando proceso de fin de día del {}", date);
+                run(date);
+            } catch (RuntimeException e) {
+                log.error("No se pudo reanudar el proceso de fin de día del {}: {}", date, e.getMessage(), e);
+            }
+        }));
+    }
+
+    public BatchSummaryDTO run(LocalDate processDate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new AccountBusinessException("El proceso de fin de día ya está en ejecución");
+        }
+        try {
+            return execute(processDate);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BatchSummaryDTO execute(LocalDate processDate) {
+        long started = System.nanoTime();
+        List<BatchCheckpoint> checkpoints = loadOrCreateCheckpoints(processDate);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Inicia proceso de fin de día del {}: {} particiones, {} hilos", processDate, checkpoints.size(), poolSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<CompletableFuture<long[]>> results = checkpoints.stream()
+                    .filter(checkpoint -> checkpoint.getEstado() != BatchStatus.COMPLETADO)
+                    .map(checkpoint -> CompletableFuture.supplyAsync(() -> processPartition(checkpoint.getId(), processDate), executor))
+                    .toList();
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+            long accounts = 0;
+            long movements = 0;
+            for (CompletableFuture<long[]> result : results) {
+                accounts += result.join()[0];
+                movements += result.join()[1];
+            }
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            double throughput = elapsedMs == 0 ? accounts : accounts * 1000.0 / elapsedMs;
+            log.info("Fin de día del {} completado: {} cuentas, {} movimientos en {} ms ({} cuentas/s)",
+                    processDate, accounts, movements, elapsedMs, String.format("%.1f", throughput));
+            return new BatchSummaryDTO(processDate, checkpoints.size(), accounts, movements, elapsedMs, throughput);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<BatchCheckpoint> loadOrCreateCheckpoints(LocalDate processDate) {
+        List<BatchCheckpoint> existing = checkpointRepository.findByProcesoAndFechaProcesoOrderByRangoInicio(PROCESS_NAME, processDate);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+        Integer min = accountRepository.findMinNumeroCuentaByTipoCuenta(AccountType.AHORROS);
+        Integer max = accountRepository.findMaxNumeroCuentaByTipoCuenta(AccountType.AHORROS);
+        if (min == null || max == null) {
+            return List.of();
+        }
+        int partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors() * 4;
+        long span = (long) max - min + 1;
+        long width = Math.max(1, (span + partitionCount - 1) / partitionCount);
+
+        List<BatchCheckpoint> created = new ArrayList<>();
+        for (long from = (long) min - 1; from < max; from += width) {
+            BatchCheckpoint checkpoint = new BatchCheckpoint();
+            checkpoint.setProceso(PROCESS_NAME);
+            checkpoint.setFechaProceso(processDate);
+            checkpoint.setRangoInicio((int) from);
+            checkpoint.setRangoFin((int) Math.min(from + width, max));
+            checkpoint.setUltimaCuenta((int) from);
+            checkpoint.setEstado(BatchStatus.EN_PROCESO);
+            created.add(checkpoint);
+        }
+        return checkpointRepository.saveAll(created);
+    }
+
+    private long[] processPartition(Long checkpointId, LocalDate processDate) {
+        long accounts = 0;
+        long movements = 0;
+        long started = System.nanoTime();
+        ChunkResult result;
+        do {
+            result = transactionTemplate.execute(status -> processChunk(checkpointId, processDate));
+            accounts += result.accounts();
+            movements += result.movements().size();
+            result.movements().forEach(movementListeners::movementCreated);
+        } while (!result.completed());
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Partición {} del {} completada: {} cuentas, {} movimientos en {} ms",
+                checkpointId, processDate, accounts, movements, elapsedMs);
+        return new long[]{accounts, movements};
+    }
+
+    private ChunkResult processChunk(Long checkpointId, LocalDate processDate) {
+        BatchCheckpoint checkpoint = checkpointRepository.findById(checkpointId)
+                .orElseThrow(() -> new AccountBusinessException("Checkpoint de lote no encontrado: " + checkpointId));
+        List<Account> chunk = accountRepository.findChunkForUpdate(AccountType.AHORROS,
+                checkpoint.getUltimaCuenta(), checkpoint.getRangoFin(), Limit.of(chunkSize));
+
+        List<Movement> written = new ArrayList<>();
+        for (Account account : chunk) {
+            BigDecimal amount = endOfDayAmount(account.getSaldo());
+            if (amount.signum() == 0) {
+                continue;
+            }
+            BigDecimal newBalance = account.getSaldo().add(amount);
+            Movement movement = new Movement();
+            movement.setId("FDD-" + processDate + "-" + account.getNumeroCuenta());
+            movement.setFecha(processDate);
+            movement.setTipoMovimiento(amount.signum() > 0 ? MovementType.DEPOSITO : MovementType.RETIRO);
+            movement.setValor(amount);
+            movement.setSaldo(newBalance);
+            movement.setCuenta(account);
+            account.setSaldo(newBalance);
+            entityManager.persist(movement);
+            outboxService.movementCreated(movement);
+            balanceCheckpointService.movementSaved(movement);
+            written.add(movement);
+        }
+
+        boolean completed = chunk.size() < chunkSize;
+        if (!chunk.isEmpty()) {
+            checkpoint.setUltimaCuenta(chunk.get(chunk.size() - 1).getNumeroCuenta());
+        }
+        checkpoint.setProcesadas(checkpoint.getProcesadas() + chunk.size());
+        checkpoint.setMovimientos(checkpoint.getMovimientos() + written.size());
+        if (completed) {
+            checkpoint.setEstado(BatchStatus.COMPLETADO);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return new ChunkResult(chunk.size(), written, completed);
+    }
+
+    private BigDecimal endOfDayAmount(BigDecimal balance) {
+        BigDecimal amount = BigDecimal.ZERO;
+        if (balance.signum() > 0 && annualInterestRate.signum() > 0) {
+            amount = balance.multiply(annualInterestRate).divide(DAYS_PER_YEAR, 2, RoundingMode.HALF_EVEN);
+        }
+        if (fee.signum() > 0 && balance.compareTo(feeMinimumBalance) < 0) {
+            amount = amount.subtract(fee.min(balance.add(amount)));
+        }
+        return amount;
+    }
+
+    private record ChunkResult(int accounts, List<Movement> movements, boolean completed) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.prueba.cuenta.service.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Agrupa las claves pedidas dentro de una ventana de tiempo (o hasta llenar el
+ * lote) y las resuelve con una sola llamada masiva. Si el endpoint masivo no
+ * existe, resuelve cada clave con la llamada individual y no vuelve a intentar
+ * la masiva hasta que pase {@code bulkRetry}.
+ */
+@Slf4j
+class BatchQueue<K, V> {
+
+    private final String name;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final int concurrency;
+    private final Duration bulkRetry;
+    private final Function<Collection<K>, Mono<Map<K, V>>> batchFunction;
+    private final Function<K, Mono<V>> singleFunction;
+    private final Function<K, Throwable> missingKeyError;
+
+    private Map<K, Sinks.One<V>> pending = new LinkedHashMap<>();
+    private Disposable scheduledFlush;
+    private volatile long bulkRetryAt;
+
+    BatchQueue(String name, Duration window, int maxBatchSize, int concurrency, Duration bulkRetry,
+               Function<Collection<K>, Mono<Map<K, V>>> batchFunction,
+               Function<K, Mono<V>> singleFunction,
+               Function<K, Throwable> missingKeyError) {
+        this.name = name;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.concurrency = concurrency;
+        this.bulkRetry = bulkRetry;
+        this.batchFunction = batchFunction;
+        this.singleFunction = singleFunction;
+        this.missingKeyError = missingKeyError;
+    }
+
+    Mono<V> load(K key) {
+        return Mono.defer(() -> enqueue(key));
+    }
+
+    private Mono<V> enqueue(K key) {
+        Sinks.One<V> sink;
+        Map<K, Sinks.One<V>> full = null;
+        synchronized (this) {
+            sink = pending.computeIfAbsent(key, k -> Sinks.one());
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = Schedulers.parallel().schedule(this::flushWindow, window.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return sink.asMono();
+    }
+
+    private void flushWindow() {
+        Map<K, Sinks.One<V>> batch;
+        synchronized (this) {
+            scheduledFlush = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        dispatch(batch);
+    }
+
+    private Map<K, Sinks.One<V>> drain() {
+        Map<K, Sinks.One<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<K, Sinks.One<V>> batch) {
+        if (batch.size() == 1 || System.currentTimeMillis() < bulkRetryAt) {
+            dispatchIndividually(batch);
+            return;
+        }
+        Mono.defer(() -> batchFunction.apply(new ArrayList<>(batch.keySet())))
+                // Una respuesta vacía (204, cuerpo vacío) deja todas las claves como no encontradas
+                .defaultIfEmpty(Map.of())
+                .subscribe(
+                        values -> batch.forEach((key, sink) -> {
+                            V value = values.get(key);
+                            if (value != null) {
+                                sink.tryEmitValue(value);
+                            } else {
+                                sink.tryEmitError(missingKeyError.apply(key));
+                            }
+                        }),
+                        error -> {
+                            if (isBulkUnsupported(error)) {
+                                bulkRetryAt = System.currentTimeMillis() + bulkRetry.toMillis();
+                                log.warn("Consulta masiva de {} no disponible, se usan consultas individuales", name);
+                            } else {
+                                log.warn("Falló la consulta masiva de {} ({} claves): {}", name, batch.size(), error.getMessage());
+                            }
+                            dispatchIndividually(batch);
+                        });
+    }
+
+    private void dispatchIndividually(Map<K, Sinks.One<V>> batch) {
+        Flux.fromIterable(batch.entrySet())
+                .flatMap(entry -> Mono.defer(() -> singleFunction.apply(entry.getKey()))
+                        .doOnSuccess(value -> {
+                            if (value != null) {
+                                entry.getValue().tryEmitValue(value);
+                            } else {
+                                entry.getValue().tryEmitError(missingKeyError.apply(entry.getKey()));
+                            }
+                        })
+                        .doOnError(error -> entry.getValue().tryEmitError(error))
+                        .onErrorResume(error -> Mono.empty()), concurrency)
+                .subscribe();
+    }
+
+    private boolean isBulkUnsupported(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            HttpStatus status = HttpStatus.resolve(responseException.getStatusCode().value());
+            return status == HttpStatus.NOT_FOUND
+                    || status == HttpStatus.METHOD_NOT_ALLOWED
+                    || status == HttpStatus.NOT_IMPLEMENTED;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+package com.prueba.cuenta.service.client;
+
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.exception.ClientNotFoundException;
+import com.prueba.cuenta.service.timing.RequestTiming;
+import com.prueba.cuenta.service.timing.TimingPhase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Punto de entrada para consultar clientes: agrupa las consultas hechas en una
+ * ventana corta en una sola solicitud masiva a {@link ClientService} y reparte
+ * las respuestas a cada llamador.
+ *
+ * <p>Con {@code cuenta.cliente.nombres.ttl-ms} mayor que cero los nombres
+ * obtenidos se guardan en memoria durante ese tiempo; el calentamiento de
+ * arranque los precarga con {@link #preloadClientNames(Collection)}.
+ */
+@Service
+public class ClientBatchLoader {
+
+    private final BatchQueue<Long, String> clientNames;
+    private final BatchQueue<String, Long> clientIds;
+    private final Map<Long, CachedName> cachedNames = new ConcurrentHashMap<>();
+
+    @Value("${cuenta.cliente.nombres.ttl-ms:300000}")
+    private long nameTtlMillis;
+
+    @Value("${cuenta.cliente.nombres.max-entradas:100000}")
+    private int maxCachedNames;
+
+    public ClientBatchLoader(ClientService clientService,
+                             @Value("${cuenta.cliente.lote.ventana-ms:5}") long windowMillis,
+                             @Value("${cuenta.cliente.lote.tamano-maximo:100}") int maxBatchSize,
+                             @Value("${cuenta.cliente.lote.concurrencia:8}") int concurrency,
+                             @Value("${cuenta.cliente.lote.reintento-ms:300000}") long bulkRetryMillis) {
+        Duration window = Duration.ofMillis(windowMillis);
+        Duration bulkRetry = Duration.ofMillis(bulkRetryMillis);
+        this.clientNames = new BatchQueue<>("nombres de cliente", window, maxBatchSize, concurrency, bulkRetry,
+                clientService::getClientNames,
+                clientService::getClientName,
+                clientId -> new AccountBusinessException("Error al consultar el cliente: " + clientId));
+        this.clientIds = new BatchQueue<>("clientes por identificación", window, maxBatchSize, concurrency, bulkRetry,
+                clientService::getClientIdsByIdentification,
+                clientService::getClientIdByIdentification,
+                identification -> new ClientNotFoundException("Cliente no encontrado con identificación: " + identification));
+    }
+
+    public Mono<String> loadClientName(Long clientId) {
+        CachedName cached = nameTtlMillis > 0 ? cachedNames.get(clientId) : null;
+        if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+            return Mono.just(cached.name());
+        }
+        return RequestTiming.time(TimingPhase.CLIENTE, "nombreCliente", clientNames.load(clientId))
+                .doOnNext(name -> cacheName(clientId, name));
+    }
+
+    /**
+     * Carga los nombres de los clientes en lotes y los deja en memoria. Devuelve
+     * cuántos se obtuvieron; los que fallan se omiten.
+     */
+    public Mono<Long> preloadClientNames(Collection<Long> clientIds) {
+        if (nameTtlMillis <= 0) {
+            return Mono.just(0L);
+        }
+        return Flux.fromIterable(clientIds)
+                .distinct()
+                .flatMap(clientId -> loadClientName(clientId).onErrorResume(e -> Mono.empty()))
+                .count();
+    }
+
+    public Mono<Long> loadClientIdByIdentification(String identification) {
+        return RequestTiming.time(TimingPhase.CLIENTE, "clientePorIdentificacion", clientIds.load(identification));
+    }
+
+    // Métodos privados auxiliares
+    private void cacheName(Long clientId, String name) {
+        if (nameTtlMillis <= 0) {
+            return;
+        }
+        if (cachedNames.size() >= maxCachedNames) {
+            long now = System.nanoTime();
+            cachedNames.values().removeIf(cached -> cached.expiresAtNanos() - now <= 0);
+            if (cachedNames.size() >= maxCachedNames) {
+                return;
+            }
+        }
+        cachedNames.put(clientId, new CachedName(name, System.nanoTime() + nameTtlMillis * 1_000_000));
+    }
+
+    private record CachedName(String name, long expiresAtNanos) {
+    }
+}
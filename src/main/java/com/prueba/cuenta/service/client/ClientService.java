@@ -1,14 +1,24 @@
 package com.prueba.cuenta.service.client;
 
+import com.prueba.cuenta.dto.ClientBatchRequestDTO;
+import com.prueba.cuenta.dto.ClientBatchResponseDTO;
+import com.prueba.cuenta.dto.ClientDetailsDTO;
 import com.prueba.cuenta.dto.ClientResponseDTO;
 import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.exception.ClientNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -25,6 +35,12 @@ public class ClientService {
     @Value("${url.path.identificacion}")
     private String identificationPath;
 
+    @Value("${url.path.lote.id:clientes/lote}")
+    private String batchIdPath;
+
+    @Value("${url.path.lote.identificacion:clientes/identificacion/lote}")
+    private String batchIdentificationPath;
+
     public Mono<String> getClientName(Long clientId) {
         String url = clientServiceUrl + idPath + clientId;
         return webClient.get()
@@ -54,16 +70,56 @@ public class ClientService {
                     }
 
                     if (response.getDetails() == null) {
-                        return Mono.error(new AccountBusinessException(
+                        return Mono.error(new ClientNotFoundException(
                                 "Cliente no encontrado con identificación: " + identification));
                     }
 
                     return Mono.just(response.getDetails().getId());
                 })
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        e -> new ClientNotFoundException("Cliente no encontrado con identificación: " + identification))
                 .onErrorResume(e -> handleClientServiceError(e,
                         "Error al consultar el cliente con identificación: " + identification));
     }
 
+    /**
+     * Consulta varios clientes por id en una sola solicitud. Los errores HTTP se
+     * propagan sin envolver para que el llamador pueda detectar si el endpoint
+     * masivo no está disponible.
+     */
+    public Mono<Map<Long, String>> getClientNames(Collection<Long> clientIds) {
+        String url = clientServiceUrl + batchIdPath;
+        return postBatch(url, new ClientBatchRequestDTO(List.copyOf(clientIds), null))
+                .map(details -> details.stream()
+                        .filter(detail -> detail.getId() != null && detail.getNombre() != null)
+                        .collect(Collectors.toMap(ClientDetailsDTO::getId, ClientDetailsDTO::getNombre, (first, second) -> first)));
+    }
+
+    public Mono<Map<String, Long>> getClientIdsByIdentification(Collection<String> identifications) {
+        String url = clientServiceUrl + batchIdentificationPath;
+        return postBatch(url, new ClientBatchRequestDTO(null, List.copyOf(identifications)))
+                .map(details -> details.stream()
+                        .filter(detail -> detail.getIdentificacion() != null && detail.getId() != null)
+                        .collect(Collectors.toMap(ClientDetailsDTO::getIdentificacion, ClientDetailsDTO::getId, (first, second) -> first)));
+    }
+
+    private Mono<List<ClientDetailsDTO>> postBatch(String url, ClientBatchRequestDTO request) {
+        return webClient.post()
+                .uri(url)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(ClientBatchResponseDTO.class)
+                .flatMap(response -> {
+                    if (response.getResponseProcess() != null &&
+                            !"200".equals(response.getResponseProcess().getCode())) {
+                        return Mono.error(new AccountBusinessException(response.getResponseProcess().getTechnicalMessage()));
+                    }
+                    List<ClientDetailsDTO> details = response.getDetails() == null ? List.of() : response.getDetails();
+                    log.info("Respuesta masiva del servicio cliente: {} clientes", details.size());
+                    return Mono.just(details);
+                });
+    }
+
     private <T> Mono<T> handleClientServiceError(Throwable e, String defaultMessage) {
         if (e instanceof AccountBusinessException) {
             return Mono.error(e);
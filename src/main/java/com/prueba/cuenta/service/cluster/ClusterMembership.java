@@ -0,0 +1,145 @@
+package com.prueba.cuenta.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Miembros del clúster y dueño de cada cuenta. La lista se toma de
+ * {@code cuenta.cluster.miembros} o, si se indica, de
+ * {@code cuenta.cluster.archivo-miembros} (una URL base por línea), que se
+ * relee al cambiar. Cada cambio publica {@link ClusterMembershipChangedEvent}.
+ */
+@Slf4j
+@Component
+public class ClusterMembership {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String localNode;
+    private final String staticMembers;
+    private final Path membersFile;
+    private final int virtualNodes;
+
+    private volatile ConsistentHashRing ring;
+    private FileTime membersFileModified;
+
+    public ClusterMembership(ApplicationEventPublisher eventPublisher,
+                             @Value("${cuenta.cluster.habilitado:false}") boolean enabled,
+                             @Value("${cuenta.cluster.nodo-local:http://localhost:${server.port:8080}}") String localNode,
+                             @Value("${cuenta.cluster.miembros:}") String staticMembers,
+                             @Value("${cuenta.cluster.archivo-miembros:}") String membersFile,
+                             @Value("${cuenta.cluster.nodos-virtuales:256}") int virtualNodes) {
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.localNode = normalize(localNode);
+        this.staticMembers = staticMembers;
+        this.membersFile = membersFile.isBlank() ? null : Path.of(membersFile);
+        this.virtualNodes = virtualNodes;
+        if (enabled) {
+            ring = new ConsistentHashRing(loadMembers(), virtualNodes);
+            log.info("Modo clúster activo en {} con miembros {}", this.localNode, ring.getNodes());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getLocalNode() {
+        return localNode;
+    }
+
+    public List<String> getMembers() {
+        return enabled ? ring.getNodes() : List.of(localNode);
+    }
+
+    /**
+     * URL base del nodo dueño de la cuenta si no es este; vacío si la cuenta es
+     * local o el modo clúster está apagado.
+     */
+    public Optional<String> remoteOwnerOf(int numeroCuenta) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String owner = ring.ownerOf(numeroCuenta);
+        return owner.equals(localNode) ? Optional.empty() : Optional.of(owner);
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.cluster.recarga-ms:5000}")
+    public void reloadMembers() {
+        if (!enabled || membersFile == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(membersFile);
+            if (modified.equals(membersFileModified)) {
+                return;
+            }
+            updateMembers(loadMembers());
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo releer la lista de miembros {}: {}", membersFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Reemplaza los miembros; las cuentas cuyo tramo cambió pasan a su nuevo dueño.
+     */
+    public synchronized void updateMembers(Set<String> members) {
+        ConsistentHashRing previous = ring;
+        if (previous != null && previous.getNodes().equals(List.copyOf(new TreeSet<>(members)))) {
+            return;
+        }
+        ring = new ConsistentHashRing(members, virtualNodes);
+        log.info("Miembros del clúster actualizados: {} -> {}", previous == null ? List.of() : previous.getNodes(), ring.getNodes());
+        if (!members.contains(localNode)) {
+            log.warn("El nodo local {} no está en la lista de miembros: todas las cuentas se reenvían", localNode);
+        }
+        eventPublisher.publishEvent(new ClusterMembershipChangedEvent(previous, ring, localNode));
+    }
+
+    // Métodos privados auxiliares
+    private Set<String> loadMembers() {
+        Set<String> members = new LinkedHashSet<>();
+        if (membersFile != null) {
+            try {
+                membersFileModified = Files.getLastModifiedTime(membersFile);
+                Files.readAllLines(membersFile).stream()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .map(ClusterMembership::normalize)
+                        .forEach(members::add);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo leer la lista de miembros " + membersFile, e);
+            }
+        } else {
+            Arrays.stream(staticMembers.split(","))
+                    .map(String::trim)
+                    .filter(member -> !member.isEmpty())
+                    .map(ClusterMembership::normalize)
+                    .forEach(members::add);
+        }
+        if (members.isEmpty()) {
+            members.add(localNode);
+        }
+        return members;
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
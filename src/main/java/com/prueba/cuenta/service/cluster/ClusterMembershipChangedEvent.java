@@ -0,0 +1,18 @@
+package com.prueba.cuenta.service.cluster;
+
+/**
+ * Se publica cuando cambian los miembros del clúster. Las estructuras en
+ * memoria por cuenta deben descartar lo que tengan de las cuentas cuyo dueño
+ * cambió: las que se ceden ya no reciben movimientos por este nodo y las que
+ * se reciben pudieron cambiar en otro.
+ */
+public record ClusterMembershipChangedEvent(ConsistentHashRing previous, ConsistentHashRing current, String localNode) {
+
+    /**
+     * Indica si la cuenta pasó a ser local o dejó de serlo con este cambio.
+     */
+    public boolean localOwnershipChanged(int numeroCuenta) {
+        boolean ownedBefore = previous != null && previous.ownerOf(numeroCuenta).equals(localNode);
+        return ownedBefore != current.ownerOf(numeroCuenta).equals(localNode);
+    }
+}
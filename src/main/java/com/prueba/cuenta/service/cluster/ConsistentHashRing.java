@@ -0,0 +1,85 @@
+package com.prueba.cuenta.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Anillo de hash consistente inmutable que asigna cada número de cuenta a un
+ * nodo. Cada nodo ocupa {@code virtualNodes} puntos del anillo, así que al
+ * agregar o quitar un nodo solo cambian de dueño las cuentas de sus tramos.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("El anillo necesita al menos un nodo");
+        }
+        this.nodes = List.copyOf(new TreeSet<>(nodes));
+        int size = this.nodes.size() * virtualNodes;
+        long[][] entries = new long[size][2];
+        int index = 0;
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                entries[index][0] = pointOf(this.nodes.get(node) + "#" + replica);
+                entries[index][1] = node;
+                index++;
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.nodes.get((int) entries[i][1]);
+        }
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Nodo dueño de la cuenta: el primer punto del anillo igual o posterior a su hash.
+     */
+    public String ownerOf(int numeroCuenta) {
+        int index = Arrays.binarySearch(points, mix(numeroCuenta));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // Métodos privados auxiliares
+    private static long pointOf(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long point = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                point = (point << 8) | (digest[i] & 0xFF);
+            }
+            return point;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Finalizador de MurmurHash3: reparte números de cuenta consecutivos por todo el anillo
+    private static long mix(int numeroCuenta) {
+        long h = numeroCuenta;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,525 @@
+package com.prueba.cuenta.service.index;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.MovementListener;
+import com.prueba.cuenta.service.cluster.ClusterMembershipChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Índice en memoria de los movimientos de la base (nivel caliente) de las
+ * cuentas con más lecturas: las indicadas en {@code cuenta.indice.cuentas} y las
+ * que superan {@code cuenta.indice.auto.umbral-lecturas} lecturas de historial
+ * o reporte en una ventana. Sus consultas se responden con búsqueda binaria
+ * sobre {@link MovementColumns} sin ir a la base.
+ *
+ * <p>Cada movimiento confirmado llega como {@link MovementListener} y se agrega
+ * bajo el bloqueo de la cuenta. Mientras una cuenta se carga, los movimientos
+ * que llegan se acumulan y se aplican al terminar, descartando los que la
+ * lectura ya trajo. Las filas que el archivo mueve a disco se descartan con
+ * {@link #discard(Integer, List)}.
+ *
+ * <p>La memoria se acota con {@code cuenta.indice.memoria-mb} según una
+ * estimación por fila; al superarla se desalojan las cuentas automáticas
+ * menos leídas recientemente. Las cuentas indicadas no se desalojan.
+ */
+@Slf4j
+@Component
+public class HotAccountIndex implements MovementListener {
+
+    // Día, valor, saldo, tipo, referencia y un id UUID como String
+    static final long ROW_BYTES = 4 + 8 + 8 + 1 + 4 + 80;
+
+    private static final MovementType[] TYPES = MovementType.values();
+
+    private final MovementRepository movementRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final boolean enabled;
+    private final Set<Integer> designated;
+    private final long maxRows;
+    private final int readThreshold;
+    private final int maxAccounts;
+
+    private final Map<Integer, IndexedAccount> accounts = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> reads = new ConcurrentHashMap<>();
+    private final Set<Integer> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicLong indexedRows = new AtomicLong();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("indice-cuentas").daemon().factory());
+
+    private volatile long windowStartNanos = System.nanoTime();
+
+    public HotAccountIndex(MovementRepository movementRepository,
+                           AccountRepository accountRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${cuenta.indice.habilitado:false}") boolean enabled,
+                           @Value("${cuenta.indice.cuentas:}") String designatedAccounts,
+                           @Value("${cuenta.indice.memoria-mb:64}") long memoryMegabytes,
+                           @Value("${cuenta.indice.auto.umbral-lecturas:0}") int readThreshold,
+                           @Value("${cuenta.indice.max-cuentas:500}") int maxAccounts) {
+        this.movementRepository = movementRepository;
+        this.accountRepository = accountRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.designated = Arrays.stream(designatedAccounts.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(Integer::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxRows = memoryMegabytes * 1024 * 1024 / ROW_BYTES;
+        this.readThreshold = readThreshold;
+        this.maxAccounts = maxAccounts;
+        Gauge.builder("indice.cuentas", accounts, Map::size).register(meterRegistry);
+        Gauge.builder("indice.filas", indexedRows, AtomicLong::get).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDesignatedAccounts() {
+        if (enabled) {
+            designated.forEach(this::scheduleLoad);
+        }
+    }
+
+    /**
+     * Carga en el hilo actual las cuentas indicadas que todavía no están en el índice.
+     */
+    public void loadDesignatedAccountsNow() {
+        if (enabled) {
+            designated.forEach(this::load);
+        }
+    }
+
+    /**
+     * Carga en el hilo actual las cuentas indicadas (como automáticas) mientras
+     * quepan en el presupuesto sin desalojar otras leídas recientemente.
+     */
+    public void preload(Collection<Integer> numerosCuenta) {
+        if (enabled) {
+            numerosCuenta.forEach(this::load);
+        }
+    }
+
+    public boolean isIndexed(Integer numeroCuenta) {
+        IndexedAccount entry = accounts.get(numeroCuenta);
+        return entry != null && entry.isReady();
+    }
+
+    /**
+     * Movimientos calientes de la cuenta ordenados por fecha, con una copia de
+     * la cuenta. Vacío si la cuenta no está indexada; la lectura cuenta para la
+     * detección de cuentas calientes.
+     */
+    public Optional<IndexedMovements> movements(Integer numeroCuenta) {
+        IndexedAccount entry = readable(numeroCuenta);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            if (!entry.isReady()) {
+                return Optional.empty();
+            }
+            MovementColumns columns = entry.columns;
+            List<ArchivedMovementDTO> rows = new ArrayList<>(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                rows.add(new ArchivedMovementDTO(columns.id(i), numeroCuenta, LocalDate.ofEpochDay(columns.day(i)),
+                        TYPES[columns.type(i)], toAmount(columns.amount(i)), toAmount(columns.balance(i))));
+            }
+            return Optional.of(new IndexedMovements(copyOf(entry.account), rows));
+        }
+    }
+
+    /**
+     * Filas calientes del reporte entre las fechas, sin el nombre del cliente.
+     */
+    public Optional<List<MovementReportDTO>> reportRows(Integer numeroCuenta, LocalDate from, LocalDate to) {
+        IndexedAccount entry = readable(numeroCuenta);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            if (!entry.isReady()) {
+                return Optional.empty();
+            }
+            MovementColumns columns = entry.columns;
+            Account account = entry.account;
+            int first = columns.lowerBound((int) from.toEpochDay());
+            int last = columns.upperBound((int) to.toEpochDay());
+            List<MovementReportDTO> rows = new ArrayList<>(Math.max(0, last - first));
+            for (int i = first; i < last; i++) {
+                rows.add(new MovementReportDTO(LocalDate.ofEpochDay(columns.day(i)), numeroCuenta, account.getTipoCuenta(),
+                        toAmount(columns.balance(i) - columns.amount(i)), account.isStatus(),
+                        toAmount(columns.amount(i)), toAmount(columns.balance(i))));
+            }
+            return Optional.of(rows);
+        }
+    }
+
+    /**
+     * Ids calientes de la cuenta entre las fechas. No cuenta como lectura.
+     */
+    public Optional<Set<String>> ids(Integer numeroCuenta, LocalDate from, LocalDate to) {
+        IndexedAccount entry = enabled ? accounts.get(numeroCuenta) : null;
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            if (!entry.isReady()) {
+                return Optional.empty();
+            }
+            Set<String> ids = new HashSet<>();
+            int last = entry.columns.upperBound((int) to.toEpochDay());
+            for (int i = entry.columns.lowerBound((int) from.toEpochDay()); i < last; i++) {
+                ids.add(entry.columns.id(i));
+            }
+            return Optional.of(ids);
+        }
+    }
+
+    /**
+     * Copia de la cuenta indexada, con el saldo del último movimiento confirmado.
+     */
+    public Optional<Account> account(Integer numeroCuenta) {
+        IndexedAccount entry = enabled ? accounts.get(numeroCuenta) : null;
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            return entry.isReady() ? Optional.of(copyOf(entry.account)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Actualiza el tipo y el estado guardados tras modificar la cuenta.
+     */
+    public void accountUpdated(Account account) {
+        IndexedAccount entry = accounts.get(account.getNumeroCuenta());
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (entry.isReady()) {
+                // El saldo lo mantienen los movimientos; la cuenta guardada puede traer uno anterior
+                entry.account.setTipoCuenta(account.getTipoCuenta());
+                entry.account.setStatus(account.isStatus());
+                entry.account.setFechaModificacion(account.getFechaModificacion());
+            } else {
+                entry.accountChanged = true;
+            }
+        }
+    }
+
+    /**
+     * Descarta filas que el archivo movió a un segmento en disco.
+     */
+    public void discard(Integer numeroCuenta, List<ArchivedMovementDTO> archived) {
+        IndexedAccount entry = accounts.get(numeroCuenta);
+        if (entry == null || archived.isEmpty()) {
+            return;
+        }
+        int from = Integer.MAX_VALUE;
+        int to = Integer.MIN_VALUE;
+        Set<String> ids = new HashSet<>();
+        for (ArchivedMovementDTO row : archived) {
+            from = Math.min(from, (int) row.getFecha().toEpochDay());
+            to = Math.max(to, (int) row.getFecha().toEpochDay());
+            ids.add(row.getId());
+        }
+        synchronized (entry) {
+            if (entry.isReady()) {
+                indexedRows.addAndGet(-entry.columns.remove(from, to, ids));
+            } else {
+                // La carga en curso pudo leer estas filas antes de que se eliminaran
+                entry.discarded.addAll(ids);
+            }
+        }
+    }
+
+    /**
+     * Agrega el movimiento a la cuenta indexada. Si no se puede agregar, la cuenta
+     * sale del índice en lugar de quedar sin ese movimiento; las fijas se vuelven
+     * a cargar desde la base.
+     */
+    @Override
+    public void onMovementCreated(Movement movement) {
+        Integer numeroCuenta = movement.getCuenta().getNumeroCuenta();
+        IndexedAccount entry = accounts.get(numeroCuenta);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (!entry.isReady()) {
+                entry.pending.add(movement);
+                return;
+            }
+            try {
+                append(entry.columns, movement);
+                // El saldo del movimiento es el de la cuenta justo después de confirmarlo
+                entry.account.setSaldo(movement.getSaldo());
+            } catch (ArithmeticException e) {
+                log.warn("Cuenta {} fuera del índice: el movimiento {} tiene fracciones de centavo", numeroCuenta, movement.getId());
+                remove(numeroCuenta, entry);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Cuenta {} fuera del índice: no se pudo agregar el movimiento {}: {}",
+                        numeroCuenta, movement.getId(), e.getMessage());
+                remove(numeroCuenta, entry);
+                if (entry.pinned) {
+                    scheduleLoad(numeroCuenta);
+                }
+                return;
+            }
+        }
+        indexedRows.incrementAndGet();
+    }
+
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        // Las cuentas que este nodo ganó o perdió pudieron recibir movimientos en otro nodo
+        new ArrayList<>(accounts.keySet()).stream()
+                .filter(event::localOwnershipChanged)
+                .forEach(numeroCuenta -> remove(numeroCuenta, accounts.get(numeroCuenta)));
+    }
+
+    /**
+     * Cierra la ventana de lecturas: carga las cuentas que superaron el umbral y
+     * desaloja si las cuentas indexadas crecieron por encima del presupuesto.
+     */
+    @Scheduled(fixedDelayString = "${cuenta.indice.auto.ventana-ms:60000}")
+    public void detectHotAccounts() {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, Integer> counted = new HashMap<>();
+        for (Integer numeroCuenta : new ArrayList<>(reads.keySet())) {
+            AtomicInteger count = reads.remove(numeroCuenta);
+            if (count != null && readThreshold > 0 && count.get() >= readThreshold) {
+                counted.put(numeroCuenta, count.get());
+            }
+        }
+        windowStartNanos = System.nanoTime();
+        if (indexedRows.get() > maxRows) {
+            evictUntil(0, Long.MAX_VALUE);
+        }
+        counted.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .forEach(candidate -> scheduleLoad(candidate.getKey()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    // Métodos privados auxiliares
+    private IndexedAccount readable(Integer numeroCuenta) {
+        if (!enabled) {
+            return null;
+        }
+        IndexedAccount entry = accounts.get(numeroCuenta);
+        if (entry == null) {
+            if (readThreshold > 0) {
+                reads.computeIfAbsent(numeroCuenta, key -> new AtomicInteger()).incrementAndGet();
+            }
+            return null;
+        }
+        entry.lastReadNanos = System.nanoTime();
+        return entry;
+    }
+
+    private void scheduleLoad(Integer numeroCuenta) {
+        if (!accounts.containsKey(numeroCuenta) && loading.add(numeroCuenta)) {
+            loader.execute(() -> {
+                try {
+                    load(numeroCuenta);
+                } finally {
+                    loading.remove(numeroCuenta);
+                }
+            });
+        }
+    }
+
+    private void load(Integer numeroCuenta) {
+        if (accounts.containsKey(numeroCuenta)) {
+            return;
+        }
+        try {
+            long count = readOnlyTransactionTemplate.execute(status -> movementRepository.countByCuenta(numeroCuenta));
+            boolean pinned = designated.contains(numeroCuenta);
+            // Las automáticas solo desalojan cuentas que no se leyeron en la ventana en curso
+            if (!evictUntil(count, pinned ? Long.MAX_VALUE : windowStartNanos)) {
+                log.warn("Cuenta {} sin indexar: {} movimientos no caben en el presupuesto del índice", numeroCuenta, count);
+                return;
+            }
+            IndexedAccount entry = new IndexedAccount(pinned);
+            if (accounts.putIfAbsent(numeroCuenta, entry) != null) {
+                return;
+            }
+            // La lectura empieza después de registrar la cuenta: lo que se confirme desde ahora llega como pendiente
+            Loaded loaded = readOnlyTransactionTemplate.execute(status -> new Loaded(
+                    accountRepository.findById(numeroCuenta).orElse(null),
+                    movementRepository.findRowsByCuenta(numeroCuenta)));
+            if (loaded.account() == null) {
+                accounts.remove(numeroCuenta, entry);
+                return;
+            }
+            publish(numeroCuenta, entry, loaded);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo indexar la cuenta {}: {}", numeroCuenta, e.getMessage());
+            IndexedAccount entry = accounts.get(numeroCuenta);
+            if (entry != null && !entry.isReady()) {
+                accounts.remove(numeroCuenta, entry);
+            }
+        }
+    }
+
+    private void publish(Integer numeroCuenta, IndexedAccount entry, Loaded loaded) {
+        MovementColumns columns = new MovementColumns(loaded.rows().size() + 16);
+        for (ArchivedMovementDTO row : loaded.rows()) {
+            columns.add((int) row.getFecha().toEpochDay(), toCents(row.getValor()), toCents(row.getSaldo()),
+                    (byte) row.getTipoMovimiento().ordinal(), row.getId());
+        }
+        synchronized (entry) {
+            if (accounts.get(numeroCuenta) != entry) {
+                return;
+            }
+            Account account = copyOf(loaded.account());
+            for (Movement movement : entry.pending) {
+                if (!columns.containsId(movement.getId(), (int) movement.getFecha().toEpochDay())) {
+                    append(columns, movement);
+                    account.setSaldo(movement.getSaldo());
+                }
+            }
+            if (!entry.discarded.isEmpty()) {
+                columns.remove(Integer.MIN_VALUE, Integer.MAX_VALUE, entry.discarded);
+            }
+            if (entry.accountChanged) {
+                // La cuenta se modificó durante la carga: se relee para no guardar tipo o estado viejos
+                account = accountRepository.findById(numeroCuenta).map(this::copyOf).orElse(account);
+            }
+            entry.account = account;
+            entry.columns = columns;
+            entry.pending = null;
+            entry.discarded = null;
+            entry.lastReadNanos = System.nanoTime();
+            indexedRows.addAndGet(columns.size());
+        }
+        log.info("Cuenta {} indexada en memoria: {} movimientos", numeroCuenta, columns.size());
+    }
+
+    /**
+     * Desaloja cuentas no fijas, de la menos leída recientemente a la más, hasta
+     * que quepan {@code incomingRows} filas y una cuenta más. Solo considera las
+     * leídas antes de {@code readBeforeNanos}.
+     */
+    private synchronized boolean evictUntil(long incomingRows, long readBeforeNanos) {
+        if (incomingRows > maxRows) {
+            return false;
+        }
+        List<Map.Entry<Integer, IndexedAccount>> candidates = accounts.entrySet().stream()
+                .filter(candidate -> !candidate.getValue().pinned && candidate.getValue().isReady())
+                .filter(candidate -> readBeforeNanos == Long.MAX_VALUE || candidate.getValue().lastReadNanos - readBeforeNanos < 0)
+                .sorted(Comparator.comparingLong(candidate -> candidate.getValue().lastReadNanos))
+                .toList();
+        Iterator<Map.Entry<Integer, IndexedAccount>> iterator = candidates.iterator();
+        while (indexedRows.get() + incomingRows > maxRows || accounts.size() + (incomingRows > 0 ? 1 : 0) > maxAccounts) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            Map.Entry<Integer, IndexedAccount> evicted = iterator.next();
+            remove(evicted.getKey(), evicted.getValue());
+            log.info("Cuenta {} desalojada del índice", evicted.getKey());
+        }
+        return true;
+    }
+
+    private void remove(Integer numeroCuenta, IndexedAccount entry) {
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (accounts.remove(numeroCuenta, entry) && entry.isReady()) {
+                indexedRows.addAndGet(-entry.columns.size());
+            }
+        }
+    }
+
+    private void append(MovementColumns columns, Movement movement) {
+        columns.add((int) movement.getFecha().toEpochDay(), toCents(movement.getValor()), toCents(movement.getSaldo()),
+                (byte) movement.getTipoMovimiento().ordinal(), movement.getId());
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    private BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private Account copyOf(Account account) {
+        Account copy = new Account();
+        copy.setNumeroCuenta(account.getNumeroCuenta());
+        copy.setTipoCuenta(account.getTipoCuenta());
+        copy.setSaldo(account.getSaldo());
+        copy.setStatus(account.isStatus());
+        copy.setClienteId(account.getClienteId());
+        copy.setFechaModificacion(account.getFechaModificacion());
+        return copy;
+    }
+
+    /**
+     * Movimientos calientes de una cuenta indexada y la copia de su cuenta.
+     */
+    public record IndexedMovements(Account account, List<ArchivedMovementDTO> rows) {
+    }
+
+    private record Loaded(Account account, List<ArchivedMovementDTO> rows) {
+    }
+
+    private static class IndexedAccount {
+        private final boolean pinned;
+        private MovementColumns columns;
+        private Account account;
+        private List<Movement> pending = new ArrayList<>();
+        private Set<String> discarded = new HashSet<>();
+        private boolean accountChanged;
+        private volatile long lastReadNanos = System.nanoTime();
+
+        private IndexedAccount(boolean pinned) {
+            this.pinned = pinned;
+        }
+
+        private boolean isReady() {
+            return columns != null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.prueba.cuenta.service.index;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Movimientos de una cuenta en columnas de primitivos, ordenados por día
+ * epoch y, dentro del día, por orden de llegada: día, valor y saldo en
+ * centavos, tipo (ordinal de {@code MovementType}) y referencia al id.
+ *
+ * <p>No es seguro para hilos: {@link HotAccountIndex} lo usa bajo el bloqueo
+ * de la cuenta.
+ */
+class MovementColumns {
+
+    private int[] days;
+    private long[] amounts;
+    private long[] balances;
+    private byte[] types;
+    private String[] ids;
+    private int size;
+
+    MovementColumns(int capacity) {
+        int initial = Math.max(8, capacity);
+        days = new int[initial];
+        amounts = new long[initial];
+        balances = new long[initial];
+        types = new byte[initial];
+        ids = new String[initial];
+    }
+
+    /**
+     * Inserta después de los movimientos del mismo día; en el caso normal es un agregado al final.
+     */
+    void add(int day, long amount, long balance, byte type, String id) {
+        int insertAt = upperBound(day);
+        if (size == days.length) {
+            int capacity = size + (size >> 1);
+            days = Arrays.copyOf(days, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+            types = Arrays.copyOf(types, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int moved = size - insertAt;
+        if (moved > 0) {
+            System.arraycopy(days, insertAt, days, insertAt + 1, moved);
+            System.arraycopy(amounts, insertAt, amounts, insertAt + 1, moved);
+            System.arraycopy(balances, insertAt, balances, insertAt + 1, moved);
+            System.arraycopy(types, insertAt, types, insertAt + 1, moved);
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, moved);
+        }
+        days[insertAt] = day;
+        amounts[insertAt] = amount;
+        balances[insertAt] = balance;
+        types[insertAt] = type;
+        ids[insertAt] = id;
+        size++;
+    }
+
+    /**
+     * Primera posición con día mayor o igual a {@code day}.
+     */
+    int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Primera posición con día mayor a {@code day}.
+     */
+    int upperBound(int day) {
+        return day == Integer.MAX_VALUE ? size : lowerBound(day + 1);
+    }
+
+    boolean containsId(String id, int fromDay) {
+        for (int i = lowerBound(fromDay); i < size; i++) {
+            if (ids[i].equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Elimina los movimientos cuyos ids están en {@code removed}, entre los días indicados.
+     * Devuelve la cantidad eliminada.
+     */
+    int remove(int fromDay, int toDay, Set<String> removed) {
+        int from = lowerBound(fromDay);
+        int to = upperBound(toDay);
+        int write = from;
+        for (int read = from; read < to; read++) {
+            if (removed.contains(ids[read])) {
+                continue;
+            }
+            days[write] = days[read];
+            amounts[write] = amounts[read];
+            balances[write] = balances[read];
+            types[write] = types[read];
+            ids[write] = ids[read];
+            write++;
+        }
+        int count = to - write;
+        if (count > 0) {
+            System.arraycopy(days, to, days, write, size - to);
+            System.arraycopy(amounts, to, amounts, write, size - to);
+            System.arraycopy(balances, to, balances, write, size - to);
+            System.arraycopy(types, to, types, write, size - to);
+            System.arraycopy(ids, to, ids, write, size - to);
+            Arrays.fill(ids, size - count, size, null);
+            size -= count;
+        }
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int day(int position) {
+        return days[position];
+    }
+
+    long amount(int position) {
+        return amounts[position];
+    }
+
+    long balance(int position) {
+        return balances[position];
+    }
+
+    byte type(int position) {
+        return types[position];
+    }
+
+    String id(int position) {
+        return ids[position];
+    }
+}
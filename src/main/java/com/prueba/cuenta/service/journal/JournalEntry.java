@@ -0,0 +1,72 @@
+package com.prueba.cuenta.service.journal;
+
+import com.prueba.cuenta.entity.MovementType;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+/**
+ * Movimiento aceptado en el diario. {@code offset} y {@code nextOffset} son
+ * posiciones lógicas del diario y se asignan al escribirlo.
+ */
+record JournalEntry(long offset,
+                    long nextOffset,
+                    String id,
+                    Integer numeroCuenta,
+                    LocalDate fecha,
+                    MovementType tipoMovimiento,
+                    BigDecimal valor,
+                    BigDecimal saldo) {
+
+    static JournalEntry of(String id, Integer numeroCuenta, LocalDate fecha, MovementType tipoMovimiento,
+                           BigDecimal valor, BigDecimal saldo) {
+        return new JournalEntry(-1, -1, id, numeroCuenta, fecha, tipoMovimiento, valor, saldo);
+    }
+
+    JournalEntry at(long offset, long nextOffset) {
+        return new JournalEntry(offset, nextOffset, id, numeroCuenta, fecha, tipoMovimiento, valor, saldo);
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(id);
+            out.writeInt(numeroCuenta);
+            out.writeLong(fecha.toEpochDay());
+            out.writeUTF(tipoMovimiento.name());
+            writeDecimal(out, valor);
+            writeDecimal(out, saldo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(long offset, long nextOffset, byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new JournalEntry(offset, nextOffset,
+                    in.readUTF(),
+                    in.readInt(),
+                    LocalDate.ofEpochDay(in.readLong()),
+                    MovementType.valueOf(in.readUTF()),
+                    readDecimal(in),
+                    readDecimal(in));
+        }
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
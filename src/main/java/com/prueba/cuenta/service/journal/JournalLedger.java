@@ -0,0 +1,167 @@
+package com.prueba.cuenta.service.journal;
+
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.MovementListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Saldo en memoria de las cuentas con movimientos del diario todavía no
+ * aplicados en la base. Mientras una cuenta tiene movimientos pendientes, este
+ * saldo (base + pendientes) es el que se usa para validar nuevos movimientos.
+ *
+ * <p>Una reserva se hace antes de que el movimiento sea durable, para que los
+ * siguientes se validen contando con él; si la escritura en el diario falla o
+ * se cancela, se deshace con {@link #rollback}.
+ *
+ * <p>Los movimientos escritos por otros procesos (p. ej. el fin de día) llegan
+ * como {@link MovementListener} y se suman al saldo en memoria.
+ */
+@Slf4j
+@Component
+public class JournalLedger implements MovementListener {
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final AccountRepository accountRepository;
+    private final Map<Integer, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public JournalLedger(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Valida y reserva un movimiento. {@code append} recibe una copia de la cuenta
+     * con el saldo resultante y debe encolar el movimiento en el diario; se
+     * ejecuta bajo el bloqueo de la cuenta para que el orden del diario coincida
+     * con el del saldo.
+     */
+    Account reserve(Integer numeroCuenta, BigDecimal valor, Consumer<Account> append) {
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            LedgerAccount ledger = accounts.get(numeroCuenta);
+            Account current = ledger != null ? ledger.account : accountRepository.findById(numeroCuenta)
+                    .orElseThrow(() -> new AccountBusinessException("Cuenta no encontrada"));
+            BigDecimal newBalance = current.getSaldo().add(valor);
+            if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
+                log.error("Saldo no disponible para la cuenta: {}", numeroCuenta);
+                throw new AccountBusinessException("Saldo no disponible");
+            }
+            Account updated = copyOf(current, newBalance);
+            append.accept(updated);
+
+            LedgerAccount next = ledger != null ? ledger : new LedgerAccount();
+            next.account = updated;
+            next.pending++;
+            accounts.put(numeroCuenta, next);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deshace la reserva de un movimiento que no llegó al diario.
+     */
+    void rollback(Integer numeroCuenta, BigDecimal valor) {
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            LedgerAccount ledger = accounts.get(numeroCuenta);
+            if (ledger == null) {
+                return;
+            }
+            ledger.account = copyOf(ledger.account, ledger.account.getSaldo().subtract(valor));
+            if (--ledger.pending <= 0) {
+                accounts.remove(numeroCuenta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta {@code cancel} bajo el bloqueo de la cuenta, sin que entre otra
+     * reserva de la misma cuenta mientras tanto.
+     */
+    boolean cancel(Integer numeroCuenta, BooleanSupplier cancel) {
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            return cancel.getAsBoolean();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marca como aplicado en la base un movimiento reservado.
+     */
+    void release(Integer numeroCuenta) {
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            LedgerAccount ledger = accounts.get(numeroCuenta);
+            if (ledger != null && --ledger.pending <= 0) {
+                accounts.remove(numeroCuenta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int pendingAccounts() {
+        return accounts.size();
+    }
+
+    @Override
+    public void onMovementCreated(Movement movement) {
+        Integer numeroCuenta = movement.getCuenta().getNumeroCuenta();
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            LedgerAccount ledger = accounts.get(numeroCuenta);
+            if (ledger != null) {
+                ledger.account = copyOf(ledger.account, ledger.account.getSaldo().add(movement.getValor()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Métodos privados auxiliares
+    private ReentrantLock lockFor(Integer numeroCuenta) {
+        return locks[Math.floorMod(numeroCuenta, LOCK_STRIPES)];
+    }
+
+    private Account copyOf(Account account, BigDecimal balance) {
+        Account copy = new Account();
+        copy.setNumeroCuenta(account.getNumeroCuenta());
+        copy.setTipoCuenta(account.getTipoCuenta());
+        copy.setSaldo(balance);
+        copy.setStatus(account.isStatus());
+        copy.setClienteId(account.getClienteId());
+        copy.setFechaModificacion(account.getFechaModificacion());
+        return copy;
+    }
+
+    private static class LedgerAccount {
+        private Account account;
+        private int pending;
+    }
+}
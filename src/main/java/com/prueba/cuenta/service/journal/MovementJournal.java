@@ -0,0 +1,379 @@
+package com.prueba.cuenta.service.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario local de solo anexado, repartido en archivos {@code diario-<posición>.log}.
+ *
+ * <p>Un único hilo escribe: toma todas las entradas en cola, las escribe, hace un
+ * solo fsync y recién entonces completa sus futuros (group commit). Cada
+ * entrada lleva longitud y CRC32C; al abrir, una cola de archivo incompleta o
+ * corrupta se trunca.
+ */
+@Slf4j
+class MovementJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+    private static final String FILE_PREFIX = "diario-";
+    private static final String FILE_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long rollBytes;
+    private final long groupCommitNanos;
+
+    // Posición inicial de cada archivo -> archivo; el último es el activo
+    private final TreeMap<Long, Path> files = new TreeMap<>();
+    private final LinkedBlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private final Thread writer;
+
+    private FileChannel active;
+    private long activeStart;
+    private volatile long durableOffset;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private MovementJournal(Path directory, long rollBytes, long groupCommitNanos) {
+        this.directory = directory;
+        this.rollBytes = rollBytes;
+        this.groupCommitNanos = groupCommitNanos;
+        this.writer = Thread.ofPlatform().name("diario-movimientos").daemon().unstarted(this::writeLoop);
+    }
+
+    /**
+     * Abre el diario y recupera su final. Las posiciones nuevas nunca quedan por
+     * debajo de {@code minOffset} (lo ya aplicado en la base).
+     */
+    static MovementJournal open(Path directory, long minOffset, long rollBytes, long groupCommitNanos) throws IOException {
+        MovementJournal journal = new MovementJournal(directory, rollBytes, groupCommitNanos);
+        journal.recover(minOffset);
+        journal.writer.start();
+        return journal;
+    }
+
+    long getDurableOffset() {
+        return durableOffset;
+    }
+
+    CompletableFuture<JournalEntry> append(JournalEntry entry) {
+        CompletableFuture<JournalEntry> future = new CompletableFuture<>();
+        if (failure != null || closed) {
+            future.completeExceptionally(new IOException("El diario de movimientos no está disponible", failure));
+            return future;
+        }
+        queue.add(new PendingAppend(entry, future));
+        return future;
+    }
+
+    /**
+     * Retira una entrada que todavía está en cola, de modo que nunca se escriba.
+     * No se retira si el escritor ya la tomó ni si detrás hay otra entrada de la
+     * misma cuenta, porque esa se validó contando con ella. El llamador debe
+     * impedir que se encolen entradas de la cuenta mientras tanto.
+     */
+    boolean cancelIfLast(CompletableFuture<JournalEntry> future) {
+        Integer numeroCuenta = null;
+        for (PendingAppend pending : queue) {
+            if (pending.future() == future) {
+                numeroCuenta = pending.entry().numeroCuenta();
+            } else if (numeroCuenta != null && numeroCuenta.equals(pending.entry().numeroCuenta())) {
+                return false;
+            }
+        }
+        if (numeroCuenta == null || !queue.removeIf(pending -> pending.future() == future)) {
+            return false;
+        }
+        future.cancel(false);
+        return true;
+    }
+
+    /**
+     * Espera a que la parte durable supere {@code offset} o se agote el tiempo.
+     */
+    void awaitDurable(long offset, long timeoutMillis) throws InterruptedException {
+        durableLock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (durableOffset <= offset && remaining > 0 && !closed) {
+                remaining = durableAdvanced.awaitNanos(remaining);
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Lee hasta {@code maxEntries} entradas durables desde {@code from}.
+     */
+    List<JournalEntry> read(long from, int maxEntries) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        long limit = durableOffset;
+        long offset = from;
+        while (entries.size() < maxEntries && offset < limit) {
+            Map.Entry<Long, Path> file;
+            Long nextStart;
+            synchronized (files) {
+                file = files.floorEntry(offset);
+                nextStart = files.higherKey(offset);
+            }
+            if (file == null) {
+                throw new IOException("No existe el archivo del diario para la posición " + offset);
+            }
+            long fileEnd = Math.min(limit, nextStart == null ? Long.MAX_VALUE : nextStart);
+            try (FileChannel channel = FileChannel.open(file.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (entries.size() < maxEntries && offset < fileEnd) {
+                    long position = offset - file.getKey();
+                    header.clear();
+                    readFully(channel, header, position);
+                    int length = header.getInt(0);
+                    byte[] payload = new byte[length];
+                    readFully(channel, ByteBuffer.wrap(payload), position + HEADER_BYTES);
+                    long next = offset + HEADER_BYTES + length;
+                    entries.add(JournalEntry.decode(offset, next, payload));
+                    offset = next;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Elimina los archivos cuyo contenido completo está antes de {@code offset}.
+     */
+    void deleteBefore(long offset) {
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (files) {
+            while (files.size() > 1) {
+                Map.Entry<Long, Path> first = files.firstEntry();
+                Long secondStart = files.higherKey(first.getKey());
+                if (secondStart > offset) {
+                    break;
+                }
+                files.pollFirstEntry();
+                obsolete.add(first.getValue());
+            }
+        }
+        for (Path path : obsolete) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el archivo del diario {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Sin interrumpir: una interrupción durante el fsync cerraría el canal
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        signalDurable();
+        if (active != null) {
+            active.close();
+        }
+    }
+
+    // Métodos privados auxiliares
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        long batchStart = -1;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32C crc = new CRC32C();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (groupCommitNanos > 0) {
+                    LockSupport.parkNanos(groupCommitNanos);
+                }
+                queue.drainTo(batch);
+
+                long position = activeStart + active.position();
+                batchStart = position;
+                List<JournalEntry> written = new ArrayList<>(batch.size());
+                for (PendingAppend pending : batch) {
+                    byte[] payload = pending.entry().encode();
+                    crc.reset();
+                    crc.update(payload);
+                    header.clear();
+                    header.putInt(payload.length).putInt((int) crc.getValue()).flip();
+                    writeFully(active, header);
+                    writeFully(active, ByteBuffer.wrap(payload));
+                    long next = position + HEADER_BYTES + payload.length;
+                    written.add(pending.entry().at(position, next));
+                    position = next;
+                }
+                active.force(false);
+                durableOffset = position;
+                signalDurable();
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future().complete(written.get(i));
+                }
+                batch.clear();
+                batchStart = -1;
+                if (active.position() >= rollBytes) {
+                    roll(position);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.error("Error de escritura en el diario de movimientos, se deja de aceptar: {}", e.getMessage());
+                failure = e;
+                if (batchStart >= 0) {
+                    // Las entradas del lote se informan como fallidas: no deben reaparecer al recuperar
+                    discardFrom(batchStart);
+                }
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+                batch.clear();
+                queue.forEach(pending -> pending.future().completeExceptionally(e));
+                queue.clear();
+                return;
+            }
+        }
+    }
+
+    private void discardFrom(long position) {
+        try {
+            active.truncate(position - activeStart);
+            active.force(true);
+        } catch (IOException e) {
+            log.error("No se pudo descartar el lote fallido del diario desde {}: {}", position, e.getMessage());
+        }
+    }
+
+    private void recover(long minOffset) throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                files.put(Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())), path);
+            }
+        }
+        if (files.isEmpty()) {
+            openActive(minOffset, true);
+            return;
+        }
+        Map.Entry<Long, Path> last = files.lastEntry();
+        activeStart = last.getKey();
+        active = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = scanValidLength(active);
+        if (validLength < active.size()) {
+            log.warn("Diario {}: se descartan {} bytes incompletos al final", last.getValue().getFileName(), active.size() - validLength);
+            active.truncate(validLength);
+            active.force(true);
+        }
+        active.position(validLength);
+        durableOffset = activeStart + validLength;
+        if (durableOffset < minOffset) {
+            // La base ya aplicó posiciones que este directorio no tiene: se continúa desde ahí
+            log.warn("El diario termina en {} pero la base ya aplicó hasta {}", durableOffset, minOffset);
+            roll(minOffset);
+        }
+        log.info("Diario de movimientos abierto: {} archivos, posición durable {}", files.size(), durableOffset);
+    }
+
+    private long scanValidLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32C crc = new CRC32C();
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            int length = header.getInt(0);
+            int checksum = header.getInt(4);
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            readFully(channel, ByteBuffer.wrap(payload), position + HEADER_BYTES);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void roll(long start) throws IOException {
+        if (active != null) {
+            active.force(true);
+            active.close();
+        }
+        openActive(start, false);
+    }
+
+    private void openActive(long start, boolean initial) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, start, FILE_SUFFIX));
+        active = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeStart = start;
+        synchronized (files) {
+            files.put(start, path);
+        }
+        if (initial) {
+            durableOffset = start;
+        } else {
+            durableOffset = Math.max(durableOffset, start);
+        }
+    }
+
+    private void signalDurable() {
+        durableLock.lock();
+        try {
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Fin inesperado del diario en la posición " + position);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record PendingAppend(JournalEntry entry, CompletableFuture<JournalEntry> future) {
+    }
+}
@@ -0,0 +1,354 @@
+package com.prueba.cuenta.service.journal;
+
+import com.prueba.cuenta.dto.MovementCommandDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.JournalCheckpoint;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.JournalCheckpointRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.BalanceCheckpointService;
+import com.prueba.cuenta.service.MovementListeners;
+import com.prueba.cuenta.service.limit.WithdrawalLimitService;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Modo de durabilidad local para {@code POST /movimientos}: el movimiento se
+ * valida contra {@link JournalLedger}, se escribe en el diario local con fsync
+ * agrupado y se confirma sin esperar a la base de datos.
+ *
+ * <p>Un hilo proyector aplica las entradas en orden sobre {@code movimiento} y
+ * {@code cuenta}, en bloques, y guarda la posición aplicada del diario en la
+ * misma transacción; por eso cada entrada se aplica exactamente una vez aunque
+ * el proceso se detenga a mitad de un bloque. Al iniciar se reaplica todo lo
+ * pendiente antes de recibir tráfico. Una entrada que no se puede aplicar (su
+ * cuenta ya no existe) detiene la proyección en lugar de descartarse.
+ */
+@Slf4j
+@Service
+public class MovementJournalService implements SmartLifecycle {
+
+    static final String JOURNAL_NAME = "movimientos";
+    private static final String SUCCESS_CODE = "0";
+    private static final String ERROR_CODE = "1";
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final AccountRepository accountRepository;
+    private final MovementRepository movementRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final JournalLedger journalLedger;
+    private final WithdrawalLimitService withdrawalLimitService;
+    private final MovementListeners movementListeners;
+    private final OutboxService outboxService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${cuenta.diario.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.diario.directorio:diario-movimientos}")
+    private String directory;
+
+    @Value("${cuenta.diario.espera-agrupacion-us:0}")
+    private long groupCommitMicros;
+
+    @Value("${cuenta.diario.tamano-archivo-mb:64}")
+    private long fileMegabytes;
+
+    @Value("${cuenta.diario.tamano-bloque:500}")
+    private int batchSize;
+
+    @Value("${cuenta.diario.timeout-ms:1000}")
+    private long appendTimeoutMillis;
+
+    private MovementJournal journal;
+    private Thread projector;
+    private volatile boolean running;
+    private volatile long projectedOffset;
+
+    public MovementJournalService(AccountRepository accountRepository,
+                                  MovementRepository movementRepository,
+                                  JournalCheckpointRepository checkpointRepository,
+                                  JournalLedger journalLedger,
+                                  WithdrawalLimitService withdrawalLimitService,
+                                  MovementListeners movementListeners,
+                                  OutboxService outboxService,
+                                  BalanceCheckpointService balanceCheckpointService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.movementRepository = movementRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.journalLedger = journalLedger;
+        this.withdrawalLimitService = withdrawalLimitService;
+        // El saldo en memoria ya incluye los movimientos del diario
+        this.movementListeners = movementListeners.without(journalLedger);
+        this.outboxService = outboxService;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<ApiResponseClient<Movement>> accept(MovementCommandDTO command) {
+        return Mono.fromCallable(() -> {
+                    String id = MDC.get("uuid");
+                    LocalDate fecha = command.getFecha();
+                    BigDecimal valor = command.getValor();
+                    MovementType tipo = valor.compareTo(BigDecimal.ZERO) > 0 ? MovementType.DEPOSITO : MovementType.RETIRO;
+
+                    List<CompletableFuture<JournalEntry>> appended = new ArrayList<>(1);
+                    Account account = journalLedger.reserve(command.getCuentaId(), valor,
+                            reserved -> {
+                                withdrawalLimitService.reserve(id, reserved, fecha, valor);
+                                try {
+                                    appended.add(journal.append(
+                                            JournalEntry.of(id, reserved.getNumeroCuenta(), fecha, tipo, valor, reserved.getSaldo())));
+                                } catch (RuntimeException e) {
+                                    withdrawalLimitService.release(id);
+                                    throw e;
+                                }
+                            });
+                    CompletableFuture<JournalEntry> append = appended.get(0);
+                    // Si la entrada no llega al diario (fallo o cancelación) se deshacen saldo y límite
+                    append.whenComplete((entry, error) -> {
+                        if (error != null) {
+                            journalLedger.rollback(account.getNumeroCuenta(), valor);
+                            withdrawalLimitService.release(id);
+                        }
+                    });
+                    awaitDurable(account.getNumeroCuenta(), append);
+
+                    Movement movement = new Movement();
+                    movement.setId(id);
+                    movement.setFecha(fecha);
+                    movement.setTipoMovimiento(tipo);
+                    movement.setValor(valor);
+                    movement.setSaldo(account.getSaldo());
+                    movement.setCuenta(account);
+                    return new ApiResponseClient<>(movement,
+                            new ResponseProcess(SUCCESS_CODE, "Movimiento creado correctamente", "OK"));
+                })
+                .onErrorResume(e -> {
+                    log.error("Error al registrar el movimiento en el diario: {}", e.getMessage());
+                    return Mono.just(new ApiResponseClient<>(null, new ResponseProcess(ERROR_CODE, e.getMessage(), "ERROR")));
+                });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        projectedOffset = checkpointRepository.findById(JOURNAL_NAME).map(JournalCheckpoint::getPosicion).orElse(0L);
+        try {
+            journal = MovementJournal.open(Path.of(directory), projectedOffset,
+                    fileMegabytes * 1024 * 1024, TimeUnit.MICROSECONDS.toNanos(groupCommitMicros));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario de movimientos " + directory, e);
+        }
+
+        long pending = journal.getDurableOffset() - projectedOffset;
+        if (pending > 0) {
+            log.info("Reaplicando {} bytes del diario desde la posición {}", pending, projectedOffset);
+            while (projectedOffset < journal.getDurableOffset()) {
+                projectNextBatch();
+            }
+        }
+
+        Gauge.builder("diario.pendiente.bytes", this, service -> service.journal.getDurableOffset() - service.projectedOffset)
+                .register(meterRegistry);
+        Gauge.builder("diario.cuentas.pendientes", journalLedger, JournalLedger::pendingAccounts).register(meterRegistry);
+
+        running = true;
+        projector = Thread.ofPlatform().name("diario-proyector").daemon().start(this::projectLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            projector.join(TimeUnit.SECONDS.toMillis(30));
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Error al cerrar el diario de movimientos: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Antes que el servidor web: no se reciben movimientos hasta terminar la reaplicación
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // Métodos privados auxiliares
+    /**
+     * Espera a que la entrada sea durable. Al agotarse el tiempo se retira si
+     * sigue en cola; si el escritor ya la tomó se espera su resultado, para no
+     * informar como fallido un movimiento que igual se va a aplicar.
+     */
+    private void awaitDurable(Integer numeroCuenta, CompletableFuture<JournalEntry> appended) throws InterruptedException {
+        try {
+            try {
+                appended.get(appendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (journalLedger.cancel(numeroCuenta, () -> journal.cancelIfLast(appended))) {
+                    throw new AccountBusinessException("Tiempo de espera agotado al registrar el movimiento");
+                }
+                appended.get();
+            }
+        } catch (ExecutionException e) {
+            throw new AccountBusinessException("No se pudo registrar el movimiento: " + e.getCause().getMessage());
+        }
+    }
+
+    private void projectLoop() {
+        long backoff = 10;
+        // Al detenerse se termina de aplicar lo que ya es durable
+        while (running || projectedOffset < journal.getDurableOffset()) {
+            try {
+                if (projectedOffset >= journal.getDurableOffset()) {
+                    journal.awaitDurable(projectedOffset, 100);
+                    continue;
+                }
+                projectNextBatch();
+                backoff = 10;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Base lenta o caída, o una entrada detenida: el diario absorbe la carga y se reintenta
+                log.warn("No se pudo aplicar el diario desde {}, reintento en {} ms: {}", projectedOffset, backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void projectNextBatch() {
+        List<JournalEntry> batch;
+        try {
+            batch = journal.read(projectedOffset, batchSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        long nextOffset = batch.get(batch.size() - 1).nextOffset();
+        List<Movement> applied = transactionTemplate.execute(status -> apply(batch, nextOffset));
+
+        projectedOffset = nextOffset;
+        batch.forEach(entry -> journalLedger.release(entry.numeroCuenta()));
+        applied.forEach(movementListeners::movementCreated);
+        journal.deleteBefore(projectedOffset);
+    }
+
+    private List<Movement> apply(List<JournalEntry> batch, long nextOffset) {
+        JournalCheckpoint checkpoint = checkpointRepository.findById(JOURNAL_NAME).orElseGet(() -> {
+            JournalCheckpoint created = new JournalCheckpoint();
+            created.setNombre(JOURNAL_NAME);
+            return created;
+        });
+        List<JournalEntry> pending = batch.stream().filter(entry -> entry.offset() >= checkpoint.getPosicion()).toList();
+
+        // Bloqueo en orden de número de cuenta, igual que el proceso de fin de día
+        Map<Integer, Account> accounts = accountRepository.findAllForUpdate(
+                        pending.stream().map(JournalEntry::numeroCuenta).collect(Collectors.toCollection(TreeSet::new))).stream()
+                .collect(Collectors.toMap(Account::getNumeroCuenta, Function.identity()));
+        Map<String, Movement> existing = new HashMap<>();
+        movementRepository.findAllById(pending.stream().map(JournalEntry::id).toList())
+                .forEach(movement -> existing.put(movement.getId(), movement));
+
+        List<Movement> applied = new ArrayList<>(pending.size());
+        for (JournalEntry entry : pending) {
+            Movement previous = existing.get(entry.id());
+            if (previous != null && isSameMovement(previous, entry)) {
+                // Ya aplicada (p. ej. reintento de un bloque): se omite
+                continue;
+            }
+            Account account = accounts.get(entry.numeroCuenta());
+            if (account == null || previous != null) {
+                // La entrada ya fue confirmada al cliente: no se descarta. Se revierte el
+                // bloque, la posición no avanza y el proyector reintenta hasta que se corrija
+                log.error("Entrada {} del diario detenida: cuenta {} inexistente o id {} usado por otro movimiento",
+                        entry.offset(), entry.numeroCuenta(), entry.id());
+                throw new IllegalStateException("No se puede aplicar la entrada " + entry.offset() + " del diario");
+            }
+            account.setSaldo(account.getSaldo().add(entry.valor()));
+            Movement movement = new Movement();
+            movement.setId(entry.id());
+            movement.setFecha(entry.fecha());
+            movement.setTipoMovimiento(entry.tipoMovimiento());
+            movement.setValor(entry.valor());
+            movement.setSaldo(entry.saldo());
+            movement.setCuenta(account);
+            entityManager.persist(movement);
+            outboxService.movementCreated(movement);
+            balanceCheckpointService.movementSaved(movement);
+            existing.put(movement.getId(), movement);
+            applied.add(movement);
+        }
+
+        checkpoint.setPosicion(nextOffset);
+        checkpointRepository.save(checkpoint);
+        return applied;
+    }
+
+    private boolean isSameMovement(Movement movement, JournalEntry entry) {
+        return movement.getCuenta().getNumeroCuenta().equals(entry.numeroCuenta())
+                && movement.getFecha().equals(entry.fecha())
+                && movement.getValor().compareTo(entry.valor()) == 0;
+    }
+}
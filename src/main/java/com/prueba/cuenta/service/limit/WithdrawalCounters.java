@@ -0,0 +1,96 @@
+package com.prueba.cuenta.service.limit;
+
+import java.util.Arrays;
+
+/**
+ * Retiros de una cuenta agrupados por día (día epoch de la fecha del
+ * movimiento), en centavos y ordenados por día. Solo guarda los días que
+ * pueden entrar en una ventana todavía verificable en memoria; los anteriores
+ * se descartan con {@link #prune(long)}.
+ *
+ * <p>No es seguro para hilos: {@link WithdrawalLimitService} lo usa bajo el
+ * bloqueo de la cuenta.
+ */
+class WithdrawalCounters {
+
+    private long[] days = new long[4];
+    private long[] cents = new long[4];
+    private int size;
+    private int reservations;
+    private long lastAccessNanos = System.nanoTime();
+
+    void add(long day, long amountCents) {
+        int index = Arrays.binarySearch(days, 0, size, day);
+        if (index >= 0) {
+            cents[index] += amountCents;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            cents = Arrays.copyOf(cents, size * 2);
+        }
+        System.arraycopy(days, insertAt, days, insertAt + 1, size - insertAt);
+        System.arraycopy(cents, insertAt, cents, insertAt + 1, size - insertAt);
+        days[insertAt] = day;
+        cents[insertAt] = amountCents;
+        size++;
+    }
+
+    long daily(long day) {
+        int index = Arrays.binarySearch(days, 0, size, day);
+        return index >= 0 ? cents[index] : 0;
+    }
+
+    /**
+     * Total de los {@code windowDays} días que terminan en {@code day}, inclusive.
+     */
+    long window(long day, int windowDays) {
+        long total = 0;
+        for (int i = 0; i < size && days[i] <= day; i++) {
+            if (days[i] > day - windowDays) {
+                total += cents[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Descarta los días anteriores a {@code firstDay}.
+     */
+    void prune(long firstDay) {
+        int from = 0;
+        while (from < size && days[from] < firstDay) {
+            from++;
+        }
+        if (from > 0) {
+            System.arraycopy(days, from, days, 0, size - from);
+            System.arraycopy(cents, from, cents, 0, size - from);
+            size -= from;
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void reserve() {
+        reservations++;
+    }
+
+    void releaseReservation() {
+        reservations--;
+    }
+
+    boolean hasReservations() {
+        return reservations > 0;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
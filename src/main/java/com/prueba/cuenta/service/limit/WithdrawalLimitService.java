@@ -0,0 +1,354 @@
+package com.prueba.cuenta.service.limit;
+
+import com.prueba.cuenta.dto.WithdrawalTotalDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.MovementListener;
+import com.prueba.cuenta.service.cluster.ClusterMembershipChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Límites de retiro por día y por ventana móvil de {@code cuenta.limites.dias-ventana}
+ * días, por tipo de cuenta o por cuenta, verificados contra contadores en memoria
+ * en lugar de sumar {@code movimiento} en cada alta.
+ *
+ * <p>Los contadores de una cuenta se cargan de la base en su primer retiro (o al
+ * iniciar, para todas las cuentas con retiros recientes) y luego se actualizan con
+ * cada movimiento confirmado. Un retiro se cuenta al validarse, antes de
+ * guardarse, para que dos retiros concurrentes no pasen ambos el límite; si el alta
+ * falla se descuenta con {@link #release(String)}. Las cuentas sin retiros
+ * recientes se desalojan y, si se supera {@code cuenta.limites.max-cuentas}, las
+ * menos usadas; se recargan de la base al volver a retirar.
+ */
+@Slf4j
+@Service
+public class WithdrawalLimitService implements MovementListener, SmartLifecycle {
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final MovementRepository movementRepository;
+    private final boolean enabled;
+    private final int windowDays;
+    private final int maxAccounts;
+    private final WithdrawalLimits.Policy policy;
+
+    private final Map<Integer, WithdrawalCounters> counters = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter rejected;
+
+    private volatile boolean running;
+
+    public WithdrawalLimitService(MovementRepository movementRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cuenta.limites.habilitado:false}") boolean enabled,
+                                  @Value("${cuenta.limites.dias-ventana:7}") int windowDays,
+                                  @Value("${cuenta.limites.max-cuentas:100000}") int maxAccounts,
+                                  @Value("${cuenta.limites.por-tipo:}") String byType,
+                                  @Value("${cuenta.limites.por-cuenta:}") String byAccount) {
+        this.movementRepository = movementRepository;
+        this.windowDays = Math.max(1, windowDays);
+        this.maxAccounts = maxAccounts;
+        this.policy = WithdrawalLimits.Policy.parse(byType, byAccount);
+        this.enabled = enabled && !policy.isEmpty();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.rejected = Counter.builder("limites.retiros.rechazados").register(meterRegistry);
+        Gauge.builder("limites.cuentas", counters, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Valida un retiro contra los límites de la cuenta y lo cuenta. Lanza
+     * {@link AccountBusinessException} si alguno se excede. Los depósitos y las
+     * cuentas sin límites no se registran.
+     */
+    public void reserve(String movementId, Account account, LocalDate fecha, BigDecimal valor) {
+        if (!enabled || valor.signum() >= 0) {
+            return;
+        }
+        Integer numeroCuenta = account.getNumeroCuenta();
+        Optional<WithdrawalLimits> limits = policy.limitsFor(numeroCuenta, account.getTipoCuenta());
+        if (limits.isEmpty()) {
+            return;
+        }
+        long amount = toCents(valor);
+        long day = fecha.toEpochDay();
+        if (day < firstCheckableDay()) {
+            // La ventana de una fecha tan antigua ya no está en memoria
+            checkFromDatabase(numeroCuenta, fecha, amount, limits.get());
+            return;
+        }
+
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            WithdrawalCounters accountCounters = countersFor(numeroCuenta);
+            accountCounters.touch();
+            check(numeroCuenta, accountCounters.daily(day) + amount, accountCounters.window(day, windowDays) + amount, limits.get());
+            accountCounters.add(day, amount);
+            accountCounters.reserve();
+            reservations.put(movementId, new Reservation(numeroCuenta, day, amount));
+        } finally {
+            lock.unlock();
+        }
+        if (counters.size() > maxAccounts) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Descuenta un retiro reservado que finalmente no se guardó.
+     */
+    public void release(String movementId) {
+        Reservation reservation = movementId == null ? null : reservations.remove(movementId);
+        if (reservation == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(reservation.numeroCuenta());
+        lock.lock();
+        try {
+            WithdrawalCounters accountCounters = counters.get(reservation.numeroCuenta());
+            if (accountCounters != null) {
+                accountCounters.add(reservation.day(), -reservation.amount());
+                accountCounters.releaseReservation();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onMovementCreated(Movement movement) {
+        if (!enabled || movement.getTipoMovimiento() != MovementType.RETIRO) {
+            return;
+        }
+        Integer numeroCuenta = movement.getCuenta().getNumeroCuenta();
+        Reservation reservation = movement.getId() == null ? null : reservations.remove(movement.getId());
+        ReentrantLock lock = lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            WithdrawalCounters accountCounters = counters.get(numeroCuenta);
+            if (accountCounters == null) {
+                // Sin contadores en memoria: se cargarán de la base, que ya incluye este movimiento
+                return;
+            }
+            if (reservation != null) {
+                // Ya se contó al reservar
+                accountCounters.releaseReservation();
+            } else if (movement.getFecha().toEpochDay() >= firstRetainedDay()) {
+                accountCounters.add(movement.getFecha().toEpochDay(), toCents(movement.getValor()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        // Otro nodo pudo registrar retiros de las cuentas que cambiaron de dueño
+        invalidateAccounts(event::localOwnershipChanged);
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.limites.limpieza-ms:60000}")
+    public void evictIdle() {
+        if (!enabled) {
+            return;
+        }
+        long retainedFrom = firstRetainedDay();
+        int evicted = 0;
+        for (Integer numeroCuenta : new ArrayList<>(counters.keySet())) {
+            ReentrantLock lock = lockFor(numeroCuenta);
+            lock.lock();
+            try {
+                WithdrawalCounters accountCounters = counters.get(numeroCuenta);
+                if (accountCounters != null) {
+                    accountCounters.prune(retainedFrom);
+                    if (accountCounters.isEmpty() && !accountCounters.hasReservations()) {
+                        counters.remove(numeroCuenta);
+                        evicted++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Contadores de retiro desalojados por inactividad: {}", evicted);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            rebuild();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Después de reaplicar el diario (fase 0) y antes que el servidor web
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    // Métodos privados auxiliares
+    private void rebuild() {
+        LocalDate since = LocalDate.ofEpochDay(firstRetainedDay());
+        List<WithdrawalTotalDTO> totals = movementRepository.sumWithdrawalsByDaySince(since);
+        counters.clear();
+        for (WithdrawalTotalDTO total : totals) {
+            counters.computeIfAbsent(total.getNumeroCuenta(), key -> new WithdrawalCounters())
+                    .add(total.getFecha().toEpochDay(), toCents(total.getTotal()));
+        }
+        log.info("Contadores de retiro reconstruidos desde {}: {} cuentas", since, counters.size());
+        if (counters.size() > maxAccounts) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private WithdrawalCounters countersFor(Integer numeroCuenta) {
+        WithdrawalCounters accountCounters = counters.get(numeroCuenta);
+        if (accountCounters == null) {
+            accountCounters = new WithdrawalCounters();
+            for (WithdrawalTotalDTO total : movementRepository.sumWithdrawalsByDaySince(numeroCuenta,
+                    LocalDate.ofEpochDay(firstRetainedDay()))) {
+                accountCounters.add(total.getFecha().toEpochDay(), toCents(total.getTotal()));
+            }
+            counters.put(numeroCuenta, accountCounters);
+        } else {
+            accountCounters.prune(firstRetainedDay());
+        }
+        return accountCounters;
+    }
+
+    private void checkFromDatabase(Integer numeroCuenta, LocalDate fecha, long amount, WithdrawalLimits limits) {
+        long daily = toCents(movementRepository.sumWithdrawalsBetween(numeroCuenta, fecha, fecha));
+        long window = toCents(movementRepository.sumWithdrawalsBetween(numeroCuenta, fecha.minusDays(windowDays - 1L), fecha));
+        check(numeroCuenta, daily + amount, window + amount, limits);
+    }
+
+    private void check(Integer numeroCuenta, long daily, long window, WithdrawalLimits limits) {
+        if (limits.dailyCents() > 0 && daily > limits.dailyCents()) {
+            reject(numeroCuenta, "Límite de retiro diario excedido");
+        }
+        if (limits.windowCents() > 0 && window > limits.windowCents()) {
+            reject(numeroCuenta, "Límite de retiro de " + windowDays + " días excedido");
+        }
+    }
+
+    private void reject(Integer numeroCuenta, String message) {
+        rejected.increment();
+        log.warn("Retiro rechazado para la cuenta {}: {}", numeroCuenta, message);
+        throw new AccountBusinessException(message);
+    }
+
+    private void evictLeastRecentlyUsed() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Se deja un margen para no ordenar el mapa en cada cuenta nueva
+            long excess = counters.size() - maxAccounts * 9L / 10;
+            List<Map.Entry<Integer, WithdrawalCounters>> oldest = counters.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().getLastAccessNanos()))
+                    .limit(Math.max(0, excess))
+                    .toList();
+            for (Map.Entry<Integer, WithdrawalCounters> entry : oldest) {
+                ReentrantLock lock = lockFor(entry.getKey());
+                lock.lock();
+                try {
+                    if (!entry.getValue().hasReservations()) {
+                        counters.remove(entry.getKey(), entry.getValue());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void invalidateAccounts(IntPredicate predicate) {
+        for (Integer numeroCuenta : new ArrayList<>(counters.keySet())) {
+            if (!predicate.test(numeroCuenta)) {
+                continue;
+            }
+            ReentrantLock lock = lockFor(numeroCuenta);
+            lock.lock();
+            try {
+                WithdrawalCounters accountCounters = counters.get(numeroCuenta);
+                if (accountCounters != null && !accountCounters.hasReservations()) {
+                    counters.remove(numeroCuenta);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Primer día guardado en memoria: el inicio de la ventana del primer día verificable.
+     */
+    private long firstRetainedDay() {
+        return firstCheckableDay() - (windowDays - 1);
+    }
+
+    /**
+     * Primer día cuyo retiro se verifica en memoria: el inicio de la ventana que termina hoy.
+     */
+    private long firstCheckableDay() {
+        return LocalDate.now().toEpochDay() - (windowDays - 1);
+    }
+
+    private ReentrantLock lockFor(Integer numeroCuenta) {
+        return locks[Math.floorMod(numeroCuenta, LOCK_STRIPES)];
+    }
+
+    private static long toCents(BigDecimal valor) {
+        return valor.negate().movePointRight(2).setScale(0, RoundingMode.UP).longValueExact();
+    }
+
+    private record Reservation(Integer numeroCuenta, long day, long amount) {
+    }
+}
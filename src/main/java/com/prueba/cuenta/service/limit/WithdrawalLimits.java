@@ -0,0 +1,78 @@
+package com.prueba.cuenta.service.limit;
+
+import com.prueba.cuenta.entity.AccountType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Límites de retiro en centavos: por día (fecha del movimiento) y por la
+ * ventana móvil de días configurada. Cero significa sin límite.
+ */
+record WithdrawalLimits(long dailyCents, long windowCents) {
+
+    boolean isUnlimited() {
+        return dailyCents <= 0 && windowCents <= 0;
+    }
+
+    /**
+     * Límites por tipo de cuenta y por cuenta; los de la cuenta tienen prioridad.
+     */
+    static class Policy {
+
+        private final Map<AccountType, WithdrawalLimits> byType;
+        private final Map<Integer, WithdrawalLimits> byAccount;
+
+        private Policy(Map<AccountType, WithdrawalLimits> byType, Map<Integer, WithdrawalLimits> byAccount) {
+            this.byType = byType;
+            this.byAccount = byAccount;
+        }
+
+        /**
+         * Lee definiciones como {@code AHORROS:1000:5000,CORRIENTE:3000:15000} y
+         * {@code 478758:200:800}: clave, límite diario y límite de la ventana.
+         */
+        static Policy parse(String byTypeDefinition, String byAccountDefinition) {
+            Map<AccountType, WithdrawalLimits> byType = new EnumMap<>(AccountType.class);
+            parseEntries(byTypeDefinition, (key, limits) -> byType.put(AccountType.valueOf(key.toUpperCase()), limits));
+            Map<Integer, WithdrawalLimits> byAccount = new HashMap<>();
+            parseEntries(byAccountDefinition, (key, limits) -> byAccount.put(Integer.valueOf(key), limits));
+            return new Policy(byType, byAccount);
+        }
+
+        Optional<WithdrawalLimits> limitsFor(Integer numeroCuenta, AccountType tipoCuenta) {
+            WithdrawalLimits limits = byAccount.get(numeroCuenta);
+            if (limits == null && tipoCuenta != null) {
+                limits = byType.get(tipoCuenta);
+            }
+            return limits == null || limits.isUnlimited() ? Optional.empty() : Optional.of(limits);
+        }
+
+        boolean isEmpty() {
+            return byType.isEmpty() && byAccount.isEmpty();
+        }
+
+        // Métodos privados auxiliares
+        private static void parseEntries(String definition, BiConsumer<String, WithdrawalLimits> sink) {
+            if (definition == null || definition.isBlank()) {
+                return;
+            }
+            for (String entry : definition.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Límite de retiro inválido: " + entry);
+                }
+                sink.accept(parts[0].trim(), new WithdrawalLimits(toCents(parts[1]), toCents(parts[2])));
+            }
+        }
+
+        private static long toCents(String amount) {
+            return new BigDecimal(amount.trim()).movePointRight(2).setScale(0, RoundingMode.DOWN).longValueExact();
+        }
+    }
+}
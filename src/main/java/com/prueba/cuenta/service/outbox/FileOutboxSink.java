@@ -0,0 +1,86 @@
+package com.prueba.cuenta.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.prueba.cuenta.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Destino en archivos locales: agrega cada lote a
+ * {@code cuenta.outbox.archivo.directorio/outbox-<fecha>.ndjson}, un evento por
+ * línea, y fuerza la escritura a disco antes de confirmar el lote.
+ */
+@Component
+public class FileOutboxSink implements OutboxSink {
+
+    static final String NAME = "archivo";
+
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public FileOutboxSink(ObjectMapper objectMapper,
+                          @Value("${cuenta.outbox.archivo.directorio:outbox}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> batch) {
+        StringBuilder lines = new StringBuilder(batch.size() * 256);
+        for (OutboxEvent event : batch) {
+            lines.append(toJson(event)).append('\n');
+        }
+        Path file = directory.resolve("outbox-" + LocalDate.now(ZoneOffset.UTC).format(FILE_DATE) + ".ndjson");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el lote del outbox en " + file, e);
+        }
+    }
+
+    // Métodos privados auxiliares
+    private String toJson(OutboxEvent event) {
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("eventoId", event.getId());
+            node.put("tipo", event.getTipo().name());
+            node.put("numeroCuenta", event.getNumeroCuenta());
+            node.put("referencia", event.getReferencia());
+            node.put("fechaCreacion", event.getFechaCreacion().toString());
+            node.set("contenido", objectMapper.readTree(event.getContenido()));
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Evento del outbox con contenido inválido: " + event.getId(), e);
+        }
+    }
+}
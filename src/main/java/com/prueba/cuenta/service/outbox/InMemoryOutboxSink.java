@@ -0,0 +1,56 @@
+package com.prueba.cuenta.service.outbox;
+
+import com.prueba.cuenta.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Destino en memoria para consumidores dentro del proceso y pruebas. Rechaza
+ * el lote completo si no cabe en {@code cuenta.outbox.memoria.capacidad}, de
+ * modo que los eventos esperan en la tabla hasta que se consuman.
+ */
+@Component
+public class InMemoryOutboxSink implements OutboxSink {
+
+    static final String NAME = "memoria";
+
+    private final int capacity;
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(@Value("${cuenta.outbox.memoria.capacidad:100000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> batch) {
+        if (events.size() + batch.size() > capacity) {
+            throw new IllegalStateException("Destino en memoria lleno: " + events.size() + " eventos sin consumir");
+        }
+        events.addAll(batch);
+    }
+
+    /**
+     * Retira hasta {@code max} eventos en el orden de entrega.
+     */
+    public synchronized List<OutboxEvent> drain(int max) {
+        List<OutboxEvent> drained = new ArrayList<>(Math.min(max, events.size()));
+        while (drained.size() < max && !events.isEmpty()) {
+            drained.add(events.poll());
+        }
+        return drained;
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+}
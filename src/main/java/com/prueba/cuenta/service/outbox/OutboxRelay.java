@@ -0,0 +1,115 @@
+package com.prueba.cuenta.service.outbox;
+
+import com.prueba.cuenta.entity.OutboxEvent;
+import com.prueba.cuenta.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exporta los eventos del outbox en lotes de {@code cuenta.outbox.tamano-lote},
+ * en orden de id, al destino de {@code cuenta.outbox.destino}, y los elimina
+ * solo después de que el destino confirma el lote: la entrega es al menos una
+ * vez y los consumidores descartan repetidos por {@code eventoId}.
+ *
+ * <p>Los ids salen de una secuencia al insertar, antes del commit. Para que una
+ * transacción lenta con un id menor no quede detrás de eventos ya exportados de
+ * la misma cuenta, solo se leen eventos con más de
+ * {@code cuenta.outbox.espera-ms} de antigüedad. El orden por cuenta supone que
+ * los eventos de una cuenta salen de un solo nodo (modo clúster); el relay debe
+ * estar habilitado ({@code cuenta.outbox.relay.habilitado}) en un único nodo.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter exported;
+    private final Counter failures;
+
+    @Value("${cuenta.outbox.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.outbox.relay.habilitado:true}")
+    private boolean relayEnabled;
+
+    @Value("${cuenta.outbox.tamano-lote:1000}")
+    private int batchSize;
+
+    @Value("${cuenta.outbox.espera-ms:1000}")
+    private long settleMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSink> sinks,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${cuenta.outbox.destino:" + FileOutboxSink.NAME + "}") String sinkName) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sinks.stream()
+                .filter(candidate -> candidate.name().equals(sinkName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Destino de outbox desconocido: " + sinkName));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.exported = Counter.builder("outbox.exportados").register(meterRegistry);
+        this.failures = Counter.builder("outbox.fallos").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.outbox.intervalo-ms:500}")
+    public void relayScheduled() {
+        if (enabled && relayEnabled) {
+            relay();
+        }
+    }
+
+    /**
+     * Exporta lotes hasta vaciar los eventos asentados. Devuelve cuántos se exportaron.
+     */
+    public long relay() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long total = 0;
+        try {
+            List<OutboxEvent> batch;
+            do {
+                Instant settledBefore = Instant.now().minusMillis(settleMillis);
+                batch = readOnlyTransactionTemplate.execute(
+                        status -> outboxEventRepository.findBatch(settledBefore, Limit.of(batchSize)));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                sink.send(batch);
+                List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+                exported.increment(batch.size());
+                total += batch.size();
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            // El lote queda en la tabla y se reintenta en la siguiente ejecución
+            failures.increment();
+            log.warn("No se pudo exportar el lote del outbox a {}: {}", sink.name(), e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        if (total > 0) {
+            log.debug("Outbox: {} eventos exportados a {}", total, sink.name());
+        }
+        return total;
+    }
+}
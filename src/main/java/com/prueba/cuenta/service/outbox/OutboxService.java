@@ -0,0 +1,99 @@
+package com.prueba.cuenta.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.OutboxEvent;
+import com.prueba.cuenta.entity.OutboxEventType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Escribe los eventos de cambio en la tabla {@code outbox} dentro de la
+ * transacción del cambio: si la transacción se revierte, el evento tampoco
+ * queda. {@link OutboxRelay} los exporta después.
+ */
+@Service
+public class OutboxService {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OutboxService(ObjectMapper objectMapper,
+                         @Value("${cuenta.outbox.habilitado:false}") boolean enabled) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void movementCreated(Movement movement) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("id", movement.getId());
+        content.put("numeroCuenta", movement.getCuenta().getNumeroCuenta());
+        content.put("fecha", movement.getFecha().toString());
+        content.put("tipoMovimiento", movement.getTipoMovimiento());
+        content.put("valor", movement.getValor());
+        content.put("saldo", movement.getSaldo());
+        if (movement.getTransferenciaId() != null) {
+            content.put("transferenciaId", movement.getTransferenciaId());
+        }
+        persist(OutboxEventType.MOVIMIENTO_CREADO, movement.getCuenta().getNumeroCuenta(), movement.getId(), content);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountCreated(Account account) {
+        accountChanged(OutboxEventType.CUENTA_CREADA, account);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountUpdated(Account account) {
+        accountChanged(OutboxEventType.CUENTA_ACTUALIZADA, account);
+    }
+
+    // Métodos privados auxiliares
+    private void accountChanged(OutboxEventType type, Account account) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("numeroCuenta", account.getNumeroCuenta());
+        content.put("tipoCuenta", account.getTipoCuenta());
+        content.put("saldo", account.getSaldo());
+        content.put("estado", account.isStatus());
+        content.put("clienteId", account.getClienteId());
+        persist(type, account.getNumeroCuenta(), String.valueOf(account.getNumeroCuenta()), content);
+    }
+
+    private void persist(OutboxEventType type, Integer numeroCuenta, String reference, Map<String, Object> content) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTipo(type);
+        event.setNumeroCuenta(numeroCuenta);
+        event.setReferencia(reference);
+        event.setFechaCreacion(Instant.now());
+        try {
+            event.setContenido(objectMapper.writeValueAsString(content));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + type + " de " + reference, e);
+        }
+        entityManager.persist(event);
+    }
+}
@@ -0,0 +1,21 @@
+package com.prueba.cuenta.service.outbox;
+
+import com.prueba.cuenta.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos del outbox. {@link OutboxRelay} usa el que coincide
+ * con {@code cuenta.outbox.destino}.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    /**
+     * Entrega el lote, ordenado por id, de forma durable para el destino. Una
+     * excepción hace que el relay reintente el lote completo más tarde, por lo
+     * que un evento puede entregarse más de una vez.
+     */
+    void send(List<OutboxEvent> batch);
+}
@@ -0,0 +1,222 @@
+package com.prueba.cuenta.service.reconciliation;
+
+import com.prueba.cuenta.dto.LedgerDiscrepancyDTO;
+import com.prueba.cuenta.dto.LedgerRowDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Verifica la cadena de saldos de un rango de cuentas leyendo sus movimientos
+ * ordenados por cuenta y fecha: cada movimiento debe partir del saldo que dejó
+ * el anterior y la cuenta debe terminar con el saldo del último.
+ *
+ * <p>Los movimientos no guardan la hora, así que el orden dentro de un mismo día
+ * no se conoce. Los del día se tratan como aristas saldo anterior → saldo
+ * posterior y el día es consistente si existe un recorrido que las use todas
+ * partiendo del saldo con que cerró el día previo. Solo se retiene en memoria el
+ * día en curso de la cuenta en curso.
+ *
+ * <p>El primer movimiento de cada cuenta no se verifica contra nada: el saldo
+ * de apertura no se guarda y los meses archivados ya no están en la tabla. Si
+ * ese primer día vuelve al saldo del que partió, el cierre no se puede
+ * determinar y el enlace con el día siguiente tampoco se verifica.
+ *
+ * <p>No es seguro para hilos: cada partición usa su propia instancia.
+ */
+class LedgerChainChecker {
+
+    static final String CHAIN = "CADENA";
+    static final String FINAL_BALANCE = "SALDO_FINAL";
+
+    private final Consumer<LedgerDiscrepancyDTO> discrepancies;
+    private final List<LedgerRowDTO> day = new ArrayList<>();
+
+    private Integer account;
+    private long accountBalance;
+    private Long expected;
+    private long accounts;
+    private long movements;
+    private long found;
+
+    LedgerChainChecker(Consumer<LedgerDiscrepancyDTO> discrepancies) {
+        this.discrepancies = discrepancies;
+    }
+
+    void accept(LedgerRowDTO row) {
+        if (!row.getNumeroCuenta().equals(account)) {
+            finishAccount();
+            account = row.getNumeroCuenta();
+            accountBalance = row.getSaldoCuentaCentavos();
+            expected = null;
+            accounts++;
+        } else if (!row.getFecha().equals(day.get(0).getFecha())) {
+            closeDay();
+        }
+        day.add(row);
+        movements++;
+    }
+
+    /**
+     * Cierra la última cuenta del rango.
+     */
+    void finish() {
+        finishAccount();
+    }
+
+    long getAccounts() {
+        return accounts;
+    }
+
+    long getMovements() {
+        return movements;
+    }
+
+    long getDiscrepancies() {
+        return found;
+    }
+
+    // Métodos privados auxiliares
+    private void finishAccount() {
+        if (account == null) {
+            return;
+        }
+        LocalDate lastDate = day.get(0).getFecha();
+        closeDay();
+        if (expected != null && expected != accountBalance) {
+            report(FINAL_BALANCE, null, lastDate, expected, accountBalance);
+        }
+        account = null;
+    }
+
+    private void closeDay() {
+        if (day.size() == 1) {
+            LedgerRowDTO row = day.get(0);
+            if (expected != null && row.getSaldoAnteriorCentavos() != expected) {
+                report(CHAIN, row.getId(), row.getFecha(), expected, row.getSaldoAnteriorCentavos());
+            }
+            expected = row.getSaldoCentavos();
+        } else {
+            Long opening = expected != null ? expected : opening();
+            Long closing = walk(opening != null ? opening : day.get(0).getSaldoAnteriorCentavos());
+            if (closing == null) {
+                expected = reportBreaks();
+            } else {
+                // Sin apertura conocida el día es un ciclo y cualquiera de sus saldos puede ser el cierre
+                expected = opening != null ? closing : null;
+            }
+        }
+        day.clear();
+    }
+
+    /**
+     * Busca un recorrido que use todos los movimientos del día (Hierholzer).
+     * Devuelve el saldo de cierre, o {@code null} si el día no encadena.
+     */
+    private Long walk(long start) {
+        Map<Long, Deque<LedgerRowDTO>> outgoing = new HashMap<>();
+        for (LedgerRowDTO row : day) {
+            outgoing.computeIfAbsent(row.getSaldoAnteriorCentavos(), key -> new ArrayDeque<>()).add(row);
+        }
+
+        Deque<Long> balances = new ArrayDeque<>();
+        Deque<LedgerRowDTO> pending = new ArrayDeque<>();
+        List<LedgerRowDTO> trail = new ArrayList<>(day.size());
+        balances.push(start);
+        while (!balances.isEmpty()) {
+            Deque<LedgerRowDTO> edges = outgoing.get(balances.peek());
+            if (edges != null && !edges.isEmpty()) {
+                LedgerRowDTO row = edges.poll();
+                balances.push(row.getSaldoCentavos());
+                pending.push(row);
+            } else {
+                balances.pop();
+                if (!pending.isEmpty()) {
+                    trail.add(pending.pop());
+                }
+            }
+        }
+        if (trail.size() != day.size()) {
+            return null;
+        }
+        // El recorrido queda invertido; con grados desbalanceados puede no encadenar
+        long balance = start;
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            if (trail.get(i).getSaldoAnteriorCentavos() != balance) {
+                return null;
+            }
+            balance = trail.get(i).getSaldoCentavos();
+        }
+        return balance;
+    }
+
+    /**
+     * Saldo de apertura del día cuando no hay día previo: el que sale una vez
+     * más de las que entra. {@code null} si todos están balanceados.
+     */
+    private Long opening() {
+        Map<Long, Integer> imbalance = new HashMap<>();
+        for (LedgerRowDTO row : day) {
+            imbalance.merge(row.getSaldoAnteriorCentavos(), 1, Integer::sum);
+            imbalance.merge(row.getSaldoCentavos(), -1, Integer::sum);
+        }
+        for (LedgerRowDTO row : day) {
+            if (imbalance.get(row.getSaldoAnteriorCentavos()) == 1) {
+                return row.getSaldoAnteriorCentavos();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recorre el día enlazando los movimientos que se pueda y reporta cada salto.
+     * Devuelve como cierre el saldo del que no parte ningún otro movimiento del
+     * día, para que el error no se arrastre a los días siguientes.
+     */
+    private long reportBreaks() {
+        List<LedgerRowDTO> remaining = new ArrayList<>(day);
+        Long balance = expected;
+        while (!remaining.isEmpty()) {
+            int next = indexStartingAt(remaining, balance);
+            if (next < 0) {
+                next = 0;
+                LedgerRowDTO row = remaining.get(0);
+                if (balance != null) {
+                    report(CHAIN, row.getId(), row.getFecha(), balance, row.getSaldoAnteriorCentavos());
+                }
+            }
+            balance = remaining.remove(next).getSaldoCentavos();
+        }
+        for (int i = day.size() - 1; i >= 0; i--) {
+            if (indexStartingAt(day, day.get(i).getSaldoCentavos()) < 0) {
+                return day.get(i).getSaldoCentavos();
+            }
+        }
+        return balance;
+    }
+
+    private int indexStartingAt(List<LedgerRowDTO> rows, Long balance) {
+        if (balance == null) {
+            return -1;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getSaldoAnteriorCentavos() == balance) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void report(String tipo, String movementId, LocalDate fecha, long esperado, long encontrado) {
+        found++;
+        discrepancies.accept(new LedgerDiscrepancyDTO(tipo, account, movementId, fecha,
+                BigDecimal.valueOf(esperado, 2), BigDecimal.valueOf(encontrado, 2)));
+    }
+}
@@ -0,0 +1,210 @@
+package com.prueba.cuenta.service.reconciliation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.dto.LedgerDiscrepancyDTO;
+import com.prueba.cuenta.dto.LedgerRowDTO;
+import com.prueba.cuenta.dto.ReconciliationSummaryDTO;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Conciliación nocturna del libro de movimientos: recorre toda la tabla
+ * {@code movimiento} ordenada por cuenta y fecha y verifica la cadena de saldos
+ * y el saldo final de cada cuenta.
+ *
+ * <p>Las cuentas se dividen en rangos de número de cuenta que se leen en
+ * paralelo, cada uno con una consulta en streaming dentro de su propia
+ * transacción de solo lectura. La memoria por rango no depende de su tamaño:
+ * solo se retiene el día en curso de la cuenta en curso.
+ *
+ * <p>Las discrepancias se escriben a medida que aparecen en un reporte NDJSON
+ * que se publica con un renombrado atómico al terminar.
+ */
+@Slf4j
+@Service
+public class LedgerReconciliationService {
+
+    private static final DateTimeFormatter REPORT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final AccountRepository accountRepository;
+    private final MovementRepository movementRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${cuenta.conciliacion.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.conciliacion.hilos:4}")
+    private int threads;
+
+    @Value("${cuenta.conciliacion.particiones:0}")
+    private int partitions;
+
+    @Value("${cuenta.conciliacion.directorio:conciliacion}")
+    private String directory;
+
+    public LedgerReconciliationService(AccountRepository accountRepository,
+                                       MovementRepository movementRepository,
+                                       ObjectMapper objectMapper,
+                                       PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.movementRepository = movementRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${cuenta.conciliacion.cron:0 0 3 * * *}")
+    public void reconcileNightly() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    public ReconciliationSummaryDTO reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new AccountBusinessException("La conciliación ya está en ejecución");
+        }
+        try {
+            return execute();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el reporte de conciliación", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationSummaryDTO execute() throws IOException {
+        long started = System.nanoTime();
+        List<int[]> ranges = accountRanges();
+        // Cada hilo mantiene una conexión abierta mientras lee su rango
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Inicia conciliación del libro: {} rangos, {} hilos", ranges.size(), poolSize);
+
+        Path reportDirectory = Path.of(directory);
+        Files.createDirectories(reportDirectory);
+        Path target = reportDirectory.resolve("conciliacion-" + LocalDateTime.now().format(REPORT_NAME) + ".ndjson");
+        Path temp = Files.createTempFile(reportDirectory, "conciliacion-", ".tmp");
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try (DiscrepancyReport report = new DiscrepancyReport(temp)) {
+            List<CompletableFuture<LedgerChainChecker>> results = ranges.stream()
+                    .map(range -> CompletableFuture.supplyAsync(() -> scanRange(range[0], range[1], report), executor))
+                    .toList();
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+            long accounts = 0;
+            long movements = 0;
+            long discrepancies = 0;
+            for (CompletableFuture<LedgerChainChecker> result : results) {
+                accounts += result.join().getAccounts();
+                movements += result.join().getMovements();
+                discrepancies += result.join().getDiscrepancies();
+            }
+            report.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            double throughput = elapsedMs == 0 ? movements : movements * 1000.0 / elapsedMs;
+            log.info("Conciliación completada: {} cuentas, {} movimientos, {} discrepancias en {} ms ({} movimientos/s). Reporte: {}",
+                    accounts, movements, discrepancies, elapsedMs, String.format("%.1f", throughput), target);
+            return new ReconciliationSummaryDTO(ranges.size(), accounts, movements, discrepancies,
+                    elapsedMs, throughput, target.toString());
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Rangos {@code (desde, hasta]} de número de cuenta de igual ancho.
+     */
+    private List<int[]> accountRanges() {
+        Integer min = accountRepository.findMinNumeroCuenta();
+        Integer max = accountRepository.findMaxNumeroCuenta();
+        if (min == null || max == null) {
+            return List.of();
+        }
+        int partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors() * 4;
+        long span = (long) max - min + 1;
+        long width = Math.max(1, (span + partitionCount - 1) / partitionCount);
+
+        List<int[]> ranges = new ArrayList<>();
+        for (long from = (long) min - 1; from < max; from += width) {
+            ranges.add(new int[]{(int) from, (int) Math.min(from + width, max)});
+        }
+        return ranges;
+    }
+
+    private LedgerChainChecker scanRange(int from, int to, DiscrepancyReport report) {
+        long started = System.nanoTime();
+        LedgerChainChecker checker = new LedgerChainChecker(report::write);
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<LedgerRowDTO> rows = movementRepository.streamLedger(from, to)) {
+                rows.forEach(checker::accept);
+            }
+        });
+        checker.finish();
+        log.debug("Rango ({}, {}] conciliado: {} cuentas, {} movimientos, {} discrepancias en {} ms",
+                from, to, checker.getAccounts(), checker.getMovements(), checker.getDiscrepancies(),
+                (System.nanoTime() - started) / 1_000_000);
+        return checker;
+    }
+
+    /**
+     * Reporte compartido por los rangos; las discrepancias son pocas, así que basta con sincronizar cada línea.
+     */
+    private class DiscrepancyReport implements AutoCloseable {
+
+        private final BufferedWriter writer;
+        private boolean closed;
+
+        DiscrepancyReport(Path path) throws IOException {
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+
+        synchronized void write(LedgerDiscrepancyDTO discrepancy) {
+            try {
+                writer.write(objectMapper.writeValueAsString(discrepancy));
+                writer.newLine();
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("No se pudo serializar la discrepancia", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir el reporte de conciliación", e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.prueba.cuenta.service.report;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.service.MovementListener;
+import com.prueba.cuenta.service.cluster.ClusterMembershipChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de filas de reporte por cuenta y mes cerrado.
+ *
+ * <p>Un mes cerrado no cambia salvo por movimientos con fecha retroactiva o por
+ * cambios de la cuenta; ambos casos lo invalidan. Las entradas se guardan en
+ * memoria hasta {@code cuenta.reporte.cache.max-filas-memoria} filas y las
+ * expulsadas se conservan comprimidas en disco hasta {@code cuenta.reporte.cache.max-mb-disco}.
+ * El directorio se vacía al iniciar porque no se sabe qué cambió mientras la
+ * aplicación estuvo detenida.
+ */
+@Slf4j
+@Component
+public class ReportPeriodCache implements MovementListener {
+
+    private static final int GENERATION_STRIPES = 1024;
+    private static final String FILE_SUFFIX = ".json.gz";
+    private static final TypeReference<List<MovementReportDTO>> ROWS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxMemoryRows;
+    private final long maxDiskBytes;
+    private final Path directory;
+
+    // Se incrementa en cada invalidación; una carga que empezó antes no se guarda
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final LinkedHashMap<PeriodKey, List<MovementReportDTO>> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<PeriodKey, Long> spilled = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryRows;
+    private long diskBytes;
+
+    public ReportPeriodCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${cuenta.reporte.cache.habilitado:true}") boolean enabled,
+                             @Value("${cuenta.reporte.cache.max-filas-memoria:200000}") long maxMemoryRows,
+                             @Value("${cuenta.reporte.cache.max-mb-disco:512}") long maxDiskMegabytes,
+                             @Value("${cuenta.reporte.cache.directorio:${java.io.tmpdir}/cuenta-reportes}") String directory) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxMemoryRows = maxMemoryRows;
+        this.maxDiskBytes = maxDiskMegabytes * 1024 * 1024;
+        this.directory = Path.of(directory);
+        if (enabled) {
+            prepareDirectory();
+        }
+        Gauge.builder("reporte.cache.filas.memoria", this, ReportPeriodCache::getMemoryRows).register(meterRegistry);
+        Gauge.builder("reporte.cache.bytes.disco", this, ReportPeriodCache::getDiskBytes).register(meterRegistry);
+    }
+
+    public synchronized long getMemoryRows() {
+        return memoryRows;
+    }
+
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    public long generation(Integer numeroCuenta) {
+        return generations.get(stripe(numeroCuenta));
+    }
+
+    /**
+     * Devuelve las filas del mes o null si no están en caché.
+     */
+    public List<MovementReportDTO> get(Integer numeroCuenta, YearMonth month) {
+        if (!enabled) {
+            return null;
+        }
+        PeriodKey key = new PeriodKey(numeroCuenta, month);
+        long generation;
+        synchronized (this) {
+            List<MovementReportDTO> rows = memory.get(key);
+            if (rows != null || !spilled.containsKey(key)) {
+                return rows;
+            }
+            generation = generation(numeroCuenta);
+        }
+        List<MovementReportDTO> rows = readSpilled(key);
+        if (rows != null) {
+            put(numeroCuenta, month, rows, generation);
+        }
+        return rows;
+    }
+
+    /**
+     * Guarda las filas de un mes cerrado si no hubo invalidaciones de la cuenta
+     * desde {@code generation}.
+     */
+    public void put(Integer numeroCuenta, YearMonth month, List<MovementReportDTO> rows, long generation) {
+        if (!enabled) {
+            return;
+        }
+        List<Spill> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (generation(numeroCuenta) != generation) {
+                return;
+            }
+            List<MovementReportDTO> previous = memory.put(new PeriodKey(numeroCuenta, month), List.copyOf(rows));
+            memoryRows += weight(rows) - (previous == null ? 0 : weight(previous));
+            Iterator<Map.Entry<PeriodKey, List<MovementReportDTO>>> eldest = memory.entrySet().iterator();
+            while (memoryRows > maxMemoryRows && eldest.hasNext()) {
+                Map.Entry<PeriodKey, List<MovementReportDTO>> entry = eldest.next();
+                eldest.remove();
+                memoryRows -= weight(entry.getValue());
+                if (!spilled.containsKey(entry.getKey())) {
+                    evicted.add(new Spill(entry.getKey(), entry.getValue(), generation(entry.getKey().numeroCuenta())));
+                }
+            }
+        }
+        evicted.forEach(this::spill);
+    }
+
+    public void invalidate(Integer numeroCuenta, YearMonth month) {
+        PeriodKey key = new PeriodKey(numeroCuenta, month);
+        synchronized (this) {
+            generations.incrementAndGet(stripe(numeroCuenta));
+            List<MovementReportDTO> removed = memory.remove(key);
+            if (removed != null) {
+                memoryRows -= weight(removed);
+            }
+            removeSpilled(key);
+        }
+    }
+
+    public void invalidateAccount(Integer numeroCuenta) {
+        synchronized (this) {
+            generations.incrementAndGet(stripe(numeroCuenta));
+            memory.entrySet().removeIf(entry -> {
+                boolean matches = entry.getKey().numeroCuenta().equals(numeroCuenta);
+                if (matches) {
+                    memoryRows -= weight(entry.getValue());
+                }
+                return matches;
+            });
+            new ArrayList<>(spilled.keySet()).stream()
+                    .filter(key -> key.numeroCuenta().equals(numeroCuenta))
+                    .forEach(this::removeSpilled);
+        }
+    }
+
+    /**
+     * Invalida todas las cuentas que cumplen {@code accounts}. Las cargas en curso
+     * de cualquier cuenta se descartan.
+     */
+    public void invalidateAccounts(Predicate<Integer> accounts) {
+        synchronized (this) {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            memory.entrySet().removeIf(entry -> {
+                boolean matches = accounts.test(entry.getKey().numeroCuenta());
+                if (matches) {
+                    memoryRows -= weight(entry.getValue());
+                }
+                return matches;
+            });
+            new ArrayList<>(spilled.keySet()).stream()
+                    .filter(key -> accounts.test(key.numeroCuenta()))
+                    .forEach(this::removeSpilled);
+        }
+    }
+
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        invalidateAccounts(event::localOwnershipChanged);
+    }
+
+    @Override
+    public void onMovementCreated(Movement movement) {
+        invalidate(movement.getCuenta().getNumeroCuenta(), YearMonth.from(movement.getFecha()));
+    }
+
+    // Métodos privados auxiliares
+    private void spill(Spill entry) {
+        Path file = fileFor(entry.key());
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            objectMapper.writeValue(out, entry.rows());
+        } catch (IOException e) {
+            log.warn("No se pudo guardar en disco el reporte {}: {}", entry.key(), e.getMessage());
+            deleteQuietly(file);
+            return;
+        }
+        synchronized (this) {
+            if (generation(entry.key().numeroCuenta()) != entry.generation()) {
+                deleteQuietly(file);
+                return;
+            }
+            long size = sizeOf(file);
+            Long previous = spilled.put(entry.key(), size);
+            diskBytes += size - (previous == null ? 0 : previous);
+            Iterator<PeriodKey> eldest = spilled.keySet().iterator();
+            while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+                PeriodKey key = eldest.next();
+                diskBytes -= spilled.get(key);
+                eldest.remove();
+                deleteQuietly(fileFor(key));
+            }
+        }
+    }
+
+    private List<MovementReportDTO> readSpilled(PeriodKey key) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(fileFor(key)))) {
+            return objectMapper.readValue(in, ROWS_TYPE);
+        } catch (IOException e) {
+            log.warn("No se pudo leer de disco el reporte {}: {}", key, e.getMessage());
+            synchronized (this) {
+                removeSpilled(key);
+            }
+            return null;
+        }
+    }
+
+    private void removeSpilled(PeriodKey key) {
+        Long size = spilled.remove(key);
+        if (size != null) {
+            diskBytes -= size;
+            deleteQuietly(fileFor(key));
+        }
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+                files.forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar el directorio de caché de reportes " + directory, e);
+        }
+    }
+
+    private Path fileFor(PeriodKey key) {
+        return directory.resolve(key.numeroCuenta() + "-" + key.month() + FILE_SUFFIX);
+    }
+
+    private long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo de caché {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static int stripe(Integer numeroCuenta) {
+        return Math.floorMod(numeroCuenta.hashCode() * 0x9E3779B9, GENERATION_STRIPES);
+    }
+
+    // Un mes sin movimientos también ocupa una entrada
+    private static long weight(List<MovementReportDTO> rows) {
+        return Math.max(1, rows.size());
+    }
+
+    private record PeriodKey(Integer numeroCuenta, YearMonth month) {
+    }
+
+    private record Spill(PeriodKey key, List<MovementReportDTO> rows, long generation) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.prueba.cuenta.service.snapshot;
+
+import com.prueba.cuenta.entity.AccountType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Instantánea columnar de cuentas, mapeada en memoria. Cada generación es un
+ * archivo inmutable: un lector que la mapeó la sigue viendo completa aunque se
+ * publique otra.
+ *
+ * <p>Formato (little-endian, para mapear cada columna directo a un arreglo de
+ * primitivos): cabecera de {@link #HEADER_BYTES} bytes y cinco columnas de
+ * {@code capacidad} posiciones, cada una alineada a 64 bytes. Las primeras
+ * {@code filasOrdenadas} filas están ordenadas por número de cuenta; las
+ * cuentas nuevas desde la última reconstrucción completa van al final.
+ *
+ * <pre>
+ *  0 int  magic          24 int  capacidad         48 long offset numeroCuenta (int32)
+ *  4 int  versión        28 int  escala del saldo  56 long offset clienteId (int64)
+ *  8 long generación     32 long marca (µs epoch)  64 long offset saldo (int64, unidades de la escala)
+ * 16 int  filas          40 long creación (ms)     72 long offset tipoCuenta (int8, ordinal)
+ * 20 int  filasOrdenadas                           80 long offset estado (int8, bits)
+ * </pre>
+ */
+class AccountSnapshot {
+
+    // "SNAP" en el orden de bytes del archivo
+    static final int MAGIC = 0x50414E53;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 128;
+    static final int SALDO_SCALE = 2;
+    static final int ACTIVE = 1;
+    // El saldo tenía fracciones de centavo o no cabía en 64 bits: se guardó redondeado o saturado
+    static final int INEXACT_BALANCE = 2;
+
+    static final int GENERATION = 8;
+    static final int ROWS = 16;
+    static final int SORTED_ROWS = 20;
+    static final int CAPACITY = 24;
+    static final int SCALE = 28;
+    static final int MARKER = 32;
+    static final int CREATED = 40;
+    static final int NUMERO_CUENTA_OFFSET = 48;
+    static final int CLIENTE_ID_OFFSET = 56;
+    static final int SALDO_OFFSET = 64;
+    static final int TIPO_CUENTA_OFFSET = 72;
+    static final int ESTADO_OFFSET = 80;
+
+    private static final AccountType[] TYPES = AccountType.values();
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int sortedRows;
+    private final int numeroCuentaColumn;
+    private final int clienteIdColumn;
+    private final int saldoColumn;
+    private final int tipoCuentaColumn;
+    private final int estadoColumn;
+
+    AccountSnapshot(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Instantánea de cuentas inválida: " + path);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION || buffer.getInt(SCALE) != SALDO_SCALE) {
+            throw new IllegalStateException("Versión de instantánea no soportada: " + path);
+        }
+        this.rows = buffer.getInt(ROWS);
+        this.sortedRows = buffer.getInt(SORTED_ROWS);
+        this.numeroCuentaColumn = (int) buffer.getLong(NUMERO_CUENTA_OFFSET);
+        this.clienteIdColumn = (int) buffer.getLong(CLIENTE_ID_OFFSET);
+        this.saldoColumn = (int) buffer.getLong(SALDO_OFFSET);
+        this.tipoCuentaColumn = (int) buffer.getLong(TIPO_CUENTA_OFFSET);
+        this.estadoColumn = (int) buffer.getLong(ESTADO_OFFSET);
+    }
+
+    static AccountSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Instantánea demasiado grande para mapearse: " + path);
+            }
+            return new AccountSnapshot(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Bytes que ocupa un archivo con espacio para {@code capacity} filas.
+     */
+    static long fileSize(int capacity) {
+        return columnOffsets(capacity)[5];
+    }
+
+    /**
+     * Posición de cada columna y, al final, el tamaño total del archivo.
+     */
+    static long[] columnOffsets(int capacity) {
+        long numeroCuenta = HEADER_BYTES;
+        long clienteId = align(numeroCuenta + 4L * capacity);
+        long saldo = align(clienteId + 8L * capacity);
+        long tipoCuenta = align(saldo + 8L * capacity);
+        long estado = align(tipoCuenta + capacity);
+        return new long[]{numeroCuenta, clienteId, saldo, tipoCuenta, estado, align(estado + capacity)};
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getGeneration() {
+        return buffer.getLong(GENERATION);
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getSortedRows() {
+        return sortedRows;
+    }
+
+    int getCapacity() {
+        return buffer.getInt(CAPACITY);
+    }
+
+    /**
+     * Momento a partir del cual se deben volver a leer los cambios de la base.
+     */
+    Instant getMarker() {
+        return Instant.EPOCH.plus(buffer.getLong(MARKER), ChronoUnit.MICROS);
+    }
+
+    int numeroCuenta(int row) {
+        return buffer.getInt(numeroCuentaColumn + 4 * row);
+    }
+
+    long clienteId(int row) {
+        return buffer.getLong(clienteIdColumn + 8 * row);
+    }
+
+    long saldoUnscaled(int row) {
+        return buffer.getLong(saldoColumn + 8 * row);
+    }
+
+    BigDecimal saldo(int row) {
+        return BigDecimal.valueOf(saldoUnscaled(row), SALDO_SCALE);
+    }
+
+    AccountType tipoCuenta(int row) {
+        return TYPES[buffer.get(tipoCuentaColumn + row)];
+    }
+
+    int estado(int row) {
+        return buffer.get(estadoColumn + row);
+    }
+
+    boolean isActive(int row) {
+        return (estado(row) & ACTIVE) != 0;
+    }
+
+    /**
+     * Fila de la cuenta, o -1 si no está: búsqueda binaria en la parte ordenada
+     * y recorrido de las agregadas al final.
+     */
+    int find(int numeroCuenta) {
+        int low = 0;
+        int high = sortedRows - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int account = numeroCuenta(middle);
+            if (account < numeroCuenta) {
+                low = middle + 1;
+            } else if (account > numeroCuenta) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        for (int row = sortedRows; row < rows; row++) {
+            if (numeroCuenta(row) == numeroCuenta) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // Métodos privados auxiliares
+    private static long align(long offset) {
+        return (offset + 63) & ~63L;
+    }
+}
@@ -0,0 +1,374 @@
+package com.prueba.cuenta.service.snapshot;
+
+import com.prueba.cuenta.dto.AccountSnapshotRowDTO;
+import com.prueba.cuenta.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta cada {@code cuenta.instantanea.intervalo-ms} todas las cuentas
+ * (número, tipo, estado, cliente y saldo) a un archivo columnar en
+ * {@code cuenta.instantanea.directorio}, para que las herramientas de análisis
+ * no recorran {@code GET /cuentas}.
+ *
+ * <p>Cada actualización copia la generación anterior y reescribe solo las
+ * cuentas modificadas desde la anterior según {@code fechaModificacion}, con
+ * {@code cuenta.instantanea.margen-ms} de solapamiento para las transacciones
+ * que confirmaron tarde. La primera vez, o si las cuentas nuevas ya no caben, se
+ * reconstruye completa. Cada generación se publica con un renombrado atómico
+ * como {@code cuentas-<generación>.col} (y {@code .col.gz} si hay compresión) y
+ * {@code cuentas.col} pasa a apuntar a la última.
+ */
+@Slf4j
+@Service
+public class AccountSnapshotService {
+
+    static final String FILE_PREFIX = "cuentas-";
+    static final String FILE_SUFFIX = ".col";
+    static final String LATEST = "cuentas" + FILE_SUFFIX;
+    static final String GZIP_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern GENERATION_FILE = Pattern.compile("cuentas-(\\d+)\\.col(\\.gz)?");
+    private static final int MIN_CAPACITY = 1024;
+    // Las descargas en curso pueden seguir enviando una generación anterior
+    private static final int KEPT_GENERATIONS = 3;
+    // Atributos con los que Tomcat envía el archivo con sendfile al terminar la solicitud
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Timer refreshTimer;
+    private final Counter writtenRows;
+    private final Counter sendfileDownloads;
+    private final Counter copiedDownloads;
+
+    // Última generación publicada; nula hasta la primera actualización
+    private volatile Publication current;
+    // Cambios desde este momento (menos el margen) se vuelven a leer en la próxima actualización
+    private Instant marker;
+
+    private Clock clock = Clock.systemUTC();
+
+    @Value("${cuenta.instantanea.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.instantanea.directorio:instantanea}")
+    private String directory;
+
+    @Value("${cuenta.instantanea.compresion:false}")
+    private boolean compression;
+
+    @Value("${cuenta.instantanea.margen-ms:5000}")
+    private long marginMillis;
+
+    @Value("${cuenta.instantanea.tamano-pagina:5000}")
+    private int pageSize;
+
+    public AccountSnapshotService(AccountRepository accountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.refreshTimer = Timer.builder("instantanea.actualizacion").register(meterRegistry);
+        this.writtenRows = Counter.builder("instantanea.filas-escritas").register(meterRegistry);
+        this.sendfileDownloads = Counter.builder("instantanea.descargas").tag("modo", "sendfile").register(meterRegistry);
+        this.copiedDownloads = Counter.builder("instantanea.descargas").tag("modo", "copia").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.instantanea.intervalo-ms:60000}")
+    public void refreshScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("No se pudo actualizar la instantánea de cuentas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publica una nueva generación si alguna cuenta cambió. Devuelve cuántas
+     * filas se escribieron.
+     */
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(directory());
+            if (current == null) {
+                recover();
+            }
+            Instant refreshStarted = clock.instant();
+            int written = current == null ? rebuild(refreshStarted) : update(refreshStarted);
+            writtenRows.increment(written);
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            refreshTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Última generación publicada, comprimida si el cliente acepta gzip y la
+     * compresión está habilitada.
+     */
+    public Optional<SnapshotFile> latest(boolean acceptsGzip) {
+        Publication publication = current;
+        if (publication == null) {
+            return Optional.empty();
+        }
+        Path path = acceptsGzip && publication.gzip() != null ? publication.gzip() : publication.snapshot().getPath();
+        try {
+            return Optional.of(new SnapshotFile(path, Files.size(path), publication.generation(), path.equals(publication.gzip())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Envía el archivo. Con Tomcat lo envía el conector por sendfile al terminar
+     * la solicitud, sin pasar los datos por la memoria del proceso; si el conector
+     * no lo soporta (por ejemplo con TLS) se copia con {@link FileChannel#transferTo}
+     * sobre la salida de la respuesta. La métrica {@code instantanea.descargas}
+     * distingue ambos modos.
+     */
+    public void send(SnapshotFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(file.size());
+        response.setHeader(HttpHeaders.ETAG, file.eTag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(FILE_PREFIX + file.generation() + FILE_SUFFIX).build().toString());
+        if (file.gzip()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.size());
+            sendfileDownloads.increment();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < file.size()) {
+                position += channel.transferTo(position, file.size() - position, out);
+            }
+        }
+        copiedDownloads.increment();
+    }
+
+    // Métodos privados auxiliares
+    private int update(Instant refreshStarted) throws IOException {
+        Publication previous = current;
+        Instant since = marker.minusMillis(marginMillis);
+        Path temp = directory().resolve(FILE_PREFIX + (previous.generation() + 1) + FILE_SUFFIX + TEMP_SUFFIX);
+        int written;
+        try (AccountSnapshotWriter writer = AccountSnapshotWriter.copyOf(previous.snapshot(), temp)) {
+            if (!copyRows(writer, from -> accountRepository.findSnapshotChanges(from, since, Limit.of(pageSize)))) {
+                written = -1;
+            } else {
+                written = writer.getChangedRows();
+                if (written > 0) {
+                    writer.finish(previous.generation() + 1, refreshStarted);
+                }
+            }
+        }
+        if (written < 0) {
+            Files.deleteIfExists(temp);
+            log.info("Las cuentas nuevas no caben en la instantánea (capacidad {}): se reconstruye",
+                    previous.snapshot().getCapacity());
+            return rebuild(refreshStarted);
+        }
+        if (written == 0) {
+            Files.deleteIfExists(temp);
+            marker = refreshStarted;
+            return 0;
+        }
+        publish(temp, previous.generation() + 1, refreshStarted);
+        log.debug("Instantánea de cuentas: generación {} con {} filas reescritas", previous.generation() + 1, written);
+        return written;
+    }
+
+    private int rebuild(Instant refreshStarted) throws IOException {
+        long generation = current == null ? 1 : current.generation() + 1;
+        Path temp = directory().resolve(FILE_PREFIX + generation + FILE_SUFFIX + TEMP_SUFFIX);
+        long accounts = readOnlyTransactionTemplate.execute(status -> accountRepository.count());
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_CAPACITY, accounts + accounts / 4));
+        while (true) {
+            int rows;
+            try (AccountSnapshotWriter writer = AccountSnapshotWriter.create(temp, capacity)) {
+                if (!copyRows(writer, from -> accountRepository.findSnapshotPage(from, Limit.of(pageSize)))) {
+                    // Se crearon cuentas durante la lectura
+                    capacity = (int) Math.min(Integer.MAX_VALUE, 2L * capacity);
+                    continue;
+                }
+                writer.finish(generation, refreshStarted);
+                rows = writer.getRows();
+            }
+            publish(temp, generation, refreshStarted);
+            log.info("Instantánea de cuentas reconstruida: generación {} con {} cuentas (capacidad {})", generation, rows, capacity);
+            return rows;
+        }
+    }
+
+    private boolean copyRows(AccountSnapshotWriter writer, Function<Integer, List<AccountSnapshotRowDTO>> pages) {
+        Integer from = Integer.MIN_VALUE;
+        List<AccountSnapshotRowDTO> page;
+        do {
+            Integer pageFrom = from;
+            page = readOnlyTransactionTemplate.execute(status -> pages.apply(pageFrom));
+            for (AccountSnapshotRowDTO account : page) {
+                if (!writer.put(account)) {
+                    return false;
+                }
+            }
+            if (!page.isEmpty()) {
+                from = page.get(page.size() - 1).getNumeroCuenta();
+            }
+        } while (page.size() == pageSize);
+        return true;
+    }
+
+    private void publish(Path temp, long generation, Instant refreshStarted) throws IOException {
+        Path file = directory().resolve(FILE_PREFIX + generation + FILE_SUFFIX);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        Path gzip = compression ? compress(file) : null;
+
+        // cuentas.col es un enlace a la última generación para los lectores locales que la mapean
+        Path link = directory().resolve(LATEST + TEMP_SUFFIX);
+        Files.deleteIfExists(link);
+        try {
+            Files.createLink(link, file);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file, link);
+        }
+        Files.move(link, directory().resolve(LATEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        current = new Publication(generation, AccountSnapshot.open(file), gzip);
+        marker = refreshStarted;
+        deleteGenerationsBefore(generation - KEPT_GENERATIONS + 1);
+    }
+
+    private Path compress(Path file) throws IOException {
+        Path gzip = file.resolveSibling(file.getFileName() + GZIP_SUFFIX);
+        Path temp = file.resolveSibling(file.getFileName() + GZIP_SUFFIX + TEMP_SUFFIX);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            Files.copy(file, out);
+        }
+        Files.move(temp, gzip, StandardCopyOption.ATOMIC_MOVE);
+        return gzip;
+    }
+
+    /**
+     * Toma la última generación válida del directorio, para seguir de forma
+     * incremental desde su marca tras un reinicio.
+     */
+    private void recover() throws IOException {
+        Publication latest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory())) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                Matcher matcher = GENERATION_FILE.matcher(name);
+                if (!matcher.matches() || matcher.group(2) != null) {
+                    continue;
+                }
+                long generation = Long.parseLong(matcher.group(1));
+                if (latest != null && latest.generation() > generation) {
+                    continue;
+                }
+                try {
+                    latest = new Publication(generation, AccountSnapshot.open(path), null);
+                } catch (RuntimeException e) {
+                    log.warn("Se descarta la instantánea {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        if (latest == null) {
+            return;
+        }
+        Path gzip = latest.snapshot().getPath().resolveSibling(latest.snapshot().getPath().getFileName() + GZIP_SUFFIX);
+        if (compression) {
+            gzip = Files.exists(gzip) ? gzip : compress(latest.snapshot().getPath());
+        }
+        current = new Publication(latest.generation(), latest.snapshot(), compression ? gzip : null);
+        marker = latest.snapshot().getMarker();
+        log.info("Instantánea de cuentas recuperada: generación {} con {} cuentas", latest.generation(), latest.snapshot().getRows());
+    }
+
+    private Path directory() {
+        return Path.of(directory);
+    }
+
+    private void deleteGenerationsBefore(long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory(), FILE_PREFIX + "*")) {
+            for (Path path : files) {
+                Matcher matcher = GENERATION_FILE.matcher(path.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < generation) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Archivo de una generación listo para enviar.
+     */
+    public record SnapshotFile(Path path, long size, long generation, boolean gzip) {
+
+        // Validador fuerte: la versión comprimida tiene otros bytes
+        public String eTag() {
+            return "\"instantanea-" + generation + (gzip ? "-gz" : "") + "\"";
+        }
+    }
+
+    private record Publication(long generation, AccountSnapshot snapshot, Path gzip) {
+    }
+}
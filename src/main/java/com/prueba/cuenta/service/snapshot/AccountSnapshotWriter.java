@@ -0,0 +1,198 @@
+package com.prueba.cuenta.service.snapshot;
+
+import com.prueba.cuenta.dto.AccountSnapshotRowDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escribe una generación de la instantánea sobre el archivo mapeado. Una
+ * reconstrucción parte de un archivo vacío y recibe las cuentas ordenadas; una
+ * actualización incremental parte de una copia de la generación anterior y solo
+ * reescribe las filas que cambiaron. Ver {@link AccountSnapshot} para el formato.
+ */
+class AccountSnapshotWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int numeroCuentaColumn;
+    private final int clienteIdColumn;
+    private final int saldoColumn;
+    private final int tipoCuentaColumn;
+    private final int estadoColumn;
+    // Filas agregadas al final desde la última reconstrucción, por número de cuenta
+    private final Map<Integer, Integer> appended = new HashMap<>();
+
+    private int rows;
+    private int sortedRows;
+    private int changedRows;
+
+    private AccountSnapshotWriter(FileChannel channel, int capacity) throws IOException {
+        long size = AccountSnapshot.fileSize(capacity);
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IllegalStateException("Instantánea demasiado grande para mapearse: " + capacity + " cuentas");
+        }
+        this.channel = channel;
+        this.capacity = capacity;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        long[] offsets = AccountSnapshot.columnOffsets(capacity);
+        this.numeroCuentaColumn = (int) offsets[0];
+        this.clienteIdColumn = (int) offsets[1];
+        this.saldoColumn = (int) offsets[2];
+        this.tipoCuentaColumn = (int) offsets[3];
+        this.estadoColumn = (int) offsets[4];
+    }
+
+    /**
+     * Archivo vacío con espacio para {@code capacity} cuentas.
+     */
+    static AccountSnapshotWriter create(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AccountSnapshotWriter writer = new AccountSnapshotWriter(channel, capacity);
+        long[] offsets = AccountSnapshot.columnOffsets(capacity);
+        writer.buffer.putInt(0, AccountSnapshot.MAGIC);
+        writer.buffer.putInt(4, AccountSnapshot.FORMAT_VERSION);
+        writer.buffer.putInt(AccountSnapshot.CAPACITY, capacity);
+        writer.buffer.putInt(AccountSnapshot.SCALE, AccountSnapshot.SALDO_SCALE);
+        for (int column = 0; column < 5; column++) {
+            writer.buffer.putLong(AccountSnapshot.NUMERO_CUENTA_OFFSET + 8 * column, offsets[column]);
+        }
+        return writer;
+    }
+
+    /**
+     * Copia de {@code source} para modificar. La copia entre archivos la hace el
+     * sistema operativo, sin pasar los datos por la memoria del proceso.
+     */
+    static AccountSnapshotWriter copyOf(AccountSnapshot source, Path path) throws IOException {
+        try (FileChannel from = FileChannel.open(source.getPath(), StandardOpenOption.READ);
+             FileChannel to = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            long size = from.size();
+            long position = 0;
+            while (position < size) {
+                position += from.transferTo(position, size - position, to);
+            }
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AccountSnapshotWriter writer = new AccountSnapshotWriter(channel, source.getCapacity());
+        writer.rows = source.getRows();
+        writer.sortedRows = source.getSortedRows();
+        for (int row = writer.sortedRows; row < writer.rows; row++) {
+            writer.appended.put(writer.numeroCuenta(row), row);
+        }
+        return writer;
+    }
+
+    /**
+     * Escribe la fila de la cuenta si es nueva o si cambió. Devuelve false si la
+     * cuenta es nueva y ya no hay espacio: hace falta reconstruir con más capacidad.
+     */
+    boolean put(AccountSnapshotRowDTO account) {
+        int numeroCuenta = account.getNumeroCuenta();
+        int row = find(numeroCuenta);
+        boolean created = row < 0;
+        if (created) {
+            if (rows == capacity) {
+                return false;
+            }
+            row = rows++;
+            if (sortedRows == row && (row == 0 || numeroCuenta(row - 1) < numeroCuenta)) {
+                sortedRows++;
+            } else {
+                appended.put(numeroCuenta, row);
+            }
+            buffer.putInt(numeroCuentaColumn + 4 * row, numeroCuenta);
+        }
+
+        BigDecimal scaled = account.getSaldo().setScale(AccountSnapshot.SALDO_SCALE, RoundingMode.HALF_EVEN);
+        int estado = account.isStatus() ? AccountSnapshot.ACTIVE : 0;
+        long saldo;
+        if (scaled.compareTo(account.getSaldo()) != 0) {
+            estado |= AccountSnapshot.INEXACT_BALANCE;
+        }
+        if (scaled.unscaledValue().bitLength() < 64) {
+            saldo = scaled.unscaledValue().longValue();
+        } else {
+            saldo = scaled.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+            estado |= AccountSnapshot.INEXACT_BALANCE;
+        }
+        long clienteId = account.getClienteId();
+        byte tipoCuenta = (byte) account.getTipoCuenta().ordinal();
+
+        if (created || buffer.getLong(saldoColumn + 8 * row) != saldo || buffer.getLong(clienteIdColumn + 8 * row) != clienteId
+                || buffer.get(tipoCuentaColumn + row) != tipoCuenta || buffer.get(estadoColumn + row) != estado) {
+            buffer.putLong(saldoColumn + 8 * row, saldo);
+            buffer.putLong(clienteIdColumn + 8 * row, clienteId);
+            buffer.put(tipoCuentaColumn + row, tipoCuenta);
+            buffer.put(estadoColumn + row, (byte) estado);
+            changedRows++;
+        }
+        return true;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * Filas nuevas o modificadas en esta generación.
+     */
+    int getChangedRows() {
+        return changedRows;
+    }
+
+    /**
+     * Completa la cabecera y fuerza el archivo a disco.
+     */
+    void finish(long generation, Instant marker) {
+        buffer.putLong(AccountSnapshot.GENERATION, generation);
+        buffer.putInt(AccountSnapshot.ROWS, rows);
+        buffer.putInt(AccountSnapshot.SORTED_ROWS, sortedRows);
+        buffer.putLong(AccountSnapshot.MARKER, ChronoUnit.MICROS.between(Instant.EPOCH, marker));
+        buffer.putLong(AccountSnapshot.CREATED, System.currentTimeMillis());
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Métodos privados auxiliares
+    private int numeroCuenta(int row) {
+        return buffer.getInt(numeroCuentaColumn + 4 * row);
+    }
+
+    private int find(int numeroCuenta) {
+        int low = 0;
+        int high = sortedRows - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int account = numeroCuenta(middle);
+            if (account < numeroCuenta) {
+                low = middle + 1;
+            } else if (account > numeroCuenta) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return appended.getOrDefault(numeroCuenta, -1);
+    }
+}
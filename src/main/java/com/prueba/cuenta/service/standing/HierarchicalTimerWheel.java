@@ -0,0 +1,140 @@
+package com.prueba.cuenta.service.standing;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Rueda de temporizadores jerárquica de {@value #LEVELS} niveles de
+ * {@value #SLOTS} ranuras. El nivel 0 tiene una ranura por tick y cada nivel
+ * superior cubre {@value #SLOTS} veces el anterior; al completar una vuelta de
+ * un nivel, la ranura siguiente del nivel superior se redistribuye hacia
+ * abajo. Programar y vencer cuestan O(1) por entrada, sin importar cuántas
+ * haya, y las ranuras reutilizan sus arreglos de {@code long}.
+ *
+ * <p>Las entradas más lejanas que el alcance de la rueda se guardan en la
+ * última ranura alcanzable y se vuelven a ubicar al redistribuirla. No es
+ * segura para hilos: {@link StandingOrderScheduler} la usa bajo su bloqueo.
+ */
+class HierarchicalTimerWheel {
+
+    static final int SLOTS = 64;
+    static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final Slot[][] slots = new Slot[LEVELS][SLOTS];
+    // Entradas programadas para un tick ya procesado: salen en el próximo avance
+    private final Slot overdue = new Slot();
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (Slot[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Programa {@code id} para {@code dueMillis}; si ya venció, sale en el próximo avance.
+     */
+    void schedule(long id, long dueMillis) {
+        if (dueMillis / tickMillis <= currentTick) {
+            overdue.add(id, dueMillis);
+        } else {
+            place(id, dueMillis);
+        }
+        size++;
+    }
+
+    /**
+     * Avanza hasta {@code nowMillis} y entrega a {@code expired} cada id vencido,
+     * en orden de tick. Devuelve cuántos entregó.
+     */
+    int advance(long nowMillis, LongConsumer expired) {
+        int delivered = drain(overdue, expired);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // Sin entradas no hay nada que redistribuir: se salta directamente
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            delivered += drain(slots[0][(int) (currentTick & SLOT_MASK)], expired);
+        }
+        return delivered;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Métodos privados auxiliares
+    private int drain(Slot slot, LongConsumer expired) {
+        int drained = slot.size;
+        for (int i = 0; i < drained; i++) {
+            expired.accept(slot.ids[i]);
+        }
+        size -= drained;
+        slot.clear();
+        return drained;
+    }
+
+    private void cascade() {
+        // Al empezar una vuelta de un nivel se baja la ranura que toca del nivel superior, de arriba hacia abajo
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                continue;
+            }
+            Slot slot = slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            if (slot.size == 0) {
+                continue;
+            }
+            long[] ids = Arrays.copyOf(slot.ids, slot.size);
+            long[] dues = Arrays.copyOf(slot.dues, slot.size);
+            slot.clear();
+            for (int i = 0; i < ids.length; i++) {
+                place(ids[i], dues[i]);
+            }
+        }
+    }
+
+    private void place(long id, long dueMillis) {
+        // Las entradas redistribuidas vencen en el tick en curso o después
+        long dueTick = Math.max(dueMillis / tickMillis, currentTick);
+        long delta = dueTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        long maxDelta = (1L << (SLOT_BITS * LEVELS)) - 1;
+        long slotTick = delta > maxDelta ? currentTick + maxDelta : dueTick;
+        slots[level][(int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(id, dueMillis);
+    }
+
+    private static final class Slot {
+        private long[] ids = new long[4];
+        private long[] dues = new long[4];
+        private int size;
+
+        private void add(long id, long dueMillis) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                dues = Arrays.copyOf(dues, size * 2);
+            }
+            ids[size] = id;
+            dues[size] = dueMillis;
+            size++;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.prueba.cuenta.service.standing;
+
+import com.prueba.cuenta.dto.MovementCommandDTO;
+import com.prueba.cuenta.dto.StandingOrderDueDTO;
+import com.prueba.cuenta.dto.TransferDTO;
+import com.prueba.cuenta.entity.StandingOrder;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.repository.StandingOrderRepository;
+import com.prueba.cuenta.service.MovementService;
+import com.prueba.cuenta.service.transfer.TransferService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Ejecuta las órdenes permanentes sin consultar la base en cada tick.
+ *
+ * <p>Cada {@code cuenta.ordenes.carga-ms} se leen, paginando por
+ * {@code (proximaEjecucion, id)}, solo el id y el vencimiento de las órdenes
+ * que vencen antes de {@code ahora + cuenta.ordenes.ventana-ms}, y se programan
+ * en una {@link HierarchicalTimerWheel}. Cada {@code cuenta.ordenes.tick-ms} se
+ * avanza la rueda y las órdenes vencidas se ejecutan en lotes de
+ * {@code cuenta.ordenes.tamano-lote}: una lectura de las órdenes, una de las
+ * ejecuciones ya aplicadas y una transacción con el avance de todas. Los
+ * movimientos pasan por {@link MovementService} o {@link TransferService}, en
+ * {@code cuenta.ordenes.hilos} hilos con cada cuenta siempre en el mismo hilo.
+ *
+ * <p>El id del movimiento de cada ejecución es {@code OP-<orden>-<secuencia>}.
+ * Si el proceso se detiene entre el movimiento y el avance de la orden, al
+ * reintentar se encuentra el movimiento y solo se avanza: la ejecución no se
+ * repite. Un rechazo (saldo, cuenta inactiva) se reintenta con espera creciente
+ * y tras {@code cuenta.ordenes.max-reintentos} se omite esa ejecución. La
+ * primera carga parte de las órdenes más antiguas, así que al reiniciar se
+ * ponen al día las ejecuciones perdidas, una por una y en orden.
+ */
+@Slf4j
+@Component
+public class StandingOrderScheduler {
+
+    static final String KEY_PREFIX = "OP-";
+    private static final String SUCCESS_CODE = "0";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final MovementRepository movementRepository;
+    private final MovementService movementService;
+    private final TransferService transferService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int threads;
+    private final ExecutorService executor;
+    private final HierarchicalTimerWheel wheel;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Timer lag;
+    private final Counter executed;
+    private final Counter alreadyApplied;
+    private final Counter failures;
+
+    // Todo lo que vence antes de este instante ya está en la rueda; nulo hasta la primera carga
+    private volatile Instant loadedUntil;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${cuenta.ordenes.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.ordenes.ventana-ms:300000}")
+    private long windowMillis;
+
+    @Value("${cuenta.ordenes.carga.tamano-pagina:5000}")
+    private int pageSize;
+
+    @Value("${cuenta.ordenes.tamano-lote:500}")
+    private int batchSize;
+
+    @Value("${cuenta.ordenes.max-reintentos:5}")
+    private int maxRetries;
+
+    @Value("${cuenta.ordenes.reintento-ms:30000}")
+    private long retryMillis;
+
+    public StandingOrderScheduler(StandingOrderRepository standingOrderRepository,
+                                  MovementRepository movementRepository,
+                                  MovementService movementService,
+                                  TransferService transferService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cuenta.ordenes.hilos:4}") int threads,
+                                  @Value("${cuenta.ordenes.tick-ms:100}") long tickMillis) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.movementRepository = movementRepository;
+        this.movementService = movementService;
+        this.transferService = transferService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("orden-permanente-", 0).daemon().factory());
+        this.wheel = new HierarchicalTimerWheel(tickMillis, System.currentTimeMillis());
+        this.lag = Timer.builder("ordenes.retraso").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.executed = Counter.builder("ordenes.ejecutadas").register(meterRegistry);
+        this.alreadyApplied = Counter.builder("ordenes.ya-aplicadas").register(meterRegistry);
+        this.failures = Counter.builder("ordenes.fallos").register(meterRegistry);
+        Gauge.builder("ordenes.programadas", wheel, HierarchicalTimerWheel::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (enabled) {
+            loadWindow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.ordenes.carga-ms:60000}", initialDelayString = "${cuenta.ordenes.carga-ms:60000}")
+    public void loadScheduled() {
+        if (enabled) {
+            loadWindow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cuenta.ordenes.tick-ms:100}")
+    public void tick() {
+        if (enabled && loadedUntil != null) {
+            runDue();
+        }
+    }
+
+    /**
+     * Programa en la rueda las órdenes que vencen entre la carga anterior y
+     * {@code ahora + ventana}; la primera vez, todas las vencidas. Devuelve cuántas programó.
+     */
+    public synchronized int loadWindow() {
+        Instant from = loadedUntil == null ? Instant.EPOCH : loadedUntil;
+        Instant horizon = clock.instant().plusMillis(windowMillis);
+        if (!horizon.isAfter(from)) {
+            return 0;
+        }
+        // Se publica antes de leer: lo que se cree o reprograme antes del horizonte durante la lectura entra directo
+        loadedUntil = horizon;
+
+        int loaded = 0;
+        Instant lastDue = from;
+        long lastId = 0;
+        List<StandingOrderDueDTO> page;
+        do {
+            Instant pageFrom = lastDue;
+            long pageFromId = lastId;
+            page = readOnlyTransactionTemplate.execute(status ->
+                    standingOrderRepository.findDue(pageFrom, pageFromId, horizon, Limit.of(pageSize)));
+            synchronized (wheel) {
+                for (StandingOrderDueDTO due : page) {
+                    wheel.schedule(due.getId(), due.getProximaEjecucion().toEpochMilli());
+                }
+            }
+            if (!page.isEmpty()) {
+                lastDue = page.get(page.size() - 1).getProximaEjecucion();
+                lastId = page.get(page.size() - 1).getId();
+            }
+            loaded += page.size();
+        } while (page.size() == pageSize);
+
+        if (loaded > 0) {
+            log.info("Órdenes permanentes: {} programadas hasta {}", loaded, horizon);
+        }
+        return loaded;
+    }
+
+    /**
+     * Programa una orden nueva o reactivada si vence dentro de lo ya cargado;
+     * si no, la toma la próxima carga.
+     */
+    public void scheduleIfLoaded(StandingOrder order) {
+        Instant horizon = loadedUntil;
+        if (enabled && order.isActiva() && horizon != null && order.getProximaEjecucion().isBefore(horizon)) {
+            synchronized (wheel) {
+                wheel.schedule(order.getId(), order.getProximaEjecucion().toEpochMilli());
+            }
+        }
+    }
+
+    /**
+     * Ejecuta las órdenes vencidas en la rueda. Devuelve cuántas se resolvieron.
+     */
+    public int runDue() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            List<Long> due = new ArrayList<>();
+            synchronized (wheel) {
+                wheel.advance(clock.millis(), due::add);
+            }
+            int resolved = 0;
+            for (int from = 0; from < due.size(); from += batchSize) {
+                resolved += executeBatch(due.subList(from, Math.min(due.size(), from + batchSize)));
+            }
+            return resolved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Momento de la ejecución número {@code secuencia} de la orden.
+     */
+    public Instant executionTime(StandingOrder order, long secuencia) {
+        return order.getFrecuencia().occurrence(order.getPrimeraEjecucion(), secuencia).atZone(clock.getZone()).toInstant();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Métodos privados auxiliares
+    private int executeBatch(List<Long> ids) {
+        Instant now = clock.instant();
+        // Las entradas de órdenes canceladas, ya avanzadas o repetidas se descartan aquí
+        List<StandingOrder> orders = readOnlyTransactionTemplate.execute(status -> standingOrderRepository.findAllById(ids)).stream()
+                .filter(order -> order.isActiva() && !order.getProximaEjecucion().isAfter(now))
+                .toList();
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        List<String> movementIds = orders.stream().map(this::appliedMovementId).toList();
+        Set<String> applied = new HashSet<>(readOnlyTransactionTemplate.execute(status -> movementRepository.findExistingIds(movementIds)));
+
+        // Cada cuenta va siempre al mismo hilo: sus ejecuciones se aplican en orden y sin competir por el saldo
+        Map<Integer, List<StandingOrder>> partitions = orders.stream()
+                .collect(Collectors.groupingBy(order -> Math.floorMod(order.getNumeroCuenta(), threads)));
+        List<CompletableFuture<List<Outcome>>> futures = partitions.values().stream()
+                .map(partition -> CompletableFuture.supplyAsync(
+                        () -> partition.stream().map(order -> execute(order, applied)).toList(), executor))
+                .toList();
+        List<Outcome> outcomes = futures.stream().flatMap(future -> future.join().stream()).toList();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> outcomes.forEach(this::record));
+        } catch (RuntimeException e) {
+            // Los movimientos ya aplicados se reconocen por su id al reintentar
+            log.error("No se pudo registrar el avance de {} órdenes permanentes: {}", outcomes.size(), e.getMessage());
+            long retryAt = now.toEpochMilli() + retryMillis;
+            synchronized (wheel) {
+                outcomes.forEach(outcome -> wheel.schedule(outcome.id(), retryAt));
+            }
+            return 0;
+        }
+        reschedule(outcomes);
+        return outcomes.size();
+    }
+
+    private Outcome execute(StandingOrder order, Set<String> applied) {
+        if (applied.contains(appliedMovementId(order))) {
+            alreadyApplied.increment();
+            return outcome(order, null);
+        }
+        LocalDate fecha = order.getFrecuencia().occurrence(order.getPrimeraEjecucion(), order.getSecuencia()).toLocalDate();
+        MDC.put("uuid", executionKey(order));
+        try {
+            ApiResponseClient<?> response = order.getCuentaDestino() == null
+                    ? movementService.createMovement(new MovementCommandDTO(fecha, order.getValor(), order.getNumeroCuenta())).block()
+                    : transferService.transfer(new TransferDTO(fecha.toString(), order.getValor(),
+                            order.getNumeroCuenta(), order.getCuentaDestino())).block();
+            if (response != null && response.getResponseProcess() != null
+                    && SUCCESS_CODE.equals(response.getResponseProcess().getCode())) {
+                executed.increment();
+                lag.record(Duration.between(order.getProximaEjecucion(), clock.instant()));
+                return outcome(order, null);
+            }
+            failures.increment();
+            return outcome(order, response == null || response.getResponseProcess() == null
+                    ? "Sin respuesta" : response.getResponseProcess().getResultMessage());
+        } catch (RuntimeException e) {
+            failures.increment();
+            return outcome(order, String.valueOf(e.getMessage()));
+        } finally {
+            MDC.remove("uuid");
+        }
+    }
+
+    private Outcome outcome(StandingOrder order, String error) {
+        String message = error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+        boolean retry = error != null && order.getFallos() + 1 < maxRetries;
+        // Espera creciente: el intervalo base, 2x, 4x... sin pasar de 64 veces
+        long retryAt = clock.millis() + (retryMillis << Math.min(order.getFallos(), 6));
+        return new Outcome(order.getId(), order.getSecuencia(), order.getProximaEjecucion(), message, retry,
+                retry ? null : nextExecution(order), retryAt);
+    }
+
+    private void record(Outcome outcome) {
+        if (outcome.retry()) {
+            standingOrderRepository.recordFailure(outcome.id(), outcome.secuencia(), outcome.error());
+            return;
+        }
+        if (outcome.error() != null) {
+            log.warn("Orden permanente {}: se omite la ejecución {} tras {} intentos: {}",
+                    outcome.id(), outcome.secuencia(), maxRetries, outcome.error());
+        }
+        standingOrderRepository.advance(outcome.id(), outcome.secuencia(),
+                outcome.next() == null ? outcome.due() : outcome.next(), outcome.next() != null, outcome.error());
+    }
+
+    private void reschedule(List<Outcome> outcomes) {
+        Instant horizon = loadedUntil;
+        synchronized (wheel) {
+            for (Outcome outcome : outcomes) {
+                if (outcome.retry()) {
+                    wheel.schedule(outcome.id(), outcome.retryAt());
+                } else if (outcome.next() != null && horizon != null && outcome.next().isBefore(horizon)) {
+                    // Una ejecución atrasada (puesta al día) o cercana entra directo; las demás las toma la carga
+                    wheel.schedule(outcome.id(), outcome.next().toEpochMilli());
+                }
+            }
+        }
+    }
+
+    private Instant nextExecution(StandingOrder order) {
+        LocalDateTime next = order.getFrecuencia().occurrence(order.getPrimeraEjecucion(), order.getSecuencia() + 1);
+        if (order.getFechaFin() != null && next.toLocalDate().isAfter(order.getFechaFin())) {
+            return null;
+        }
+        return next.atZone(clock.getZone()).toInstant();
+    }
+
+    private String executionKey(StandingOrder order) {
+        return KEY_PREFIX + order.getId() + "-" + order.getSecuencia();
+    }
+
+    private String appliedMovementId(StandingOrder order) {
+        // Una transferencia guarda el débito con el id de la ejecución más el sufijo de origen
+        return order.getCuentaDestino() == null ? executionKey(order) : executionKey(order) + TransferService.DEBIT_SUFFIX;
+    }
+
+    /**
+     * Resultado de una ejecución, con la decisión (reintentar o avanzar) tomada
+     * sobre la orden tal como se leyó.
+     */
+    private record Outcome(Long id, long secuencia, Instant due, String error, boolean retry, Instant next, long retryAt) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.prueba.cuenta.service.standing;
+
+import com.prueba.cuenta.dto.StandingOrderDTO;
+import com.prueba.cuenta.entity.StandingOrder;
+import com.prueba.cuenta.entity.StandingOrderFrequency;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.StandingOrderRepository;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Alta, consulta y cancelación de órdenes permanentes. La ejecución corre en
+ * {@link StandingOrderScheduler}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StandingOrderService {
+
+    private static final String SUCCESS_CODE = "0";
+    private static final String ERROR_CODE = "1";
+    private static final String SUCCESS_STATUS = "OK";
+    private static final String ERROR_STATUS = "ERROR";
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final AccountRepository accountRepository;
+    private final StandingOrderScheduler standingOrderScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    public Mono<ApiResponseClient<StandingOrder>> createStandingOrder(StandingOrderDTO dto) {
+        log.info("Creando orden permanente con los datos: {}", dto);
+        return Mono.fromCallable(() -> {
+                    StandingOrder order = createStandingOrderEntity(dto);
+                    validate(order);
+                    StandingOrder saved = standingOrderRepository.save(order);
+                    standingOrderScheduler.scheduleIfLoaded(saved);
+                    log.info("Orden permanente {} creada, primera ejecución {}", saved.getId(), saved.getProximaEjecucion());
+                    return createSuccessResponse(saved, "Orden permanente creada correctamente");
+                })
+                .onErrorResume(e -> {
+                    log.error("Error al crear la orden permanente: {}", e.getMessage());
+                    return Mono.just(createErrorResponse(e.getMessage()));
+                });
+    }
+
+    public Mono<ApiResponseClient<StandingOrder>> getStandingOrder(Long id) {
+        return Mono.fromCallable(() -> createSuccessResponse(findStandingOrderById(id), "Consulta exitosa"))
+                .onErrorResume(e -> {
+                    log.error("Error al consultar la orden permanente: {}", e.getMessage());
+                    return Mono.just(createErrorResponse(e.getMessage()));
+                });
+    }
+
+    /**
+     * Desactiva la orden. Una ejecución ya tomada por el planificador termina,
+     * pero no se programa la siguiente.
+     */
+    public Mono<ApiResponseClient<StandingOrder>> cancelStandingOrder(Long id) {
+        return Mono.fromCallable(() -> {
+                    Integer cancelled = transactionTemplate.execute(status -> standingOrderRepository.cancel(id));
+                    StandingOrder order = findStandingOrderById(id);
+                    log.info("Orden permanente {} {}", id, cancelled != null && cancelled > 0 ? "cancelada" : "ya estaba inactiva");
+                    return createSuccessResponse(order, "Orden permanente cancelada correctamente");
+                })
+                .onErrorResume(e -> {
+                    log.error("Error al cancelar la orden permanente: {}", e.getMessage());
+                    return Mono.just(createErrorResponse(e.getMessage()));
+                });
+    }
+
+    // Métodos privados auxiliares
+    private StandingOrder findStandingOrderById(Long id) {
+        return standingOrderRepository.findById(id)
+                .orElseThrow(() -> new AccountBusinessException("Orden permanente no encontrada"));
+    }
+
+    private StandingOrder createStandingOrderEntity(StandingOrderDTO dto) {
+        StandingOrder order = new StandingOrder();
+        order.setNumeroCuenta(dto.getNumeroCuenta());
+        order.setCuentaDestino(dto.getCuentaDestino());
+        order.setValor(dto.getValor());
+        order.setFrecuencia(StandingOrderFrequency.valueOf(dto.getFrecuencia()));
+        order.setPrimeraEjecucion(LocalDateTime.parse(dto.getPrimeraEjecucion()));
+        order.setFechaFin(dto.getFechaFin() == null ? null : LocalDate.parse(dto.getFechaFin()));
+        order.setProximaEjecucion(standingOrderScheduler.executionTime(order, 0));
+        order.setActiva(true);
+        return order;
+    }
+
+    private void validate(StandingOrder order) {
+        if (order.getValor().signum() == 0) {
+            throw new AccountBusinessException("El valor de la orden no puede ser cero");
+        }
+        if (!accountRepository.existsById(order.getNumeroCuenta())) {
+            throw new AccountBusinessException("Cuenta no encontrada");
+        }
+        if (order.getCuentaDestino() != null) {
+            if (order.getValor().signum() < 0) {
+                throw new AccountBusinessException("El valor de la transferencia debe ser positivo");
+            }
+            if (order.getCuentaDestino().equals(order.getNumeroCuenta())) {
+                throw new AccountBusinessException("La cuenta de origen y la de destino deben ser distintas");
+            }
+            if (!accountRepository.existsById(order.getCuentaDestino())) {
+                throw new AccountBusinessException("Cuenta de destino no encontrada");
+            }
+        }
+        if (order.getFechaFin() != null && order.getFechaFin().isBefore(order.getPrimeraEjecucion().toLocalDate())) {
+            throw new AccountBusinessException("La fecha fin no puede ser anterior a la primera ejecución");
+        }
+    }
+
+    private <T> ApiResponseClient<T> createSuccessResponse(T data, String message) {
+        ResponseProcess responseProcess = new ResponseProcess(SUCCESS_CODE, message, SUCCESS_STATUS);
+        return new ApiResponseClient<>(data, responseProcess);
+    }
+
+    private <T> ApiResponseClient<T> createErrorResponse(String errorMessage) {
+        ResponseProcess responseProcess = new ResponseProcess(ERROR_CODE, errorMessage, ERROR_STATUS);
+        return new ApiResponseClient<>(null, responseProcess);
+    }
+}
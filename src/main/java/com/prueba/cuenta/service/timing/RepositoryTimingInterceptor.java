@@ -0,0 +1,32 @@
+package com.prueba.cuenta.service.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Mide cada llamada a un repositorio hecha durante una solicitud muestreada,
+ * incluida la transacción propia del repositorio.
+ */
+public class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    private final String repositoryName;
+
+    public RepositoryTimingInterceptor(String repositoryName) {
+        this.repositoryName = repositoryName;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return invocation.proceed();
+        }
+        RequestTiming.PhaseTimer timer = timing.start(TimingPhase.REPOSITORIO,
+                repositoryName + "." + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            timer.stop();
+        }
+    }
+}
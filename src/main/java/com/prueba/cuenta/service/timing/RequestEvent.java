@@ -0,0 +1,47 @@
+package com.prueba.cuenta.service.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR de una solicitud completa con el tiempo acumulado por fase.
+ */
+@Name("com.prueba.cuenta.Solicitud")
+@Label("Solicitud")
+@Category({"Cuenta", "Solicitudes"})
+@Description("Duración de la solicitud y desglose por fase")
+@StackTrace(false)
+class RequestEvent extends Event {
+
+    @Label("Correlación")
+    String correlationId;
+
+    @Label("Método")
+    String metodo;
+
+    @Label("Ruta")
+    String ruta;
+
+    @Label("Estado")
+    int estado;
+
+    @Label("Repositorio")
+    @Timespan(Timespan.NANOSECONDS)
+    long repositorio;
+
+    @Label("Consultas al repositorio")
+    int consultasRepositorio;
+
+    @Label("Servicio de clientes")
+    @Timespan(Timespan.NANOSECONDS)
+    long cliente;
+
+    @Label("Serialización")
+    @Timespan(Timespan.NANOSECONDS)
+    long serializacion;
+}
@@ -0,0 +1,29 @@
+package com.prueba.cuenta.service.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una fase (consulta al repositorio, llamada al servicio de
+ * clientes o serialización) dentro de una solicitud.
+ */
+@Name("com.prueba.cuenta.FaseSolicitud")
+@Label("Fase de solicitud")
+@Category({"Cuenta", "Solicitudes"})
+@Description("Tiempo de una fase de la solicitud, con el identificador de correlación")
+@StackTrace(false)
+class RequestPhaseEvent extends Event {
+
+    @Label("Correlación")
+    String correlationId;
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Operación")
+    String operacion;
+}
@@ -0,0 +1,217 @@
+package com.prueba.cuenta.service.timing;
+
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tiempos de una solicitud muestreada, acumulados por {@link TimingPhase}.
+ *
+ * <p>La solicitud en curso se publica en el hilo que la atiende; las fases que
+ * corren en otros hilos (la respuesta del servicio de clientes) la reciben con
+ * {@link #time(TimingPhase, String, Mono)}. Los eventos JFR solo se arman si hay
+ * una grabación activa que los incluya.
+ */
+public final class RequestTiming {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final TimingPhase[] PHASES = TimingPhase.values();
+
+    private final String correlationId;
+    private final boolean serverTiming;
+    private final long started = System.nanoTime();
+    private final RequestEvent event = new RequestEvent();
+    private final AtomicLongArray nanos = new AtomicLongArray(PHASES.length);
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(PHASES.length);
+
+    public RequestTiming(String correlationId, boolean serverTiming) {
+        this.correlationId = correlationId;
+        this.serverTiming = serverTiming;
+        event.begin();
+    }
+
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Publica {@code timing} en el hilo actual y devuelve el valor anterior para
+     * restaurarlo con {@link #restore(RequestTiming)}.
+     */
+    public static RequestTiming bind(RequestTiming timing) {
+        RequestTiming previous = CURRENT.get();
+        CURRENT.set(timing);
+        return previous;
+    }
+
+    public static void restore(RequestTiming previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Mide {@code source} desde la suscripción hasta su primera señal y publica la
+     * solicitud en el hilo donde continúa el flujo.
+     */
+    public static <T> Mono<T> time(TimingPhase phase, String operation, Mono<T> source) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return source;
+        }
+        return Mono.defer(() -> {
+                    PhaseTimer timer = timing.start(phase, operation);
+                    return source.doOnEach(signal -> timer.stop())
+                            .doOnCancel(timer::stop);
+                })
+                .transform(Operators.<T, T>lift((scannable, actual) -> new BindingSubscriber<T>(actual, timing)));
+    }
+
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    public PhaseTimer start(TimingPhase phase, String operation) {
+        return new PhaseTimer(phase, operation);
+    }
+
+    public long getNanos(TimingPhase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    public int getCount(TimingPhase phase) {
+        return counts.get(phase.ordinal());
+    }
+
+    /**
+     * Valor del encabezado {@code Server-Timing}: una métrica por fase usada y el
+     * total transcurrido, en milisegundos.
+     */
+    public String serverTimingHeader() {
+        StringBuilder header = new StringBuilder(128);
+        for (TimingPhase phase : PHASES) {
+            int count = counts.get(phase.ordinal());
+            if (count > 0) {
+                appendMetric(header, phase.getNombre(), nanos.get(phase.ordinal()));
+                header.append(";desc=\"").append(count).append('"');
+            }
+        }
+        appendMetric(header, "total", System.nanoTime() - started);
+        return header.toString();
+    }
+
+    /**
+     * Cierra la solicitud y emite su evento JFR.
+     */
+    public void finish(String method, String route, int status) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.correlationId = correlationId;
+            event.metodo = method;
+            event.ruta = route;
+            event.estado = status;
+            event.repositorio = getNanos(TimingPhase.REPOSITORIO);
+            event.consultasRepositorio = getCount(TimingPhase.REPOSITORIO);
+            event.cliente = getNanos(TimingPhase.CLIENTE);
+            event.serializacion = getNanos(TimingPhase.SERIALIZACION);
+            event.commit();
+        }
+    }
+
+    // Métodos privados auxiliares
+    private static void appendMetric(StringBuilder header, String name, long elapsedNanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.2f", elapsedNanos / 1_000_000.0));
+    }
+
+    /**
+     * Medición de una fase; {@link #stop()} solo cuenta la primera vez.
+     */
+    public final class PhaseTimer {
+
+        private final TimingPhase phase;
+        private final String operation;
+        private final RequestPhaseEvent phaseEvent = new RequestPhaseEvent();
+        private final long phaseStarted;
+        private volatile boolean stopped;
+
+        private PhaseTimer(TimingPhase phase, String operation) {
+            this.phase = phase;
+            this.operation = operation;
+            phaseEvent.begin();
+            this.phaseStarted = System.nanoTime();
+        }
+
+        public void stop() {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            nanos.addAndGet(phase.ordinal(), System.nanoTime() - phaseStarted);
+            counts.incrementAndGet(phase.ordinal());
+            phaseEvent.end();
+            if (phaseEvent.shouldCommit()) {
+                phaseEvent.correlationId = correlationId;
+                phaseEvent.fase = phase.getNombre();
+                phaseEvent.operacion = operation;
+                phaseEvent.commit();
+            }
+        }
+    }
+
+    private record BindingSubscriber<T>(CoreSubscriber<? super T> actual, RequestTiming timing)
+            implements CoreSubscriber<T> {
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            actual.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(T value) {
+            RequestTiming previous = bind(timing);
+            try {
+                actual.onNext(value);
+            } finally {
+                restore(previous);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            RequestTiming previous = bind(timing);
+            try {
+                actual.onError(error);
+            } finally {
+                restore(previous);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            RequestTiming previous = bind(timing);
+            try {
+                actual.onComplete();
+            } finally {
+                restore(previous);
+            }
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+    }
+}
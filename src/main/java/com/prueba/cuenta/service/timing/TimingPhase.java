@@ -0,0 +1,21 @@
+package com.prueba.cuenta.service.timing;
+
+/**
+ * Fases de una solicitud medidas por {@link RequestTiming}. El nombre es el que
+ * aparece en el encabezado {@code Server-Timing} y en los eventos JFR.
+ */
+public enum TimingPhase {
+    REPOSITORIO("repositorio"),
+    CLIENTE("cliente"),
+    SERIALIZACION("serializacion");
+
+    private final String nombre;
+
+    TimingPhase(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+}
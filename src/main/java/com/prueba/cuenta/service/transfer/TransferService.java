@@ -0,0 +1,159 @@
+package com.prueba.cuenta.service.transfer;
+
+import com.prueba.cuenta.dto.TransferDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.BalanceCheckpointService;
+import com.prueba.cuenta.service.MovementListeners;
+import com.prueba.cuenta.service.journal.MovementJournalService;
+import com.prueba.cuenta.service.limit.WithdrawalLimitService;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transferencias entre cuentas: el débito en la cuenta de origen y el crédito
+ * en la de destino se escriben en una sola transacción, como un par de
+ * movimientos enlazados por {@code transferenciaId}.
+ *
+ * <p>Las dos cuentas se bloquean con una sola consulta ordenada por número de
+ * cuenta, así que dos transferencias en sentidos opuestos entre las mismas
+ * cuentas esperan en el mismo orden y nunca quedan bloqueadas entre sí.
+ */
+@Slf4j
+@Service
+public class TransferService {
+
+    private static final String SUCCESS_CODE = "0";
+    private static final String ERROR_CODE = "1";
+    public static final String DEBIT_SUFFIX = "-O";
+    private static final String CREDIT_SUFFIX = "-D";
+
+    private final AccountRepository accountRepository;
+    private final MovementJournalService movementJournalService;
+    private final WithdrawalLimitService withdrawalLimitService;
+    private final MovementListeners movementListeners;
+    private final OutboxService outboxService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TransferService(AccountRepository accountRepository,
+                           MovementJournalService movementJournalService,
+                           WithdrawalLimitService withdrawalLimitService,
+                           MovementListeners movementListeners,
+                           OutboxService outboxService,
+                           BalanceCheckpointService balanceCheckpointService,
+                           PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.movementJournalService = movementJournalService;
+        this.withdrawalLimitService = withdrawalLimitService;
+        this.movementListeners = movementListeners;
+        this.outboxService = outboxService;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Mono<ApiResponseClient<List<Movement>>> transfer(TransferDTO transfer) {
+        log.info("Creando transferencia con los datos: {}", transfer);
+        return Mono.fromCallable(() -> {
+                    validate(transfer);
+                    String transferId = MDC.get("uuid");
+                    List<Movement> pair;
+                    try {
+                        pair = transactionTemplate.execute(status -> apply(transferId, LocalDate.parse(transfer.getFecha()), transfer));
+                    } catch (RuntimeException e) {
+                        withdrawalLimitService.release(transferId + DEBIT_SUFFIX);
+                        throw e;
+                    }
+                    pair.forEach(movementListeners::movementCreated);
+                    return new ApiResponseClient<>(pair,
+                            new ResponseProcess(SUCCESS_CODE, "Transferencia creada correctamente", "OK"));
+                })
+                .onErrorResume(e -> {
+                    log.error("Error al crear la transferencia: {}", e.getMessage());
+                    return Mono.just(new ApiResponseClient<>(null, new ResponseProcess(ERROR_CODE, e.getMessage(), "ERROR")));
+                });
+    }
+
+    // Métodos privados auxiliares
+    private void validate(TransferDTO transfer) {
+        // El diario escribe un movimiento por entrada y no puede garantizar el par completo
+        if (movementJournalService.isEnabled()) {
+            throw new AccountBusinessException("Las transferencias no están disponibles con el diario local de movimientos");
+        }
+        if (transfer.getCuentaOrigen().equals(transfer.getCuentaDestino())) {
+            throw new AccountBusinessException("La cuenta de origen y la de destino deben ser distintas");
+        }
+    }
+
+    private List<Movement> apply(String transferId, LocalDate fecha, TransferDTO transfer) {
+        // Bloqueo en orden de número de cuenta, igual que el proceso de fin de día y el diario
+        Map<Integer, Account> accounts = accountRepository.findAllForUpdate(
+                        new TreeSet<>(List.of(transfer.getCuentaOrigen(), transfer.getCuentaDestino()))).stream()
+                .collect(Collectors.toMap(Account::getNumeroCuenta, Function.identity()));
+        Account source = accounts.get(transfer.getCuentaOrigen());
+        Account target = accounts.get(transfer.getCuentaDestino());
+        if (source == null) {
+            throw new AccountBusinessException("Cuenta de origen no encontrada");
+        }
+        if (target == null) {
+            throw new AccountBusinessException("Cuenta de destino no encontrada");
+        }
+
+        BigDecimal sourceBalance = source.getSaldo().subtract(transfer.getValor());
+        if (sourceBalance.compareTo(BigDecimal.ZERO) < 0) {
+            log.error("Saldo no disponible para la cuenta: {}", source.getNumeroCuenta());
+            throw new AccountBusinessException("Saldo no disponible");
+        }
+        BigDecimal targetBalance = target.getSaldo().add(transfer.getValor());
+
+        Movement debit = createMovement(transferId, DEBIT_SUFFIX, fecha, transfer.getValor().negate(), source, sourceBalance);
+        Movement credit = createMovement(transferId, CREDIT_SUFFIX, fecha, transfer.getValor(), target, targetBalance);
+        withdrawalLimitService.reserve(debit.getId(), source, fecha, debit.getValor());
+
+        source.setSaldo(sourceBalance);
+        target.setSaldo(targetBalance);
+        entityManager.persist(debit);
+        entityManager.persist(credit);
+        outboxService.movementCreated(debit);
+        outboxService.movementCreated(credit);
+        balanceCheckpointService.movementSaved(debit);
+        balanceCheckpointService.movementSaved(credit);
+        return List.of(debit, credit);
+    }
+
+    private Movement createMovement(String transferId, String suffix, LocalDate fecha, BigDecimal valor,
+                                    Account account, BigDecimal newBalance) {
+        Movement movement = new Movement();
+        movement.setId(transferId + suffix);
+        movement.setTransferenciaId(transferId);
+        movement.setFecha(fecha);
+        movement.setTipoMovimiento(valor.signum() > 0 ? MovementType.DEPOSITO : MovementType.RETIRO);
+        movement.setValor(valor);
+        movement.setSaldo(newBalance);
+        movement.setCuenta(account);
+        return movement;
+    }
+}
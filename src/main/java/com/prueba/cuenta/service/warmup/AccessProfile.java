@@ -0,0 +1,148 @@
+package com.prueba.cuenta.service.warmup;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Perfil de acceso por cuenta: cuenta las solicitudes de la API por número de
+ * cuenta y guarda periódicamente las más usadas en
+ * {@code cuenta.calentamiento.perfil.archivo}, una por línea como
+ * {@code numeroCuenta accesos}. Al iniciar se lee el perfil anterior con los
+ * conteos a la mitad, de modo que las cuentas que dejan de usarse pierden peso
+ * en cada reinicio. Solo registra con el calentamiento habilitado.
+ */
+@Slf4j
+@Component
+public class AccessProfile {
+
+    private final boolean enabled;
+    private final Path file;
+    private final int maxAccounts;
+    private final Map<Integer, LongAdder> accesses = new ConcurrentHashMap<>();
+
+    public AccessProfile(@Value("${cuenta.calentamiento.habilitado:false}") boolean enabled,
+                         @Value("${cuenta.calentamiento.perfil.archivo:perfil-accesos.txt}") String file,
+                         @Value("${cuenta.calentamiento.perfil.max-cuentas:1000}") int maxAccounts) {
+        this.enabled = enabled;
+        this.file = Path.of(file);
+        this.maxAccounts = maxAccounts;
+        if (enabled) {
+            loadPrevious();
+        }
+    }
+
+    public void record(String numeroCuenta) {
+        try {
+            record(Integer.valueOf(numeroCuenta));
+        } catch (NumberFormatException e) {
+            // La validación del alta responde por el número de cuenta inválido
+        }
+    }
+
+    public void record(Integer numeroCuenta) {
+        if (enabled && numeroCuenta != null && (accesses.size() < maxAccounts * 4 || accesses.containsKey(numeroCuenta))) {
+            accesses.computeIfAbsent(numeroCuenta, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Cuentas del perfil de la más accedida a la menos, hasta {@code limit}.
+     */
+    public List<Integer> topAccounts(int limit) {
+        return ranked().stream().limit(limit).map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Escribe las cuentas más accedidas en un temporal y lo renombra sobre el perfil.
+     */
+    @Scheduled(fixedDelayString = "${cuenta.calentamiento.perfil.guardado-ms:300000}",
+            initialDelayString = "${cuenta.calentamiento.perfil.guardado-ms:300000}")
+    public synchronized void save() {
+        List<Map.Entry<Integer, Long>> top = ranked().stream().limit(maxAccounts).toList();
+        if (top.isEmpty()) {
+            return;
+        }
+        // Las cuentas fuera del perfil guardado no se siguen contando
+        if (accesses.size() > maxAccounts) {
+            List<Integer> kept = top.stream().map(Map.Entry::getKey).toList();
+            accesses.keySet().retainAll(kept);
+        }
+        Path temp = null;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "perfil-", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<Integer, Long> entry : top) {
+                    writer.write(entry.getKey() + " " + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el perfil de accesos {}: {}", file, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        save();
+    }
+
+    // Métodos privados auxiliares
+    private List<Map.Entry<Integer, Long>> ranked() {
+        List<Map.Entry<Integer, Long>> ranked = new ArrayList<>(accesses.size());
+        accesses.forEach((numeroCuenta, count) -> ranked.add(Map.entry(numeroCuenta, count.sum())));
+        ranked.sort(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder()));
+        return ranked;
+    }
+
+    private void loadPrevious() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 2) {
+                    long halved = Long.parseLong(fields[1]) / 2;
+                    if (halved > 0) {
+                        accesses.computeIfAbsent(Integer.valueOf(fields[0]), key -> new LongAdder()).add(halved);
+                    }
+                }
+            }
+            log.info("Perfil de accesos cargado de {}: {} cuentas", file, accesses.size());
+        } catch (IOException | NumberFormatException e) {
+            log.warn("No se pudo leer el perfil de accesos {}: {}", file, e.getMessage());
+            accesses.clear();
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el temporal {}: {}", path, e.getMessage());
+        }
+    }
+}
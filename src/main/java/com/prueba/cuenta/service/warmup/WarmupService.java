@@ -0,0 +1,209 @@
+package com.prueba.cuenta.service.warmup;
+
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.AccountService;
+import com.prueba.cuenta.service.MovementService;
+import com.prueba.cuenta.service.client.ClientBatchLoader;
+import com.prueba.cuenta.service.index.HotAccountIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Calentamiento de arranque. Corre como {@link ApplicationRunner}, antes de que
+ * Spring Boot publique {@link ReadinessState#ACCEPTING_TRAFFIC}, así que la
+ * sonda de readiness ({@code /actuator/health/readiness}) no responde UP hasta
+ * que termina:
+ * <ol>
+ *     <li>abre {@code cuenta.calentamiento.conexiones} conexiones del pool;</li>
+ *     <li>precarga las cuentas más accedidas según {@link AccessProfile}, en el
+ *     índice en memoria si está habilitado, y los nombres de sus clientes;</li>
+ *     <li>repite {@code cuenta.calentamiento.iteraciones} veces una mezcla de
+ *     lecturas (cuenta, saldo a fecha, historial y reporte) sobre esas cuentas
+ *     para compilar en el JIT los caminos calientes y llenar las cachés.</li>
+ * </ol>
+ * El tiempo total queda en la métrica {@code calentamiento.duracion}. Si una
+ * etapa falla o se supera {@code cuenta.calentamiento.timeout-ms}, se registra y
+ * la aplicación queda lista igual.
+ */
+@Slf4j
+@Component
+public class WarmupService implements ApplicationRunner {
+
+    private static final String WARMUP_UUID = "calentamiento";
+
+    private final DataSource dataSource;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final MovementService movementService;
+    private final ClientBatchLoader clientBatchLoader;
+    private final HotAccountIndex hotAccountIndex;
+    private final AccessProfile accessProfile;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer duration;
+
+    @Value("${cuenta.calentamiento.habilitado:false}")
+    private boolean enabled;
+
+    @Value("${cuenta.calentamiento.conexiones:10}")
+    private int connections;
+
+    @Value("${cuenta.calentamiento.cuentas:200}")
+    private int accounts;
+
+    @Value("${cuenta.calentamiento.iteraciones:2000}")
+    private int iterations;
+
+    @Value("${cuenta.calentamiento.timeout-ms:120000}")
+    private long timeoutMillis;
+
+    public WarmupService(DataSource dataSource,
+                         AccountRepository accountRepository,
+                         AccountService accountService,
+                         MovementService movementService,
+                         ClientBatchLoader clientBatchLoader,
+                         HotAccountIndex hotAccountIndex,
+                         AccessProfile accessProfile,
+                         ApplicationEventPublisher eventPublisher,
+                         MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.movementService = movementService;
+        this.clientBatchLoader = clientBatchLoader;
+        this.hotAccountIndex = hotAccountIndex;
+        this.accessProfile = accessProfile;
+        this.eventPublisher = eventPublisher;
+        this.duration = Timer.builder("calentamiento.duracion").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Ejecuta todas las etapas y devuelve su duración total.
+     */
+    public Duration warmUp() {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long started = System.nanoTime();
+        long deadline = started + timeoutMillis * 1_000_000;
+        MDC.put("uuid", WARMUP_UUID);
+        try {
+            int opened = openConnections();
+            log.info("Calentamiento: {} conexiones abiertas en {} ms", opened, elapsedMillis(started));
+
+            List<Account> hotAccounts = preloadAccounts(deadline);
+            log.info("Calentamiento: {} cuentas precargadas en {} ms", hotAccounts.size(), elapsedMillis(started));
+
+            int replayed = replay(hotAccounts, deadline);
+            log.info("Calentamiento: {} iteraciones de la mezcla de lecturas en {} ms", replayed, elapsedMillis(started));
+        } catch (RuntimeException e) {
+            log.warn("Calentamiento interrumpido: {}", e.getMessage());
+        } finally {
+            MDC.remove("uuid");
+        }
+        Duration total = Duration.ofNanos(System.nanoTime() - started);
+        duration.record(total);
+        log.info("Calentamiento terminado en {} ms", total.toMillis());
+        return total;
+    }
+
+    // Métodos privados auxiliares
+    private int openConnections() {
+        int target = connections;
+        if (dataSource instanceof HikariDataSource hikari) {
+            target = Math.min(target, hikari.getMaximumPoolSize());
+        }
+        // Se piden todas a la vez para que el pool cree cada una en vez de reutilizar la primera
+        List<Connection> open = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                open.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Calentamiento: no se pudieron abrir más conexiones: {}", e.getMessage());
+        } finally {
+            open.forEach(this::closeQuietly);
+        }
+        return open.size();
+    }
+
+    private List<Account> preloadAccounts(long deadline) {
+        List<Integer> profiled = accessProfile.topAccounts(accounts);
+        List<Account> hotAccounts = profiled.isEmpty()
+                // Sin perfil previo (primer despliegue) se toman las primeras cuentas
+                ? accountRepository.findAll(PageRequest.of(0, accounts, Sort.by("numeroCuenta"))).getContent()
+                : accountRepository.findAllById(profiled);
+
+        hotAccountIndex.loadDesignatedAccountsNow();
+        hotAccountIndex.preload(hotAccounts.stream().map(Account::getNumeroCuenta).toList());
+
+        List<Long> clientIds = hotAccounts.stream().map(Account::getClienteId).filter(Objects::nonNull).toList();
+        Long names = clientBatchLoader.preloadClientNames(clientIds).block(remaining(deadline));
+        log.info("Calentamiento: {} nombres de cliente precargados", names);
+        return hotAccounts;
+    }
+
+    private int replay(List<Account> hotAccounts, long deadline) {
+        if (hotAccounts.isEmpty()) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate reportStart = today.minusMonths(3).withDayOfMonth(1);
+        int completed = 0;
+        while (completed < iterations && System.nanoTime() - deadline < 0) {
+            Integer numeroCuenta = hotAccounts.get(completed % hotAccounts.size()).getNumeroCuenta();
+            switch (completed % 4) {
+                case 0 -> accountService.getAccountById(numeroCuenta).block(remaining(deadline));
+                case 1 -> accountService.getBalanceAt(numeroCuenta, today.minusDays(completed % 30)).block(remaining(deadline));
+                case 2 -> movementService.getMovementsByAccount(numeroCuenta).collectList().block(remaining(deadline));
+                default -> movementService.generateReport(numeroCuenta, reportStart, today).block(remaining(deadline));
+            }
+            completed++;
+        }
+        return completed;
+    }
+
+    private Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(1, deadline - System.nanoTime()));
+    }
+
+    private long elapsedMillis(long started) {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Calentamiento: no se pudo devolver una conexión al pool: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.prueba.cuenta.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Stub local del microservicio de clientes. Responde el mismo contrato que
+ * consume {@code ClientService} para que las pruebas de carga no dependan de
+ * un servicio externo.
+ */
+public class ClientServiceStub implements AutoCloseable {
+
+    private static final String BASE_PATH = "/api/clientes/";
+    private static final String IDENTIFICATION_PATH = BASE_PATH + "identificacion/";
+
+    private final HttpServer server;
+    private final long latencyMillis;
+
+    public ClientServiceStub(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext(BASE_PATH, this::handle);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public ClientServiceStub start() {
+        server.start();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        simulateLatency();
+        String path = exchange.getRequestURI().getPath();
+        String body;
+        if (path.startsWith(IDENTIFICATION_PATH)) {
+            String identification = path.substring(IDENTIFICATION_PATH.length());
+            body = clientJson(Long.parseLong(identification), identification);
+        } else {
+            long clientId = Long.parseLong(path.substring(BASE_PATH.length()));
+            body = clientJson(clientId, String.format("%010d", clientId));
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String clientJson(long clientId, String identification) {
+        return "{\"details\":{\"id\":" + clientId
+                + ",\"nombre\":\"Cliente " + clientId + "\""
+                + ",\"identificacion\":\"" + identification + "\""
+                + ",\"estado\":true},"
+                + "\"responseProcess\":{\"code\":\"200\",\"resultMessage\":\"Cliente encontrado\",\"technicalMessage\":\"OK\"}}";
+    }
+
+    private void simulateLatency() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.prueba.cuenta.perf;
+
+import java.util.Arrays;
+
+/**
+ * Acumula latencias en nanosegundos de una operación. Las muestras se guardan
+ * completas para calcular percentiles exactos al final de la corrida.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    public synchronized void recordSuccess(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    public synchronized Snapshot snapshot(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, errors, elapsedSeconds);
+    }
+
+    public static class Snapshot {
+        private final long[] sorted;
+        private final long errors;
+        private final double elapsedSeconds;
+
+        Snapshot(long[] sorted, long errors, double elapsedSeconds) {
+            this.sorted = sorted;
+            this.errors = errors;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+
+        public long total() {
+            return sorted.length + errors;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public double errorRatio() {
+            return total() == 0 ? 0 : (double) errors / total();
+        }
+
+        public double throughput() {
+            return elapsedSeconds <= 0 ? 0 : sorted.length / elapsedSeconds;
+        }
+
+        public double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+        }
+    }
+}
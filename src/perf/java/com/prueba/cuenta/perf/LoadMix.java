@@ -0,0 +1,60 @@
+package com.prueba.cuenta.perf;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Mezcla ponderada de operaciones, definida como
+ * {@code crearCuenta:1,movimiento:6,reporte:2,historial:1}.
+ */
+public class LoadMix {
+
+    private final LoadOperation[] operations;
+    private final double[] cumulativeWeights;
+
+    private LoadMix(Map<LoadOperation, Double> weights) {
+        this.operations = weights.keySet().toArray(new LoadOperation[0]);
+        this.cumulativeWeights = new double[operations.length];
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("La mezcla de carga debe tener al menos un peso positivo");
+        }
+        double accumulated = 0;
+        for (int i = 0; i < operations.length; i++) {
+            accumulated += weights.get(operations[i]) / total;
+            cumulativeWeights[i] = accumulated;
+        }
+    }
+
+    public static LoadMix parse(String definition) {
+        Map<LoadOperation, Double> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : definition.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada de mezcla inválida: " + entry);
+            }
+            weights.put(LoadOperation.fromKey(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+        return new LoadMix(weights);
+    }
+
+    public LoadOperation next(RandomGenerator random) {
+        double value = random.nextDouble();
+        for (int i = 0; i < operations.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    public boolean contains(LoadOperation operation) {
+        for (LoadOperation candidate : operations) {
+            if (candidate == operation) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
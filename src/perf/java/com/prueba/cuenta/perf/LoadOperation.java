@@ -0,0 +1,33 @@
+package com.prueba.cuenta.perf;
+
+public enum LoadOperation {
+    CREAR_CUENTA("crearCuenta", "POST /cuentas"),
+    MOVIMIENTO("movimiento", "POST /movimientos"),
+    REPORTE("reporte", "GET /movimientos/reporte"),
+    HISTORIAL("historial", "GET /movimientos/{cuentaId}");
+
+    private final String key;
+    private final String endpoint;
+
+    LoadOperation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public static LoadOperation fromKey(String key) {
+        for (LoadOperation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Operación de carga desconocida: " + key);
+    }
+}
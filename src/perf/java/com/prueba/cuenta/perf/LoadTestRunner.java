@@ -0,0 +1,229 @@
+package com.prueba.cuenta.perf;
+
+import com.prueba.cuenta.CuentaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de modelo abierto: las llegadas siguen un proceso de Poisson a
+ * la tasa configurada, independiente de lo que tarden las respuestas, y la
+ * latencia se mide desde el instante programado de cada llegada.
+ *
+ * <p>Se ejecuta con {@code mvn -Pperf verify}. Parámetros (propiedades de sistema):
+ * {@code load.rate}, {@code load.duration}, {@code load.warmup}, {@code load.accounts},
+ * {@code load.mix}, {@code load.maxInFlight}, {@code load.stubLatency}.
+ */
+public class LoadTestRunner {
+
+    private static final int FIRST_ACCOUNT_NUMBER = 100_000;
+    private static final int FIRST_NEW_ACCOUNT_NUMBER = 50_000_000;
+
+    private final double rate;
+    private final long durationSeconds;
+    private final long warmupSeconds;
+    private final int seededAccounts;
+    private final LoadMix mix;
+    private final Semaphore inFlight;
+
+    private final AtomicInteger nextAccountNumber = new AtomicInteger(FIRST_NEW_ACCOUNT_NUMBER);
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private String baseUrl;
+
+    public LoadTestRunner() {
+        this.rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+        this.durationSeconds = Long.getLong("load.duration", 60);
+        this.warmupSeconds = Long.getLong("load.warmup", 15);
+        this.seededAccounts = Integer.getInteger("load.accounts", 200);
+        this.mix = LoadMix.parse(System.getProperty("load.mix",
+                "crearCuenta:1,movimiento:6,reporte:2,historial:1"));
+        this.inFlight = new Semaphore(Integer.getInteger("load.maxInFlight", 5_000));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run();
+    }
+
+    public void run() throws Exception {
+        try (ClientServiceStub stub = new ClientServiceStub(Long.getLong("load.stubLatency", 2)).start();
+             ConfigurableApplicationContext context = startApplication(stub.baseUrl())) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+
+            seedAccounts();
+            System.out.printf("Calentamiento: %d s a %.0f req/s%n", warmupSeconds, rate);
+            drive(warmupSeconds, newRecorders());
+
+            System.out.printf("Medición: %d s a %.0f req/s%n", durationSeconds, rate);
+            Map<LoadOperation, LatencyRecorder> recorders = newRecorders();
+            long started = System.nanoTime();
+            drive(durationSeconds, recorders);
+            double elapsed = (System.nanoTime() - started) / 1_000_000_000.0;
+
+            Map<LoadOperation, LatencyRecorder.Snapshot> results = new EnumMap<>(LoadOperation.class);
+            recorders.forEach((operation, recorder) -> {
+                if (mix.contains(operation)) {
+                    results.put(operation, recorder.snapshot(elapsed));
+                }
+            });
+            printReport(results);
+
+            List<String> violations = new SloGate().evaluate(results);
+            if (!violations.isEmpty()) {
+                violations.forEach(violation -> System.out.println("SLO INCUMPLIDO: " + violation));
+                throw new IllegalStateException(violations.size() + " SLO incumplidos");
+            }
+            System.out.println("Todos los SLO se cumplen");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(String clientServiceUrl) {
+        return new SpringApplicationBuilder(CuentaApplication.class)
+                .profiles("perf")
+                .properties("server.port=0", "url.serviciocliente=" + clientServiceUrl)
+                .run();
+    }
+
+    private void seedAccounts() {
+        System.out.printf("Creando %d cuentas base%n", seededAccounts);
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[seededAccounts];
+        for (int i = 0; i < seededAccounts; i++) {
+            requests[i] = send(accountRequest(FIRST_ACCOUNT_NUMBER + i, "1000000.00"))
+                    .thenAccept(response -> {
+                        if (response.statusCode() / 100 != 2) {
+                            throw new IllegalStateException("No se pudo crear la cuenta base: " + response.body());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(requests).join();
+    }
+
+    private void drive(long seconds, Map<LoadOperation, LatencyRecorder> recorders) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        double meanIntervalNanos = 1_000_000_000.0 / rate;
+        long intended = start;
+
+        while (intended < end) {
+            intended += (long) (-Math.log(1.0 - random.nextDouble()) * meanIntervalNanos);
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadOperation operation = mix.next(random);
+            LatencyRecorder recorder = recorders.get(operation);
+            if (!inFlight.tryAcquire()) {
+                recorder.recordError();
+                continue;
+            }
+            long scheduledAt = intended;
+            send(buildRequest(operation)).whenComplete((response, error) -> {
+                inFlight.release();
+                if (error == null && response.statusCode() / 100 == 2) {
+                    recorder.recordSuccess(System.nanoTime() - scheduledAt);
+                } else {
+                    recorder.recordError();
+                }
+            });
+        }
+        // Esperar a que terminen las solicitudes pendientes de esta fase
+        int permits = Integer.getInteger("load.maxInFlight", 5_000);
+        if (inFlight.tryAcquire(permits, 60, TimeUnit.SECONDS)) {
+            inFlight.release(permits);
+        }
+    }
+
+    private HttpRequest buildRequest(LoadOperation operation) {
+        int account = FIRST_ACCOUNT_NUMBER + random.nextInt(seededAccounts);
+        return switch (operation) {
+            case CREAR_CUENTA -> accountRequest(nextAccountNumber.getAndIncrement(), "100.00");
+            case MOVIMIENTO -> movementRequest(account, random.nextInt(4) == 0 ? "-5.00" : "10.00");
+            case REPORTE -> get("/movimientos/reporte?cuentaId=" + account
+                    + "&startDate=" + LocalDate.now().minusDays(30)
+                    + "&endDate=" + LocalDate.now());
+            case HISTORIAL -> get("/movimientos/" + account);
+        };
+    }
+
+    private HttpRequest accountRequest(int accountNumber, String initialBalance) {
+        String body = "{\"numeroCuenta\":\"" + accountNumber + "\","
+                + "\"tipoCuenta\":\"AHORROS\","
+                + "\"saldoInicial\":" + initialBalance + ","
+                + "\"estado\":\"true\","
+                + "\"identificacion\":\"" + String.format("%010d", 1_000_000_000L + accountNumber) + "\"}";
+        return post("/cuentas", body);
+    }
+
+    private HttpRequest movementRequest(int accountNumber, String amount) {
+        String body = "{\"fecha\":\"" + LocalDate.now() + "\","
+                + "\"valor\":" + amount + ","
+                + "\"cuentaId\":\"" + accountNumber + "\"}";
+        return post("/movimientos", body);
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Map<LoadOperation, LatencyRecorder> newRecorders() {
+        Map<LoadOperation, LatencyRecorder> recorders = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    private void printReport(Map<LoadOperation, LatencyRecorder.Snapshot> results) {
+        System.out.printf("%-30s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "total", "errores");
+        results.forEach((operation, snapshot) -> System.out.printf("%-30s %10.1f %10.2f %10.2f %10.2f %10d %10d%n",
+                operation.getEndpoint(),
+                snapshot.throughput(),
+                snapshot.percentileMillis(50),
+                snapshot.percentileMillis(99),
+                snapshot.percentileMillis(99.9),
+                snapshot.total(),
+                snapshot.errors()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.prueba.cuenta.perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.prueba.cuenta.dto.MovementCommandDTO;
+import com.prueba.cuenta.dto.MovementDTO;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compara tamaño y tiempo de lectura de los cuerpos de movimientos y reportes
+ * en JSON, CBOR y Smile. Para el alta, JSON incluye la validación por expresión
+ * regular y la conversión de texto de {@link MovementDTO}; los formatos binarios
+ * leen {@link MovementCommandDTO} ya tipado y solo aplican su validación.
+ *
+ * <p>Se ejecuta desde el perfil {@code perf}:
+ * {@code mvn -Pperf test-compile exec:java@codec-benchmark -Dcodec.iterations=200000}.
+ */
+public class MovementCodecBenchmark {
+
+    private static final TypeReference<List<MovementReportDTO>> REPORT_TYPE = new TypeReference<>() {
+    };
+
+    private final int iterations;
+    private final int reportRows;
+    private final ObjectMapper json = mapper(new ObjectMapper());
+    private final ObjectMapper cbor = mapper(new ObjectMapper(new CBORFactory()));
+    private final ObjectMapper smile = mapper(new ObjectMapper(new SmileFactory()));
+
+    public MovementCodecBenchmark() {
+        this.iterations = Integer.getInteger("codec.iterations", 200_000);
+        this.reportRows = Integer.getInteger("codec.reportRows", 500);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new MovementCodecBenchmark().run();
+    }
+
+    public void run() throws Exception {
+        try (ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            Validator validator = validatorFactory.getValidator();
+
+            MovementDTO movement = new MovementDTO();
+            movement.setFecha("2024-05-10");
+            movement.setValor(new BigDecimal("-125.50"));
+            movement.setCuentaId("478758");
+            MovementCommandDTO command = new MovementCommandDTO(LocalDate.of(2024, 5, 10), new BigDecimal("-125.50"), 478758);
+
+            byte[] jsonMovement = json.writeValueAsBytes(movement);
+            byte[] cborMovement = cbor.writeValueAsBytes(command);
+            byte[] smileMovement = smile.writeValueAsBytes(command);
+
+            List<Measurement> results = new ArrayList<>();
+            results.add(measure("movimiento", "json", jsonMovement, body -> {
+                MovementDTO dto = read(json, body, MovementDTO.class);
+                requireValid(validator.validate(dto).isEmpty());
+                return new MovementCommandDTO(LocalDate.parse(dto.getFecha()), dto.getValor(), Integer.valueOf(dto.getCuentaId()));
+            }));
+            results.add(measure("movimiento", "cbor", cborMovement, body -> validated(validator, read(cbor, body, MovementCommandDTO.class))));
+            results.add(measure("movimiento", "smile", smileMovement, body -> validated(validator, read(smile, body, MovementCommandDTO.class))));
+
+            List<MovementReportDTO> report = report();
+            int reportIterations = Math.max(1, iterations / reportRows);
+            results.add(measure("reporte", "json", json.writeValueAsBytes(report), reportIterations, body -> read(json, body, REPORT_TYPE)));
+            results.add(measure("reporte", "cbor", cbor.writeValueAsBytes(report), reportIterations, body -> read(cbor, body, REPORT_TYPE)));
+            results.add(measure("reporte", "smile", smile.writeValueAsBytes(report), reportIterations, body -> read(smile, body, REPORT_TYPE)));
+
+            System.out.printf("%-12s %-8s %12s %15s%n", "cuerpo", "formato", "bytes", "lectura µs");
+            results.forEach(Measurement::print);
+        }
+    }
+
+    // Métodos privados auxiliares
+    private Measurement measure(String body, String format, byte[] payload, Function<byte[], Object> reader) {
+        return measure(body, format, payload, iterations, reader);
+    }
+
+    private Measurement measure(String body, String format, byte[] payload, int runs, Function<byte[], Object> reader) {
+        Object sink = null;
+        // Calentamiento para que el JIT compile la ruta de lectura antes de medir
+        for (int i = 0; i < runs; i++) {
+            sink = reader.apply(payload);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            sink = reader.apply(payload);
+        }
+        long elapsed = System.nanoTime() - started;
+        if (sink == null) {
+            throw new IllegalStateException("Lectura vacía de " + body + " en " + format);
+        }
+        return new Measurement(body, format, payload.length, elapsed / 1000.0 / runs);
+    }
+
+    private List<MovementReportDTO> report() {
+        List<MovementReportDTO> rows = new ArrayList<>(reportRows);
+        BigDecimal balance = new BigDecimal("1000.00");
+        for (int i = 0; i < reportRows; i++) {
+            BigDecimal amount = new BigDecimal(i % 2 == 0 ? "150.25" : "-75.10");
+            MovementReportDTO row = new MovementReportDTO();
+            row.setFecha(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            row.setCliente("Jose Lema");
+            row.setNumeroCuenta("478758");
+            row.setTipo("AHORROS");
+            row.setSaldoInicial(balance);
+            row.setEstado(true);
+            row.setMovimiento(amount);
+            balance = balance.add(amount);
+            row.setSaldoDisponible(balance);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static MovementCommandDTO validated(Validator validator, MovementCommandDTO command) {
+        requireValid(validator.validate(command).isEmpty());
+        return command;
+    }
+
+    private static void requireValid(boolean valid) {
+        if (!valid) {
+            throw new IllegalStateException("Cuerpo de prueba inválido");
+        }
+    }
+
+    private static <T> T read(ObjectMapper mapper, byte[] body, Class<T> type) {
+        try {
+            return mapper.readValue(body, type);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T read(ObjectMapper mapper, byte[] body, TypeReference<T> type) {
+        try {
+            return mapper.readValue(body, type);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        // Igual que Spring Boot: módulos de fechas registrados y fechas como texto salvo @JsonFormat
+        return mapper.findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private record Measurement(String body, String format, int bytes, double micros) {
+
+        void print() {
+            System.out.printf("%-12s %-8s %12d %15.3f%n", body, format, bytes, micros);
+        }
+    }
+}
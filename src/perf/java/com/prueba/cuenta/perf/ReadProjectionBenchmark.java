@@ -0,0 +1,158 @@
+package com.prueba.cuenta.perf;
+
+import com.prueba.cuenta.CuentaApplication;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compara las lecturas de movimientos que cargan entidades administradas con
+ * las consultas de proyección de {@link MovementRepository}: tiempo por
+ * consulta y entidades que quedan en el contexto de persistencia.
+ *
+ * <p>Se ejecuta desde el perfil {@code perf}:
+ * {@code mvn -Pperf test-compile exec:java@projection-benchmark -Dprojection.movements=20000}.
+ */
+public class ReadProjectionBenchmark {
+
+    private static final int ACCOUNT_NUMBER = 900_000;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    private final int movements;
+    private final int iterations;
+
+    public ReadProjectionBenchmark() {
+        this.movements = Integer.getInteger("projection.movements", 20_000);
+        this.iterations = Integer.getInteger("projection.iterations", 50);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ReadProjectionBenchmark().run();
+    }
+
+    public void run() throws Exception {
+        try (ClientServiceStub stub = new ClientServiceStub(0).start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(CuentaApplication.class)
+                     .profiles("perf")
+                     .properties("server.port=0", "url.serviciocliente=" + stub.baseUrl())
+                     .run()) {
+            MovementRepository movementRepository = context.getBean(MovementRepository.class);
+            EntityManager entityManager = context.getBean(EntityManager.class);
+            TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            readOnly.setReadOnly(true);
+
+            seed(context.getBean(AccountRepository.class), movementRepository);
+            LocalDate to = FIRST_DATE.plusDays(364);
+
+            List<Measurement> results = new ArrayList<>();
+            results.add(measure("reporte", "entidades", readOnly, entityManager, () ->
+                    entityManager.createQuery("select m from Movement m where m.cuenta.numeroCuenta = :cuenta " +
+                                    "and m.fecha between :desde and :hasta", Movement.class)
+                            .setParameter("cuenta", ACCOUNT_NUMBER)
+                            .setParameter("desde", FIRST_DATE)
+                            .setParameter("hasta", to)
+                            .getResultList().stream()
+                            .map(this::toReportRow)
+                            .toList()));
+            results.add(measure("reporte", "proyeccion", readOnly, entityManager, () ->
+                    movementRepository.findReportRows(ACCOUNT_NUMBER, FIRST_DATE, to)));
+            results.add(measure("historial", "entidades", readOnly, entityManager, () ->
+                    entityManager.createQuery("select m from Movement m where m.cuenta.numeroCuenta = :cuenta", Movement.class)
+                            .setParameter("cuenta", ACCOUNT_NUMBER)
+                            .getResultList()));
+            results.add(measure("historial", "proyeccion", readOnly, entityManager, () ->
+                    movementRepository.findRowsByCuenta(ACCOUNT_NUMBER)));
+
+            System.out.printf("%-10s %-12s %8s %14s %22s%n", "lectura", "modo", "filas", "ms por lectura", "entidades en contexto");
+            results.forEach(Measurement::print);
+        }
+    }
+
+    // Métodos privados auxiliares
+    private void seed(AccountRepository accountRepository, MovementRepository movementRepository) {
+        Account account = new Account();
+        account.setNumeroCuenta(ACCOUNT_NUMBER);
+        account.setTipoCuenta(AccountType.AHORROS);
+        account.setSaldo(BigDecimal.ZERO);
+        account.setStatus(true);
+        account.setClienteId(1L);
+        account = accountRepository.save(account);
+
+        System.out.printf("Creando %d movimientos%n", movements);
+        BigDecimal balance = BigDecimal.ZERO;
+        List<Movement> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < movements; i++) {
+            BigDecimal amount = new BigDecimal(i % 3 == 0 ? "-20.00" : "50.00");
+            balance = balance.add(amount);
+            Movement movement = new Movement();
+            movement.setId("bench-" + i);
+            movement.setFecha(FIRST_DATE.plusDays(i % 365));
+            movement.setTipoMovimiento(amount.signum() > 0 ? MovementType.DEPOSITO : MovementType.RETIRO);
+            movement.setValor(amount);
+            movement.setSaldo(balance);
+            movement.setCuenta(account);
+            batch.add(movement);
+            if (batch.size() == 1_000) {
+                movementRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        movementRepository.saveAll(batch);
+    }
+
+    private Measurement measure(String read, String mode, TransactionTemplate readOnly, EntityManager entityManager,
+                                Supplier<List<?>> query) {
+        // Calentamiento para que el JIT y la caché de planes de Hibernate estén listos
+        for (int i = 0; i < Math.max(1, iterations / 5); i++) {
+            readOnly.execute(status -> query.get());
+        }
+        long[] managed = new long[1];
+        int[] rows = new int[1];
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            readOnly.execute(status -> {
+                rows[0] = query.get().size();
+                managed[0] = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+                return null;
+            });
+        }
+        double millis = (System.nanoTime() - started) / 1_000_000.0 / iterations;
+        return new Measurement(read, mode, rows[0], millis, managed[0]);
+    }
+
+    private MovementReportDTO toReportRow(Movement movement) {
+        // Igual que el mapeo anterior: recorre el proxy de la cuenta en cada fila
+        MovementReportDTO dto = new MovementReportDTO();
+        dto.setFecha(movement.getFecha());
+        dto.setNumeroCuenta(movement.getCuenta().getNumeroCuenta().toString());
+        dto.setTipo(movement.getCuenta().getTipoCuenta().toString());
+        dto.setSaldoInicial(movement.getSaldo().subtract(movement.getValor()));
+        dto.setEstado(movement.getCuenta().isStatus());
+        dto.setMovimiento(movement.getValor());
+        dto.setSaldoDisponible(movement.getSaldo());
+        return dto;
+    }
+
+    private record Measurement(String read, String mode, int rows, double millis, long managedEntities) {
+
+        void print() {
+            System.out.printf("%-10s %-12s %8d %14.3f %22d%n", read, mode, rows, millis, managedEntities);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.prueba.cuenta.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Umbrales de latencia por operación cargados de {@code slo.properties}.
+ * Cualquier clave puede sobrescribirse con una propiedad de sistema
+ * {@code -Dslo.<operacion>.<metrica>=valor}.
+ */
+public class SloGate {
+
+    private static final String RESOURCE = "slo.properties";
+
+    private final Properties thresholds = new Properties();
+
+    public SloGate() throws IOException {
+        try (InputStream in = SloGate.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                thresholds.load(in);
+            }
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("slo."))
+                .forEach(name -> thresholds.setProperty(name.substring(4), System.getProperty(name)));
+    }
+
+    public List<String> evaluate(Map<LoadOperation, LatencyRecorder.Snapshot> results) {
+        List<String> violations = new ArrayList<>();
+        results.forEach((operation, snapshot) -> {
+            checkLatency(violations, operation, snapshot, "p50", 50.0);
+            checkLatency(violations, operation, snapshot, "p99", 99.0);
+            checkLatency(violations, operation, snapshot, "p999", 99.9);
+            String maxErrors = thresholds.getProperty(operation.getKey() + ".errores");
+            if (maxErrors != null && snapshot.errorRatio() > Double.parseDouble(maxErrors)) {
+                violations.add(String.format("%s: tasa de error %.4f supera %s",
+                        operation.getEndpoint(), snapshot.errorRatio(), maxErrors));
+            }
+        });
+        return violations;
+    }
+
+    private void checkLatency(List<String> violations, LoadOperation operation,
+                              LatencyRecorder.Snapshot snapshot, String metric, double percentile) {
+        String limit = thresholds.getProperty(operation.getKey() + "." + metric);
+        if (limit == null) {
+            return;
+        }
+        double observed = snapshot.percentileMillis(percentile);
+        if (observed > Double.parseDouble(limit)) {
+            violations.add(String.format("%s: %s=%.2f ms supera el SLO de %s ms",
+                    operation.getEndpoint(), metric, observed, limit));
+        }
+    }
+}
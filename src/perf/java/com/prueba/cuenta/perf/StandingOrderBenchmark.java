@@ -0,0 +1,186 @@
+package com.prueba.cuenta.perf;
+
+import com.prueba.cuenta.CuentaApplication;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.entity.StandingOrder;
+import com.prueba.cuenta.entity.StandingOrderFrequency;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.StandingOrderRepository;
+import com.prueba.cuenta.service.standing.StandingOrderScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Órdenes permanentes que vencen a ritmo constante, para medir si el
+ * planificador se mantiene al día: con los valores por defecto vencen 100.000
+ * órdenes repartidas en 6 minutos, el mismo ritmo que un millón por hora.
+ * Informa ejecuciones por segundo, retraso p50/p99/máximo respecto de la hora
+ * programada y el máximo de órdenes vencidas sin ejecutar.
+ *
+ * <p>Se ejecuta desde el perfil {@code perf}:
+ * {@code mvn -Pperf test-compile exec:java@standing-order-benchmark -Dordenes.total=100000 -Dordenes.minutos=6}.
+ */
+public class StandingOrderBenchmark {
+
+    private static final int FIRST_ACCOUNT = 900_000;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+    private static final int SAVE_BATCH = 5_000;
+
+    private final int total;
+    private final int minutes;
+    private final int accounts;
+    private final int transferPercent;
+    private final int startDelaySeconds;
+
+    public StandingOrderBenchmark() {
+        this.total = Integer.getInteger("ordenes.total", 100_000);
+        this.minutes = Integer.getInteger("ordenes.minutos", 6);
+        this.accounts = Math.max(2, Integer.getInteger("ordenes.cuentas", 10_000));
+        this.transferPercent = Integer.getInteger("ordenes.transferencias", 10);
+        this.startDelaySeconds = Integer.getInteger("ordenes.retardo-segundos", 30);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new StandingOrderBenchmark().run();
+    }
+
+    public void run() throws Exception {
+        try (ClientServiceStub stub = new ClientServiceStub(0).start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(CuentaApplication.class)
+                     .profiles("perf")
+                     .properties("server.port=0", "url.serviciocliente=" + stub.baseUrl(),
+                             "cuenta.ordenes.habilitado=true",
+                             "cuenta.ordenes.hilos=" + Integer.getInteger("ordenes.hilos", 4),
+                             "cuenta.ordenes.ventana-ms=60000", "cuenta.ordenes.carga-ms=30000")
+                     .run()) {
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            StandingOrderRepository standingOrderRepository = context.getBean(StandingOrderRepository.class);
+            StandingOrderScheduler scheduler = context.getBean(StandingOrderScheduler.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            seedAccounts(accountRepository);
+
+            // Las órdenes vencen a partir de un retardo fijo, para que la carga inicial no cuente como atraso
+            long windowMillis = minutes * 60_000L;
+            Instant start = Instant.now().plusSeconds(startDelaySeconds);
+            long[] dueMillis = new long[total];
+            for (int i = 0; i < total; i++) {
+                dueMillis[i] = start.toEpochMilli() + windowMillis * i / total;
+            }
+            seedOrders(standingOrderRepository, scheduler, dueMillis);
+            System.out.printf("%d órdenes en %d cuentas (%d%% transferencias) venciendo en %d minutos: %.0f por hora%n",
+                    total, accounts, transferPercent, minutes, total * 60.0 / minutes);
+            if (Instant.now().isAfter(start)) {
+                System.out.println("Aviso: la carga de datos terminó después del primer vencimiento; aumente ordenes.retardo-segundos");
+            }
+
+            Counter executed = meterRegistry.get("ordenes.ejecutadas").counter();
+            Counter failures = meterRegistry.get("ordenes.fallos").counter();
+            long deadline = start.toEpochMilli() + windowMillis + 120_000;
+            long maxPending = 0;
+            long finished = 0;
+            while (System.currentTimeMillis() < deadline) {
+                long now = System.currentTimeMillis();
+                long due = upperBound(dueMillis, now);
+                long done = (long) executed.count();
+                maxPending = Math.max(maxPending, due - done);
+                if (done >= total) {
+                    finished = now;
+                    break;
+                }
+                Thread.sleep(500);
+            }
+
+            long done = (long) executed.count();
+            double seconds = ((finished == 0 ? System.currentTimeMillis() : finished) - start.toEpochMilli()) / 1e3;
+            Timer lag = meterRegistry.get("ordenes.retraso").timer();
+            System.out.printf("%d de %d ejecutadas, %.0f ejecuciones/s (%d fallos)%n", done, total, done / seconds,
+                    (long) failures.count());
+            System.out.printf("Retraso: p50 %s ms, p99 %s ms, máx %.0f ms%n", percentile(lag, 0.5), percentile(lag, 0.99),
+                    lag.max(TimeUnit.MILLISECONDS));
+            System.out.printf("Máximo de órdenes vencidas sin ejecutar: %d. %s%n", maxPending,
+                    done >= total ? "Se mantuvo al día." : "No alcanzó a ejecutar todas en el plazo.");
+        }
+    }
+
+    // Métodos privados auxiliares
+    private void seedAccounts(AccountRepository accountRepository) {
+        List<Account> created = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setNumeroCuenta(FIRST_ACCOUNT + i);
+            account.setTipoCuenta(AccountType.CORRIENTE);
+            account.setSaldo(OPENING_BALANCE);
+            account.setStatus(true);
+            account.setClienteId(1L);
+            created.add(account);
+        }
+        accountRepository.saveAll(created);
+    }
+
+    private void seedOrders(StandingOrderRepository standingOrderRepository, StandingOrderScheduler scheduler, long[] dueMillis) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<StandingOrder> batch = new ArrayList<>(SAVE_BATCH);
+        for (long due : dueMillis) {
+            int account = FIRST_ACCOUNT + random.nextInt(accounts);
+            StandingOrder order = new StandingOrder();
+            order.setNumeroCuenta(account);
+            if (random.nextInt(100) < transferPercent) {
+                order.setCuentaDestino(FIRST_ACCOUNT + (account - FIRST_ACCOUNT + 1 + random.nextInt(accounts - 1)) % accounts);
+                order.setValor(BigDecimal.valueOf(1 + random.nextInt(10_000), 2));
+            } else {
+                order.setValor(BigDecimal.valueOf(random.nextInt(-10_000, 10_000) | 1, 2));
+            }
+            order.setFrecuencia(StandingOrderFrequency.DIARIA);
+            order.setPrimeraEjecucion(LocalDateTime.ofInstant(Instant.ofEpochMilli(due), ZoneId.systemDefault()));
+            order.setProximaEjecucion(Instant.ofEpochMilli(due));
+            order.setActiva(true);
+            batch.add(order);
+            if (batch.size() == SAVE_BATCH) {
+                saveBatch(standingOrderRepository, scheduler, batch);
+            }
+        }
+        saveBatch(standingOrderRepository, scheduler, batch);
+    }
+
+    private void saveBatch(StandingOrderRepository standingOrderRepository, StandingOrderScheduler scheduler,
+                           List<StandingOrder> batch) {
+        // Igual que el alta por la API: lo que vence dentro de lo ya cargado entra directo a la rueda
+        standingOrderRepository.saveAll(batch).forEach(scheduler::scheduleIfLoaded);
+        batch.clear();
+    }
+
+    private long upperBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index < sorted.length && sorted[index] == value) {
+            index++;
+        }
+        return index;
+    }
+
+    private String percentile(Timer timer, double quantile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == quantile) {
+                return String.format("%.0f", value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return "-";
+    }
+}
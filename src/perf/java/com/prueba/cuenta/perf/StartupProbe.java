@@ -0,0 +1,176 @@
+package com.prueba.cuenta.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el tiempo de arranque y el tiempo hasta la primera solicitud exitosa del
+ * jar empaquetado, comparando el arranque normal con el arranque AOT + CDS.
+ *
+ * <p>Se ejecuta desde el perfil {@code fast-startup}. Si se define
+ * {@code startup.maxFirstRequestMillis}, la corrida falla cuando el modo
+ * optimizado lo supera.
+ */
+public class StartupProbe {
+
+    private static final String STARTED_MARKER = "Started CuentaApplication";
+    private static final long TIMEOUT_MILLIS = 120_000;
+
+    private final String jar;
+    private final String cdsArchive;
+    private final String profiles;
+    private final String databaseDriverJar;
+    private final int runs;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public StartupProbe() {
+        this.jar = System.getProperty("startup.jar");
+        this.cdsArchive = System.getProperty("startup.cdsArchive");
+        this.profiles = System.getProperty("startup.profiles", "prod");
+        this.databaseDriverJar = System.getProperty("startup.databaseDriverJar");
+        this.runs = Integer.getInteger("startup.runs", 3);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new StartupProbe().run();
+    }
+
+    public void run() throws Exception {
+        try (ClientServiceStub stub = new ClientServiceStub(0).start()) {
+            Measurement standard = measure("jar", List.of("-Dspring.aot.enabled=false"), stub.baseUrl());
+            Measurement optimized = measure("aot+cds",
+                    List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Dspring.aot.enabled=true"), stub.baseUrl());
+
+            System.out.printf("%-10s %15s %25s%n", "modo", "arranque ms", "primera solicitud ms");
+            standard.print();
+            optimized.print();
+
+            Long maxFirstRequest = Long.getLong("startup.maxFirstRequestMillis");
+            if (maxFirstRequest != null && optimized.firstRequestMillis > maxFirstRequest) {
+                throw new IllegalStateException(String.format(
+                        "Primera solicitud en %d ms supera el máximo de %d ms",
+                        optimized.firstRequestMillis, maxFirstRequest));
+            }
+        }
+    }
+
+    private Measurement measure(String mode, List<String> jvmOptions, String clientServiceUrl) throws Exception {
+        long[] startup = new long[runs];
+        long[] firstRequest = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] result = launchOnce(jvmOptions, clientServiceUrl);
+            startup[i] = result[0];
+            firstRequest[i] = result[1];
+        }
+        return new Measurement(mode, median(startup), median(firstRequest));
+    }
+
+    private long[] launchOnce(List<String> jvmOptions, String clientServiceUrl) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-Dspring.profiles.active=" + profiles);
+        command.add("-Dserver.port=" + port);
+        command.add("-Durl.serviciocliente=" + clientServiceUrl);
+        command.add("-Dspring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1");
+        command.add("-Dspring.datasource.driver-class-name=org.h2.Driver");
+        command.add("-Dspring.datasource.username=sa");
+        command.add("-Dspring.datasource.password=");
+        command.add("-Dspring.jpa.hibernate.ddl-auto=create-drop");
+        command.add("-Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        command.add("-cp");
+        command.add(jar + File.pathSeparator + databaseDriverJar);
+        command.add("com.prueba.cuenta.CuentaApplication");
+
+        long launchedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            CompletableFuture<Long> started = watchForStartup(process, launchedAt);
+            long firstRequest = awaitFirstSuccessfulRequest(port, launchedAt);
+            long startup = started.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return new long[]{startup, firstRequest};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private CompletableFuture<Long> watchForStartup(Process process, long launchedAt) {
+        CompletableFuture<Long> started = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!started.isDone() && line.contains(STARTED_MARKER)) {
+                        started.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launchedAt));
+                    }
+                }
+                started.completeExceptionally(new IllegalStateException("La aplicación terminó sin arrancar"));
+            } catch (IOException e) {
+                started.completeExceptionally(e);
+            }
+        });
+        return started;
+    }
+
+    private long awaitFirstSuccessfulRequest(int port, long launchedAt) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/cuentas"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = launchedAt + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 == 2) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launchedAt);
+                }
+            } catch (ConnectException e) {
+                // El servidor todavía no escucha
+            } catch (IOException e) {
+                // Reintentar hasta el límite de tiempo
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No hubo una solicitud exitosa en " + TIMEOUT_MILLIS + " ms");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Measurement(String mode, long startupMillis, long firstRequestMillis) {
+        void print() {
+            System.out.printf("%-10s %15d %25d%n", mode, startupMillis, firstRequestMillis);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.prueba.cuenta.perf;
+
+import com.prueba.cuenta.CuentaApplication;
+import com.prueba.cuenta.dto.ReconciliationSummaryDTO;
+import com.prueba.cuenta.dto.TransferDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.reconciliation.LedgerReconciliationService;
+import com.prueba.cuenta.service.transfer.TransferService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import org.slf4j.MDC;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transferencias concurrentes entre pocas cuentas calientes, en ambos
+ * sentidos, para medir el costo de los bloqueos ordenados: throughput,
+ * latencias y errores distintos de saldo insuficiente (interbloqueos o
+ * tiempos de espera de bloqueo, que deberían ser cero). Al terminar verifica
+ * que la suma de saldos no cambió y concilia el libro.
+ *
+ * <p>Se ejecuta desde el perfil {@code perf}:
+ * {@code mvn -Pperf test-compile exec:java@transfer-benchmark -Dtransfer.accounts=8 -Dtransfer.threads=32}.
+ */
+public class TransferContentionBenchmark {
+
+    private static final int FIRST_ACCOUNT = 800_000;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.00");
+
+    private final int accounts;
+    private final int threads;
+    private final int transfersPerThread;
+
+    public TransferContentionBenchmark() {
+        this.accounts = Math.max(2, Integer.getInteger("transfer.accounts", 8));
+        this.threads = Integer.getInteger("transfer.threads", 32);
+        this.transfersPerThread = Integer.getInteger("transfer.per-thread", 500);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new TransferContentionBenchmark().run();
+    }
+
+    public void run() throws Exception {
+        String reportDirectory = Files.createTempDirectory("conciliacion-bench").toString();
+        try (ClientServiceStub stub = new ClientServiceStub(0).start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(CuentaApplication.class)
+                     .profiles("perf")
+                     .properties("server.port=0", "url.serviciocliente=" + stub.baseUrl(),
+                             "cuenta.conciliacion.directorio=" + reportDirectory)
+                     .run()) {
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            TransferService transferService = context.getBean(TransferService.class);
+            seed(accountRepository);
+
+            System.out.printf("%d hilos, %d transferencias por hilo entre %d cuentas%n", threads, transfersPerThread, accounts);
+            long[] latencies = new long[threads * transfersPerThread];
+            AtomicLong insufficient = new AtomicLong();
+            ConcurrentHashMap<String, AtomicLong> failures = new ConcurrentHashMap<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * transfersPerThread;
+                workers.add(Thread.ofPlatform().name("transferencia-" + t).start(() -> {
+                    awaitQuietly(start);
+                    for (int i = 0; i < transfersPerThread; i++) {
+                        latencies[offset + i] = transferOnce(transferService, insufficient, failures);
+                    }
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%.0f transferencias/s, p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                    latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6);
+            System.out.printf("Rechazadas por saldo: %d. Otros errores: %s%n", insufficient.get(),
+                    failures.isEmpty() ? "ninguno" : failures);
+
+            BigDecimal total = accountRepository.findAllById(accountNumbers()).stream()
+                    .map(Account::getSaldo)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal expected = OPENING_BALANCE.multiply(BigDecimal.valueOf(accounts));
+            System.out.printf("Suma de saldos: %s (esperada %s)%n", total, expected);
+
+            ReconciliationSummaryDTO reconciliation = context.getBean(LedgerReconciliationService.class).reconcile();
+            System.out.printf("Conciliación: %d movimientos, %d discrepancias%n",
+                    reconciliation.getMovimientos(), reconciliation.getDiscrepancias());
+        }
+    }
+
+    // Métodos privados auxiliares
+    private void seed(AccountRepository accountRepository) {
+        List<Account> created = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setNumeroCuenta(FIRST_ACCOUNT + i);
+            account.setTipoCuenta(AccountType.CORRIENTE);
+            account.setSaldo(OPENING_BALANCE);
+            account.setStatus(true);
+            account.setClienteId(1L);
+            created.add(account);
+        }
+        accountRepository.saveAll(created);
+    }
+
+    private long transferOnce(TransferService transferService, AtomicLong insufficient,
+                              ConcurrentHashMap<String, AtomicLong> failures) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = FIRST_ACCOUNT + random.nextInt(accounts);
+        int target = FIRST_ACCOUNT + (source - FIRST_ACCOUNT + 1 + random.nextInt(accounts - 1)) % accounts;
+        TransferDTO transfer = new TransferDTO(LocalDate.now().toString(),
+                BigDecimal.valueOf(1 + random.nextInt(10_000), 2), source, target);
+
+        MDC.put("uuid", UUID.randomUUID().toString());
+        long started = System.nanoTime();
+        ApiResponseClient<?> response = transferService.transfer(transfer).block();
+        long elapsed = System.nanoTime() - started;
+        MDC.remove("uuid");
+
+        if (!"0".equals(response.getResponseProcess().getCode())) {
+            String message = response.getResponseProcess().getResultMessage();
+            if ("Saldo no disponible".equals(message)) {
+                insufficient.incrementAndGet();
+            } else {
+                failures.computeIfAbsent(String.valueOf(message), key -> new AtomicLong()).incrementAndGet();
+            }
+        }
+        return elapsed;
+    }
+
+    private List<Integer> accountNumbers() {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            numbers.add(FIRST_ACCOUNT + i);
+        }
+        return numbers;
+    }
+
+    private double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * (sorted.length - 1)))] / 1e6;
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.prueba.cuenta.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.prueba.cuenta.service.cluster.ClusterMembership;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterForwardingFilterTest {
+
+    private static final String LOCAL_NODE = "http://localhost:1";
+
+    private final AtomicReference<byte[]> forwardedBytes = new AtomicReference<>();
+    private final AtomicReference<String> forwardedBody = new AtomicReference<>();
+    private final AtomicReference<String> forwardedFrom = new AtomicReference<>();
+
+    private HttpServer owner;
+    private String ownerNode;
+    private ClusterMembership membership;
+    private ClusterForwardingFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub local que hace de nodo dueño de las cuentas remotas
+        owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/", this::handleOwner);
+        owner.start();
+        ownerNode = "http://localhost:" + owner.getAddress().getPort();
+
+        membership = new ClusterMembership(event -> {
+        }, true, LOCAL_NODE, LOCAL_NODE + "," + ownerNode, "", 256);
+        filter = new ClusterForwardingFilter(membership, WebClient.builder(), new ObjectMapper(), 16);
+        ReflectionTestUtils.setField(filter, "forwardTimeoutMillis", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    void testRequestForRemoteAccountIsForwardedToOwner() throws Exception {
+        int remoteAccount = accountOwnedBy(ownerNode);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cuentas/" + remoteAccount);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(ClusterForwardingFilter.OWNER_HEADER)).isEqualTo(ownerNode);
+        assertThat(response.getHeader("ETag")).isEqualTo("W/\"remoto\"");
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("{\"nodo\":\"dueño\"}");
+        assertThat(forwardedFrom.get()).isEqualTo(LOCAL_NODE);
+    }
+
+    @Test
+    void testMovementBodyIsForwardedAndLocalMovementKeepsItsBody() throws Exception {
+        int remoteAccount = accountOwnedBy(ownerNode);
+        String remoteBody = "{\"fecha\":\"2024-05-10\",\"valor\":100,\"cuentaId\":\"" + remoteAccount + "\"}";
+        MockHttpServletRequest remote = jsonPost("/movimientos", remoteBody);
+        MockHttpServletResponse remoteResponse = new MockHttpServletResponse();
+
+        filter.doFilter(remote, remoteResponse, new MockFilterChain());
+
+        assertThat(forwardedBody.get()).isEqualTo(remoteBody);
+        assertThat(remoteResponse.getStatus()).isEqualTo(200);
+
+        int localAccount = accountOwnedBy(LOCAL_NODE);
+        String localBody = "{\"fecha\":\"2024-05-10\",\"valor\":100,\"cuentaId\":\"" + localAccount + "\"}";
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(jsonPost("/movimientos", localBody), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(localBody);
+    }
+
+    @Test
+    void testCborMovementIsRoutedByItsAccount() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] remoteBody = cbor.writeValueAsBytes(Map.of("fecha", 19853, "valor", 100, "cuentaId", accountOwnedBy(ownerNode)));
+        MockHttpServletRequest remote = new MockHttpServletRequest("POST", "/movimientos");
+        remote.setContentType("application/cbor");
+        remote.setContent(remoteBody);
+        MockHttpServletResponse remoteResponse = new MockHttpServletResponse();
+
+        filter.doFilter(remote, remoteResponse, new MockFilterChain());
+
+        assertThat(remoteResponse.getHeader(ClusterForwardingFilter.OWNER_HEADER)).isEqualTo(ownerNode);
+        assertThat(forwardedBytes.get()).isEqualTo(remoteBody);
+
+        MockHttpServletRequest local = new MockHttpServletRequest("POST", "/movimientos");
+        local.setContentType("application/cbor");
+        local.setContent(cbor.writeValueAsBytes(Map.of("fecha", 19853, "valor", 100, "cuentaId", accountOwnedBy(LOCAL_NODE))));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(local, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void testTransferIsRoutedBySourceAccount() throws Exception {
+        String remoteBody = "{\"fecha\":\"2024-05-10\",\"valor\":100,\"cuentaOrigen\":" + accountOwnedBy(ownerNode)
+                + ",\"cuentaDestino\":" + accountOwnedBy(LOCAL_NODE) + "}";
+        MockHttpServletResponse remoteResponse = new MockHttpServletResponse();
+
+        filter.doFilter(jsonPost("/movimientos/transferencias", remoteBody), remoteResponse, new MockFilterChain());
+
+        assertThat(remoteResponse.getHeader(ClusterForwardingFilter.OWNER_HEADER)).isEqualTo(ownerNode);
+        assertThat(forwardedBody.get()).isEqualTo(remoteBody);
+
+        String localBody = "{\"fecha\":\"2024-05-10\",\"valor\":100,\"cuentaOrigen\":" + accountOwnedBy(LOCAL_NODE)
+                + ",\"cuentaDestino\":" + accountOwnedBy(ownerNode) + "}";
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(jsonPost("/movimientos/transferencias", localBody), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void testAlreadyForwardedRequestIsServedLocally() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cuentas/" + accountOwnedBy(ownerNode));
+        request.addHeader(ClusterForwardingFilter.FORWARDED_HEADER, ownerNode);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void testUnreachableOwnerReturnsServiceUnavailable() throws Exception {
+        membership.updateMembers(Set.of(LOCAL_NODE, "http://localhost:9"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cuentas/" + accountOwnedBy("http://localhost:9"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    private int accountOwnedBy(String node) {
+        for (int account = 478758; ; account++) {
+            if (membership.remoteOwnerOf(account).orElse(LOCAL_NODE).equals(node)) {
+                return account;
+            }
+        }
+    }
+
+    private MockHttpServletRequest jsonPost(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private void handleOwner(HttpExchange exchange) throws IOException {
+        forwardedFrom.set(exchange.getRequestHeaders().getFirst(ClusterForwardingFilter.FORWARDED_HEADER));
+        forwardedBytes.set(exchange.getRequestBody().readAllBytes());
+        forwardedBody.set(new String(forwardedBytes.get(), StandardCharsets.UTF_8));
+        byte[] body = "{\"nodo\":\"dueño\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+        exchange.getResponseHeaders().add("ETag", "W/\"remoto\"");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
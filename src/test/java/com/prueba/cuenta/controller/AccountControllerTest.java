@@ -0,0 +1,115 @@
+package com.prueba.cuenta.controller;
+
+import com.prueba.cuenta.dto.AccountVersionDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.AccountService;
+import com.prueba.cuenta.service.ResourceVersionService;
+import com.prueba.cuenta.service.snapshot.AccountSnapshotService;
+import com.prueba.cuenta.service.warmup.AccessProfile;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AccountControllerTest {
+
+    private static final Integer CUENTA = 478758;
+
+    private AccountRepository accountRepository;
+    private AccountService accountService;
+    private AccountController controller;
+    private Instant modified = Instant.parse("2024-05-10T10:15:30Z");
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findVersionByNumeroCuenta(CUENTA))
+                .thenAnswer(invocation -> Optional.of(new AccountVersionDTO(CUENTA, modified)));
+        accountService = mock(AccountService.class);
+        Account account = new Account();
+        account.setNumeroCuenta(CUENTA);
+        when(accountService.getAccountById(CUENTA)).thenAnswer(invocation -> Mono.just(
+                new ApiResponseClient<>(account, new ResponseProcess("0", "Cuenta encontrada", "OK"))));
+
+        controller = new AccountController();
+        ReflectionTestUtils.setField(controller, "accountService", accountService);
+        ReflectionTestUtils.setField(controller, "resourceVersionService", new ResourceVersionService(accountRepository));
+        ReflectionTestUtils.setField(controller, "accessProfile", mock(AccessProfile.class));
+    }
+
+    @Test
+    void testMatchingIfNoneMatchReturnsNotModifiedWithoutLoadingTheAccount() {
+        String eTag = get(null).getHeaders().getETag();
+
+        ResponseEntity<ApiResponseClient<Account>> response = get(eTag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(response.getBody()).isNull();
+        verify(accountService, times(1)).getAccountById(CUENTA);
+    }
+
+    @Test
+    void testUpdatedAccountReturnsTheBodyWithANewETag() {
+        String before = get(null).getHeaders().getETag();
+        // La actualización o un movimiento cambian la fecha de modificación de la cuenta
+        modified = modified.plusSeconds(1);
+
+        ResponseEntity<ApiResponseClient<Account>> response = get(before);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getDetails().getNumeroCuenta()).isEqualTo(CUENTA);
+        assertThat(response.getHeaders().getETag()).isNotNull().isNotEqualTo(before);
+        assertThat(get(response.getHeaders().getETag()).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void testSnapshotWithMatchingETagIsNotSentAgain() throws IOException {
+        AccountSnapshotService accountSnapshotService = mock(AccountSnapshotService.class);
+        AccountSnapshotService.SnapshotFile snapshot = new AccountSnapshotService.SnapshotFile(Path.of("cuentas-3.col"), 128, 3, false);
+        when(accountSnapshotService.latest(false)).thenReturn(Optional.of(snapshot));
+        ReflectionTestUtils.setField(controller, "accountSnapshotService", accountSnapshotService);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cuentas/instantanea");
+        request.addHeader("If-None-Match", snapshot.eTag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.downloadSnapshot(null, new ServletWebRequest(request, response), request, response);
+
+        // El 304 queda en la respuesta del servlet, sin cuerpo que convertir
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeader("ETag")).isEqualTo(snapshot.eTag());
+        verify(accountSnapshotService, never()).send(any(), any(), any());
+
+        when(accountSnapshotService.latest(false)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> controller.downloadSnapshot(null, new ServletWebRequest(request, response), request, response))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("La instantánea de cuentas no está disponible");
+    }
+
+    // Métodos privados auxiliares
+    private ResponseEntity<ApiResponseClient<Account>> get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cuentas/" + CUENTA);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return controller.getAccountById(CUENTA, new ServletWebRequest(request, new MockHttpServletResponse())).block();
+    }
+}
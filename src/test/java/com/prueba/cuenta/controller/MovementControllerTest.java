@@ -0,0 +1,87 @@
+package com.prueba.cuenta.controller;
+
+import com.prueba.cuenta.dto.AccountVersionDTO;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.MovementService;
+import com.prueba.cuenta.service.ResourceVersionService;
+import com.prueba.cuenta.service.warmup.AccessProfile;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MovementControllerTest {
+
+    private static final Integer CUENTA = 478758;
+    private static final LocalDate DESDE = LocalDate.of(2024, 5, 1);
+    private static final LocalDate HASTA = LocalDate.of(2024, 5, 31);
+
+    private MovementService movementService;
+    private MovementController controller;
+    private Instant modified = Instant.parse("2024-05-10T10:15:30Z");
+
+    @BeforeEach
+    void setUp() {
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findVersionByNumeroCuenta(CUENTA))
+                .thenAnswer(invocation -> Optional.of(new AccountVersionDTO(CUENTA, modified)));
+        movementService = mock(MovementService.class);
+        when(movementService.generateReport(CUENTA, DESDE, HASTA)).thenAnswer(invocation -> Mono.just(
+                new ApiResponseClient<List<MovementReportDTO>>(List.of(), new ResponseProcess("200", "Reporte generado", "OK"))));
+
+        controller = new MovementController();
+        ReflectionTestUtils.setField(controller, "movementService", movementService);
+        ReflectionTestUtils.setField(controller, "resourceVersionService", new ResourceVersionService(accountRepository));
+        ReflectionTestUtils.setField(controller, "accessProfile", mock(AccessProfile.class));
+    }
+
+    @Test
+    void testMatchingIfNoneMatchReturnsNotModifiedWithoutBuildingTheReport() {
+        String eTag = report(null).getHeaders().getETag();
+
+        ResponseEntity<ApiResponseClient<List<MovementReportDTO>>> response = report(eTag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        verify(movementService, times(1)).generateReport(CUENTA, DESDE, HASTA);
+    }
+
+    @Test
+    void testNewMovementInvalidatesTheReportETag() {
+        String before = report(null).getHeaders().getETag();
+        // El movimiento actualiza el saldo y con él la fecha de modificación de la cuenta
+        modified = modified.plusMillis(1);
+
+        ResponseEntity<ApiResponseClient<List<MovementReportDTO>>> response = report(before);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotNull().isNotEqualTo(before);
+        verify(movementService, times(2)).generateReport(CUENTA, DESDE, HASTA);
+    }
+
+    // Métodos privados auxiliares
+    private ResponseEntity<ApiResponseClient<List<MovementReportDTO>>> report(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movimientos/reporte");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return controller.generateReport(CUENTA, DESDE, HASTA,
+                new ServletWebRequest(request, new MockHttpServletResponse())).block();
+    }
+}
@@ -23,6 +23,7 @@ import reactor.test.StepVerifier;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -83,8 +84,10 @@ public class AccountMovementIntegrationTest {
         clientResponseDTO.setDetails(clientDTO);
         clientResponseDTO.setResponseProcess(new ResponseProcessDTO("200", "Success", "OK"));
 
-        when(clientService.getClientIdByIdentification(anyString())).thenReturn(Mono.just(1L));
-        when(clientService.getClientName(anyLong())).thenReturn(Mono.just("Juan Pérez"));
+        // Las consultas al servicio de clientes pasan por ClientBatchLoader, que usa las operaciones en lote
+        when(clientService.getClientIdsByIdentification(anyCollection()))
+                .thenReturn(Mono.just(Map.of("1234567890", 1L)));
+        when(clientService.getClientNames(anyCollection())).thenReturn(Mono.just(Map.of(1L, "Juan Pérez")));
 
         // 3. Mockear el repositorio de cuentas
         when(accountRepository.findByNumeroCuenta(anyInt())).thenReturn(null);
@@ -115,8 +118,9 @@ public class AccountMovementIntegrationTest {
         movement.setCuenta(account);
         movement.setSaldo(new BigDecimal("1500.00"));
 
-        // 6. Mockear el repositorio de movimientos
+        // 6. Mockear el repositorio de movimientos y la lectura bloqueada de la cuenta
         when(movementRepository.save(any(Movement.class))).thenReturn(movement);
+        when(accountRepository.findAllForUpdate(anyCollection())).thenReturn(List.of(account));
 
         // 7. Realizar el movimiento
         StepVerifier
@@ -129,8 +133,13 @@ public class AccountMovementIntegrationTest {
                 })
                 .verifyComplete();
 
-        // 8. Verificar que el movimiento ha actualizado el saldo de la cuenta
+        // 8. Verificar que el movimiento leyó la cuenta bloqueada y actualizó su saldo:
+        // un guardado al crear la cuenta y otro con el nuevo saldo
+        verify(accountRepository).findAllForUpdate(List.of(12345));
         verify(accountRepository, times(2)).save(any(Account.class));
+        assertThat(account.getSaldo()).isEqualByComparingTo("1500.00");
+        verify(clientService).getClientIdsByIdentification(argThat(ids -> ids.contains("1234567890")));
+        verify(clientService, never()).getClientIdByIdentification(anyString());
     }
 
     @Test
@@ -167,9 +176,9 @@ public class AccountMovementIntegrationTest {
 
         // 2. Mockear repositorios y servicios
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(movementRepository.findByCuenta_NumeroCuentaAndFechaBetween(eq(accountId), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(movements);
-        when(clientService.getClientName(anyLong())).thenReturn(Mono.just("Juan Pérez"));
+        when(movementRepository.findReportRows(eq(accountId), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(movements.stream().map(this::toReportRow).toList());
+        when(clientService.getClientNames(anyCollection())).thenReturn(Mono.just(Map.of(1L, "Juan Pérez")));
 
         // 3. Generar el reporte
         StepVerifier
@@ -187,6 +196,13 @@ public class AccountMovementIntegrationTest {
                     assertThat(report2.getMovimiento()).isEqualTo(new BigDecimal("-200.00"));
                 })
                 .verifyComplete();
+        verify(clientService).getClientNames(argThat(ids -> ids.contains(1L)));
+        verify(clientService, never()).getClientName(anyLong());
     }
 
+    private MovementReportDTO toReportRow(Movement movement) {
+        return new MovementReportDTO(movement.getFecha(), movement.getCuenta().getNumeroCuenta(),
+                movement.getCuenta().getTipoCuenta(), movement.getSaldo().subtract(movement.getValor()),
+                movement.getCuenta().isStatus(), movement.getValor(), movement.getSaldo());
+    }
 }
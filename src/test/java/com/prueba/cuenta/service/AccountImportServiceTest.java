@@ -0,0 +1,182 @@
+package com.prueba.cuenta.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.exception.ClientNotFoundException;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.client.ClientBatchLoader;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class AccountImportServiceTest {
+
+    private static final String CLIENTE_A = "1234567890";
+    private static final String CLIENTE_B = "0987654321";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AccountRepository accountRepository;
+    private ClientBatchLoader clientBatchLoader;
+    private OutboxService outboxService;
+    private EntityManager entityManager;
+    private AccountImportService service;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        clientBatchLoader = mock(ClientBatchLoader.class);
+        outboxService = mock(OutboxService.class);
+        entityManager = mock(EntityManager.class);
+        service = new AccountImportService(accountRepository, clientBatchLoader,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, outboxService,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "clientConcurrency", 4);
+        ReflectionTestUtils.setField(service, "clientCacheSize", 100);
+        when(accountRepository.findExistingNumerosCuenta(anyCollection())).thenReturn(List.of());
+        when(clientBatchLoader.loadClientIdByIdentification(CLIENTE_A)).thenReturn(Mono.just(1L));
+    }
+
+    @Test
+    void testRowsAreImportedInChunksWithOneExistenceQueryEach() throws IOException {
+        when(accountRepository.findExistingNumerosCuenta(List.of(1001, 1002))).thenReturn(List.of(1002));
+
+        List<JsonNode> results = importCsv(
+                "numeroCuenta,tipoCuenta,saldoInicial,estado,identificacion",
+                csvRow(1001, CLIENTE_A),
+                csvRow(1002, CLIENTE_A),
+                csvRow(1003, CLIENTE_A),
+                "1004,PLAZO,10.00,true," + CLIENTE_A,
+                csvRow(1005, CLIENTE_A));
+
+        assertThat(results).extracting(result -> result.get("fila").asLong()).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(results).extracting(result -> result.get("code").asText()).containsExactly("0", "400", "0", "400", "0");
+        assertThat(results.get(1).get("resultMessage").asText()).isEqualTo("El número de cuenta ya existe");
+        assertThat(results.get(3).get("resultMessage").asText()).isEqualTo("El tipo de cuenta debe ser AHORROS o CORRIENTE");
+        // Una consulta de existencia por bloque, solo con las filas válidas
+        verify(accountRepository).findExistingNumerosCuenta(List.of(1001, 1002));
+        verify(accountRepository).findExistingNumerosCuenta(List.of(1003));
+        verify(accountRepository).findExistingNumerosCuenta(List.of(1005));
+        verify(clientBatchLoader, times(1)).loadClientIdByIdentification(CLIENTE_A);
+        verify(entityManager, times(3)).persist(any(Account.class));
+        verify(outboxService, times(3)).accountCreated(any(Account.class));
+    }
+
+    @Test
+    void testOnlyDefinitiveClientLookupsAreCached() throws IOException {
+        ReflectionTestUtils.setField(service, "chunkSize", 1);
+        AtomicInteger lookupsA = new AtomicInteger();
+        when(clientBatchLoader.loadClientIdByIdentification(CLIENTE_A)).thenAnswer(invocation ->
+                lookupsA.incrementAndGet() == 1
+                        ? Mono.error(new AccountBusinessException("Tiempo de espera agotado"))
+                        : Mono.just(1L));
+        when(clientBatchLoader.loadClientIdByIdentification(CLIENTE_B))
+                .thenReturn(Mono.error(new ClientNotFoundException("Cliente no encontrado con identificación: " + CLIENTE_B)));
+
+        List<JsonNode> results = importCsv(
+                csvRow(2001, CLIENTE_A),
+                csvRow(2002, CLIENTE_A),
+                csvRow(2003, CLIENTE_A),
+                csvRow(2004, CLIENTE_B),
+                csvRow(2005, CLIENTE_B));
+
+        assertThat(results).extracting(result -> result.get("code").asText()).containsExactly("1", "0", "0", "1", "1");
+        assertThat(results.get(0).get("resultMessage").asText()).isEqualTo("Tiempo de espera agotado");
+        assertThat(results.get(4).get("resultMessage").asText()).startsWith("Cliente no encontrado");
+        // El timeout se vuelve a consultar; el cliente encontrado y el inexistente quedan en caché
+        verify(clientBatchLoader, times(2)).loadClientIdByIdentification(CLIENTE_A);
+        verify(clientBatchLoader, times(1)).loadClientIdByIdentification(CLIENTE_B);
+    }
+
+    @Test
+    void testClientCacheEvictsTheLeastRecentlyUsedIdentification() throws IOException {
+        ReflectionTestUtils.setField(service, "chunkSize", 1);
+        ReflectionTestUtils.setField(service, "clientCacheSize", 1);
+        when(clientBatchLoader.loadClientIdByIdentification(CLIENTE_B)).thenReturn(Mono.just(2L));
+
+        importCsv(csvRow(3001, CLIENTE_A), csvRow(3002, CLIENTE_B), csvRow(3003, CLIENTE_B), csvRow(3004, CLIENTE_A));
+
+        verify(clientBatchLoader, times(2)).loadClientIdByIdentification(CLIENTE_A);
+        verify(clientBatchLoader, times(1)).loadClientIdByIdentification(CLIENTE_B);
+    }
+
+    @Test
+    void testFailedBatchInsertIsRetriedRowByRow() throws IOException {
+        ReflectionTestUtils.setField(service, "chunkSize", 3);
+        List<Integer> persisted = new ArrayList<>();
+        doAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            persisted.add(account.getNumeroCuenta());
+            // En el reintento por fila, la cuenta 4002 choca con una creada en paralelo
+            if (account.getNumeroCuenta() == 4002 && persisted.size() > 2) {
+                throw new PersistenceException("llave duplicada");
+            }
+            return null;
+        }).when(entityManager).persist(any(Account.class));
+        doThrow(new PersistenceException("lote rechazado")).doNothing().when(entityManager).flush();
+
+        List<JsonNode> results = importNdjson(
+                ndjsonRow(4001, CLIENTE_A),
+                ndjsonRow(4002, CLIENTE_A),
+                "{no es json",
+                ndjsonRow(4003, CLIENTE_A));
+
+        assertThat(results).extracting(result -> result.get("code").asText()).containsExactly("0", "1", "400", "0");
+        assertThat(results.get(1).get("resultMessage").asText()).isEqualTo("No se pudo crear la cuenta: llave duplicada");
+        assertThat(results.get(2).get("resultMessage").asText()).startsWith("Fila inválida");
+        assertThat(results.get(2).get("numeroCuenta").isNull()).isTrue();
+        assertThat(persisted).containsExactly(4001, 4002, 4001, 4002, 4003);
+    }
+
+    // Métodos privados auxiliares
+    private List<JsonNode> importCsv(String... lines) throws IOException {
+        return importLines(AccountImportService.ImportFormat.CSV, lines);
+    }
+
+    private List<JsonNode> importNdjson(String... lines) throws IOException {
+        return importLines(AccountImportService.ImportFormat.NDJSON, lines);
+    }
+
+    private List<JsonNode> importLines(AccountImportService.ImportFormat format, String... lines) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.importAccounts(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)),
+                format, output);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private String csvRow(int numeroCuenta, String identificacion) {
+        return numeroCuenta + ",AHORROS,100.00,true," + identificacion;
+    }
+
+    private String ndjsonRow(int numeroCuenta, String identificacion) {
+        return "{\"numeroCuenta\":\"" + numeroCuenta + "\",\"tipoCuenta\":\"AHORROS\",\"saldoInicial\":100.00,"
+                + "\"estado\":\"true\",\"identificacion\":\"" + identificacion + "\"}";
+    }
+}
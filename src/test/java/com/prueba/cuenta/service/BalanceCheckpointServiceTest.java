@@ -0,0 +1,171 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.BalanceCheckpoint;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.BalanceCheckpointRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.archive.MovementArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BalanceCheckpointServiceTest {
+
+    private static final Integer CUENTA = 7;
+    private static final LocalDate FECHA = LocalDate.of(2024, 5, 10);
+
+    private BalanceCheckpointRepository checkpointRepository;
+    private MovementRepository movementRepository;
+    private AccountRepository accountRepository;
+    private MovementArchive movementArchive;
+    private BalanceCheckpointService service;
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepository = mock(BalanceCheckpointRepository.class);
+        movementRepository = mock(MovementRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        movementArchive = mock(MovementArchive.class);
+        service = new BalanceCheckpointService(checkpointRepository, movementRepository, accountRepository, movementArchive,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "checkpointInterval", 2);
+    }
+
+    @Test
+    void testMovementShiftsLaterCheckpointsAndWritesOneEveryInterval() {
+        Account account = account(new BigDecimal("1000.00"));
+        when(checkpointRepository.findFirstByNumeroCuentaAndFechaLessThanEqualOrderByFechaDesc(CUENTA, FECHA))
+                .thenReturn(Optional.of(checkpoint(FECHA.minusDays(3), "900.00")));
+        when(movementArchive.sumValorAfterUntil(CUENTA, FECHA.minusDays(3), FECHA)).thenReturn(new BigDecimal("50.00"));
+
+        service.movementSaved(movement(account, "20.00"));
+        verify(checkpointRepository).shiftFrom(CUENTA, FECHA, new BigDecimal("20.00"));
+        verify(checkpointRepository, never()).save(any());
+
+        service.movementSaved(movement(account, "30.00"));
+        verify(checkpointRepository).shiftFrom(CUENTA, FECHA, new BigDecimal("30.00"));
+        assertThat(saved().getSaldo()).isEqualByComparingTo("950.00");
+    }
+
+    @Test
+    void testIntervalCheckpointWithoutHistoryUsesTheLockedAccountBalance() {
+        Account account = account(new BigDecimal("1000.00"));
+        when(movementArchive.sumValorAfter(CUENTA, FECHA)).thenReturn(new BigDecimal("100.00"));
+
+        service.movementSaved(movement(account, "20.00"));
+        service.movementSaved(movement(account, "30.00"));
+
+        assertThat(saved().getSaldo()).isEqualByComparingTo("900.00");
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void testBalanceWithoutEarlierCheckpointStartsFromTheNextOne() {
+        when(checkpointRepository.findFirstByNumeroCuentaAndFechaGreaterThanOrderByFechaAsc(CUENTA, FECHA))
+                .thenReturn(Optional.of(checkpoint(FECHA.plusDays(10), "500.00")));
+        when(movementArchive.sumValorAfterUntil(CUENTA, FECHA, FECHA.plusDays(10))).thenReturn(new BigDecimal("120.00"));
+
+        assertThat(service.balanceAt(account(new BigDecimal("2000.00")), FECHA)).isEqualByComparingTo("380.00");
+        verify(movementArchive, never()).sumValorAfter(any(), any());
+    }
+
+    @Test
+    void testBalanceWithoutCheckpointsScansFromTheStoredBalance() {
+        when(accountRepository.findById(CUENTA)).thenReturn(Optional.of(account(new BigDecimal("2000.00"))));
+        when(movementArchive.sumValorAfter(CUENTA, FECHA)).thenReturn(new BigDecimal("300.00"));
+
+        // El saldo de la cuenta recibida puede estar desactualizado: se lee junto con las sumas
+        assertThat(service.balanceAt(account(new BigDecimal("5000.00")), FECHA)).isEqualByComparingTo("1700.00");
+    }
+
+    @Test
+    void testCloseDayRecomputesExistingCheckpointFromThePreviousOne() {
+        BalanceCheckpoint existing = checkpoint(FECHA, "0.00");
+        when(movementRepository.findAccountNumbersWithMovementsOn(FECHA)).thenReturn(List.of(CUENTA));
+        when(accountRepository.findAllForUpdate(List.of(CUENTA))).thenReturn(List.of(account(new BigDecimal("2000.00"))));
+        when(checkpointRepository.findFirstByNumeroCuentaAndFechaLessThanOrderByFechaDesc(CUENTA, FECHA))
+                .thenReturn(Optional.of(checkpoint(FECHA.minusDays(1), "100.00")));
+        when(movementArchive.sumValorAfterUntil(CUENTA, FECHA.minusDays(1), FECHA)).thenReturn(new BigDecimal("-40.00"));
+        when(checkpointRepository.findByNumeroCuentaAndFecha(CUENTA, FECHA)).thenReturn(Optional.of(existing));
+
+        service.closeDay(FECHA);
+
+        BalanceCheckpoint saved = saved();
+        assertThat(saved).isSameAs(existing);
+        assertThat(saved.getSaldo()).isEqualByComparingTo("60.00");
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void testCloseDayWithOnlyLaterCheckpointsDoesNotScanTheHistory() {
+        when(movementRepository.findAccountNumbersWithMovementsOn(FECHA)).thenReturn(List.of(CUENTA));
+        when(accountRepository.findAllForUpdate(List.of(CUENTA))).thenReturn(List.of(account(new BigDecimal("2000.00"))));
+        when(checkpointRepository.findFirstByNumeroCuentaAndFechaGreaterThanOrderByFechaAsc(CUENTA, FECHA))
+                .thenReturn(Optional.of(checkpoint(FECHA.plusDays(2), "700.00")));
+        when(movementArchive.sumValorAfterUntil(CUENTA, FECHA, FECHA.plusDays(2))).thenReturn(new BigDecimal("200.00"));
+
+        service.closeDay(FECHA);
+
+        BalanceCheckpoint saved = saved();
+        assertThat(saved.getFecha()).isEqualTo(FECHA);
+        assertThat(saved.getSaldo()).isEqualByComparingTo("500.00");
+        verify(movementArchive, never()).sumValorAfter(any(), any());
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void testCloseDayWithoutCheckpointsStartsFromTheLockedAccount() {
+        when(movementRepository.findAccountNumbersWithMovementsOn(FECHA)).thenReturn(List.of(CUENTA));
+        when(accountRepository.findAllForUpdate(List.of(CUENTA))).thenReturn(List.of(account(new BigDecimal("800.00"))));
+        when(movementArchive.sumValorAfter(CUENTA, FECHA)).thenReturn(new BigDecimal("-200.00"));
+
+        service.closeDay(FECHA);
+
+        assertThat(saved().getSaldo()).isEqualByComparingTo("1000.00");
+        verify(accountRepository).findAllForUpdate(List.of(CUENTA));
+        verify(accountRepository, never()).findById(any());
+    }
+
+    private BalanceCheckpoint saved() {
+        ArgumentCaptor<BalanceCheckpoint> captor = ArgumentCaptor.forClass(BalanceCheckpoint.class);
+        verify(checkpointRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private Account account(BigDecimal saldo) {
+        Account account = new Account();
+        account.setNumeroCuenta(CUENTA);
+        account.setSaldo(saldo);
+        return account;
+    }
+
+    private Movement movement(Account account, String valor) {
+        Movement movement = new Movement();
+        movement.setCuenta(account);
+        movement.setFecha(FECHA);
+        movement.setValor(new BigDecimal(valor));
+        return movement;
+    }
+
+    private BalanceCheckpoint checkpoint(LocalDate fecha, String saldo) {
+        BalanceCheckpoint checkpoint = new BalanceCheckpoint();
+        checkpoint.setNumeroCuenta(CUENTA);
+        checkpoint.setFecha(fecha);
+        checkpoint.setSaldo(new BigDecimal(saldo));
+        return checkpoint;
+    }
+}
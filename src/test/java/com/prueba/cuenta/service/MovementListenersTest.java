@@ -0,0 +1,37 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.entity.Movement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class MovementListenersTest {
+
+    @Test
+    void testFailingListenerDoesNotStopTheOthers() {
+        MovementListener failing = mock(MovementListener.class);
+        MovementListener next = mock(MovementListener.class);
+        Movement movement = new Movement();
+        movement.setId("mov-1");
+        doThrow(new IllegalStateException("falla")).when(failing).onMovementCreated(movement);
+
+        new MovementListeners(List.of(failing, next)).movementCreated(movement);
+
+        verify(failing).onMovementCreated(movement);
+        verify(next).onMovementCreated(movement);
+    }
+
+    @Test
+    void testExcludedListenerIsNotNotified() {
+        MovementListener excluded = mock(MovementListener.class);
+        MovementListener other = mock(MovementListener.class);
+        Movement movement = new Movement();
+
+        new MovementListeners(List.of(excluded, other)).without(excluded).movementCreated(movement);
+
+        verify(excluded, never()).onMovementCreated(any());
+        verify(other).onMovementCreated(movement);
+    }
+}
@@ -0,0 +1,53 @@
+package com.prueba.cuenta.service;
+
+import com.prueba.cuenta.dto.AccountVersionDTO;
+import com.prueba.cuenta.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResourceVersionServiceTest {
+
+    private static final Integer CUENTA = 478758;
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final ResourceVersionService service = new ResourceVersionService(accountRepository);
+
+    @Test
+    void testETagsChangeWhenTheAccountRowIsModified() {
+        Instant created = Instant.parse("2024-05-10T10:15:30.123456Z");
+        when(accountRepository.findVersionByNumeroCuenta(CUENTA))
+                .thenReturn(Optional.of(new AccountVersionDTO(CUENTA, created)));
+        String account = service.accountETag(CUENTA).orElseThrow();
+        String report = service.reportETag(CUENTA).orElseThrow();
+
+        // Una actualización o un movimiento cambian la fecha de modificación de la fila
+        when(accountRepository.findVersionByNumeroCuenta(CUENTA))
+                .thenReturn(Optional.of(new AccountVersionDTO(CUENTA, created.plusNanos(1_000))));
+
+        assertThat(account).startsWith("W/\"cuenta-478758-").isNotEqualTo(report);
+        assertThat(service.accountETag(CUENTA)).get().isNotEqualTo(account);
+        assertThat(service.reportETag(CUENTA)).get().isNotEqualTo(report);
+    }
+
+    @Test
+    void testSameVersionGivesTheSameETag() {
+        when(accountRepository.findVersionByNumeroCuenta(CUENTA))
+                .thenReturn(Optional.of(new AccountVersionDTO(CUENTA, Instant.parse("2024-05-10T10:15:30Z"))));
+
+        assertThat(service.accountETag(CUENTA)).isEqualTo(service.accountETag(CUENTA));
+    }
+
+    @Test
+    void testMissingAccountHasNoETag() {
+        when(accountRepository.findVersionByNumeroCuenta(CUENTA)).thenReturn(Optional.empty());
+
+        assertThat(service.accountETag(CUENTA)).isEmpty();
+        assertThat(service.reportETag(CUENTA)).isEmpty();
+    }
+}
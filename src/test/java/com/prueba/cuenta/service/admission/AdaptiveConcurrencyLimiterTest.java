@@ -0,0 +1,79 @@
+package com.prueba.cuenta.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testShedsWhenLimitAndQueueAreFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0, 0);
+
+        assertThat(limiter.acquire()).isEqualTo(AdaptiveConcurrencyLimiter.Outcome.ADMITTED);
+        assertThat(limiter.acquire()).isEqualTo(AdaptiveConcurrencyLimiter.Outcome.ADMITTED);
+        assertThat(limiter.acquire()).isEqualTo(AdaptiveConcurrencyLimiter.Outcome.SHED);
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5), false);
+        assertThat(limiter.acquire()).isEqualTo(AdaptiveConcurrencyLimiter.Outcome.ADMITTED);
+    }
+
+    @Test
+    void testQueuedRequestIsAdmittedWhenAPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 5, 1_000);
+        limiter.acquire();
+
+        Thread releaser = new Thread(() -> {
+            sleep(50);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(5), false);
+        });
+        releaser.start();
+
+        assertThat(limiter.acquire()).isEqualTo(AdaptiveConcurrencyLimiter.Outcome.QUEUED);
+        releaser.join();
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyGrowsAndRecoversWhenItDrops() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 500, 0, 0);
+
+        // 1. Latencia estable: el límite crece mientras se usa completo
+        saturate(limiter, 50, 0);
+        int stableLimit = limiter.getLimit();
+        assertThat(stableLimit).isGreaterThan(50);
+
+        // 2. La base de datos solo atiende 40 en paralelo: por encima la latencia crece y el límite baja
+        saturate(limiter, 30, 40);
+        int congestedLimit = limiter.getLimit();
+        assertThat(congestedLimit).isLessThan(stableLimit / 2);
+
+        // 3. Errores y timeouts reducen el límite de forma multiplicativa
+        limiter.acquire();
+        limiter.release(0, true);
+        assertThat(limiter.getLimit()).isLessThan(congestedLimit);
+    }
+
+    private void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, int capacity) {
+        long baseRtt = TimeUnit.MILLISECONDS.toNanos(5);
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.acquire() != AdaptiveConcurrencyLimiter.Outcome.SHED) {
+                admitted++;
+            }
+            long rtt = capacity > 0 && admitted > capacity ? baseRtt * admitted / capacity : baseRtt;
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(rtt, false);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.prueba.cuenta.service.analytics;
+
+import com.prueba.cuenta.dto.HeavyHitterDTO;
+import com.prueba.cuenta.dto.TopAccountsDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovementStatisticsServiceTest {
+
+    private MovementStatisticsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MovementStatisticsService(true, 100, 512, 4, 60, 10);
+        at(6_000);
+    }
+
+    @Test
+    void testTopAccountsBracketExactCountsAndVolumes() {
+        Map<Integer, Long> counts = new HashMap<>();
+        Map<Integer, Long> volumes = new HashMap<>();
+        double[] zipf = zipfDistribution(5_000, 1.1);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            if (i == 50_000) {
+                at(6_120);
+            }
+            int numeroCuenta = 1_000 + draw(zipf, random);
+            long cents = 1 + random.nextInt(100_000);
+            service.onMovementCreated(movement(numeroCuenta, BigDecimal.valueOf(random.nextBoolean() ? cents : -cents, 2)));
+            counts.merge(numeroCuenta, 1L, Long::sum);
+            volumes.merge(numeroCuenta, cents, Long::sum);
+        }
+
+        assertBracketsExact(top("cantidad", 10), counts, 0);
+        assertBracketsExact(top("volumen", 10), volumes, 2);
+
+        // La ventana de un minuto solo incluye el intervalo en curso
+        assertThat(top("cantidad", 1).getTotal()).isEqualByComparingTo("50000");
+    }
+
+    @Test
+    void testOldIntervalsLeaveTheWindow() {
+        service.onMovementCreated(movement(1, new BigDecimal("10.00")));
+        at(6_180);
+        service.onMovementCreated(movement(2, new BigDecimal("-5.50")));
+        service.onMovementCreated(movement(2, new BigDecimal("5.50")));
+
+        assertThat(top("cantidad", 1).getCuentas()).extracting(HeavyHitterDTO::getNumeroCuenta).containsExactly(2);
+        assertThat(top("volumen", 10).getCuentas()).extracting(HeavyHitterDTO::getNumeroCuenta).containsExactly(2, 1);
+        assertThat(top("volumen", 10).getTotal()).isEqualByComparingTo("21.00");
+
+        // Una vuelta completa del anillo después, el intervalo de la cuenta 1 ya no cuenta
+        at(6_000 + 600);
+        assertThat(top("cantidad", 10).getCuentas()).extracting(HeavyHitterDTO::getNumeroCuenta).containsExactly(2);
+
+        StepVerifier.create(service.topAccounts("saldo", 10, 10))
+                .assertNext(response -> assertThat(response.getResponseProcess().getCode()).isEqualTo("400"))
+                .verifyComplete();
+    }
+
+    private void assertBracketsExact(TopAccountsDTO top, Map<Integer, Long> exact, int scale) {
+        List<Integer> listed = top.getCuentas().stream().map(HeavyHitterDTO::getNumeroCuenta).toList();
+        for (HeavyHitterDTO account : top.getCuentas()) {
+            BigDecimal real = BigDecimal.valueOf(exact.get(account.getNumeroCuenta()), scale);
+            assertThat(real).isBetween(account.getMinimo(), account.getEstimado());
+        }
+        // Las diez cuentas con más actividad real son las listadas
+        List<Integer> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .toList();
+        assertThat(listed).containsExactlyInAnyOrderElementsOf(exactTop);
+        exact.forEach((numeroCuenta, real) -> {
+            if (!listed.contains(numeroCuenta)) {
+                assertThat(BigDecimal.valueOf(real, scale)).isLessThanOrEqualTo(top.getMaximoNoListadas());
+            }
+        });
+    }
+
+    private TopAccountsDTO top(String metrica, int ventanaMinutos) {
+        return service.topAccounts(metrica, ventanaMinutos, 10).block().getDetails();
+    }
+
+    private void at(long epochSecond) {
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC));
+    }
+
+    private double[] zipfDistribution(int accounts, double exponent) {
+        double[] cumulative = new double[accounts];
+        double total = 0;
+        for (int i = 0; i < accounts; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < accounts; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private int draw(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private Movement movement(int numeroCuenta, BigDecimal valor) {
+        Account account = new Account();
+        account.setNumeroCuenta(numeroCuenta);
+        Movement movement = new Movement();
+        movement.setCuenta(account);
+        movement.setValor(valor);
+        return movement;
+    }
+}
@@ -0,0 +1,49 @@
+package com.prueba.cuenta.service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void testBoundsHoldAgainstExactCountsOnSkewedStream() {
+        SpaceSaving top = new SpaceSaving(50);
+        CountMinSketch sketch = new CountMinSketch(256, 4);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        long total = 0;
+        for (int i = 0; i < 50_000; i++) {
+            // Distribución sesgada: pocas cuentas concentran la mayoría de los movimientos
+            int numeroCuenta = (int) Math.floor(Math.pow(random.nextDouble(), 3) * 2_000);
+            long weight = 1 + random.nextInt(100);
+            top.add(numeroCuenta, weight);
+            sketch.add(numeroCuenta, weight);
+            exact.merge(numeroCuenta, weight, Long::sum);
+            total += weight;
+        }
+
+        long countMinError = (long) Math.ceil(Math.E / 256 * total);
+        int overBound = 0;
+        for (Map.Entry<Integer, Long> entry : exact.entrySet()) {
+            int numeroCuenta = entry.getKey();
+            long real = entry.getValue();
+            assertThat(top.guaranteed(numeroCuenta)).isLessThanOrEqualTo(real);
+            assertThat(top.count(numeroCuenta)).isGreaterThanOrEqualTo(real);
+            assertThat(sketch.estimate(numeroCuenta)).isGreaterThanOrEqualTo(real);
+            if (sketch.estimate(numeroCuenta) - real > countMinError) {
+                overBound++;
+            }
+            // Toda cuenta con más de total / capacidad queda seguida
+            if (real > total / 50) {
+                assertThat(top.contains(numeroCuenta)).isTrue();
+            }
+        }
+        // Con profundidad 4 la cota de Count-Min falla con probabilidad menor a e^-4 por cuenta
+        assertThat(overBound).isLessThan(exact.size() / 50);
+    }
+}
@@ -0,0 +1,68 @@
+package com.prueba.cuenta.service.archive;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.entity.MovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MovementSegmentTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrittenSegmentIsReadBackPerAccount() throws IOException {
+        Path path = directory.resolve("movimientos-2023-03-001.seg");
+        try (MovementSegmentWriter writer = new MovementSegmentWriter(path)) {
+            for (int account = 100; account < 1100; account += 10) {
+                for (int day = 0; day < 3; day++) {
+                    writer.append(movement(account, day, new BigDecimal("-12345678901234.56").add(BigDecimal.valueOf(day))));
+                }
+            }
+            writer.finish();
+        }
+
+        MovementSegment segment = MovementSegment.open(path);
+        assertThat(segment.getRows()).isEqualTo(300);
+        assertThat(segment.getAccountCount()).isEqualTo(100);
+        assertThat(segment.getMinFecha()).isEqualTo(FIRST_DAY);
+        assertThat(segment.getMaxFecha()).isEqualTo(FIRST_DAY.plusDays(2));
+
+        List<ArchivedMovementDTO> rows = segment.read(550);
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(2).getId()).isEqualTo("550-2");
+        assertThat(rows.get(2).getFecha()).isEqualTo(FIRST_DAY.plusDays(2));
+        assertThat(rows.get(2).getTipoMovimiento()).isEqualTo(MovementType.RETIRO);
+        assertThat(rows.get(2).getValor()).isEqualTo(new BigDecimal("-12345678901232.56"));
+        assertThat(rows.get(2).getSaldo()).isEqualTo(new BigDecimal("1000.00"));
+
+        assertThat(segment.read(555)).isEmpty();
+        assertThat(segment.overlaps(FIRST_DAY.plusDays(2), null)).isTrue();
+        assertThat(segment.overlaps(FIRST_DAY.plusDays(3), null)).isFalse();
+    }
+
+    @Test
+    void testRowsMustArriveOrderedByAccount() throws IOException {
+        try (MovementSegmentWriter writer = new MovementSegmentWriter(directory.resolve("desordenado.tmp"))) {
+            writer.append(movement(20, 0, BigDecimal.ONE));
+            assertThatThrownBy(() -> writer.append(movement(10, 0, BigDecimal.ONE)))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private ArchivedMovementDTO movement(int account, int day, BigDecimal value) {
+        return new ArchivedMovementDTO(account + "-" + day, account, FIRST_DAY.plusDays(day),
+                value.signum() > 0 ? MovementType.DEPOSITO : MovementType.RETIRO, value, new BigDecimal("1000.00"));
+    }
+}
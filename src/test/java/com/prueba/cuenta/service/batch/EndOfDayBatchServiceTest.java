@@ -0,0 +1,198 @@
+package com.prueba.cuenta.service.batch;
+
+import com.prueba.cuenta.dto.BatchSummaryDTO;
+import com.prueba.cuenta.entity.*;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.BatchCheckpointRepository;
+import com.prueba.cuenta.service.BalanceCheckpointService;
+import com.prueba.cuenta.service.MovementListener;
+import com.prueba.cuenta.service.MovementListeners;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EndOfDayBatchServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2024, 5, 10);
+
+    private AccountRepository accountRepository;
+    private BatchCheckpointRepository checkpointRepository;
+    private MovementListener listener;
+    private BalanceCheckpointService balanceCheckpointService;
+    private EntityManager entityManager;
+    private EndOfDayBatchService service;
+
+    private final Map<Long, BatchCheckpoint> checkpoints = new TreeMap<>();
+    private final List<String> persisted = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        checkpointRepository = mock(BatchCheckpointRepository.class);
+        listener = mock(MovementListener.class);
+        balanceCheckpointService = mock(BalanceCheckpointService.class);
+        entityManager = mock(EntityManager.class);
+        service = new EndOfDayBatchService(accountRepository, checkpointRepository, new MovementListeners(List.of(listener)),
+                mock(OutboxService.class), balanceCheckpointService, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "resumeOnStartup", true);
+        ReflectionTestUtils.setField(service, "threads", 2);
+        ReflectionTestUtils.setField(service, "partitions", 3);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        // 36,5 % anual sobre 365 días: el interés diario es la décima parte del saldo
+        ReflectionTestUtils.setField(service, "annualInterestRate", new BigDecimal("36.5"));
+        ReflectionTestUtils.setField(service, "fee", BigDecimal.ZERO);
+        ReflectionTestUtils.setField(service, "feeMinimumBalance", BigDecimal.ZERO);
+
+        AtomicLong ids = new AtomicLong();
+        when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BatchCheckpoint> created = invocation.getArgument(0);
+            created.forEach(checkpoint -> {
+                checkpoint.setId(ids.incrementAndGet());
+                checkpoints.put(checkpoint.getId(), checkpoint);
+            });
+            return created;
+        });
+        when(checkpointRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(checkpoints.get(invocation.<Long>getArgument(0))));
+        doAnswer(invocation -> persisted.add(invocation.<Movement>getArgument(0).getId()))
+                .when(entityManager).persist(any(Movement.class));
+    }
+
+    @Test
+    void testPartitionsCoverTheWholeRangeInLockedChunks() {
+        savingsAccounts(1, 10);
+
+        BatchSummaryDTO summary = service.run(FECHA);
+
+        assertThat(summary.getParticiones()).isEqualTo(3);
+        assertThat(summary.getCuentas()).isEqualTo(10);
+        assertThat(summary.getMovimientos()).isEqualTo(10);
+        assertThat(checkpoints.values()).extracting(BatchCheckpoint::getRangoInicio, BatchCheckpoint::getRangoFin)
+                .containsExactly(tuple(0, 4), tuple(4, 8), tuple(8, 10));
+        assertThat(checkpoints.values()).allSatisfy(checkpoint -> {
+            assertThat(checkpoint.getEstado()).isEqualTo(BatchStatus.COMPLETADO);
+            assertThat(checkpoint.getUltimaCuenta()).isEqualTo(checkpoint.getRangoFin());
+        });
+        // Cada partición avanza en bloques bloqueados desde la última cuenta confirmada
+        verify(accountRepository).findChunkForUpdate(AccountType.AHORROS, 0, 4, Limit.of(2));
+        verify(accountRepository).findChunkForUpdate(AccountType.AHORROS, 2, 4, Limit.of(2));
+        verify(accountRepository).findChunkForUpdate(AccountType.AHORROS, 4, 8, Limit.of(2));
+        verify(accountRepository).findChunkForUpdate(AccountType.AHORROS, 8, 10, Limit.of(2));
+        assertThat(persisted).containsExactlyInAnyOrderElementsOf(
+                IntStream.rangeClosed(1, 10).mapToObj(account -> "FDD-" + FECHA + "-" + account).toList());
+        verify(balanceCheckpointService, times(10)).movementSaved(any(Movement.class));
+        verify(listener, times(10)).onMovementCreated(any(Movement.class));
+    }
+
+    @Test
+    void testRunWithExistingCheckpointsResumesFromTheLastCommittedAccount() {
+        savingsAccounts(1, 8);
+        checkpoint(1L, 0, 4, 4, BatchStatus.COMPLETADO);
+        checkpoint(2L, 4, 8, 5, BatchStatus.EN_PROCESO);
+        when(checkpointRepository.findByProcesoAndFechaProcesoOrderByRangoInicio(EndOfDayBatchService.PROCESS_NAME, FECHA))
+                .thenReturn(List.copyOf(checkpoints.values()));
+
+        BatchSummaryDTO summary = service.run(FECHA);
+
+        assertThat(summary.getCuentas()).isEqualTo(3);
+        assertThat(persisted).containsExactly("FDD-" + FECHA + "-6", "FDD-" + FECHA + "-7", "FDD-" + FECHA + "-8");
+        verify(accountRepository, never()).findChunkForUpdate(any(), eq(0), anyInt(), any());
+        verify(accountRepository, never()).findMinNumeroCuentaByTipoCuenta(any());
+        verify(checkpointRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testFailedChunkIsResumedOnItsOwnThreadWithTheSameMovementIds() {
+        ReflectionTestUtils.setField(service, "partitions", 1);
+        savingsAccounts(1, 3);
+        // El tercer movimiento falla: el primer bloque queda confirmado y el segundo se revierte
+        doAnswer(invocation -> {
+            String id = invocation.<Movement>getArgument(0).getId();
+            persisted.add(id);
+            if (id.endsWith("-3") && persisted.size() == 3) {
+                throw new IllegalStateException("caída simulada");
+            }
+            return null;
+        }).when(entityManager).persist(any(Movement.class));
+
+        assertThatThrownBy(() -> service.run(FECHA)).isInstanceOf(CompletionException.class);
+        BatchCheckpoint checkpoint = checkpoints.get(1L);
+        assertThat(checkpoint.getEstado()).isEqualTo(BatchStatus.EN_PROCESO);
+        assertThat(checkpoint.getUltimaCuenta()).isEqualTo(2);
+
+        AtomicReference<String> resumeThread = new AtomicReference<>();
+        when(checkpointRepository.findByProcesoAndEstado(EndOfDayBatchService.PROCESS_NAME, BatchStatus.EN_PROCESO))
+                .thenReturn(List.of(checkpoint));
+        when(checkpointRepository.findByProcesoAndFechaProcesoOrderByRangoInicio(EndOfDayBatchService.PROCESS_NAME, FECHA))
+                .thenAnswer(invocation -> {
+                    resumeThread.set(Thread.currentThread().getName());
+                    return List.of(checkpoint);
+                });
+
+        service.resumeIncompleteRuns();
+
+        verify(accountRepository, timeout(5_000).times(2)).findChunkForUpdate(AccountType.AHORROS, 2, 3, Limit.of(2));
+        verify(listener, timeout(5_000).times(3)).onMovementCreated(any(Movement.class));
+        assertThat(resumeThread.get()).isEqualTo("fin-de-dia-reanudacion");
+        assertThat(checkpoint.getEstado()).isEqualTo(BatchStatus.COMPLETADO);
+        // El reintento usa el mismo id: si el primer intento se hubiese confirmado, la clave lo rechazaría
+        assertThat(persisted).containsExactly(
+                "FDD-" + FECHA + "-1", "FDD-" + FECHA + "-2", "FDD-" + FECHA + "-3", "FDD-" + FECHA + "-3");
+    }
+
+    // Métodos privados auxiliares
+    private void savingsAccounts(int from, int to) {
+        when(accountRepository.findMinNumeroCuentaByTipoCuenta(AccountType.AHORROS)).thenReturn(from);
+        when(accountRepository.findMaxNumeroCuentaByTipoCuenta(AccountType.AHORROS)).thenReturn(to);
+        when(accountRepository.findChunkForUpdate(eq(AccountType.AHORROS), anyInt(), anyInt(), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    int desde = invocation.getArgument(1);
+                    int hasta = invocation.getArgument(2);
+                    int limit = invocation.<Limit>getArgument(3).max();
+                    return IntStream.rangeClosed(Math.max(from, desde + 1), Math.min(to, hasta))
+                            .limit(limit)
+                            .mapToObj(this::account)
+                            .toList();
+                });
+    }
+
+    private void checkpoint(Long id, int rangoInicio, int rangoFin, int ultimaCuenta, BatchStatus estado) {
+        BatchCheckpoint checkpoint = new BatchCheckpoint();
+        checkpoint.setId(id);
+        checkpoint.setProceso(EndOfDayBatchService.PROCESS_NAME);
+        checkpoint.setFechaProceso(FECHA);
+        checkpoint.setRangoInicio(rangoInicio);
+        checkpoint.setRangoFin(rangoFin);
+        checkpoint.setUltimaCuenta(ultimaCuenta);
+        checkpoint.setEstado(estado);
+        checkpoints.put(id, checkpoint);
+    }
+
+    private Account account(int numeroCuenta) {
+        Account account = new Account();
+        account.setNumeroCuenta(numeroCuenta);
+        account.setTipoCuenta(AccountType.AHORROS);
+        account.setSaldo(new BigDecimal("100.00"));
+        account.setStatus(true);
+        return account;
+    }
+}
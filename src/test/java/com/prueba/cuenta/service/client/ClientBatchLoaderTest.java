@@ -0,0 +1,204 @@
+package com.prueba.cuenta.service.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientBatchLoaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger bulkRequests = new AtomicInteger();
+    private final AtomicInteger singleRequests = new AtomicInteger();
+    private final List<Integer> bulkSizes = new ArrayList<>();
+
+    private HttpServer server;
+    private volatile boolean bulkSupported = true;
+    private volatile boolean bulkNoContent;
+    private ClientBatchLoader loader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub local que implementa el contrato masivo e individual del servicio de clientes
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/clientes/lote", this::handleBulk);
+        server.createContext("/api/clientes/", this::handleSingle);
+        server.start();
+
+        ClientService clientService = new ClientService(WebClient.create());
+        ReflectionTestUtils.setField(clientService, "clientServiceUrl", "http://localhost:" + server.getAddress().getPort() + "/api/");
+        ReflectionTestUtils.setField(clientService, "idPath", "clientes/");
+        ReflectionTestUtils.setField(clientService, "identificationPath", "clientes/identificacion/");
+        ReflectionTestUtils.setField(clientService, "batchIdPath", "clientes/lote");
+        ReflectionTestUtils.setField(clientService, "batchIdentificationPath", "clientes/identificacion/lote");
+
+        loader = new ClientBatchLoader(clientService, 20, 100, 4, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testConcurrentLookupsAreSentAsOneBulkRequest() {
+        StepVerifier
+                .create(Mono.zip(
+                        loader.loadClientName(1L),
+                        loader.loadClientName(2L),
+                        loader.loadClientName(1L),
+                        loader.loadClientName(3L)))
+                .assertNext(names -> {
+                    assertThat(names.getT1()).isEqualTo("Cliente 1");
+                    assertThat(names.getT2()).isEqualTo("Cliente 2");
+                    assertThat(names.getT3()).isEqualTo("Cliente 1");
+                    assertThat(names.getT4()).isEqualTo("Cliente 3");
+                })
+                .verifyComplete();
+
+        assertThat(bulkRequests.get()).isEqualTo(1);
+        assertThat(bulkSizes).containsExactly(3);
+        assertThat(singleRequests.get()).isZero();
+    }
+
+    @Test
+    void testPreloadedNamesAreServedFromMemory() {
+        ReflectionTestUtils.setField(loader, "nameTtlMillis", 60_000L);
+        ReflectionTestUtils.setField(loader, "maxCachedNames", 100);
+
+        assertThat(loader.preloadClientNames(List.of(1L, 2L, 2L, 404L)).block()).isEqualTo(2L);
+        StepVerifier.create(loader.loadClientName(2L))
+                .expectNext("Cliente 2")
+                .verifyComplete();
+
+        // Una sola solicitud masiva para la precarga; la consulta posterior no sale del proceso
+        assertThat(bulkRequests.get()).isEqualTo(1);
+        assertThat(singleRequests.get()).isZero();
+    }
+
+    @Test
+    void testMissingClientInBulkResponseFailsOnlyThatCaller() {
+        StepVerifier
+                .create(Mono.zip(
+                        loader.loadClientName(1L),
+                        loader.loadClientName(404L).onErrorResume(e -> Mono.just("error: " + e.getMessage()))))
+                .assertNext(names -> {
+                    assertThat(names.getT1()).isEqualTo("Cliente 1");
+                    assertThat(names.getT2()).startsWith("error: Error al consultar el cliente: 404");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testEmptyBulkResponseFailsEveryCallerInsteadOfHanging() {
+        bulkNoContent = true;
+
+        StepVerifier
+                .create(Mono.zip(
+                        loader.loadClientName(1L).onErrorResume(e -> Mono.just("error: " + e.getMessage())),
+                        loader.loadClientName(2L).onErrorResume(e -> Mono.just("error: " + e.getMessage()))))
+                .assertNext(names -> {
+                    assertThat(names.getT1()).isEqualTo("error: Error al consultar el cliente: 1");
+                    assertThat(names.getT2()).isEqualTo("error: Error al consultar el cliente: 2");
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(bulkRequests.get()).isEqualTo(1);
+        assertThat(singleRequests.get()).isZero();
+    }
+
+    @Test
+    void testFallsBackToIndividualCallsWhenBulkEndpointIsMissing() {
+        bulkSupported = false;
+
+        StepVerifier
+                .create(Mono.zip(loader.loadClientName(1L), loader.loadClientName(2L)))
+                .assertNext(names -> {
+                    assertThat(names.getT1()).isEqualTo("Cliente 1");
+                    assertThat(names.getT2()).isEqualTo("Cliente 2");
+                })
+                .verifyComplete();
+
+        // La siguiente ventana ya no intenta el endpoint masivo
+        StepVerifier
+                .create(Mono.zip(loader.loadClientName(3L), loader.loadClientName(4L)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(bulkRequests.get()).isEqualTo(1);
+        assertThat(singleRequests.get()).isEqualTo(4);
+    }
+
+    private void handleBulk(HttpExchange exchange) throws IOException {
+        bulkRequests.incrementAndGet();
+        if (!bulkSupported) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        if (bulkNoContent) {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        StringBuilder details = new StringBuilder();
+        int size = 0;
+        for (JsonNode id : request.get("ids")) {
+            size++;
+            if (id.asLong() == 404L) {
+                continue;
+            }
+            if (!details.isEmpty()) {
+                details.append(',');
+            }
+            details.append(clientJson(id.asLong()));
+        }
+        synchronized (bulkSizes) {
+            bulkSizes.add(size);
+        }
+        respond(exchange, "{\"details\":[" + details + "],"
+                + "\"responseProcess\":{\"code\":\"200\",\"resultMessage\":\"OK\",\"technicalMessage\":\"OK\"}}");
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        singleRequests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        long clientId = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        respond(exchange, "{\"details\":" + clientJson(clientId) + ","
+                + "\"responseProcess\":{\"code\":\"200\",\"resultMessage\":\"OK\",\"technicalMessage\":\"OK\"}}");
+    }
+
+    private String clientJson(long clientId) {
+        return "{\"id\":" + clientId + ",\"nombre\":\"Cliente " + clientId + "\","
+                + "\"identificacion\":\"" + String.format("%010d", clientId) + "\"}";
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.prueba.cuenta.service.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final List<String> THREE_NODES = List.of(
+            "http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+
+    @Test
+    void testAccountsAreSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_NODES, 256);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int account = 478758; account < 478758 + ACCOUNTS; account++) {
+            owned.merge(ring.ownerOf(account), 1, Integer::sum);
+        }
+
+        assertThat(owned).hasSize(3);
+        owned.values().forEach(count -> assertThat(count).isBetween(ACCOUNTS / 3 * 8 / 10, ACCOUNTS / 3 * 12 / 10));
+    }
+
+    @Test
+    void testAddingNodeOnlyMovesAccountsToTheNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(THREE_NODES, 256);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(
+                "http://localhost:8081", "http://localhost:8082", "http://localhost:8083", "http://localhost:8084"), 256);
+
+        int moved = 0;
+        for (int account = 0; account < ACCOUNTS; account++) {
+            String previousOwner = before.ownerOf(account);
+            String newOwner = after.ownerOf(account);
+            if (!previousOwner.equals(newOwner)) {
+                assertThat(newOwner).isEqualTo("http://localhost:8084");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(ACCOUNTS / 4 * 7 / 10, ACCOUNTS / 4 * 13 / 10);
+    }
+
+    @Test
+    void testOwnershipDoesNotDependOnMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_NODES, 64);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of(
+                "http://localhost:8083", "http://localhost:8081", "http://localhost:8082"), 64);
+
+        for (int account = 0; account < 1000; account++) {
+            assertThat(reordered.ownerOf(account)).isEqualTo(ring.ownerOf(account));
+        }
+    }
+}
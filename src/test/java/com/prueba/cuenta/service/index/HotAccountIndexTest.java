@@ -0,0 +1,146 @@
+package com.prueba.cuenta.service.index;
+
+import com.prueba.cuenta.dto.ArchivedMovementDTO;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class HotAccountIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+    private MovementRepository movementRepository;
+    private AccountRepository accountRepository;
+    private HotAccountIndex index;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository = mock(MovementRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findById(7)).thenReturn(Optional.of(account("130.00")));
+        index = new HotAccountIndex(movementRepository, accountRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), true, "7", 64, 0, 500);
+    }
+
+    @Test
+    void testMovementsCommittedDuringLoadAreAppliedOnce() {
+        Movement alreadyRead = movement("m3", DAY.plusDays(1), "-20.00", "130.00");
+        Movement afterRead = movement("m4", DAY.plusDays(1), "5.00", "135.00");
+        when(movementRepository.findRowsByCuenta(7)).thenAnswer(invocation -> {
+            // Confirmados mientras se lee: uno ya está en la lectura y el otro no
+            index.onMovementCreated(alreadyRead);
+            index.onMovementCreated(afterRead);
+            return List.of(row("m1", DAY, "100.00", "100.00"), row("m2", DAY, "50.00", "150.00"),
+                    row("m3", DAY.plusDays(1), "-20.00", "130.00"));
+        });
+
+        index.loadDesignatedAccountsNow();
+
+        HotAccountIndex.IndexedMovements indexed = index.movements(7).orElseThrow();
+        assertThat(indexed.rows()).extracting(ArchivedMovementDTO::getId).containsExactly("m1", "m2", "m3", "m4");
+        assertThat(indexed.rows().get(3).getSaldo()).isEqualByComparingTo("135.00");
+        assertThat(indexed.account().getSaldo()).isEqualByComparingTo("135.00");
+    }
+
+    @Test
+    void testReportRowsAndDiscardAreServedFromColumns() {
+        when(movementRepository.findRowsByCuenta(7)).thenReturn(List.of(
+                row("m1", DAY, "100.00", "100.00"), row("m2", DAY.plusDays(2), "-30.00", "70.00"),
+                row("m3", DAY.plusDays(5), "60.00", "130.00")));
+        index.loadDesignatedAccountsNow();
+        index.onMovementCreated(movement("m0", DAY.minusDays(1), "1.00", "131.00"));
+
+        List<MovementReportDTO> rows = index.reportRows(7, DAY, DAY.plusDays(2)).orElseThrow();
+        assertThat(rows).extracting(MovementReportDTO::getFecha).containsExactly(DAY, DAY.plusDays(2));
+        assertThat(rows.get(1).getSaldoInicial()).isEqualByComparingTo("100.00");
+        assertThat(rows.get(1).getMovimiento()).isEqualByComparingTo("-30.00");
+
+        index.discard(7, List.of(row("m0", DAY.minusDays(1), "1.00", "131.00"), row("m1", DAY, "100.00", "100.00")));
+
+        assertThat(index.ids(7, DAY.minusDays(10), DAY.plusDays(10)).orElseThrow()).containsExactlyInAnyOrder("m2", "m3");
+        assertThat(index.reportRows(8, DAY, DAY)).isEmpty();
+        verify(movementRepository, times(1)).findRowsByCuenta(7);
+        verify(movementRepository, never()).findReportRows(anyInt(), any(), any());
+    }
+
+    @Test
+    void testFractionalCentsRemoveAccountFromIndex() {
+        when(movementRepository.findRowsByCuenta(7)).thenReturn(List.of(row("m1", DAY, "100.00", "100.00")));
+        index.loadDesignatedAccountsNow();
+
+        index.onMovementCreated(movement("m2", DAY, "0.005", "100.005"));
+
+        assertThat(index.isIndexed(7)).isFalse();
+        assertThat(index.movements(7)).isEmpty();
+    }
+
+    @Test
+    void testFailedAppendDropsAccountAndReloadsPinnedOne() {
+        when(movementRepository.findRowsByCuenta(7))
+                .thenReturn(List.of(row("m1", DAY, "100.00", "100.00")))
+                .thenReturn(List.of(row("m1", DAY, "100.00", "100.00"), row("m2", DAY, "30.00", "130.00")));
+        index.loadDesignatedAccountsNow();
+        Movement broken = movement("m2", DAY, "30.00", "130.00");
+        broken.setFecha(null);
+
+        index.onMovementCreated(broken);
+
+        // La cuenta no queda indexada sin el movimiento: se recarga con lo confirmado en la base
+        verify(movementRepository, timeout(5_000).times(2)).findRowsByCuenta(7);
+        await(() -> index.isIndexed(7));
+        assertThat(index.movements(7).orElseThrow().rows()).extracting(ArchivedMovementDTO::getId)
+                .containsExactly("m1", "m2");
+    }
+
+    private void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private Account account(String saldo) {
+        Account account = new Account();
+        account.setNumeroCuenta(7);
+        account.setTipoCuenta(AccountType.AHORROS);
+        account.setSaldo(new BigDecimal(saldo));
+        account.setStatus(true);
+        return account;
+    }
+
+    private ArchivedMovementDTO row(String id, LocalDate fecha, String valor, String saldo) {
+        BigDecimal amount = new BigDecimal(valor);
+        return new ArchivedMovementDTO(id, 7, fecha, amount.signum() < 0 ? MovementType.RETIRO : MovementType.DEPOSITO,
+                amount, new BigDecimal(saldo));
+    }
+
+    private Movement movement(String id, LocalDate fecha, String valor, String saldo) {
+        ArchivedMovementDTO row = row(id, fecha, valor, saldo);
+        Movement movement = new Movement();
+        movement.setId(id);
+        movement.setFecha(fecha);
+        movement.setTipoMovimiento(row.getTipoMovimiento());
+        movement.setValor(row.getValor());
+        movement.setSaldo(row.getSaldo());
+        movement.setCuenta(account(saldo));
+        return movement;
+    }
+}
@@ -0,0 +1,146 @@
+package com.prueba.cuenta.service.journal;
+
+import com.prueba.cuenta.dto.MovementCommandDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.JournalCheckpointRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.service.BalanceCheckpointService;
+import com.prueba.cuenta.service.MovementListeners;
+import com.prueba.cuenta.service.limit.WithdrawalLimitService;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.MDC;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MovementJournalServiceTest {
+
+    private static final Integer CUENTA = 478758;
+    private static final LocalDate FECHA = LocalDate.of(2024, 5, 10);
+    private static final long ROLL_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private WithdrawalLimitService withdrawalLimitService;
+    private JournalLedger journalLedger;
+    private MovementJournalService service;
+    private MovementJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        Account account = new Account();
+        account.setNumeroCuenta(CUENTA);
+        account.setSaldo(new BigDecimal("100.00"));
+        when(accountRepository.findById(CUENTA)).thenReturn(Optional.of(account));
+
+        withdrawalLimitService = mock(WithdrawalLimitService.class);
+        journalLedger = new JournalLedger(accountRepository);
+        service = new MovementJournalService(accountRepository, mock(MovementRepository.class),
+                mock(JournalCheckpointRepository.class), journalLedger, withdrawalLimitService, new MovementListeners(List.of()),
+                mock(OutboxService.class), mock(BalanceCheckpointService.class), mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "appendTimeoutMillis", 100L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        MDC.clear();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testFailedAppendRollsBackLedgerAndLimit() throws Exception {
+        useJournal(0);
+        journal.close();
+
+        ApiResponseClient<Movement> response = accept("mov-1", "-40.00");
+
+        assertThat(response.getResponseProcess().getCode()).isEqualTo("1");
+        assertThat(response.getResponseProcess().getResultMessage()).startsWith("No se pudo registrar el movimiento");
+        verify(withdrawalLimitService).reserve(eq("mov-1"), any(Account.class), eq(FECHA), eq(new BigDecimal("-40.00")));
+        verify(withdrawalLimitService).release("mov-1");
+        assertThat(journalLedger.pendingAccounts()).isZero();
+    }
+
+    @Test
+    void testTimedOutQueuedAppendIsCancelledAndNeverWritten() throws Exception {
+        useJournal(500);
+        // La primera entrada retiene al escritor durante la espera de agrupación
+        CompletableFuture<JournalEntry> holder = journal.append(
+                JournalEntry.of("otra", 1, FECHA, MovementType.DEPOSITO, BigDecimal.ONE, BigDecimal.ONE));
+
+        ApiResponseClient<Movement> response = accept("mov-1", "-40.00");
+
+        assertThat(response.getResponseProcess().getResultMessage()).isEqualTo("Tiempo de espera agotado al registrar el movimiento");
+        verify(withdrawalLimitService).release("mov-1");
+        assertThat(journalLedger.pendingAccounts()).isZero();
+        holder.join();
+        assertThat(journal.read(0, 10)).extracting(JournalEntry::id).containsExactly("otra");
+    }
+
+    @Test
+    void testTimedOutAppendWithLaterEntryOfSameAccountWaitsForTheOutcome() throws Exception {
+        useJournal(500);
+        CompletableFuture<JournalEntry> holder = journal.append(
+                JournalEntry.of("otra", 1, FECHA, MovementType.DEPOSITO, BigDecimal.ONE, BigDecimal.ONE));
+
+        CompletableFuture<ApiResponseClient<Movement>> first = CompletableFuture.supplyAsync(() -> accept("mov-1", "50.00"));
+        TimeUnit.MILLISECONDS.sleep(30);
+        ApiResponseClient<Movement> second = accept("mov-2", "-20.00");
+
+        // La segunda es la última de la cuenta y se cancela; la primera ya no puede retirarse y espera
+        assertThat(second.getResponseProcess().getResultMessage()).isEqualTo("Tiempo de espera agotado al registrar el movimiento");
+        ApiResponseClient<Movement> firstResponse = first.get(5, TimeUnit.SECONDS);
+        assertThat(firstResponse.getResponseProcess().getCode()).isEqualTo("0");
+        assertThat(firstResponse.getDetails().getSaldo()).isEqualByComparingTo("150.00");
+        verify(withdrawalLimitService).release("mov-2");
+        verify(withdrawalLimitService, never()).release("mov-1");
+
+        holder.join();
+        assertThat(journal.read(0, 10)).extracting(JournalEntry::id).containsExactly("otra", "mov-1");
+        assertThat(journalLedger.reserve(CUENTA, BigDecimal.ZERO, reserved -> { }).getSaldo()).isEqualByComparingTo("150.00");
+    }
+
+    private void useJournal(long groupCommitMillis) throws Exception {
+        journal = MovementJournal.open(directory, 0, ROLL_BYTES, TimeUnit.MILLISECONDS.toNanos(groupCommitMillis));
+        ReflectionTestUtils.setField(service, "journal", journal);
+    }
+
+    private ApiResponseClient<Movement> accept(String id, String valor) {
+        MDC.put("uuid", id);
+        try {
+            MovementCommandDTO command = new MovementCommandDTO();
+            command.setFecha(FECHA);
+            command.setValor(new BigDecimal(valor));
+            command.setCuentaId(CUENTA);
+            return service.accept(command).block();
+        } finally {
+            MDC.remove("uuid");
+        }
+    }
+}
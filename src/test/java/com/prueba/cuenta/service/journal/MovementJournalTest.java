@@ -0,0 +1,115 @@
+package com.prueba.cuenta.service.journal;
+
+import com.prueba.cuenta.entity.MovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovementJournalTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2024, 5, 10);
+    private static final long ROLL_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendedEntriesAreDurableAndReadInOrder() throws Exception {
+        try (MovementJournal journal = MovementJournal.open(directory, 0, ROLL_BYTES, 0)) {
+            List<CompletableFuture<JournalEntry>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(journal.append(entry("mov-" + i, new BigDecimal("10.50"))));
+            }
+            JournalEntry last = futures.get(49).join();
+            assertThat(journal.getDurableOffset()).isEqualTo(last.nextOffset());
+
+            List<JournalEntry> entries = journal.read(0, 100);
+            assertThat(entries).hasSize(50);
+            assertThat(entries.get(0).offset()).isZero();
+            assertThat(entries.get(1).offset()).isEqualTo(entries.get(0).nextOffset());
+            assertThat(entries.get(49).id()).isEqualTo("mov-49");
+            assertThat(entries.get(49).valor()).isEqualTo(new BigDecimal("10.50"));
+            assertThat(entries.get(49).fecha()).isEqualTo(FECHA);
+
+            assertThat(journal.read(entries.get(10).offset(), 5)).extracting(JournalEntry::id)
+                    .containsExactly("mov-10", "mov-11", "mov-12", "mov-13", "mov-14");
+        }
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnRecovery() throws Exception {
+        long durable;
+        try (MovementJournal journal = MovementJournal.open(directory, 0, ROLL_BYTES, 0)) {
+            journal.append(entry("mov-1", BigDecimal.ONE)).join();
+            durable = journal.append(entry("mov-2", BigDecimal.TEN)).join().nextOffset();
+        }
+        Path file;
+        try (var files = Files.list(directory)) {
+            file = files.findFirst().orElseThrow();
+        }
+        // Simula una caída a mitad de escritura: cabecera sin contenido completo
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5}));
+        }
+
+        try (MovementJournal journal = MovementJournal.open(directory, 0, ROLL_BYTES, 0)) {
+            assertThat(journal.getDurableOffset()).isEqualTo(durable);
+            assertThat(Files.size(file)).isEqualTo(durable);
+            JournalEntry third = journal.append(entry("mov-3", BigDecimal.ONE)).join();
+            assertThat(third.offset()).isEqualTo(durable);
+            assertThat(journal.read(0, 10)).extracting(JournalEntry::id).containsExactly("mov-1", "mov-2", "mov-3");
+        }
+    }
+
+    @Test
+    void testOffsetsContinueFromAppliedPositionWhenFilesAreMissing() throws IOException {
+        try (MovementJournal journal = MovementJournal.open(directory, 5_000, ROLL_BYTES, 0)) {
+            JournalEntry entry = journal.append(entry("mov-1", BigDecimal.ONE)).join();
+            assertThat(entry.offset()).isEqualTo(5_000);
+
+            journal.deleteBefore(entry.nextOffset());
+            assertThat(journal.read(5_000, 10)).extracting(JournalEntry::id).containsExactly("mov-1");
+        }
+    }
+
+    @Test
+    void testQueuedEntryIsCancelledOnlyWhenItIsTheLastOfItsAccount() throws Exception {
+        // La espera de agrupación retiene el lote de la primera entrada mientras se encolan las demás
+        try (MovementJournal journal = MovementJournal.open(directory, 0, ROLL_BYTES, TimeUnit.MILLISECONDS.toNanos(300))) {
+            CompletableFuture<JournalEntry> first = journal.append(entry("mov-1", 1, BigDecimal.ONE));
+            CompletableFuture<JournalEntry> second = journal.append(entry("mov-2", 2, BigDecimal.ONE));
+            CompletableFuture<JournalEntry> third = journal.append(entry("mov-3", 2, BigDecimal.TEN));
+
+            assertThat(journal.cancelIfLast(second)).isFalse();
+            assertThat(journal.cancelIfLast(third)).isTrue();
+
+            first.join();
+            second.join();
+            assertThat(third).isCancelled();
+            assertThat(journal.read(0, 10)).extracting(JournalEntry::id).containsExactly("mov-1", "mov-2");
+            assertThat(journal.cancelIfLast(second)).isFalse();
+        }
+    }
+
+    private JournalEntry entry(String id, BigDecimal valor) {
+        return entry(id, 478758, valor);
+    }
+
+    private JournalEntry entry(String id, Integer numeroCuenta, BigDecimal valor) {
+        return JournalEntry.of(id, numeroCuenta, FECHA, MovementType.DEPOSITO, valor, new BigDecimal("2000.00"));
+    }
+}
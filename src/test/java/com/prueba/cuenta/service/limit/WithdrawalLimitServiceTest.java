@@ -0,0 +1,143 @@
+package com.prueba.cuenta.service.limit;
+
+import com.prueba.cuenta.dto.WithdrawalTotalDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.MovementType;
+import com.prueba.cuenta.exception.AccountBusinessException;
+import com.prueba.cuenta.repository.MovementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class WithdrawalLimitServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private MovementRepository movementRepository;
+    private WithdrawalLimitService service;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository = mock(MovementRepository.class);
+        when(movementRepository.sumWithdrawalsByDaySince(anyInt(), any(LocalDate.class))).thenReturn(List.of());
+        // Ahorros: 100 por día y 250 en 3 días; la cuenta 3 tiene su propio límite diario de 500
+        service = new WithdrawalLimitService(movementRepository, new SimpleMeterRegistry(),
+                true, 3, 1000, "AHORROS:100:250", "3:500:0");
+    }
+
+    @Test
+    void testDailyLimitRejectsWithdrawalThatWouldExceedIt() {
+        service.reserve("m1", account(1, AccountType.AHORROS), TODAY, new BigDecimal("-60.00"));
+        service.reserve("d1", account(1, AccountType.AHORROS), TODAY, new BigDecimal("500.00"));
+
+        assertThatThrownBy(() -> service.reserve("m2", account(1, AccountType.AHORROS), TODAY, new BigDecimal("-40.01")))
+                .isInstanceOf(AccountBusinessException.class)
+                .hasMessage("Límite de retiro diario excedido");
+        service.reserve("m3", account(1, AccountType.AHORROS), TODAY, new BigDecimal("-40.00"));
+        // Los contadores se cargan de la base una sola vez por cuenta
+        verify(movementRepository, times(1)).sumWithdrawalsByDaySince(eq(1), any(LocalDate.class));
+    }
+
+    @Test
+    void testRollingWindowAddsWithdrawalsOfPreviousDays() {
+        when(movementRepository.sumWithdrawalsByDaySince(eq(2), any(LocalDate.class))).thenReturn(List.of(
+                new WithdrawalTotalDTO(2, TODAY.minusDays(2), new BigDecimal("-100.00")),
+                new WithdrawalTotalDTO(2, TODAY.minusDays(1), new BigDecimal("-100.00")),
+                new WithdrawalTotalDTO(2, TODAY.minusDays(3), new BigDecimal("-100.00"))));
+
+        assertThatThrownBy(() -> service.reserve("m1", account(2, AccountType.AHORROS), TODAY, new BigDecimal("-60.00")))
+                .hasMessage("Límite de retiro de 3 días excedido");
+        service.reserve("m2", account(2, AccountType.AHORROS), TODAY, new BigDecimal("-50.00"));
+    }
+
+    @Test
+    void testAccountLimitOverridesTypeAndOtherTypesAreUnlimited() {
+        service.reserve("m1", account(3, AccountType.AHORROS), TODAY, new BigDecimal("-450.00"));
+        service.reserve("m2", account(4, AccountType.CORRIENTE), TODAY, new BigDecimal("-10000.00"));
+
+        verify(movementRepository, never()).sumWithdrawalsByDaySince(eq(4), any(LocalDate.class));
+    }
+
+    @Test
+    void testReleasedAndConfirmedReservationsAreCountedOnce() {
+        Account account = account(5, AccountType.AHORROS);
+        service.reserve("m1", account, TODAY, new BigDecimal("-80.00"));
+        service.release("m1");
+        service.reserve("m2", account, TODAY, new BigDecimal("-80.00"));
+        service.onMovementCreated(movement("m2", account, "-80.00"));
+
+        assertThatThrownBy(() -> service.reserve("m3", account, TODAY, new BigDecimal("-30.00")))
+                .isInstanceOf(AccountBusinessException.class);
+
+        // Un retiro confirmado por otro proceso también cuenta
+        Account other = account(6, AccountType.AHORROS);
+        service.reserve("m4", other, TODAY, new BigDecimal("-10.00"));
+        service.onMovementCreated(movement("lote-1", other, "-85.00"));
+        assertThatThrownBy(() -> service.reserve("m5", other, TODAY, new BigDecimal("-10.00")))
+                .isInstanceOf(AccountBusinessException.class);
+    }
+
+    @Test
+    void testStartRebuildsCountersFromDatabase() {
+        when(movementRepository.sumWithdrawalsByDaySince(any(LocalDate.class))).thenReturn(List.of(
+                new WithdrawalTotalDTO(7, TODAY, new BigDecimal("-95.00"))));
+
+        service.start();
+
+        assertThatThrownBy(() -> service.reserve("m1", account(7, AccountType.AHORROS), TODAY, new BigDecimal("-10.00")))
+                .isInstanceOf(AccountBusinessException.class);
+        verify(movementRepository, never()).sumWithdrawalsByDaySince(eq(7), any(LocalDate.class));
+    }
+
+    @Test
+    void testOldDatesAreCheckedAgainstDatabase() {
+        LocalDate old = TODAY.minusDays(30);
+        when(movementRepository.sumWithdrawalsBetween(eq(8), any(LocalDate.class), eq(old))).thenReturn(new BigDecimal("-90.00"));
+
+        assertThatThrownBy(() -> service.reserve("m1", account(8, AccountType.AHORROS), old, new BigDecimal("-20.00")))
+                .hasMessage("Límite de retiro diario excedido");
+    }
+
+    @Test
+    void testLeastRecentlyUsedAccountsAreEvictedAndReloaded() {
+        service = new WithdrawalLimitService(movementRepository, new SimpleMeterRegistry(),
+                true, 3, 2, "AHORROS:100:250", "");
+        for (int numeroCuenta = 10; numeroCuenta < 13; numeroCuenta++) {
+            service.reserve("m" + numeroCuenta, account(numeroCuenta, AccountType.AHORROS), TODAY, new BigDecimal("-1.00"));
+            service.onMovementCreated(movement("m" + numeroCuenta, account(numeroCuenta, AccountType.AHORROS), "-1.00"));
+        }
+
+        service.reserve("n10", account(10, AccountType.AHORROS), TODAY, new BigDecimal("-1.00"));
+
+        verify(movementRepository, times(2)).sumWithdrawalsByDaySince(eq(10), any(LocalDate.class));
+    }
+
+    private Account account(int numeroCuenta, AccountType tipo) {
+        Account account = new Account();
+        account.setNumeroCuenta(numeroCuenta);
+        account.setTipoCuenta(tipo);
+        return account;
+    }
+
+    private Movement movement(String id, Account account, String valor) {
+        Movement movement = new Movement();
+        movement.setId(id);
+        movement.setCuenta(account);
+        movement.setFecha(TODAY);
+        movement.setValor(new BigDecimal(valor));
+        movement.setTipoMovimiento(MovementType.RETIRO);
+        return movement;
+    }
+}
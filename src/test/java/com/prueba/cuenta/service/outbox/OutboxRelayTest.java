@@ -0,0 +1,93 @@
+package com.prueba.cuenta.service.outbox;
+
+import com.prueba.cuenta.entity.OutboxEvent;
+import com.prueba.cuenta.entity.OutboxEventType;
+import com.prueba.cuenta.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private final List<OutboxEvent> table = new ArrayList<>();
+
+    private OutboxEventRepository repository;
+    private InMemoryOutboxSink sink;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        // La tabla simulada devuelve los eventos por id, hasta el límite pedido
+        when(repository.findBatch(any(Instant.class), any(Limit.class))).thenAnswer(invocation -> {
+            int max = invocation.<Limit>getArgument(1).max();
+            return table.stream().limit(max).toList();
+        });
+        doAnswer(invocation -> table.removeIf(event -> invocation.<Collection<Long>>getArgument(0).contains(event.getId())))
+                .when(repository).deleteAllByIdInBatch(any());
+        sink = new InMemoryOutboxSink(5);
+    }
+
+    @Test
+    void testRelayDrainsInBatchesInIdOrder() {
+        for (long id = 1; id <= 7; id++) {
+            table.add(event(id, (int) (id % 2)));
+        }
+        InMemoryOutboxSink large = new InMemoryOutboxSink(100);
+        OutboxRelay relay = relay(large, 3);
+
+        assertThat(relay.relay()).isEqualTo(7);
+        verify(repository, times(3)).findBatch(any(Instant.class), any(Limit.class));
+
+        assertThat(large.drain(10)).extracting(OutboxEvent::getId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(table).isEmpty();
+    }
+
+    @Test
+    void testFailedBatchStaysInTableAndIsResent() {
+        for (long id = 1; id <= 6; id++) {
+            table.add(event(id, 7));
+        }
+        // El destino en memoria tiene capacidad 5: el segundo lote de 3 no cabe
+        OutboxRelay relay = relay(sink, 3);
+
+        assertThat(relay.relay()).isEqualTo(3);
+        assertThat(table).extracting(OutboxEvent::getId).containsExactly(4L, 5L, 6L);
+        assertThat(relay.relay()).isZero();
+
+        assertThat(sink.drain(2)).extracting(OutboxEvent::getId).containsExactly(1L, 2L);
+        assertThat(relay.relay()).isEqualTo(3);
+        assertThat(sink.drain(10)).extracting(OutboxEvent::getId).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(table).isEmpty();
+    }
+
+    private OutboxRelay relay(OutboxSink destination, int batchSize) {
+        OutboxRelay relay = new OutboxRelay(repository, List.of(new FileOutboxSink(null, "no-usado"), destination),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), InMemoryOutboxSink.NAME);
+        ReflectionTestUtils.setField(relay, "batchSize", batchSize);
+        return relay;
+    }
+
+    private OutboxEvent event(long id, int numeroCuenta) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setTipo(OutboxEventType.MOVIMIENTO_CREADO);
+        event.setNumeroCuenta(numeroCuenta);
+        event.setReferencia("m" + id);
+        event.setContenido("{}");
+        event.setFechaCreacion(Instant.EPOCH);
+        return event;
+    }
+}
@@ -0,0 +1,93 @@
+package com.prueba.cuenta.service.reconciliation;
+
+import com.prueba.cuenta.dto.LedgerDiscrepancyDTO;
+import com.prueba.cuenta.dto.LedgerRowDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerChainCheckerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    private List<LedgerDiscrepancyDTO> found;
+    private LedgerChainChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        found = new ArrayList<>();
+        checker = new LedgerChainChecker(found::add);
+    }
+
+    @Test
+    void testConsistentLedgerHasNoDiscrepancies() {
+        checker.accept(row(1, "a", DAY, "100.00", "100.00", "70.00"));
+        checker.accept(row(1, "b", DAY.plusDays(1), "-50.00", "50.00", "70.00"));
+        checker.accept(row(1, "c", DAY.plusDays(2), "20.00", "70.00", "70.00"));
+        checker.accept(row(2, "d", DAY, "10.00", "10.00", "10.00"));
+        checker.finish();
+
+        assertThat(found).isEmpty();
+        assertThat(checker.getAccounts()).isEqualTo(2);
+        assertThat(checker.getMovements()).isEqualTo(4);
+    }
+
+    @Test
+    void testSameDayMovementsAreChainedInAnyOrder() {
+        // 100 → 110 → 100 → 105, leídos en otro orden; el saldo 100 se repite
+        checker.accept(row(1, "a", DAY, "100.00", "100.00", "105.00"));
+        checker.accept(row(1, "d", DAY.plusDays(1), "5.00", "105.00", "105.00"));
+        checker.accept(row(1, "b", DAY.plusDays(1), "10.00", "110.00", "105.00"));
+        checker.accept(row(1, "c", DAY.plusDays(1), "-10.00", "100.00", "105.00"));
+        checker.finish();
+
+        assertThat(found).isEmpty();
+    }
+
+    @Test
+    void testBrokenChainIsReported() {
+        checker.accept(row(1, "a", DAY, "100.00", "100.00", "130.00"));
+        checker.accept(row(1, "b", DAY.plusDays(1), "20.00", "130.00", "130.00"));
+        checker.finish();
+
+        assertThat(found).singleElement().satisfies(discrepancy -> {
+            assertThat(discrepancy.getTipo()).isEqualTo(LedgerChainChecker.CHAIN);
+            assertThat(discrepancy.getMovimientoId()).isEqualTo("b");
+            assertThat(discrepancy.getEsperado()).isEqualByComparingTo("100.00");
+            assertThat(discrepancy.getEncontrado()).isEqualByComparingTo("110.00");
+        });
+    }
+
+    @Test
+    void testBrokenSameDayChainIsReported() {
+        checker.accept(row(1, "a", DAY, "100.00", "100.00", "150.00"));
+        checker.accept(row(1, "b", DAY.plusDays(1), "10.00", "110.00", "150.00"));
+        checker.accept(row(1, "c", DAY.plusDays(1), "30.00", "150.00", "150.00"));
+        checker.finish();
+
+        assertThat(found).extracting(LedgerDiscrepancyDTO::getMovimientoId).containsExactly("c");
+    }
+
+    @Test
+    void testAccountBalanceMustMatchLastMovement() {
+        checker.accept(row(1, "a", DAY, "100.00", "100.00", "90.00"));
+        checker.finish();
+
+        assertThat(found).singleElement().satisfies(discrepancy -> {
+            assertThat(discrepancy.getTipo()).isEqualTo(LedgerChainChecker.FINAL_BALANCE);
+            assertThat(discrepancy.getNumeroCuenta()).isEqualTo(1);
+            assertThat(discrepancy.getEsperado()).isEqualByComparingTo("100.00");
+            assertThat(discrepancy.getEncontrado()).isEqualByComparingTo("90.00");
+        });
+    }
+
+    private LedgerRowDTO row(int cuenta, String id, LocalDate fecha, String valor, String saldo, String saldoCuenta) {
+        return new LedgerRowDTO(cuenta, id, fecha, new BigDecimal(valor), new BigDecimal(saldo), new BigDecimal(saldoCuenta));
+    }
+}
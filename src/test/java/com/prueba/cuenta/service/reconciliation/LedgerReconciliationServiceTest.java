@@ -0,0 +1,157 @@
+package com.prueba.cuenta.service.reconciliation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.dto.LedgerRowDTO;
+import com.prueba.cuenta.dto.ReconciliationSummaryDTO;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.repository.MovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class LedgerReconciliationServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private AccountRepository accountRepository;
+    private MovementRepository movementRepository;
+    private LedgerReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        movementRepository = mock(MovementRepository.class);
+        when(movementRepository.streamLedger(anyInt(), anyInt())).thenAnswer(invocation -> Stream.empty());
+        service = new LedgerReconciliationService(accountRepository, movementRepository, objectMapper,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "threads", 2);
+        ReflectionTestUtils.setField(service, "partitions", 4);
+        ReflectionTestUtils.setField(service, "directory", directory.toString());
+    }
+
+    @Test
+    void testSingleAccountIsReconciledInOneRange() {
+        accounts(5, 5);
+
+        ReconciliationSummaryDTO summary = service.reconcile();
+
+        assertThat(summary.getParticiones()).isEqualTo(1);
+        verify(movementRepository).streamLedger(4, 5);
+        verifyNoMoreInteractions(movementRepository);
+    }
+
+    @Test
+    void testSpanSmallerThanPartitionsUsesOneAccountPerRange() {
+        accounts(10, 12);
+
+        ReconciliationSummaryDTO summary = service.reconcile();
+
+        // Tres cuentas y cuatro particiones: no quedan rangos vacíos ni solapados
+        assertThat(summary.getParticiones()).isEqualTo(3);
+        verify(movementRepository).streamLedger(9, 10);
+        verify(movementRepository).streamLedger(10, 11);
+        verify(movementRepository).streamLedger(11, 12);
+        verifyNoMoreInteractions(movementRepository);
+    }
+
+    @Test
+    void testUnevenSpanLeavesTheRemainderInTheLastRange() {
+        ReflectionTestUtils.setField(service, "partitions", 3);
+        accounts(1, 10);
+
+        service.reconcile();
+
+        verify(movementRepository).streamLedger(0, 4);
+        verify(movementRepository).streamLedger(4, 8);
+        verify(movementRepository).streamLedger(8, 10);
+        verifyNoMoreInteractions(movementRepository);
+    }
+
+    @Test
+    void testDiscrepanciesOfAllRangesAreMergedIntoOneReport() throws IOException {
+        accounts(1, 8);
+        ledger(Map.of(
+                0, List.of(row(1, "a", "100.00", "100.00", "100.00"), row(2, "b", "50.00", "50.00", "40.00")),
+                4, List.of(row(5, "c", "10.00", "10.00", "10.00"), row(6, "d", "20.00", "20.00", "25.00"))));
+
+        ReconciliationSummaryDTO summary = service.reconcile();
+
+        assertThat(summary.getParticiones()).isEqualTo(4);
+        assertThat(summary.getCuentas()).isEqualTo(4);
+        assertThat(summary.getMovimientos()).isEqualTo(4);
+        assertThat(summary.getDiscrepancias()).isEqualTo(2);
+        Path report = Path.of(summary.getReporte());
+        assertThat(report).hasParent(directory);
+        assertThat(report.getFileName().toString()).startsWith("conciliacion-").endsWith(".ndjson");
+        assertThat(readReport(report)).extracting(line -> line.get("numeroCuenta").asInt()).containsExactlyInAnyOrder(2, 6);
+        // Solo queda el reporte publicado, sin el temporal
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactly(report);
+        }
+    }
+
+    @Test
+    void testFailedRangePublishesNoReport() throws IOException {
+        accounts(1, 8);
+        when(movementRepository.streamLedger(4, 6)).thenThrow(new IllegalStateException("conexión perdida"));
+
+        assertThatThrownBy(() -> service.reconcile())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("conexión perdida");
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        // La ejecución fallida no deja tomada la conciliación
+        reset(movementRepository);
+        when(movementRepository.streamLedger(anyInt(), anyInt())).thenAnswer(invocation -> Stream.empty());
+        assertThat(service.reconcile().getDiscrepancias()).isZero();
+    }
+
+    // Métodos privados auxiliares
+    private void accounts(int min, int max) {
+        when(accountRepository.findMinNumeroCuenta()).thenReturn(min);
+        when(accountRepository.findMaxNumeroCuenta()).thenReturn(max);
+    }
+
+    private void ledger(Map<Integer, List<LedgerRowDTO>> rowsByRangeStart) {
+        when(movementRepository.streamLedger(anyInt(), anyInt())).thenAnswer(invocation ->
+                rowsByRangeStart.getOrDefault(invocation.<Integer>getArgument(0), List.of()).stream());
+    }
+
+    private List<JsonNode> readReport(Path report) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(report)) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private LedgerRowDTO row(int cuenta, String id, String valor, String saldo, String saldoCuenta) {
+        return new LedgerRowDTO(cuenta, id, DAY, new BigDecimal(valor), new BigDecimal(saldo), new BigDecimal(saldoCuenta));
+    }
+}
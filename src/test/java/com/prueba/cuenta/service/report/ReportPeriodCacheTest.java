@@ -0,0 +1,84 @@
+package com.prueba.cuenta.service.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prueba.cuenta.dto.MovementReportDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportPeriodCacheTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2024, 2);
+
+    @TempDir
+    Path directory;
+
+    private ReportPeriodCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // Memoria para 2 filas: la tercera obliga a bajar a disco el mes menos usado
+        cache = new ReportPeriodCache(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(),
+                true, 2, 16, directory.toString());
+    }
+
+    @Test
+    void testEvictedPeriodIsSpilledToDiskAndReadBack() {
+        cache.put(1, JANUARY, List.of(row(JANUARY, "10.00"), row(JANUARY, "20.00")), cache.generation(1));
+        cache.put(1, FEBRUARY, List.of(row(FEBRUARY, "30.00")), cache.generation(1));
+
+        assertThat(cache.getMemoryRows()).isEqualTo(1);
+        assertThat(cache.getDiskBytes()).isPositive();
+
+        List<MovementReportDTO> january = cache.get(1, JANUARY);
+        assertThat(january).extracting(MovementReportDTO::getMovimiento)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("20.00"));
+        assertThat(january.get(0).getFecha()).isEqualTo(JANUARY.atDay(1));
+    }
+
+    @Test
+    void testInvalidationRemovesMemoryAndDiskEntries() {
+        cache.put(1, JANUARY, List.of(row(JANUARY, "10.00"), row(JANUARY, "20.00")), cache.generation(1));
+        cache.put(1, FEBRUARY, List.of(row(FEBRUARY, "30.00")), cache.generation(1));
+
+        cache.invalidate(1, FEBRUARY);
+        assertThat(cache.get(1, FEBRUARY)).isNull();
+
+        cache.invalidateAccount(1);
+        assertThat(cache.get(1, JANUARY)).isNull();
+        assertThat(cache.getDiskBytes()).isZero();
+        assertThat(directory.toFile().list()).isEmpty();
+    }
+
+    @Test
+    void testLoadStartedBeforeInvalidationIsNotStored() {
+        long generation = cache.generation(1);
+        cache.invalidate(1, JANUARY);
+
+        cache.put(1, JANUARY, List.of(row(JANUARY, "10.00")), generation);
+
+        assertThat(cache.get(1, JANUARY)).isNull();
+    }
+
+    private MovementReportDTO row(YearMonth month, String value) {
+        MovementReportDTO dto = new MovementReportDTO();
+        dto.setFecha(month.atDay(1));
+        dto.setCliente("Cliente 1");
+        dto.setNumeroCuenta("1");
+        dto.setTipo("AHORROS");
+        dto.setEstado(true);
+        dto.setMovimiento(new BigDecimal(value));
+        dto.setSaldoInicial(BigDecimal.ZERO);
+        dto.setSaldoDisponible(new BigDecimal(value));
+        return dto;
+    }
+}
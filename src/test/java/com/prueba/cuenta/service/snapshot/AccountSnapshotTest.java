@@ -0,0 +1,92 @@
+package com.prueba.cuenta.service.snapshot;
+
+import com.prueba.cuenta.dto.AccountSnapshotRowDTO;
+import com.prueba.cuenta.entity.AccountType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountSnapshotTest {
+
+    private static final Instant MARKER = Instant.parse("2024-05-10T12:00:00.123456Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrittenSnapshotIsReadBackByColumn() throws IOException {
+        Path path = directory.resolve("cuentas-1.col");
+        try (AccountSnapshotWriter writer = AccountSnapshotWriter.create(path, 1024)) {
+            for (int account = 100; account < 1100; account += 10) {
+                assertThat(writer.put(account(account, BigDecimal.valueOf(account, 2), true))).isTrue();
+            }
+            writer.put(account(2000, new BigDecimal("-1.005"), false));
+            writer.finish(1, MARKER);
+        }
+
+        AccountSnapshot snapshot = AccountSnapshot.open(path);
+        assertThat(snapshot.getGeneration()).isEqualTo(1);
+        assertThat(snapshot.getRows()).isEqualTo(101);
+        assertThat(snapshot.getSortedRows()).isEqualTo(101);
+        assertThat(snapshot.getMarker()).isEqualTo(MARKER);
+
+        int row = snapshot.find(550);
+        assertThat(snapshot.numeroCuenta(row)).isEqualTo(550);
+        assertThat(snapshot.saldo(row)).isEqualByComparingTo("5.50");
+        assertThat(snapshot.clienteId(row)).isEqualTo(55L);
+        assertThat(snapshot.tipoCuenta(row)).isEqualTo(AccountType.AHORROS);
+        assertThat(snapshot.isActive(row)).isTrue();
+        assertThat(snapshot.find(555)).isEqualTo(-1);
+
+        // Las fracciones de centavo se redondean y se marcan
+        int inexact = snapshot.find(2000);
+        assertThat(snapshot.saldo(inexact)).isEqualByComparingTo("-1.00");
+        assertThat(snapshot.isActive(inexact)).isFalse();
+        assertThat(snapshot.estado(inexact) & AccountSnapshot.INEXACT_BALANCE).isNotZero();
+    }
+
+    @Test
+    void testIncrementalCopyRewritesOnlyChangedAndNewAccounts() throws IOException {
+        Path first = directory.resolve("cuentas-1.col");
+        try (AccountSnapshotWriter writer = AccountSnapshotWriter.create(first, 5)) {
+            for (int account = 10; account <= 40; account += 10) {
+                writer.put(account(account, BigDecimal.TEN, true));
+            }
+            writer.finish(1, MARKER);
+        }
+        AccountSnapshot previous = AccountSnapshot.open(first);
+
+        Path second = directory.resolve("cuentas-2.col");
+        try (AccountSnapshotWriter writer = AccountSnapshotWriter.copyOf(previous, second)) {
+            // Sin cambios reales no cuenta como fila escrita
+            writer.put(account(10, BigDecimal.TEN, true));
+            writer.put(account(20, new BigDecimal("25.00"), true));
+            writer.put(account(15, BigDecimal.ONE, true));
+            assertThat(writer.put(account(50, BigDecimal.ONE, true))).isFalse();
+            assertThat(writer.getChangedRows()).isEqualTo(2);
+            writer.finish(2, MARKER.plusSeconds(60));
+        }
+
+        AccountSnapshot snapshot = AccountSnapshot.open(second);
+        assertThat(snapshot.getRows()).isEqualTo(5);
+        assertThat(snapshot.getSortedRows()).isEqualTo(4);
+        assertThat(snapshot.saldo(snapshot.find(20))).isEqualByComparingTo("25.00");
+        assertThat(snapshot.find(15)).isEqualTo(4);
+        assertThat(snapshot.find(50)).isEqualTo(-1);
+
+        // La generación anterior no cambia
+        assertThat(previous.saldo(previous.find(20))).isEqualByComparingTo("10");
+        assertThat(previous.getRows()).isEqualTo(4);
+    }
+
+    private AccountSnapshotRowDTO account(int numeroCuenta, BigDecimal saldo, boolean status) {
+        return new AccountSnapshotRowDTO(numeroCuenta, numeroCuenta % 20 == 10 ? AccountType.AHORROS : AccountType.CORRIENTE,
+                saldo, status, numeroCuenta / 10L, MARKER);
+    }
+}
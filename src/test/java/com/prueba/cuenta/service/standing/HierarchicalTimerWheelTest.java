@@ -0,0 +1,69 @@
+package com.prueba.cuenta.service.standing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimerWheelTest {
+
+    private static final long TICK = 100;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void testEntriesExpireInTheirTickAcrossAllLevels() {
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(TICK, START);
+        Map<Long, Long> pending = new HashMap<>();
+        Random random = new Random(1);
+        long now = START;
+        long id = 0;
+        for (int step = 0; step < 5_000; step++) {
+            for (int i = random.nextInt(20); i > 0; i--) {
+                // Vencidas, próximas, dentro de la hora y a semanas, para pasar por todos los niveles
+                long due = switch (random.nextInt(4)) {
+                    case 0 -> now - random.nextInt(100_000);
+                    case 1 -> now + random.nextInt(10_000);
+                    case 2 -> now + random.nextInt(3_600_000);
+                    default -> now + (long) (random.nextDouble() * 40 * 86_400_000L);
+                };
+                wheel.schedule(++id, due);
+                pending.put(id, due);
+            }
+            now += random.nextInt(50) == 0 ? random.nextInt(5_000_000) : random.nextInt(1_000);
+            long nowTick = now / TICK;
+
+            List<Long> expired = new ArrayList<>();
+            wheel.advance(now, expired::add);
+            for (long expiredId : expired) {
+                assertThat(pending.remove(expiredId) / TICK).isLessThanOrEqualTo(nowTick);
+            }
+            assertThat(pending.values()).allMatch(due -> due / TICK > nowTick);
+        }
+        assertThat(wheel.size()).isEqualTo(pending.size());
+
+        wheel.advance(now + 50 * 86_400_000L, pending::remove);
+        assertThat(pending).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void testOverdueEntryExpiresOnNextAdvanceWithoutTimePassing() {
+        HierarchicalTimerWheel wheel = new HierarchicalTimerWheel(TICK, START);
+        wheel.advance(START + 1_000, id -> { });
+
+        wheel.schedule(1, START);
+        wheel.schedule(2, START + 1_000);
+        wheel.schedule(3, START + 1_100);
+
+        List<Long> expired = new ArrayList<>();
+        assertThat(wheel.advance(START + 1_000, expired::add)).isEqualTo(2);
+        assertThat(expired).containsExactly(1L, 2L);
+        assertThat(wheel.advance(START + 1_100, expired::add)).isEqualTo(1);
+        assertThat(expired).containsExactly(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,172 @@
+package com.prueba.cuenta.service.standing;
+
+import com.prueba.cuenta.dto.MovementCommandDTO;
+import com.prueba.cuenta.dto.StandingOrderDueDTO;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.entity.StandingOrder;
+import com.prueba.cuenta.entity.StandingOrderFrequency;
+import com.prueba.cuenta.repository.MovementRepository;
+import com.prueba.cuenta.repository.StandingOrderRepository;
+import com.prueba.cuenta.service.MovementService;
+import com.prueba.cuenta.service.transfer.TransferService;
+import com.prueba.cuenta.utils.ApiResponseClient;
+import com.prueba.cuenta.utils.ResponseProcess;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StandingOrderSchedulerTest {
+
+    // Por delante del reloj real, con el que arranca la rueda, para que los reintentos no salgan antes de tiempo
+    private static final Instant NOW = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+
+    private final List<String> executionKeys = new ArrayList<>();
+
+    private StandingOrderRepository standingOrderRepository;
+    private MovementRepository movementRepository;
+    private MovementService movementService;
+    private StandingOrder order;
+    private StandingOrderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        order = new StandingOrder();
+        order.setId(7L);
+        order.setNumeroCuenta(478758);
+        order.setValor(new BigDecimal("50.00"));
+        order.setFrecuencia(StandingOrderFrequency.DIARIA);
+        order.setActiva(true);
+
+        standingOrderRepository = mock(StandingOrderRepository.class);
+        movementRepository = mock(MovementRepository.class);
+        movementService = mock(MovementService.class);
+        when(standingOrderRepository.findDue(any(Instant.class), anyLong(), any(Instant.class), any(Limit.class)))
+                .thenAnswer(invocation -> List.of(new StandingOrderDueDTO(order.getId(), order.getProximaEjecucion())));
+        when(standingOrderRepository.findAllById(any())).thenAnswer(invocation -> List.of(order));
+        // La base simulada aplica el avance condicionado a la secuencia sobre la orden
+        when(standingOrderRepository.advance(anyLong(), anyLong(), any(Instant.class), anyBoolean(), any()))
+                .thenAnswer(invocation -> {
+                    order.setSecuencia(order.getSecuencia() + 1);
+                    order.setProximaEjecucion(invocation.getArgument(2));
+                    order.setActiva(invocation.getArgument(3));
+                    order.setFallos(0);
+                    order.setUltimoError(invocation.getArgument(4));
+                    return 1;
+                });
+        when(movementRepository.findExistingIds(anyCollection())).thenReturn(List.of());
+        succeedMovements();
+
+        scheduler = new StandingOrderScheduler(standingOrderRepository, movementRepository, movementService,
+                mock(TransferService.class), mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 2, 100);
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "windowMillis", 300_000L);
+        ReflectionTestUtils.setField(scheduler, "pageSize", 100);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 10);
+        ReflectionTestUtils.setField(scheduler, "maxRetries", 2);
+        ReflectionTestUtils.setField(scheduler, "retryMillis", 1_000L);
+        at(NOW);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testMissedExecutionsAreCaughtUpInOrder() {
+        // Tres ejecuciones diarias perdidas mientras el proceso estaba detenido
+        startAt(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).minusDays(2).minusHours(1));
+
+        assertThat(scheduler.loadWindow()).isEqualTo(1);
+        for (int run = 0; run < 4; run++) {
+            scheduler.runDue();
+        }
+
+        assertThat(executionKeys).containsExactly("OP-7-0", "OP-7-1", "OP-7-2");
+        ArgumentCaptor<MovementCommandDTO> commands = ArgumentCaptor.forClass(MovementCommandDTO.class);
+        verify(movementService, times(3)).createMovement(commands.capture());
+        assertThat(commands.getAllValues()).extracting(MovementCommandDTO::getFecha)
+                .containsExactly(order.getPrimeraEjecucion().toLocalDate(), order.getPrimeraEjecucion().toLocalDate().plusDays(1),
+                        order.getPrimeraEjecucion().toLocalDate().plusDays(2));
+        assertThat(order.getSecuencia()).isEqualTo(3);
+        assertThat(order.getProximaEjecucion()).isAfter(NOW);
+    }
+
+    @Test
+    void testAlreadyAppliedExecutionIsNotRepeated() {
+        startAt(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).minusMinutes(5));
+        // El movimiento se confirmó pero el proceso se detuvo antes de avanzar la orden
+        when(movementRepository.findExistingIds(anyCollection())).thenReturn(List.of("OP-7-0"));
+
+        scheduler.loadWindow();
+        assertThat(scheduler.runDue()).isEqualTo(1);
+
+        verify(movementService, never()).createMovement(any(MovementCommandDTO.class));
+        verify(standingOrderRepository).advance(eq(7L), eq(0L), eq(NOW.minusSeconds(300).plus(1, ChronoUnit.DAYS)), eq(true), isNull());
+    }
+
+    @Test
+    void testRejectedExecutionIsRetriedThenSkipped() {
+        startAt(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).minusMinutes(5));
+        when(movementService.createMovement(any(MovementCommandDTO.class))).thenAnswer(invocation -> {
+            executionKeys.add(MDC.get("uuid"));
+            return Mono.just(new ApiResponseClient<Movement>(null, new ResponseProcess("1", "Saldo no disponible", "ERROR")));
+        });
+        when(standingOrderRepository.recordFailure(7L, 0L, "Saldo no disponible")).thenAnswer(invocation -> {
+            order.setFallos(order.getFallos() + 1);
+            return 1;
+        });
+
+        scheduler.loadWindow();
+        scheduler.runDue();
+        verify(standingOrderRepository).recordFailure(7L, 0L, "Saldo no disponible");
+        verify(standingOrderRepository, never()).advance(anyLong(), anyLong(), any(Instant.class), anyBoolean(), any());
+
+        // El reintento sale después de la espera y, al agotar los intentos, se omite la ejecución
+        at(NOW.plusMillis(999));
+        assertThat(scheduler.runDue()).isZero();
+        at(NOW.plusMillis(1_000));
+        scheduler.runDue();
+
+        assertThat(executionKeys).containsExactly("OP-7-0", "OP-7-0");
+        verify(standingOrderRepository).advance(eq(7L), eq(0L), any(Instant.class), eq(true), eq("Saldo no disponible"));
+        assertThat(order.getSecuencia()).isEqualTo(1);
+        assertThat(order.getUltimoError()).isEqualTo("Saldo no disponible");
+    }
+
+    private void startAt(LocalDateTime primeraEjecucion) {
+        order.setPrimeraEjecucion(primeraEjecucion);
+        order.setProximaEjecucion(scheduler.executionTime(order, 0));
+    }
+
+    private void succeedMovements() {
+        when(movementService.createMovement(any(MovementCommandDTO.class))).thenAnswer(invocation -> {
+            executionKeys.add(MDC.get("uuid"));
+            return Mono.just(new ApiResponseClient<>(new Movement(), new ResponseProcess("0", "Movimiento creado correctamente", "OK")));
+        });
+    }
+
+    private void at(Instant instant) {
+        ReflectionTestUtils.setField(scheduler, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,57 @@
+package com.prueba.cuenta.service.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.restore(null);
+    }
+
+    @Test
+    void testPhasesAreAccumulatedOnceIntoServerTimingHeader() {
+        RequestTiming timing = new RequestTiming("corr-1", true);
+        RequestTiming.PhaseTimer first = timing.start(TimingPhase.REPOSITORIO, "AccountRepository.findById");
+        first.stop();
+        first.stop();
+        timing.start(TimingPhase.REPOSITORIO, "MovementRepository.save").stop();
+
+        assertThat(timing.getCount(TimingPhase.REPOSITORIO)).isEqualTo(2);
+        assertThat(timing.getCount(TimingPhase.CLIENTE)).isZero();
+        assertThat(timing.serverTimingHeader())
+                .matches("repositorio;dur=\\d+\\.\\d{2};desc=\"2\", total;dur=\\d+\\.\\d{2}");
+    }
+
+    @Test
+    void testMonoPhaseIsTimedAndBindsRequestOnContinuationThread() {
+        RequestTiming timing = new RequestTiming("corr-2", false);
+        RequestTiming.bind(timing);
+        Mono<RequestTiming> continuation = RequestTiming.time(TimingPhase.CLIENTE, "nombreCliente",
+                        Mono.delay(Duration.ofMillis(20), Schedulers.parallel()).thenReturn("Jose Lema"))
+                .map(name -> RequestTiming.current());
+        RequestTiming.restore(null);
+
+        StepVerifier.create(continuation)
+                .assertNext(current -> assertThat(current).isSameAs(timing))
+                .verifyComplete();
+        assertThat(timing.getCount(TimingPhase.CLIENTE)).isEqualTo(1);
+        assertThat(timing.getNanos(TimingPhase.CLIENTE)).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(RequestTiming.current()).isNull();
+    }
+
+    @Test
+    void testUnsampledRequestsAreNotWrapped() {
+        Mono<String> source = Mono.just("sin medir");
+
+        assertThat(RequestTiming.time(TimingPhase.CLIENTE, "nombreCliente", source)).isSameAs(source);
+    }
+}
@@ -0,0 +1,136 @@
+package com.prueba.cuenta.service.transfer;
+
+import com.prueba.cuenta.dto.TransferDTO;
+import com.prueba.cuenta.entity.Account;
+import com.prueba.cuenta.entity.AccountType;
+import com.prueba.cuenta.entity.Movement;
+import com.prueba.cuenta.repository.AccountRepository;
+import com.prueba.cuenta.service.BalanceCheckpointService;
+import com.prueba.cuenta.service.MovementListener;
+import com.prueba.cuenta.service.MovementListeners;
+import com.prueba.cuenta.service.journal.MovementJournalService;
+import com.prueba.cuenta.service.limit.WithdrawalLimitService;
+import com.prueba.cuenta.service.outbox.OutboxService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class TransferServiceTest {
+
+    private AccountRepository accountRepository;
+    private MovementJournalService movementJournalService;
+    private WithdrawalLimitService withdrawalLimitService;
+    private MovementListener listener;
+    private OutboxService outboxService;
+    private EntityManager entityManager;
+    private TransferService service;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        movementJournalService = mock(MovementJournalService.class);
+        withdrawalLimitService = mock(WithdrawalLimitService.class);
+        listener = mock(MovementListener.class);
+        outboxService = mock(OutboxService.class);
+        entityManager = mock(EntityManager.class);
+        service = new TransferService(accountRepository, movementJournalService, withdrawalLimitService,
+                new MovementListeners(List.of(listener)), outboxService, mock(BalanceCheckpointService.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        MDC.put("uuid", "tr-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.remove("uuid");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferWritesLinkedPairAndLocksAccountsInOrder() {
+        Account source = account(200, "100.00");
+        Account target = account(100, "5.00");
+        when(accountRepository.findAllForUpdate(anyCollection())).thenReturn(List.of(target, source));
+
+        StepVerifier.create(service.transfer(new TransferDTO("2024-05-10", new BigDecimal("40.00"), 200, 100)))
+                .assertNext(response -> {
+                    assertThat(response.getResponseProcess().getCode()).isEqualTo("0");
+                    List<Movement> pair = response.getDetails();
+                    assertThat(pair).extracting(Movement::getId).containsExactly("tr-1-O", "tr-1-D");
+                    assertThat(pair).extracting(Movement::getTransferenciaId).containsOnly("tr-1");
+                    assertThat(pair.get(0).getValor()).isEqualByComparingTo("-40.00");
+                    assertThat(pair.get(0).getSaldo()).isEqualByComparingTo("60.00");
+                    assertThat(pair.get(1).getSaldo()).isEqualByComparingTo("45.00");
+                })
+                .verifyComplete();
+
+        // Origen 200 y destino 100: se bloquean igual 100 y luego 200
+        ArgumentCaptor<Collection<Integer>> locked = ArgumentCaptor.forClass(Collection.class);
+        verify(accountRepository).findAllForUpdate(locked.capture());
+        assertThat(locked.getValue()).containsExactly(100, 200);
+        assertThat(source.getSaldo()).isEqualByComparingTo("60.00");
+        assertThat(target.getSaldo()).isEqualByComparingTo("45.00");
+        verify(entityManager, times(2)).persist(any(Movement.class));
+        verify(withdrawalLimitService).reserve(eq("tr-1-O"), eq(source), any(), eq(new BigDecimal("-40.00")));
+        verify(listener, times(2)).onMovementCreated(any(Movement.class));
+        verify(outboxService, times(2)).movementCreated(any(Movement.class));
+    }
+
+    @Test
+    void testInsufficientBalanceLeavesBothAccountsUntouched() {
+        Account source = account(1, "10.00");
+        Account target = account(2, "0.00");
+        when(accountRepository.findAllForUpdate(anyCollection())).thenReturn(List.of(source, target));
+
+        StepVerifier.create(service.transfer(new TransferDTO("2024-05-10", new BigDecimal("10.01"), 1, 2)))
+                .assertNext(response -> {
+                    assertThat(response.getResponseProcess().getCode()).isEqualTo("1");
+                    assertThat(response.getResponseProcess().getResultMessage()).isEqualTo("Saldo no disponible");
+                })
+                .verifyComplete();
+
+        assertThat(source.getSaldo()).isEqualByComparingTo("10.00");
+        assertThat(target.getSaldo()).isEqualByComparingTo("0.00");
+        verify(entityManager, never()).persist(any());
+        verify(listener, never()).onMovementCreated(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testTransferToSameAccountOrWithJournalIsRejected() {
+        StepVerifier.create(service.transfer(new TransferDTO("2024-05-10", BigDecimal.ONE, 7, 7)))
+                .assertNext(response -> assertThat(response.getResponseProcess().getResultMessage())
+                        .isEqualTo("La cuenta de origen y la de destino deben ser distintas"))
+                .verifyComplete();
+
+        when(movementJournalService.isEnabled()).thenReturn(true);
+        StepVerifier.create(service.transfer(new TransferDTO("2024-05-10", BigDecimal.ONE, 7, 8)))
+                .assertNext(response -> assertThat(response.getResponseProcess().getCode()).isEqualTo("1"))
+                .verifyComplete();
+
+        verifyNoInteractions(accountRepository);
+    }
+
+    private Account account(int numeroCuenta, String saldo) {
+        Account account = new Account();
+        account.setNumeroCuenta(numeroCuenta);
+        account.setTipoCuenta(AccountType.AHORROS);
+        account.setSaldo(new BigDecimal(saldo));
+        account.setStatus(true);
+        return account;
+    }
+}
@@ -0,0 +1,53 @@
+package com.prueba.cuenta.service.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessProfileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSavedProfileIsReloadedWithHalvedCounts() throws Exception {
+        Path file = directory.resolve("perfil.txt");
+        AccessProfile profile = new AccessProfile(true, file.toString(), 2);
+        for (int i = 0; i < 10; i++) {
+            profile.record(7);
+        }
+        for (int i = 0; i < 4; i++) {
+            profile.record("9");
+        }
+        profile.record(8);
+        profile.record("no-es-cuenta");
+
+        profile.save();
+
+        // Solo se guardan las dos más accedidas
+        assertThat(Files.readAllLines(file)).containsExactly("7 10", "9 4");
+
+        AccessProfile restarted = new AccessProfile(true, file.toString(), 2);
+        for (int i = 0; i < 4; i++) {
+            restarted.record(9);
+        }
+        // 9 suma 2 del perfil anterior y 4 nuevas; 7 conserva 5
+        assertThat(restarted.topAccounts(5)).containsExactly(9, 7);
+    }
+
+    @Test
+    void testDisabledProfileRecordsNothing() {
+        Path file = directory.resolve("perfil.txt");
+        AccessProfile profile = new AccessProfile(false, file.toString(), 10);
+        profile.record(7);
+
+        profile.save();
+
+        assertThat(profile.topAccounts(10)).isEmpty();
+        assertThat(file).doesNotExist();
+    }
+}